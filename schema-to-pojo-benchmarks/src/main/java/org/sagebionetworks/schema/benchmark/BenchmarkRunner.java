@@ -0,0 +1,30 @@
+package org.sagebionetworks.schema.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler so each result includes the bytes
+ * allocated per operation (gc.alloc.rate.norm). Any of the standard JMH
+ * command line options can be passed, for example to run a single benchmark
+ * with a single payload:
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar MarshalingBenchmark.roundTrip -p payload=ALL_TYPES
+ * </pre>
+ *
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+		if (commandLine.getIncludes().isEmpty()) {
+			options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+		}
+		new Runner(options.build()).run();
+	}
+}
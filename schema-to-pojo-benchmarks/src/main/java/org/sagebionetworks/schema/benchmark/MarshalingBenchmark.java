@@ -0,0 +1,87 @@
+package org.sagebionetworks.schema.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sagebionetworks.schema.adapter.JSONEntity;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
+import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
+
+/**
+ * Throughput of reading and writing generated POJOs, both directly through a
+ * JSONObjectAdapter and through the EntityFactory.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarshalingBenchmark {
+
+	@Param
+	Payload payload;
+
+	@Param({ "1", "100", "10000" })
+	int size;
+
+	JSONEntity entity;
+	Class<? extends JSONEntity> clazz;
+	String json;
+	JSONObjectAdapter adapter;
+
+	@Setup
+	public void setup() throws JSONObjectAdapterException {
+		entity = payload.create(size);
+		clazz = entity.getClass();
+		json = EntityFactory.createJSONStringForEntity(entity);
+		adapter = new JSONObjectAdapterImpl(json);
+	}
+
+	@Benchmark
+	public JSONEntity initializeFromJSONObject() throws Exception {
+		JSONEntity copy = clazz.newInstance();
+		copy.initializeFromJSONObject(adapter);
+		return copy;
+	}
+
+	@Benchmark
+	public JSONObjectAdapter writeToJSONObject() throws JSONObjectAdapterException {
+		return entity.writeToJSONObject(new JSONObjectAdapterImpl());
+	}
+
+	@Benchmark
+	public String createJSONStringForEntity() throws JSONObjectAdapterException {
+		return EntityFactory.createJSONStringForEntity(entity);
+	}
+
+	@Benchmark
+	public JSONEntity createEntityFromJSONString() throws JSONObjectAdapterException {
+		return EntityFactory.createEntityFromJSONString(json, clazz);
+	}
+
+	@Benchmark
+	public JSONEntity roundTrip() throws JSONObjectAdapterException {
+		return EntityFactory.createEntityFromJSONString(EntityFactory.createJSONStringForEntity(entity), clazz);
+	}
+
+	@Benchmark
+	public StringBuilder writeEntity() throws JSONObjectAdapterException {
+		StringBuilder builder = new StringBuilder(json.length());
+		EntityFactory.writeEntity(entity, builder);
+		return builder;
+	}
+}
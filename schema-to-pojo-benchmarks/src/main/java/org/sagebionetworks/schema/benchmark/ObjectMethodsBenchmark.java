@@ -0,0 +1,65 @@
+package org.sagebionetworks.schema.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sagebionetworks.schema.adapter.JSONEntity;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
+
+/**
+ * Throughput of the generated hashCode(), equals() and toString() methods.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectMethodsBenchmark {
+
+	@Param
+	Payload payload;
+
+	@Param({ "1", "100", "10000" })
+	int size;
+
+	JSONEntity entity;
+	// an equal entity that shares none of its objects with the first
+	JSONEntity copy;
+
+	@Setup
+	public void setup() throws JSONObjectAdapterException {
+		entity = payload.create(size);
+		copy = EntityFactory.createEntityFromJSONString(EntityFactory.createJSONStringForEntity(entity), entity.getClass());
+		if (!entity.equals(copy)) {
+			throw new IllegalStateException("The copy of " + payload + " is not equal to the original");
+		}
+	}
+
+	@Benchmark
+	public int hashCodeOf() {
+		return entity.hashCode();
+	}
+
+	@Benchmark
+	public boolean equalsCopy() {
+		return entity.equals(copy);
+	}
+
+	@Benchmark
+	public String toStringOf() {
+		return entity.toString();
+	}
+}
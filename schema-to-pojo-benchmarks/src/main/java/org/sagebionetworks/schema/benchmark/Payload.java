@@ -0,0 +1,161 @@
+package org.sagebionetworks.schema.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sagebionetworks.ABImpl;
+import org.sagebionetworks.AllTypes;
+import org.sagebionetworks.InterfaceA;
+import org.sagebionetworks.MapOfStringToInterface;
+import org.sagebionetworks.PetType;
+import org.sagebionetworks.Recursive;
+import org.sagebionetworks.StandaloneEnum;
+import org.sagebionetworks.jstp20.HasListOfInterface;
+import org.sagebionetworks.jstp20.OneImpl;
+import org.sagebionetworks.jstp20.SomeInterface;
+import org.sagebionetworks.jstp20.TwoImpl;
+import org.sagebionetworks.schema.adapter.JSONEntity;
+
+/**
+ * The entities used by the benchmarks. Each is built from one of the
+ * integration test schemas and scaled up by the given size: the number of
+ * elements in each list and map, or the number of children of a recursive
+ * entity.
+ *
+ */
+public enum Payload {
+
+	ALL_TYPES {
+		@Override
+		public JSONEntity create(int size) {
+			AllTypes allTypes = new AllTypes();
+			allTypes.setStringProp("string value");
+			allTypes.setLongProp(123456789L);
+			allTypes.setStringAsDate(new Date(START));
+			allTypes.setLongAsDate(new Date(START + 1));
+			allTypes.setDoubleProp(3.14);
+			allTypes.setBooleanProp(true);
+			List<String> strings = new ArrayList<String>(size);
+			Set<String> stringSet = new HashSet<String>();
+			List<Date> dates = new ArrayList<Date>(size);
+			List<Long> longs = new ArrayList<Long>(size);
+			List<Double> doubles = new ArrayList<Double>(size);
+			List<InterfaceA> interfaces = new ArrayList<InterfaceA>(size);
+			List<StandaloneEnum> enums = new ArrayList<StandaloneEnum>(size);
+			Map<String, Long> stringIntegerMap = new LinkedHashMap<String, Long>();
+			Map<Object, StandaloneEnum> objectEnumMap = new LinkedHashMap<Object, StandaloneEnum>();
+			for (int i = 0; i < size; i++) {
+				strings.add("string " + i);
+				stringSet.add("unique " + i);
+				dates.add(new Date(START + i * 1000L));
+				longs.add((long) i);
+				doubles.add(i / 3.0);
+				interfaces.add(createABImpl(i));
+				StandaloneEnum value = StandaloneEnum.values()[i % StandaloneEnum.values().length];
+				enums.add(value);
+				stringIntegerMap.put("key " + i, (long) i);
+				objectEnumMap.put("object " + i, value);
+			}
+			allTypes.setListOfStrings(strings);
+			allTypes.setSetOfStrings(stringSet);
+			allTypes.setDateList(dates);
+			allTypes.setDateList2(new ArrayList<Date>(dates));
+			allTypes.setLongList(longs);
+			allTypes.setDoubleList(doubles);
+			allTypes.setInterfaceList(interfaces);
+			allTypes.setEnumList(enums);
+			allTypes.setStringIntegerMap(stringIntegerMap);
+			allTypes.setObjectEnumMap(objectEnumMap);
+			Map<PetType, Boolean> enumBooleanMap = new LinkedHashMap<PetType, Boolean>();
+			for (PetType type : PetType.values()) {
+				enumBooleanMap.put(type, type.ordinal() % 2 == 0);
+			}
+			allTypes.setEnumBooleanMap(enumBooleanMap);
+			return allTypes;
+		}
+	},
+
+	RECURSIVE {
+		@Override
+		public JSONEntity create(int size) {
+			Recursive root = new Recursive();
+			root.setName("root");
+			List<Recursive> children = new ArrayList<Recursive>(size);
+			for (int i = 0; i < size; i++) {
+				Recursive child = new Recursive();
+				child.setName("child " + i);
+				Recursive grandChild = new Recursive();
+				grandChild.setName("grand child " + i);
+				child.setRefToSelf(grandChild);
+				children.add(child);
+			}
+			root.setListOfRecursive(children);
+			return root;
+		}
+	},
+
+	MAP_OF_STRING_TO_INTERFACE {
+		@Override
+		public JSONEntity create(int size) {
+			Map<String, InterfaceA> map = new LinkedHashMap<String, InterfaceA>();
+			Map<String, ABImpl> mapConcrete = new LinkedHashMap<String, ABImpl>();
+			for (int i = 0; i < size; i++) {
+				map.put("key " + i, createABImpl(i));
+				mapConcrete.put("key " + i, createABImpl(i));
+			}
+			MapOfStringToInterface entity = new MapOfStringToInterface();
+			entity.setMap(map);
+			entity.setMapConcrete(mapConcrete);
+			return entity;
+		}
+	},
+
+	HAS_LIST_OF_INTERFACE {
+		@Override
+		public JSONEntity create(int size) {
+			List<SomeInterface> list = new ArrayList<SomeInterface>(size);
+			for (int i = 0; i < size; i++) {
+				if (i % 2 == 0) {
+					OneImpl one = new OneImpl();
+					one.setFromInterface("interface " + i);
+					one.setFromOne("one " + i);
+					list.add(one);
+				} else {
+					TwoImpl two = new TwoImpl();
+					two.setFromInterface("interface " + i);
+					two.setFromTwo("two " + i);
+					list.add(two);
+				}
+			}
+			HasListOfInterface entity = new HasListOfInterface();
+			entity.setList(list);
+			return entity;
+		}
+	};
+
+	// 2011-01-01T00:00:00.000Z
+	private static final long START = 1293840000000L;
+
+	/**
+	 * Create a new entity of the given size.
+	 *
+	 * @param size
+	 * @return
+	 */
+	public abstract JSONEntity create(int size);
+
+	private static ABImpl createABImpl(int i) {
+		ABImpl impl = new ABImpl();
+		impl.setFromInterfaceA("from A " + i);
+		impl.setAlsoFromInterfaceA(i * 1.5);
+		impl.setFromInterfaceB("from B " + i);
+		impl.setAlsoFromInterfaceB(new Date(START + i));
+		impl.setFromMe("from me " + i);
+		return impl;
+	}
+}
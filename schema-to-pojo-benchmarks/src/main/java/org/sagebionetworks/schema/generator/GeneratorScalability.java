@@ -0,0 +1,204 @@
+package org.sagebionetworks.schema.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sagebionetworks.schema.ObjectSchema;
+import org.sagebionetworks.schema.generator.handler.schema03.HandlerFactoryImpl03;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JPackage;
+
+/**
+ * Measures how the code generator scales with the number of schemas. For each
+ * corpus size a {@link SyntheticSchemaCorpus} is written to a temporary
+ * directory and then each phase of {@link PojoGeneratorDriver} is timed on its
+ * own, followed by a complete {@link SchemaToPojo#generatePojos} run. Each
+ * phase reports its wall time and the high-water mark of the heap while it
+ * ran.
+ * <p>
+ * These are single long runs rather than JMH benchmarks. Run with a fixed heap
+ * so the results can be compared, for example:
+ * 
+ * <pre>
+ * java -Xmx8g -cp target/benchmarks.jar org.sagebionetworks.schema.generator.GeneratorScalability 1000 5000 10000 50000
+ * </pre>
+ *
+ */
+public class GeneratorScalability {
+
+	static final int[] DEFAULT_FILE_COUNTS = { 1000, 5000, 10000, 50000 };
+
+	private final PrintStream out;
+
+	public GeneratorScalability(PrintStream out) {
+		this.out = out;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int[] counts = DEFAULT_FILE_COUNTS;
+		if (args.length > 0) {
+			counts = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				counts[i] = Integer.parseInt(args[i]);
+			}
+		}
+		GeneratorScalability scalability = new GeneratorScalability(System.out);
+		scalability.printHeader();
+		for (int count : counts) {
+			scalability.run(count);
+		}
+	}
+
+	void printHeader() {
+		out.printf("%8s %-18s %12s %14s%n", "files", "phase", "time (ms)", "peak heap (MB)");
+	}
+
+	/**
+	 * Generate a corpus of the given size and time each phase.
+	 *
+	 * @param fileCount
+	 * @throws Exception
+	 */
+	public void run(int fileCount) throws Exception {
+		File root = Files.createTempDirectory("schema-corpus").toFile();
+		File output = Files.createTempDirectory("schema-output").toFile();
+		try {
+			new SyntheticSchemaCorpus(fileCount).write(root);
+
+			// Each phase of PojoGeneratorDriver.createAllClasses() on its own
+			Phase phase = start();
+			List<ObjectSchema> schemas = SchemaToPojo.loadSchemas(root, null);
+			phase.end(fileCount, "loadSchemas");
+
+			PojoGeneratorDriver driver = new PojoGeneratorDriver(new HandlerFactoryImpl03());
+			JCodeModel codeModel = new JCodeModel();
+			phase = start();
+			schemas = driver.preprocessSchemas(schemas);
+			phase.end(fileCount, "preprocessSchemas");
+
+			phase = start();
+			InstanceFactoryGenerator factoryGenerator = new InstanceFactoryGenerator(codeModel, schemas);
+			for (ObjectSchema schema : schemas) {
+				driver.createPOJO(codeModel, schema, factoryGenerator);
+			}
+			phase.end(fileCount, "createAllClasses");
+
+			phase = start();
+			factoryGenerator.buildFactories();
+			phase.end(fileCount, "buildFactories");
+
+			// Only the generation of the source, the files are not written.
+			phase = start();
+			codeModel.build(new DiscardCodeWriter());
+			phase.end(fileCount, "codeModel.build");
+			schemas = null;
+			codeModel = null;
+
+			// Everything together, including writing the files.
+			PrintStream console = System.out;
+			phase = start();
+			try {
+				// generatePojos reports each file written
+				System.setOut(new PrintStream(new DiscardOutputStream()));
+				SchemaToPojo.generatePojos(root, output, SyntheticSchemaCorpus.PACKAGE + ".Register", new HandlerFactoryImpl03(),
+						new StringBuilder());
+			} finally {
+				System.setOut(console);
+			}
+			phase.end(fileCount, "generatePojos");
+		} finally {
+			delete(root);
+			delete(output);
+		}
+	}
+
+	private Phase start() {
+		return new Phase();
+	}
+
+	/**
+	 * The time and heap use of a single phase.
+	 */
+	private class Phase {
+
+		private final List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+		private final long start;
+
+		Phase() {
+			// Start each phase without the garbage of the one before.
+			System.gc();
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+					pool.resetPeakUsage();
+					heapPools.add(pool);
+				}
+			}
+			start = System.nanoTime();
+		}
+
+		void end(int fileCount, String name) {
+			long millis = (System.nanoTime() - start) / 1000000L;
+			long peak = 0;
+			for (MemoryPoolMXBean pool : heapPools) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+			out.printf("%8d %-18s %12d %14d%n", fileCount, name, millis, peak / (1024 * 1024));
+		}
+	}
+
+	private static void delete(File file) throws IOException {
+		if (!file.exists()) {
+			return;
+		}
+		Files.walkFileTree(file.toPath(), new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
+				Files.delete(path);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private static class DiscardOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+
+	private static class DiscardCodeWriter extends CodeWriter {
+
+		@Override
+		public OutputStream openBinary(JPackage pkg, String fileName) {
+			return new DiscardOutputStream();
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
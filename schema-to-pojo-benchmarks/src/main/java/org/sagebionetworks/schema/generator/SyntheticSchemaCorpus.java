@@ -0,0 +1,181 @@
+package org.sagebionetworks.schema.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes a tree of synthetic schema files shaped like a large real world
+ * corpus:
+ * <ul>
+ * <li>Interfaces in chains where each interface implements the one before
+ * it.</li>
+ * <li>Classes in chains where each class extends the one before it.</li>
+ * <li>The other classes each implement one of the interfaces so each
+ * interface has hundreds of implementations.</li>
+ * <li>Every class has a property and a list of another interface, so the
+ * generated marshaling needs the instance factories.</li>
+ * <li>Some classes are recursive through $recursiveRef. These do not extend
+ * or implement anything.</li>
+ * </ul>
+ *
+ */
+public class SyntheticSchemaCorpus {
+
+	public static final String PACKAGE = "org.sagebionetworks.synthetic";
+
+	/**
+	 * The length of each extends and implements chain.
+	 */
+	static final int CHAIN_LENGTH = 8;
+	/**
+	 * The number of classes for each interface.
+	 */
+	static final int IMPLEMENTATIONS_PER_INTERFACE = 200;
+	/**
+	 * One in this many classes is recursive.
+	 */
+	static final int RECURSIVE_EVERY = 20;
+	/**
+	 * The number of files in each package.
+	 */
+	static final int FILES_PER_PACKAGE = 500;
+
+	private final int fileCount;
+	private final int interfaceCount;
+
+	/**
+	 * @param fileCount
+	 *            The total number of schema files.
+	 */
+	public SyntheticSchemaCorpus(int fileCount) {
+		if (fileCount < 2 * CHAIN_LENGTH) throw new IllegalArgumentException("At least " + 2 * CHAIN_LENGTH + " files are needed");
+		this.fileCount = fileCount;
+		int interfaces = Math.max(CHAIN_LENGTH, fileCount / IMPLEMENTATIONS_PER_INTERFACE);
+		this.interfaceCount = interfaces - interfaces % CHAIN_LENGTH;
+	}
+
+	public int getFileCount() {
+		return fileCount;
+	}
+
+	public int getInterfaceCount() {
+		return interfaceCount;
+	}
+
+	/**
+	 * Write all of the schema files under the given directory.
+	 *
+	 * @param root
+	 * @throws IOException
+	 */
+	public void write(File root) throws IOException {
+		for (int i = 0; i < interfaceCount; i++) {
+			write(root, i, interfaceName(i), createInterface(i));
+		}
+		for (int i = 0; i < fileCount - interfaceCount; i++) {
+			write(root, interfaceCount + i, className(i), createClass(i));
+		}
+	}
+
+	private void write(File root, int fileIndex, String name, String json) throws IOException {
+		File directory = new File(root, packageOf(fileIndex).replace('.', File.separatorChar));
+		directory.mkdirs();
+		try (Writer writer = new OutputStreamWriter(Files.newOutputStream(new File(directory, name + ".json").toPath()),
+				StandardCharsets.UTF_8)) {
+			writer.write(json);
+		}
+	}
+
+	private String createInterface(int i) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("{\"type\":\"interface\",");
+		if (i % CHAIN_LENGTH != 0) {
+			builder.append("\"implements\":[{\"$ref\":\"").append(interfaceId(i - 1)).append("\"}],");
+		}
+		builder.append("\"properties\":{");
+		if (i % CHAIN_LENGTH == 0) {
+			builder.append("\"concreteType\":{\"type\":\"string\"},");
+		}
+		builder.append("\"fromInterface").append(i).append("\":{\"type\":\"string\",\"title\":\"Defined in interface ").append(i)
+				.append("\"}}}");
+		return builder.toString();
+	}
+
+	private String createClass(int i) {
+		if (isRecursive(i)) {
+			return createRecursiveClass(i);
+		}
+		String other = interfaceId((i + 1) % interfaceCount);
+		StringBuilder builder = new StringBuilder();
+		builder.append("{\"type\":\"object\",");
+		int parent = parentOf(i);
+		if (parent >= 0) {
+			builder.append("\"extends\":{\"$ref\":\"").append(classId(parent)).append("\"},");
+		} else {
+			builder.append("\"implements\":[{\"$ref\":\"").append(interfaceId(i / CHAIN_LENGTH % interfaceCount)).append("\"}],");
+		}
+		builder.append("\"properties\":{");
+		builder.append("\"name").append(i).append("\":{\"type\":\"string\"},");
+		builder.append("\"count").append(i).append("\":{\"type\":\"integer\"},");
+		builder.append("\"created").append(i).append("\":{\"type\":\"string\",\"format\":\"date-time\"},");
+		builder.append("\"single").append(i).append("\":{\"$ref\":\"").append(other).append("\"},");
+		builder.append("\"list").append(i).append("\":{\"type\":\"array\",\"items\":{\"$ref\":\"").append(other).append("\"}},");
+		builder.append("\"map").append(i)
+				.append("\":{\"type\":\"tuplearraymap\",\"key\":{\"type\":\"string\"},\"value\":{\"type\":\"integer\"}}");
+		builder.append("}}");
+		return builder.toString();
+	}
+
+	private String createRecursiveClass(int i) {
+		StringBuilder builder = new StringBuilder();
+		// The copies made for each $recursiveRef do not resolve the references of
+		// an implements, so recursive classes stand alone.
+		builder.append("{\"type\":\"object\",\"$recursiveAnchor\":true,");
+		builder.append("\"properties\":{");
+		builder.append("\"name\":{\"type\":\"string\"},");
+		builder.append("\"next\":{\"$recursiveRef\":\"#\"},");
+		builder.append("\"children\":{\"type\":\"array\",\"items\":{\"$recursiveRef\":\"#\"}}");
+		builder.append("}}");
+		return builder.toString();
+	}
+
+	/**
+	 * The class extended by the given class or -1.
+	 */
+	int parentOf(int i) {
+		if (i % CHAIN_LENGTH == 0) {
+			return -1;
+		}
+		int parent = i - 1;
+		// recursive classes are never extended
+		return isRecursive(parent) ? -1 : parent;
+	}
+
+	static boolean isRecursive(int i) {
+		return i % RECURSIVE_EVERY == RECURSIVE_EVERY - 1;
+	}
+
+	private static String packageOf(int fileIndex) {
+		return PACKAGE + ".p" + fileIndex / FILES_PER_PACKAGE;
+	}
+
+	private static String interfaceName(int i) {
+		return "Interface" + i;
+	}
+
+	private static String className(int i) {
+		return "Class" + i;
+	}
+
+	String interfaceId(int i) {
+		return packageOf(i) + "." + interfaceName(i);
+	}
+
+	String classId(int i) {
+		return packageOf(interfaceCount + i) + "." + className(i);
+	}
+}
@@ -65,13 +65,10 @@ public class EffectiveSchemaUtil {
 			ref.set$recursiveRef(ObjectSchemaImpl.SELF_REFERENCE);
 			return ref;
 		}
-		// First make a copy of the schema
-		JSONObjectAdapter adapter = schema.writeToJSONObject(new JSONObjectAdapterImpl());
-		adapter = new JSONObjectAdapterImpl(adapter.toJSONString());
-		ObjectSchema copy = new ObjectSchemaImpl(adapter);
-		// Clear the extends and and implements
-		copy.setExtends(null);
-		copy.setImplements(null);
+		// Copy this level only, without the extends and implements. The
+		// properties, items and value are copied by the recursion below, so
+		// each sub-schema is only copied once.
+		ObjectSchema copy = ObjectSchemaImpl.createShallowCopy(schema);
 
 		//flatten out the properties for the current schema
 		LinkedHashMap<String, ObjectSchema> flattenedProperties = (LinkedHashMap<String, ObjectSchema>) schema.getObjectFieldMap();
@@ -86,13 +83,13 @@ public class EffectiveSchemaUtil {
 		}
 
 		//flatten objectSchema for ARRAY types
-		if(copy.getItems() != null){
-			copy.setItems(generateEffectiveSchema(copy.getItems()));
+		if(schema.getItems() != null){
+			copy.setItems(generateEffectiveSchema(schema.getItems()));
 		}
 
 		//flatten objectSchema for MAP types
-		if(copy.getValue() != null){
-			copy.setValue(generateEffectiveSchema(copy.getValue()));
+		if(schema.getValue() != null){
+			copy.setValue(generateEffectiveSchema(schema.getValue()));
 		}
 		// Add any properties from the extends.
 		return copy;
@@ -3,9 +3,10 @@ package org.sagebionetworks.schema.generator;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileFilter;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -59,7 +60,8 @@ public class FileUtils {
 	}
 
 	/**
-	 * Read a file into a string.
+	 * Read a UTF-8 file into a string. The file is read in a single call and
+	 * decoded as a whole, so multi-byte characters are never split.
 	 * 
 	 * @param toLoad
 	 * @return
@@ -68,8 +70,7 @@ public class FileUtils {
 	public static String readToString(File toLoad) throws IOException {
 		if (toLoad == null)
 			throw new IllegalArgumentException("File cannot be null");
-		InputStream in = new FileInputStream(toLoad);
-		return readToString(in);
+		return new String(Files.readAllBytes(toLoad.toPath()), StandardCharsets.UTF_8);
 	}
 
 	/**
@@ -0,0 +1,79 @@
+package org.sagebionetworks.schema.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JPackage;
+
+/**
+ * Only passes the files of the given classes to the wrapped CodeWriter. The
+ * files of all other classes are discarded.
+ *
+ */
+public class FilterCodeWriter extends CodeWriter {
+
+	private static final String JAVA_SUFFIX = ".java";
+
+	private final CodeWriter delegate;
+	private final Set<String> classNames;
+	private final Map<String, String> written = new TreeMap<String, String>();
+
+	/**
+	 * @param delegate
+	 * @param classNames The full names of the classes to write.
+	 */
+	public FilterCodeWriter(CodeWriter delegate, Set<String> classNames) {
+		if(delegate == null) throw new IllegalArgumentException("Delegate cannot be null");
+		if(classNames == null) throw new IllegalArgumentException("Class names cannot be null");
+		this.delegate = delegate;
+		this.classNames = classNames;
+	}
+
+	@Override
+	public OutputStream openBinary(JPackage pkg, String fileName) throws IOException {
+		String className = fileName.endsWith(JAVA_SUFFIX) ? fileName.substring(0, fileName.length() - JAVA_SUFFIX.length()) : fileName;
+		if(!pkg.isUnnamed()){
+			className = pkg.name() + "." + className;
+		}
+		if(!classNames.contains(className)){
+			return new OutputStream() {
+				@Override
+				public void write(int b) {
+				}
+			};
+		}
+		written.put(className, getRelativePath(pkg, fileName));
+		return delegate.openBinary(pkg, fileName);
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+	}
+
+	/**
+	 * The file of each class that was written, relative to the output
+	 * directory.
+	 * @return
+	 */
+	public Map<String, String> getWritten() {
+		return written;
+	}
+
+	/**
+	 * The path of a file relative to the output directory, always using '/'.
+	 * @param pkg
+	 * @param fileName
+	 * @return
+	 */
+	public static String getRelativePath(JPackage pkg, String fileName) {
+		if(pkg.isUnnamed()){
+			return fileName;
+		}
+		return pkg.name().replace('.', '/') + "/" + fileName;
+	}
+}
@@ -12,8 +12,6 @@ import org.sagebionetworks.schema.JavaKeyword;
 import org.sagebionetworks.schema.ObjectSchema;
 import org.sagebionetworks.schema.ObjectSchemaImpl;
 import org.sagebionetworks.schema.TYPE;
-import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
-import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
 import org.sagebionetworks.schema.generator.handler.HandlerFactory;
 
 import com.sun.codemodel.JCodeModel;
@@ -89,13 +87,17 @@ public class PojoGeneratorDriver {
 		addProperties(codeModel, schema, classType);
 
 		if(TYPE.INTERFACE != schema.getType()){
+			// Add the validation before the marshaling that calls it
+			factory.getValidationHandler().addValidation(schema, classType);
+			// Add hash and equals before the marshaling that resets a cached hash code
+			factory.getHashAndEqualsHandler().addHashAndEquals(schema, classType);
 			// Add the JSON marshaling
 			factory.getJSONMArshalingHandler().addJSONMarshaling(schema, classType, ifg);
-			// Add hash and equals
-			factory.getHashAndEqualsHandler().addHashAndEquals(schema, classType);
 			//add the toString
 			factory.getToStringHandler().addToStringMethod(schema, classType);
 		}
+		// Add the deep copy to classes and interfaces
+		factory.getDeepCopyHandler().addDeepCopy(schema, classType);
 
 		return classType;
 	}
@@ -341,17 +343,10 @@ public class PojoGeneratorDriver {
 	 * @return
 	 */
 	protected static ObjectSchema createRecurisveInstanceCopy(ObjectSchema originalSchema) {
-		try {
-			// copy the original schema and mark the copy as a recursive reference.
-			JSONObjectAdapterImpl adapter = new JSONObjectAdapterImpl();
-			originalSchema.writeToJSONObject(adapter);
-			ObjectSchema copy = new ObjectSchemaImpl();
-			copy.initializeFromJSONObject(adapter);
-			copy.setIs$RecursiveRefInstance(true);
-			return copy;
-		} catch (JSONObjectAdapterException e) {
-			throw new RuntimeException(e);
-		}
+		// copy the original schema and mark the copy as a recursive reference.
+		ObjectSchema copy = ObjectSchemaImpl.createDeepCopy(originalSchema);
+		copy.setIs$RecursiveRefInstance(true);
+		return copy;
 	}
 
 }
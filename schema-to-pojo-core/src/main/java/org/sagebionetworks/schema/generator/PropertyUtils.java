@@ -1,13 +1,45 @@
 package org.sagebionetworks.schema.generator;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
 import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPrimitiveType;
 import org.sagebionetworks.schema.JavaKeyword;
 import org.sagebionetworks.schema.ObjectSchema;
 import org.sagebionetworks.schema.TYPE;
 
 public class PropertyUtils {
 
+	/**
+	 * Prefix of the long fields that hold one presence bit per primitive property field.
+	 */
+	public static final String PRESENCE_FIELD_PREFIX = "__presence";
+
+	/**
+	 * Prefix of the static final Pattern constants compiled from a property's
+	 * 'pattern'.
+	 */
+	public static final String PATTERN_PREFIX = "_PATTERN_";
+
+	/**
+	 * The presence bit index of each primitive property field of a class, by
+	 * field name. Kept as the metadata of the class being built, so it belongs
+	 * to the code model of a single run.
+	 */
+	private static final class PresenceIndices {
+		private final Map<String, Integer> byField = new HashMap<String, Integer>();
+	}
+
 	public static JFieldVar getPropertyReference(JDefinedClass classType, String propName) {
 		String fieldName = JavaKeyword.determineJavaName(propName);
 		JFieldVar field = classType.fields().get(fieldName);
@@ -24,4 +56,234 @@ public class PropertyUtils {
 					+ "' has a null TYPE on class: " + classType.name());
 		return propSchema.getType();
 	}
+
+	/**
+	 * Is the given property stored in a primitive field with a presence bit?
+	 * Such a field cannot hold null so the bit tracks whether or not it has a
+	 * value.
+	 *
+	 * @param classType
+	 * @param field
+	 * @return
+	 */
+	public static boolean hasPresenceBit(JDefinedClass classType, JFieldVar field) {
+		if (!field.type().isPrimitive()) {
+			return false;
+		}
+		PresenceIndices indices = getPresenceIndices(classType);
+		return indices != null && indices.byField.containsKey(field.name());
+	}
+
+	private static PresenceIndices getPresenceIndices(JDefinedClass classType) {
+		return classType.metadata instanceof PresenceIndices ? (PresenceIndices) classType.metadata : null;
+	}
+
+	/**
+	 * Give a primitive property field the next presence bit of its class.
+	 * Called once, when the field is created. The presence field that holds
+	 * the bit is created if this is its first bit.
+	 *
+	 * @param classType
+	 * @param field
+	 * @return The presence field that holds the bit.
+	 */
+	public static JFieldVar addPresenceBit(JDefinedClass classType, JFieldVar field) {
+		if (!field.type().isPrimitive())
+			throw new IllegalArgumentException("Field: '" + field.name() + "' is not a primitive on class: " + classType.name());
+		PresenceIndices indices = getPresenceIndices(classType);
+		if (indices == null) {
+			if (classType.metadata != null)
+				throw new IllegalArgumentException("Class: " + classType.name() + " already has metadata: " + classType.metadata);
+			indices = new PresenceIndices();
+			classType.metadata = indices;
+		}
+		if (indices.byField.containsKey(field.name()))
+			throw new IllegalArgumentException("Field: '" + field.name() + "' already has a presence bit on class: " + classType.name());
+		indices.byField.put(field.name(), indices.byField.size());
+		String name = PRESENCE_FIELD_PREFIX + (getPresenceIndex(classType, field) / Long.SIZE);
+		JFieldVar presence = classType.fields().get(name);
+		if (presence == null) {
+			presence = classType.field(JMod.PRIVATE, classType.owner().LONG, name);
+		}
+		return presence;
+	}
+
+	/**
+	 * Get the presence field that holds the bit of the given primitive
+	 * property field.
+	 *
+	 * @param classType
+	 * @param field
+	 * @return
+	 */
+	public static JFieldVar getPresenceField(JDefinedClass classType, JFieldVar field) {
+		String name = PRESENCE_FIELD_PREFIX + (getPresenceIndex(classType, field) / Long.SIZE);
+		JFieldVar presence = classType.fields().get(name);
+		if (presence == null)
+			throw new IllegalArgumentException("Failed to find the presence field: '" + name + "' on class: " + classType.name());
+		return presence;
+	}
+
+	/**
+	 * The index of the presence bit given to a primitive property field by
+	 * {@link #addPresenceBit(JDefinedClass, JFieldVar)}.
+	 *
+	 * @param classType
+	 * @param field
+	 * @return
+	 */
+	static int getPresenceIndex(JDefinedClass classType, JFieldVar field) {
+		PresenceIndices indices = getPresenceIndices(classType);
+		Integer index = indices == null ? null : indices.byField.get(field.name());
+		if (index == null)
+			throw new IllegalArgumentException("Field: '" + field.name() + "' does not have a presence bit on class: " + classType.name());
+		return index;
+	}
+
+	private static JExpression presenceMask(JDefinedClass classType, JFieldVar field) {
+		return JExpr.lit(1L << (getPresenceIndex(classType, field) % Long.SIZE));
+	}
+
+	/**
+	 * Expression that is true when the property of this object does not have
+	 * a value.
+	 *
+	 * @param classType
+	 * @param field
+	 * @return
+	 */
+	public static JExpression isNull(JDefinedClass classType, JFieldVar field) {
+		return isNull(classType, null, field);
+	}
+
+	/**
+	 * Expression that is true when the property of the given instance does
+	 * not have a value.
+	 *
+	 * @param classType
+	 * @param instance
+	 *            The instance to check or null for this.
+	 * @param field
+	 * @return
+	 */
+	public static JExpression isNull(JDefinedClass classType, JExpression instance, JFieldVar field) {
+		if (hasPresenceBit(classType, field)) {
+			JExpression presence = fieldOf(instance, getPresenceField(classType, field));
+			return JOp.eq(JOp.band(presence, presenceMask(classType, field)), JExpr.lit(0L));
+		}
+		return fieldOf(instance, field).eq(JExpr._null());
+	}
+
+	/**
+	 * Expression that is true when the property of this object has a value.
+	 *
+	 * @param classType
+	 * @param field
+	 * @return
+	 */
+	public static JExpression isNotNull(JDefinedClass classType, JFieldVar field) {
+		if (hasPresenceBit(classType, field)) {
+			JExpression presence = getPresenceField(classType, field);
+			return JOp.ne(JOp.band(presence, presenceMask(classType, field)), JExpr.lit(0L));
+		}
+		return field.ne(JExpr._null());
+	}
+
+	/**
+	 * Assign a non-null value to a property.
+	 *
+	 * @param block
+	 * @param classType
+	 * @param field
+	 * @param value
+	 */
+	public static void assign(JBlock block, JDefinedClass classType, JFieldVar field, JExpression value) {
+		block.assign(field, value);
+		if (hasPresenceBit(classType, field)) {
+			setPresent(block, classType, field);
+		}
+	}
+
+	/**
+	 * Set the presence bit of a primitive property field.
+	 *
+	 * @param block
+	 * @param classType
+	 * @param field
+	 */
+	public static void setPresent(JBlock block, JDefinedClass classType, JFieldVar field) {
+		JFieldVar presence = getPresenceField(classType, field);
+		block.assign(presence, JOp.bor(presence, presenceMask(classType, field)));
+	}
+
+	/**
+	 * Clear the value of a property.
+	 *
+	 * @param block
+	 * @param classType
+	 * @param field
+	 */
+	public static void assignNull(JBlock block, JDefinedClass classType, JFieldVar field) {
+		if (hasPresenceBit(classType, field)) {
+			JFieldVar presence = getPresenceField(classType, field);
+			block.assign(presence, JOp.band(presence, JOp.complement(presenceMask(classType, field))));
+		} else {
+			block.assign(field, JExpr._null());
+		}
+	}
+
+	/**
+	 * Expression for the boxed value of a property, null when the property
+	 * does not have a value.
+	 *
+	 * @param classType
+	 * @param field
+	 * @return
+	 */
+	public static JExpression boxedValue(JDefinedClass classType, JFieldVar field) {
+		if (hasPresenceBit(classType, field)) {
+			JClass boxed = ((JPrimitiveType) field.type()).boxify();
+			return JOp.cond(isNull(classType, field), JExpr._null(), boxed.staticInvoke("valueOf").arg(field));
+		}
+		return field;
+	}
+
+	/**
+	 * Get the static final Pattern constant for a property that declares a
+	 * 'pattern', so generated code compiles the expression once per class
+	 * instead of once per validation. The constant is created the first time
+	 * it is needed.
+	 *
+	 * @param classType
+	 * @param propName
+	 * @param pattern
+	 * @return
+	 */
+	public static JFieldVar getPatternConstant(JDefinedClass classType, String propName, String pattern) {
+		if (pattern == null)
+			throw new IllegalArgumentException("Property: '" + propName + "' does not have a pattern on class: "
+					+ classType.name());
+		String name = PATTERN_PREFIX + propName.toUpperCase();
+		JFieldVar constant = classType.fields().get(name);
+		if (constant != null) {
+			return constant;
+		}
+		try {
+			// Fail the build rather than the static initializer of the generated class.
+			Pattern.compile(pattern);
+		} catch (PatternSyntaxException e) {
+			throw new IllegalArgumentException("Property: '" + propName + "' has an invalid pattern on class: "
+					+ classType.name() + " " + e.getMessage(), e);
+		}
+		JClass patternClass = classType.owner().ref(Pattern.class);
+		return classType.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, patternClass, name,
+				patternClass.staticInvoke("compile").arg(JExpr.lit(pattern)));
+	}
+
+	private static JExpression fieldOf(JExpression instance, JFieldVar field) {
+		if (instance == null) {
+			return field;
+		}
+		return JExpr.ref(instance, field);
+	}
 }
@@ -1,8 +1,9 @@
 package org.sagebionetworks.schema.generator;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -10,8 +11,8 @@ import org.sagebionetworks.schema.ObjectSchema;
 import org.sagebionetworks.schema.TYPE;
 import org.sagebionetworks.schema.adapter.JSONEntity;
 
+import com.sun.codemodel.JArray;
 import com.sun.codemodel.JBlock;
-import com.sun.codemodel.JCase;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassAlreadyExistsException;
 import com.sun.codemodel.JCodeModel;
@@ -20,6 +21,7 @@ import com.sun.codemodel.JDocComment;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JFieldRef;
 import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForLoop;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
@@ -37,6 +39,11 @@ public class RegisterGenerator {
 	
 	public static final String AUTO_GENERATED_MESSAGE = "Note: This class was auto-generated, and should not be directly modified.";
 	
+	/**
+	 * Name of the static array with the full name of each registered class.
+	 */
+	public static final String CLASS_NAMES = "CLASS_NAMES";
+
 	/**
 	 * Create a register for each including each class in the schema list.
 	 * @param codeModel
@@ -53,15 +60,15 @@ public class RegisterGenerator {
 				classList.add(schema);
 			}
 		}
-		// This field is the map
-		JFieldRef mapRef = createMapFieldRef(codeModel, regClass);
-		// Create the constructor.  This will build up the map.
-		createConstructor(codeModel, classList, regClass, mapRef);
+		// The names of all registered classes.
+		JFieldVar classNames = createClassNamesField(codeModel, classList, regClass);
 		
-		// the new instance method
-		createNewInstanceMethod(codeModel, classList, regClass, mapRef, interfaceFullName);
+		// the new instance methods
+		JMethod hash = createHashMethod(codeModel, regClass);
+		JMethod newInstance = createNewInstanceMethod(codeModel, classList, regClass, hash, interfaceFullName);
+		createNewInstanceFromStringMethod(codeModel, regClass, newInstance);
 
-		createKeySetIterator(codeModel, regClass, mapRef);
+		createKeySetIterator(codeModel, regClass, classNames);
 		
 		// Create the singleton
 		createSingleton(codeModel, regClass);
@@ -97,72 +104,120 @@ public class RegisterGenerator {
 	 * Create the keyset iterator.
 	 * @param codeModel
 	 * @param regClass
-	 * @param mapRef
+	 * @param classNames
 	 * @return
 	 */
-	protected static JMethod createKeySetIterator(JCodeModel codeModel, JDefinedClass regClass, JFieldRef mapRef) {
+	protected static JMethod createKeySetIterator(JCodeModel codeModel, JDefinedClass regClass, JFieldVar classNames) {
 		JClass itType = codeModel.ref(Iterator.class).narrow(String.class);
 		JMethod method = regClass.method(JMod.PUBLIC, itType, "getKeySetIterator");
-		method.body()._return(mapRef.invoke("keySet").invoke("iterator"));
+		method.body()._return(codeModel.ref(Arrays.class).staticInvoke("asList").arg(classNames).invoke("iterator"));
 		JDocComment docs = method.javadoc();
 		docs.add("Get the key set iterator.");
 		docs.addReturn();
 		return method;
 	}
-	
+
 	/**
-	 * Create the new instance method.
+	 * Create the hash method. It computes the same value as String.hashCode()
+	 * for any CharSequence, so the case labels of newInstance() can be the
+	 * hash codes of the class names.
 	 * @param codeModel
 	 * @param regClass
-	 * @param mapRef
+	 * @return
+	 */
+	protected static JMethod createHashMethod(JCodeModel codeModel, JDefinedClass regClass) {
+		JMethod method = regClass.method(JMod.PRIVATE | JMod.STATIC, codeModel.INT, "hash");
+		JVar chars = method.param(codeModel.ref(CharSequence.class), "chars");
+		JBlock body = method.body();
+		// Strings cache their hash.
+		body._if(chars._instanceof(codeModel.ref(String.class)))._then()._return(chars.invoke("hashCode"));
+		JVar hash = body.decl(codeModel.INT, "hash", JExpr.lit(0));
+		JForLoop loop = body._for();
+		JVar i = loop.init(codeModel.INT, "i", JExpr.lit(0));
+		loop.test(i.lt(chars.invoke("length")));
+		loop.update(i.incr());
+		loop.body().assign(hash, JExpr.lit(31).mul(hash).plus(chars.invoke("charAt").arg(i)));
+		body._return(hash);
+		return method;
+	}
+
+	/**
+	 * Create the new instance method that takes a CharSequence. It switches
+	 * on the hash of the name and then compares the characters, so it does not
+	 * allocate or box anything.
+	 * @param codeModel
 	 * @param list
+	 * @param regClass
+	 * @param hash
+	 * @param interfaceFullName
 	 * @return
 	 */
-	protected static JMethod createNewInstanceMethod(JCodeModel codeModel, List<ObjectSchema> list, JDefinedClass regClass, JFieldRef mapRef, String interfaceFullName){
+	protected static JMethod createNewInstanceMethod(JCodeModel codeModel, List<ObjectSchema> list, JDefinedClass regClass, JMethod hash, String interfaceFullName){
 		// Create the new instance method
-		JType returnType = null;
-		if(interfaceFullName != null){
-			returnType = getInterfaceClass(codeModel, interfaceFullName);
-		}else{
-			returnType = codeModel.ref(JSONEntity.class);
-		}
-	
+		JType returnType = getReturnType(codeModel, interfaceFullName);
 		JMethod method = regClass.method(JMod.PUBLIC, returnType, "newInstance");
-		JVar parm = method.param(codeModel.ref(String.class), "className");
+		JVar parm = method.param(codeModel.ref(CharSequence.class), "className");
 		JBlock body = method.body();
-		// First lookup the index for the class
-		JInvocation callMapGet = mapRef.invoke("get");
-		callMapGet.arg(parm);
-		JVar intObject = body.decl(codeModel.ref(Integer.class), "intObject", callMapGet);
-		JInvocation newIllegal = JExpr._new(codeModel.ref(IllegalArgumentException.class));
-		newIllegal.arg(JExpr.lit("Cannot create new instance. Unknown class: ").plus(parm));
-		// If the index is null then throw an IllegalArgumentException 
-		body._if(intObject.eq(JExpr._null()))._then()._throw(newIllegal);
-		// Create the index
-		Integer g = new Integer(12);
-		JVar index =body.decl(codeModel.INT, "index", intObject.invoke("intValue"));
-		JSwitch jSwitch = body._switch(index);
-		for(int i=0; i<list.size(); i++){
-			ObjectSchema schema = list.get(i);
-			JCase jCase = jSwitch._case(JExpr.lit(i));
+		// Group the classes by the hash of their names.
+		Map<Integer, List<JDefinedClass>> byHash = new LinkedHashMap<Integer, List<JDefinedClass>>();
+		for(ObjectSchema schema: list){
 			JDefinedClass classToRegister = getJDefinedClassForSchema(codeModel, schema);
-			jCase.body()._return(JExpr._new(classToRegister));
+			Integer key = classToRegister.fullName().hashCode();
+			List<JDefinedClass> classes = byHash.get(key);
+			if(classes == null){
+				classes = new ArrayList<JDefinedClass>();
+				byHash.put(key, classes);
+			}
+			classes.add(classToRegister);
 		}
-		JInvocation newIllegalState = JExpr._new(codeModel.ref(IllegalStateException.class));
-		newIllegalState.arg(JExpr.lit("No match found for index: ").plus(index).plus(JExpr.lit(" for class name: ")).plus(parm));
-		// This should not occur
-		jSwitch._default().body()._throw(newIllegalState);
+		JSwitch jSwitch = body._if(parm.ne(JExpr._null()))._then()._switch(JExpr.invoke(hash).arg(parm));
+		for(Map.Entry<Integer, List<JDefinedClass>> entry: byHash.entrySet()){
+			JBlock caseBody = jSwitch._case(JExpr.lit(entry.getKey())).body();
+			for(JDefinedClass classToRegister: entry.getValue()){
+				caseBody._if(JExpr.lit(classToRegister.fullName()).invoke("contentEquals").arg(parm))
+					._then()._return(JExpr._new(classToRegister));
+			}
+			caseBody._break();
+		}
+		JInvocation newIllegal = JExpr._new(codeModel.ref(IllegalArgumentException.class));
+		newIllegal.arg(JExpr.lit("Cannot create new instance. Unknown class: ").plus(parm));
+		body._throw(newIllegal);
 		
 		JDocComment comment = method.javadoc();
 		comment.add("Create a new instance of an auto-generated concrete class using the full class name.");
+		comment.add("\nThis does not allocate anything but the new instance, so the name can be a view of a parser's buffer.");
 		comment.addParam(parm).add("The full class name of the class to get a new instance of.");
 		comment.addReturn().add("New instance of the given class.");
 		comment.addThrows(IllegalArgumentException.class).add("For unknown class names");
+		return method;
+	}
 
-		
+	/**
+	 * Create the new instance method that takes a String.
+	 * @param codeModel
+	 * @param regClass
+	 * @param newInstance
+	 * @return
+	 */
+	protected static JMethod createNewInstanceFromStringMethod(JCodeModel codeModel, JDefinedClass regClass, JMethod newInstance){
+		JMethod method = regClass.method(JMod.PUBLIC, newInstance.type(), "newInstance");
+		JVar parm = method.param(codeModel.ref(String.class), "className");
+		method.body()._return(JExpr.invoke(newInstance).arg(JExpr.cast(codeModel.ref(CharSequence.class), parm)));
+		JDocComment comment = method.javadoc();
+		comment.add("Create a new instance of an auto-generated concrete class using the full class name.");
+		comment.addParam(parm).add("The full class name of the class to get a new instance of.");
+		comment.addReturn().add("New instance of the given class.");
+		comment.addThrows(IllegalArgumentException.class).add("For unknown class names");
 		return method;
 	}
 	
+	private static JType getReturnType(JCodeModel codeModel, String interfaceFullName){
+		if(interfaceFullName != null){
+			return getInterfaceClass(codeModel, interfaceFullName);
+		}
+		return codeModel.ref(JSONEntity.class);
+	}
+	
 	private static JType getInterfaceClass(JCodeModel codeModel, String fullName){
 		try {
 			return codeModel._class(fullName);
@@ -172,17 +227,18 @@ public class RegisterGenerator {
 	}
 
 	/**
-	 * Create the map field and return the references this.map
+	 * Create the static array with the full name of each registered class.
 	 * @param codeModel
+	 * @param list
 	 * @param regClass
 	 * @return
 	 */
-	protected static JFieldRef createMapFieldRef(JCodeModel codeModel,JDefinedClass regClass) {
-		JClass fieldType = codeModel.ref(Map.class).narrow(codeModel.ref(String.class), codeModel.ref(Integer.class));
-		JFieldVar mapField = regClass.field(JMod.PRIVATE, fieldType, "map");
-		// get the reference to this.map
-		JFieldRef mapRef = JExpr._this().ref(mapField);
-		return mapRef;
+	protected static JFieldVar createClassNamesField(JCodeModel codeModel, List<ObjectSchema> list, JDefinedClass regClass) {
+		JArray names = JExpr.newArray(codeModel.ref(String.class));
+		for(ObjectSchema schema: list){
+			names.add(JExpr.lit(getJDefinedClassForSchema(codeModel, schema).fullName()));
+		}
+		return regClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, codeModel.ref(String.class).array(), CLASS_NAMES, names);
 	}
 	
 	/**
@@ -198,38 +254,6 @@ public class RegisterGenerator {
 		return true;
 	}
 
-	/**
-	 * Creates the constructor.  Will initialize the map and populate it with each schema class.
-	 * @param codeModel
-	 * @param list
-	 * @param regClass
-	 * @return
-	 */
-	protected static JMethod createConstructor(JCodeModel codeModel, List<ObjectSchema> list, JDefinedClass regClass, JFieldRef mapRef) {
-		// Create the Constructor
-		JMethod constructor = regClass.constructor(JMod.PUBLIC);
-		JBlock conBody = constructor.body();
-		// This is the hash map
-		JClass hashMap = codeModel.ref(HashMap.class).narrow(codeModel.ref(String.class), codeModel.ref(Integer.class));
-
-		conBody.assign(mapRef, JExpr._new(hashMap));
-		// Populate it with the values
-		for(int i=0; i<list.size(); i++){
-			ObjectSchema schema = list.get(i);
-			// Add each entry
-			JDefinedClass classToRegister = getJDefinedClassForSchema(codeModel, schema);
-			JFieldRef classDotClass = classToRegister.staticRef("class");
-			
-			JInvocation putInvoke = mapRef.invoke("put");
-			// First arg
-			putInvoke.arg(classDotClass.invoke("getName"));
-			// second arg
-			putInvoke.arg(JExpr.lit(i));
-			conBody.add(putInvoke);
-		}
-		return constructor;
-	}
-	
 	/**
 	 * Creates the singleton.
 	 * @param codeModel
@@ -263,7 +287,11 @@ public class RegisterGenerator {
 	 * 
 	 * @param codeModel
 	 * @param regClass
+	 * @deprecated The generated register no longer holds a map of the
+	 *             registered classes, so it does not use this method. It is
+	 *             kept for callers that generate their own map.
 	 */
+	@Deprecated
 	public static JMethod createClassForName(JCodeModel codeModel, JDefinedClass regClass, JFieldRef mapRef) {
 		JMethod getRegMethod = regClass.method(JMod.PUBLIC, codeModel.ref(Class.class), "forName");
 		JVar param = getRegMethod.param(String.class, "className");
@@ -0,0 +1,365 @@
+package org.sagebionetworks.schema.generator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.sagebionetworks.schema.ObjectSchema;
+import org.sagebionetworks.schema.ObjectSchemaImpl;
+import org.sagebionetworks.schema.TYPE;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
+
+/**
+ * The dependencies between the root schemas loaded from the schema files.
+ * This must be built before the references of the schemas are replaced by the
+ * PojoGeneratorDriver.
+ * <p>
+ * A root schema depends on every schema it references with $ref, including
+ * the schemas it extends or implements. The fingerprint of a root schema
+ * covers its own content and the content of everything it transitively
+ * depends on, so a class is regenerated exactly when something that can
+ * change its code has changed. The instance factory of an interface also
+ * depends on the set of classes that implement the interface.
+ *
+ */
+public class SchemaDependencyGraph {
+
+	private static final String HASH_ALGORITHM = "SHA-256";
+
+	private final List<String> rootIds = new ArrayList<String>();
+	// The id of each identified schema to the id of the root schema that contains it.
+	private final Map<String, String> ownerById = new HashMap<String, String>();
+	private final Map<String, ObjectSchema> schemaById = new HashMap<String, ObjectSchema>();
+	// The schemas defined in each root schema, excluding references.
+	private final Map<String, List<ObjectSchema>> ownedSchemas = new LinkedHashMap<String, List<ObjectSchema>>();
+	private final Map<String, Set<String>> references = new HashMap<String, Set<String>>();
+	private final Map<String, Set<String>> implementers = new HashMap<String, Set<String>>();
+	private final Map<String, String> contentHashes = new HashMap<String, String>();
+
+	/**
+	 * @param roots The schemas loaded from the schema files. Each must have an id.
+	 * @throws JSONObjectAdapterException
+	 */
+	public SchemaDependencyGraph(List<ObjectSchema> roots) throws JSONObjectAdapterException {
+		if(roots == null) throw new IllegalArgumentException("Roots cannot be null");
+		Map<String, Set<String>> refsByRoot = new HashMap<String, Set<String>>();
+		for(ObjectSchema root: roots){
+			String rootId = root.getId();
+			if(rootId == null) throw new IllegalArgumentException("Each root schema must have an id. Schema name: "+root.getName());
+			rootIds.add(rootId);
+			List<ObjectSchema> owned = new ArrayList<ObjectSchema>();
+			Set<String> refs = new TreeSet<String>();
+			walk(rootId, root, owned, refs);
+			ownedSchemas.put(rootId, owned);
+			refsByRoot.put(rootId, refs);
+			contentHashes.put(rootId, hash(root.writeToJSONObject(new JSONObjectAdapterImpl()).toJSONString()));
+		}
+		// Unknown references are reported by the driver.
+		for(String rootId: rootIds){
+			Set<String> dependencies = new TreeSet<String>();
+			for(String ref: refsByRoot.get(rootId)){
+				String owner = ownerById.get(ref);
+				if(owner != null && !owner.equals(rootId)){
+					dependencies.add(owner);
+				}
+			}
+			references.put(rootId, dependencies);
+		}
+		// The instance factory of each interface lists the classes that implement it.
+		for(ObjectSchema root: roots){
+			if(TYPE.INTERFACE == root.getType()){
+				continue;
+			}
+			Set<String> interfaceIds = new LinkedHashSet<String>();
+			addImplementsIds(interfaceIds, root.getImplements(), new HashSet<ObjectSchema>());
+			for(String interfaceId: interfaceIds){
+				String owner = ownerById.get(interfaceId);
+				if(owner == null){
+					continue;
+				}
+				Set<String> set = implementers.get(owner);
+				if(set == null){
+					set = new TreeSet<String>();
+					implementers.put(owner, set);
+				}
+				set.add(interfaceId + ">" + root.getId());
+			}
+		}
+	}
+
+	/**
+	 * Walk a schema defined by a root schema. References are recorded but not
+	 * followed.
+	 */
+	private void walk(String rootId, ObjectSchema schema, List<ObjectSchema> owned, Set<String> refs){
+		if(schema.getRef() != null){
+			if(!ObjectSchemaImpl.SELF_REFERENCE.equals(schema.getRef())){
+				refs.add(schema.getRef());
+			}
+			return;
+		}
+		if(schema.get$recursiveRef() != null){
+			return;
+		}
+		owned.add(schema);
+		if(schema.getId() != null){
+			ownerById.put(schema.getId(), rootId);
+			schemaById.put(schema.getId(), schema);
+		}
+		Iterator<ObjectSchema> it = schema.getSubSchemaIterator();
+		while(it.hasNext()){
+			walk(rootId, it.next(), owned, refs);
+		}
+		if(schema.getKey() != null){
+			walk(rootId, schema.getKey(), owned, refs);
+		}
+		if(schema.getValue() != null){
+			walk(rootId, schema.getValue(), owned, refs);
+		}
+	}
+
+	/**
+	 * Same walk of the implemented interfaces as the InstanceFactoryGenerator,
+	 * following the references.
+	 */
+	private void addImplementsIds(Set<String> ids, ObjectSchema[] schemas, Set<ObjectSchema> visited){
+		if(schemas == null){
+			return;
+		}
+		for(ObjectSchema schema: schemas){
+			if(schema.getRef() != null){
+				schema = schemaById.get(schema.getRef());
+			}
+			if(schema == null || !visited.add(schema)){
+				continue;
+			}
+			addImplementsIds(ids, schema.getImplements(), visited);
+			if(schema.getId() != null){
+				ids.add(schema.getId());
+			}
+		}
+	}
+
+	/**
+	 * The ids of the root schemas, in order.
+	 * @return
+	 */
+	public List<String> getRootIds() {
+		return rootIds;
+	}
+
+	/**
+	 * The ids of the root schemas directly referenced by the given root schema.
+	 * @param rootId
+	 * @return
+	 */
+	public Set<String> getReferences(String rootId) {
+		return references.get(rootId);
+	}
+
+	/**
+	 * Calculate the fingerprint of each root schema. The schemas that
+	 * reference each other form a strongly connected component that shares a
+	 * single fingerprint of the content of its members and the fingerprints
+	 * of the components it references, so this is linear in the size of the
+	 * graph.
+	 *
+	 * @param configuration Included in every fingerprint.
+	 * @return The fingerprint of each root schema by id.
+	 */
+	public Map<String, String> computeFingerprints(String configuration) {
+		int size = rootIds.size();
+		Map<String, Integer> indexById = new HashMap<String, Integer>();
+		for(int i=0; i<size; i++){
+			indexById.put(rootIds.get(i), i);
+		}
+		int[][] edges = new int[size][];
+		for(int i=0; i<size; i++){
+			Set<String> refs = references.get(rootIds.get(i));
+			edges[i] = new int[refs.size()];
+			int j = 0;
+			for(String ref: refs){
+				edges[i][j++] = indexById.get(ref);
+			}
+		}
+		// Tarjan's algorithm emits each component after the components it references.
+		int[] component = new int[size];
+		List<String> componentHashes = new ArrayList<String>();
+		int[] index = new int[size];
+		int[] low = new int[size];
+		int[] edgePosition = new int[size];
+		boolean[] onStack = new boolean[size];
+		Arrays.fill(index, -1);
+		Deque<Integer> stack = new ArrayDeque<Integer>();
+		Deque<Integer> calls = new ArrayDeque<Integer>();
+		int counter = 0;
+		for(int start=0; start<size; start++){
+			if(index[start] >= 0){
+				continue;
+			}
+			index[start] = low[start] = counter++;
+			stack.push(start);
+			onStack[start] = true;
+			calls.push(start);
+			while(!calls.isEmpty()){
+				int node = calls.peek();
+				if(edgePosition[node] < edges[node].length){
+					int next = edges[node][edgePosition[node]++];
+					if(index[next] < 0){
+						index[next] = low[next] = counter++;
+						stack.push(next);
+						onStack[next] = true;
+						calls.push(next);
+					}else if(onStack[next]){
+						low[node] = Math.min(low[node], index[next]);
+					}
+					continue;
+				}
+				calls.pop();
+				if(!calls.isEmpty()){
+					int caller = calls.peek();
+					low[caller] = Math.min(low[caller], low[node]);
+				}
+				if(low[node] == index[node]){
+					int componentIndex = componentHashes.size();
+					List<Integer> members = new ArrayList<Integer>();
+					int member;
+					do{
+						member = stack.pop();
+						onStack[member] = false;
+						component[member] = componentIndex;
+						members.add(member);
+					}while(member != node);
+					componentHashes.add(hashComponent(configuration, members, edges, component, componentIndex, componentHashes));
+				}
+			}
+		}
+		Map<String, String> fingerprints = new LinkedHashMap<String, String>();
+		for(int i=0; i<size; i++){
+			String rootId = rootIds.get(i);
+			String fingerprint = componentHashes.get(component[i]);
+			Set<String> implementedBy = implementers.get(rootId);
+			if(implementedBy != null){
+				// Only the instance factory depends on the implementations, not the classes that use the interface.
+				fingerprint = hash(fingerprint + "\n" + implementedBy);
+			}
+			fingerprints.put(rootId, fingerprint);
+		}
+		return fingerprints;
+	}
+
+	private String hashComponent(String configuration, List<Integer> members, int[][] edges, int[] component, int componentIndex, List<String> componentHashes){
+		TreeSet<String> content = new TreeSet<String>();
+		TreeSet<String> dependencies = new TreeSet<String>();
+		for(int member: members){
+			String rootId = rootIds.get(member);
+			content.add(rootId + "=" + contentHashes.get(rootId));
+			for(int next: edges[member]){
+				if(component[next] != componentIndex){
+					dependencies.add(componentHashes.get(component[next]));
+				}
+			}
+		}
+		return hash(configuration + "\n" + content + "\n" + dependencies);
+	}
+
+	/**
+	 * The root schemas that must be passed to the PojoGeneratorDriver to
+	 * generate the given root schemas: the given schemas, everything they
+	 * reference, and every class that implements an interface among them.
+	 *
+	 * @param ids
+	 * @return
+	 */
+	public Set<String> getGenerationClosure(Collection<String> ids) {
+		Map<String, Set<String>> implementedBy = new HashMap<String, Set<String>>();
+		for(Map.Entry<String, Set<String>> entry: implementers.entrySet()){
+			Set<String> set = new TreeSet<String>();
+			for(String pair: entry.getValue()){
+				set.add(pair.substring(pair.indexOf('>') + 1));
+			}
+			implementedBy.put(entry.getKey(), set);
+		}
+		Set<String> closure = new LinkedHashSet<String>();
+		Deque<String> toVisit = new ArrayDeque<String>(ids);
+		while(!toVisit.isEmpty()){
+			String rootId = toVisit.pop();
+			if(!closure.add(rootId)){
+				continue;
+			}
+			Set<String> refs = references.get(rootId);
+			if(refs != null){
+				toVisit.addAll(refs);
+			}
+			Set<String> impls = implementedBy.get(rootId);
+			if(impls != null){
+				toVisit.addAll(impls);
+			}
+		}
+		return closure;
+	}
+
+	/**
+	 * The root schema that owns each class generated for the given root
+	 * schemas, by class name. This must be called after the classes have
+	 * been created, since the ids of nested schemas are assigned then.
+	 *
+	 * @param ids
+	 * @return
+	 */
+	public Map<String, String> getClassOwners(Collection<String> ids) {
+		Map<String, String> owners = new HashMap<String, String>();
+		for(String rootId: ids){
+			List<ObjectSchema> owned = ownedSchemas.get(rootId);
+			if(owned == null){
+				continue;
+			}
+			for(ObjectSchema schema: owned){
+				if(schema.getId() == null){
+					continue;
+				}
+				owners.put(schema.getId(), rootId);
+				if(TYPE.INTERFACE == schema.getType()){
+					owners.put(schema.getId() + InstanceFactoryGenerator.INSTANCE_FACTORY_SUFFIX, rootId);
+				}
+			}
+		}
+		return owners;
+	}
+
+	/**
+	 * Hex encoded SHA-256 of the UTF-8 bytes of the given string.
+	 * @param value
+	 * @return
+	 */
+	static String hash(String value) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		byte[] bytes = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for(byte b: bytes){
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+			builder.append(Character.forDigit(b & 0xF, 16));
+		}
+		return builder.toString();
+	}
+}
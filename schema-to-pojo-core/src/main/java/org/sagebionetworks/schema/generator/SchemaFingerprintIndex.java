@@ -0,0 +1,189 @@
+package org.sagebionetworks.schema.generator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The index written to the output directory by incremental generation. For
+ * each root schema it holds the fingerprint of the schema and everything it
+ * depends on, and the files that were generated for it, relative to the
+ * output directory.
+ * <p>
+ * The index is a simple tab separated text file:
+ *
+ * <pre>
+ * configuration	&lt;configuration fingerprint&gt;
+ * schema	&lt;id&gt;	&lt;fingerprint&gt;
+ * output	&lt;file of the schema above&gt;
+ * shared	&lt;file generated for all schemas&gt;
+ * </pre>
+ *
+ */
+public class SchemaFingerprintIndex {
+
+	/**
+	 * The name of the index file in the output directory.
+	 */
+	public static final String INDEX_FILE_NAME = ".schema-to-pojo-index";
+
+	private static final String HEADER = "# schema-to-pojo fingerprint index";
+	private static final String CONFIGURATION = "configuration";
+	private static final String SCHEMA = "schema";
+	private static final String OUTPUT = "output";
+	private static final String SHARED = "shared";
+	private static final String SEPARATOR = "\t";
+
+	/**
+	 * The fingerprint and the generated files of a single root schema.
+	 */
+	public static class Entry {
+
+		private final String fingerprint;
+		private final Set<String> outputs = new TreeSet<String>();
+
+		public Entry(String fingerprint) {
+			if (fingerprint == null) throw new IllegalArgumentException("Fingerprint cannot be null");
+			this.fingerprint = fingerprint;
+		}
+
+		public String getFingerprint() {
+			return fingerprint;
+		}
+
+		/**
+		 * The files generated for the schema, relative to the output
+		 * directory.
+		 * @return
+		 */
+		public Set<String> getOutputs() {
+			return outputs;
+		}
+	}
+
+	private String configuration;
+	private final Map<String, Entry> entries = new TreeMap<String, Entry>();
+	private final Set<String> shared = new TreeSet<String>();
+
+	public String getConfiguration() {
+		return configuration;
+	}
+
+	public void setConfiguration(String configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * The entry of each root schema by its id.
+	 * @return
+	 */
+	public Map<String, Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * The files that do not belong to a single schema, such as the register.
+	 * @return
+	 */
+	public Set<String> getShared() {
+		return shared;
+	}
+
+	/**
+	 * All of the files in the index.
+	 * @return
+	 */
+	public Set<String> getAllOutputs() {
+		Set<String> all = new TreeSet<String>(shared);
+		for (Entry entry : entries.values()) {
+			all.addAll(entry.getOutputs());
+		}
+		return Collections.unmodifiableSet(all);
+	}
+
+	/**
+	 * Load the index from the given output directory. An empty index is
+	 * returned when there is no index or it cannot be read, so everything
+	 * will be generated.
+	 *
+	 * @param outputDir
+	 * @return
+	 */
+	public static SchemaFingerprintIndex load(File outputDir) {
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex();
+		File file = new File(outputDir, INDEX_FILE_NAME);
+		if (!file.isFile()) {
+			return index;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			Entry current = null;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] split = line.split(SEPARATOR);
+				if (CONFIGURATION.equals(split[0]) && split.length == 2) {
+					index.configuration = split[1];
+				} else if (SCHEMA.equals(split[0]) && split.length == 3) {
+					current = new Entry(split[2]);
+					index.entries.put(split[1], current);
+				} else if (OUTPUT.equals(split[0]) && split.length == 2 && current != null) {
+					current.getOutputs().add(split[1]);
+				} else if (SHARED.equals(split[0]) && split.length == 2) {
+					index.shared.add(split[1]);
+				} else {
+					// A damaged index is treated as no index at all.
+					return new SchemaFingerprintIndex();
+				}
+			}
+		} catch (IOException e) {
+			return new SchemaFingerprintIndex();
+		}
+		return index;
+	}
+
+	/**
+	 * Write the index to the given output directory.
+	 *
+	 * @param outputDir
+	 * @throws IOException
+	 */
+	public void save(File outputDir) throws IOException {
+		File file = new File(outputDir, INDEX_FILE_NAME);
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			writer.write(HEADER);
+			writer.newLine();
+			if (configuration != null) {
+				writeLine(writer, CONFIGURATION, configuration);
+			}
+			for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+				writeLine(writer, SCHEMA, entry.getKey(), entry.getValue().getFingerprint());
+				for (String output : entry.getValue().getOutputs()) {
+					writeLine(writer, OUTPUT, output);
+				}
+			}
+			for (String output : shared) {
+				writeLine(writer, SHARED, output);
+			}
+		}
+	}
+
+	private static void writeLine(BufferedWriter writer, String... values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				writer.write(SEPARATOR);
+			}
+			writer.write(values[i]);
+		}
+		writer.newLine();
+	}
+}
@@ -3,9 +3,23 @@ package org.sagebionetworks.schema.generator;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.json.JSONException;
 import org.sagebionetworks.schema.ObjectSchema;
@@ -29,6 +43,12 @@ import com.sun.codemodel.writer.ProgressCodeWriter;
  */
 public class SchemaToPojo {
 	
+	/**
+	 * The number of threads used to load the schema files when it is not
+	 * provided.
+	 */
+	public static final int DEFAULT_LOAD_THREADS = Runtime.getRuntime().availableProcessors();
+
 	/**
 	 * Will read all schemas in the passed directory (or file) and create java files for each in the output directory.
 	 * All classes will be created using the provided package name.
@@ -44,47 +64,67 @@ public class SchemaToPojo {
 	 */
 	public static void generatePojos(File schemaSource, File outputDir, String createRegister, HandlerFactory factory, StringBuilder log)
 			throws IOException, JSONObjectAdapterException, ClassNotFoundException {
+		generatePojos(schemaSource, outputDir, createRegister, factory, log, DEFAULT_LOAD_THREADS);
+	}
+
+	/**
+	 * Will read all schemas in the passed directory (or file) and create java files for each in the output directory.
+	 * All classes will be created using the provided package name.
+	 * 
+	 * @param schemaSource - can be single schema file or directory of schema files.
+	 * @param outputDir
+	 * @param createRegister
+	 * @param factory
+	 * @param log
+	 * @param loadThreads - The number of threads used to read and parse the schema files. When less than two the files are loaded on the calling thread.
+	 * @throws IOException
+	 * @throws JSONObjectAdapterException
+	 * @throws ClassNotFoundException
+	 */
+	public static void generatePojos(File schemaSource, File outputDir, String createRegister, HandlerFactory factory, StringBuilder log, int loadThreads)
+			throws IOException, JSONObjectAdapterException, ClassNotFoundException {
+		generatePojos(schemaSource, outputDir, createRegister, factory, log, loadThreads, false);
+	}
+
+	/**
+	 * Will read all schemas in the passed directory (or file) and create java files for each in the output directory.
+	 * All classes will be created using the provided package name.
+	 * <p>
+	 * When incremental, a fingerprint of each schema and everything it depends on is kept in a
+	 * {@link SchemaFingerprintIndex} in the output directory. Only the classes of the schemas
+	 * with a new fingerprint are generated, and the files of deleted schemas are removed.
+	 * 
+	 * @param schemaSource - can be single schema file or directory of schema files.
+	 * @param outputDir
+	 * @param createRegister
+	 * @param factory
+	 * @param log
+	 * @param loadThreads - The number of threads used to read and parse the schema files. When less than two the files are loaded on the calling thread.
+	 * @param incremental - When true, only the classes of the changed schemas are generated.
+	 * @throws IOException
+	 * @throws JSONObjectAdapterException
+	 * @throws ClassNotFoundException
+	 */
+	public static void generatePojos(File schemaSource, File outputDir, String createRegister, HandlerFactory factory, StringBuilder log, int loadThreads, boolean incremental)
+			throws IOException, JSONObjectAdapterException, ClassNotFoundException {
 		if(schemaSource == null) throw new IllegalArgumentException("schemaSource cannot be null");
 		if(outputDir == null) throw new IllegalArgumentException("outputDir cannot be null");
 		if(factory == null) throw new IllegalArgumentException("The HandlerFactory cannot be null");
-		// process each file
-		Iterator<File> iterator = FileUtils.getRecursiveIterator(schemaSource, new FileFilter() {
-			@Override
-			public boolean accept(File pathname) {
-				// Only include .json files
-				return pathname.getName().toLowerCase().endsWith(".json");
-			}
-		});
-		
 		// Build up the list of schemas from the files
-		List<ObjectSchema> schemaList = new ArrayList<ObjectSchema>();
-		while(iterator.hasNext()){
-			File file = iterator.next();
-			String string = FileUtils.readToString(file);
-			// Create a new schema
-			ObjectSchema schema;
-			try {
-				schema = new ObjectSchemaImpl(new JSONObjectAdapterImpl(string));
-			} catch (JSONObjectAdapterException e) {
-				if (e.getCause() instanceof JSONException) {
-					JSONException e2 = (JSONException) e.getCause();
-					throw new JSONObjectAdapterException(file.getAbsolutePath() + ": " + e2.getMessage(), e2);
-				}
-				throw e;
-			}
-			// Now if the schema does not have a name use the file name
-			if(schema.getName() == null){
-				schema.setName(extractSchemaNameFromFileName(file));
+		List<ObjectSchema> schemaList;
+		if(loadThreads < 2){
+			schemaList = loadSchemas(schemaSource, null);
+		}else{
+			ExecutorService executor = Executors.newFixedThreadPool(loadThreads, new LoaderThreadFactory());
+			try{
+				schemaList = loadSchemas(schemaSource, executor);
+			}finally{
+				executor.shutdownNow();
 			}
-			// Set the id
-			String packageName = getPackageNameFromFiles(schemaSource, file);
-			schema.setId(packageName+schema.getName());
-			// Each base schema must be an object even if it is not set
-			if(schema.getType() == null){
-				schema.setType(TYPE.OBJECT);
-			}
-			// Add it to the list
-			schemaList.add(schema);
+		}
+		if(incremental){
+			generateIncremental(schemaList, outputDir, createRegister, factory, log);
+			return;
 		}
 		// JCodeModel is used as the document model for the classes.
 		JCodeModel codeModel = new JCodeModel();
@@ -119,8 +159,288 @@ public class SchemaToPojo {
 		sources = new ProgressCodeWriter(sources, System.out);
 		resources = new ProgressCodeWriter(resources, System.out);
 		codeModel.build(sources, resources);
+		// A full build does not maintain the index, so the next incremental build must start over.
+		new File(outputDir, SchemaFingerprintIndex.INDEX_FILE_NAME).delete();
+	}
+
+	/**
+	 * Generate the classes of the schemas that changed since the last incremental build.
+	 * 
+	 * @param schemaList
+	 * @param outputDir
+	 * @param createRegister
+	 * @param factory
+	 * @param log
+	 * @throws IOException
+	 * @throws JSONObjectAdapterException
+	 * @throws ClassNotFoundException
+	 */
+	private static void generateIncremental(List<ObjectSchema> schemaList, File outputDir, String createRegister, HandlerFactory factory, StringBuilder log)
+			throws IOException, JSONObjectAdapterException, ClassNotFoundException {
+		// The graph must be built before the driver replaces the references.
+		SchemaDependencyGraph graph = new SchemaDependencyGraph(schemaList);
+		String configuration = SchemaDependencyGraph.hash(getConfiguration(createRegister, factory));
+		Map<String, String> fingerprints = graph.computeFingerprints(configuration);
+		SchemaFingerprintIndex previous = SchemaFingerprintIndex.load(outputDir);
+		// A schema must be generated if its fingerprint changed or one of its files is gone.
+		Set<String> changed = new LinkedHashSet<String>();
+		for(Map.Entry<String, String> entry: fingerprints.entrySet()){
+			SchemaFingerprintIndex.Entry indexed = previous.getEntries().get(entry.getKey());
+			if(indexed == null || !indexed.getFingerprint().equals(entry.getValue()) || !allExist(outputDir, indexed.getOutputs())){
+				changed.add(entry.getKey());
+			}
+		}
+		boolean removed = !fingerprints.keySet().containsAll(previous.getEntries().keySet());
+		if(changed.isEmpty() && !removed && configuration.equals(previous.getConfiguration()) && allExist(outputDir, previous.getShared())){
+			log.append("All " + fingerprints.size() + " schemas are up to date\n");
+			return;
+		}
+		log.append("Generating " + changed.size() + " of " + fingerprints.size() + " schemas\n");
+		// The driver needs everything the changed schemas depend on to resolve their references.
+		Set<String> closure = graph.getGenerationClosure(changed);
+		List<ObjectSchema> toGenerate = new ArrayList<ObjectSchema>();
+		for(ObjectSchema schema: schemaList){
+			if(closure.contains(schema.getId())){
+				toGenerate.add(schema);
+			}
+		}
+		JCodeModel codeModel = new JCodeModel();
+		JDefinedClass registerClass = null;
+		if (createRegister != null) {
+			registerClass = RegisterGenerator.createClassFromFullName(codeModel, createRegister);
+		}
+		PojoGeneratorDriver driver = new PojoGeneratorDriver(factory);
+		driver.createAllClasses(codeModel, toGenerate);
+		// The register lists every class so it is always created from the full list.
+		if(createRegister != null){
+			RegisterGenerator.createRegister(codeModel, schemaList, registerClass, null);
+		}
+		if(!outputDir.exists()){
+			outputDir.mkdirs();
+		}
+
+		// Start the new index with the schemas that did not change.
+		SchemaFingerprintIndex index = new SchemaFingerprintIndex();
+		index.setConfiguration(configuration);
+		for(Map.Entry<String, String> entry: fingerprints.entrySet()){
+			SchemaFingerprintIndex.Entry indexEntry = changed.contains(entry.getKey())
+					? new SchemaFingerprintIndex.Entry(entry.getValue())
+					: previous.getEntries().get(entry.getKey());
+			index.getEntries().put(entry.getKey(), indexEntry);
+		}
+		if(createRegister != null) {
+			for(ObjectSchema schema: toGenerate){
+				if(changed.contains(schema.getId())){
+					File file = EffectiveSchemaUtil.generateEffectiveSchemaFile(outputDir, schema);
+					index.getEntries().get(schema.getId()).getOutputs().add(getRelativePath(outputDir, file));
+				}
+			}
+		}
+
+		// Only the classes of the changed schemas and the register are written.
+		Map<String, String> owners = graph.getClassOwners(changed);
+		Set<String> classNames = new HashSet<String>(owners.keySet());
+		if(createRegister != null){
+			classNames.add(createRegister);
+		}
+		FilterCodeWriter filter = new FilterCodeWriter(new ChangeFileCodeWriter(outputDir, log), classNames);
+		CodeWriter sources = new ProgressCodeWriter(filter, System.out);
+		CodeWriter resources = new ProgressCodeWriter(new FileCodeWriter(outputDir), System.out);
+		codeModel.build(sources, resources);
+		for(Map.Entry<String, String> written: filter.getWritten().entrySet()){
+			String owner = owners.get(written.getKey());
+			if(owner != null){
+				index.getEntries().get(owner).getOutputs().add(written.getValue());
+			}else{
+				index.getShared().add(written.getValue());
+			}
+		}
+
+		// Delete the files that are no longer generated.
+		Set<String> outputs = index.getAllOutputs();
+		for(String output: previous.getAllOutputs()){
+			if(!outputs.contains(output)){
+				File orphan = new File(outputDir, output);
+				if(orphan.delete()){
+					log.append("Deleted " + orphan + " because it is no longer generated\n");
+				}
+			}
+		}
+		index.save(outputDir);
+	}
+
+	/**
+	 * Everything that changes the generated code other than the schemas.
+	 * @param createRegister
+	 * @param factory
+	 * @return
+	 */
+	static String getConfiguration(String createRegister, HandlerFactory factory) {
+		StringBuilder builder = new StringBuilder(factory.getConfiguration());
+		builder.append(" createRegister=").append(createRegister);
+		builder.append(" version=").append(SchemaToPojo.class.getPackage().getImplementationVersion());
+		// A rebuilt generator jar can change the generated code without changing the version.
+		CodeSource source = SchemaToPojo.class.getProtectionDomain().getCodeSource();
+		if(source != null && source.getLocation() != null){
+			try {
+				File jar = new File(source.getLocation().toURI());
+				if(jar.isFile()){
+					builder.append(" jar=").append(jar.length()).append('@').append(jar.lastModified());
+				}
+			} catch (URISyntaxException | IllegalArgumentException e) {
+				// Only the version is used.
+			}
+		}
+		return builder.toString();
+	}
+
+	private static boolean allExist(File outputDir, Collection<String> outputs) {
+		for(String output: outputs){
+			if(!new File(outputDir, output).isFile()){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String getRelativePath(File outputDir, File file) {
+		return outputDir.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
 	}
 	
+	/**
+	 * Read and parse all of the schema files in the passed directory (or
+	 * file). The files are read and parsed on the passed executor, but the
+	 * returned list is always in the order of the files in the source tree.
+	 * When more than one file fails to load, the error of the first of those
+	 * files is thrown.
+	 * 
+	 * @param schemaSource - can be single schema file or directory of schema files.
+	 * @param executor - When null, the files are loaded on the calling thread.
+	 * @return
+	 * @throws IOException
+	 * @throws JSONObjectAdapterException
+	 */
+	public static List<ObjectSchema> loadSchemas(final File schemaSource, ExecutorService executor)
+			throws IOException, JSONObjectAdapterException {
+		if(schemaSource == null) throw new IllegalArgumentException("schemaSource cannot be null");
+		// process each file
+		Iterator<File> iterator = FileUtils.getRecursiveIterator(schemaSource, new FileFilter() {
+			@Override
+			public boolean accept(File pathname) {
+				// Only include .json files
+				return pathname.getName().toLowerCase().endsWith(".json");
+			}
+		});
+		List<ObjectSchema> schemaList = new ArrayList<ObjectSchema>();
+		if(executor == null){
+			while(iterator.hasNext()){
+				schemaList.add(loadSchema(schemaSource, iterator.next()));
+			}
+			return schemaList;
+		}
+		// Submit all of the files then collect the results in file order.
+		List<Future<ObjectSchema>> futures = new ArrayList<Future<ObjectSchema>>();
+		while(iterator.hasNext()){
+			final File file = iterator.next();
+			futures.add(executor.submit(new Callable<ObjectSchema>() {
+				@Override
+				public ObjectSchema call() throws Exception {
+					return loadSchema(schemaSource, file);
+				}
+			}));
+		}
+		try{
+			for(Future<ObjectSchema> future: futures){
+				schemaList.add(getLoadedSchema(future));
+			}
+		}finally{
+			// Stop loading the remaining files if one failed.
+			for(Future<ObjectSchema> future: futures){
+				future.cancel(true);
+			}
+		}
+		return schemaList;
+	}
+
+	/**
+	 * Wait for a schema to be loaded and unwrap any error.
+	 */
+	private static ObjectSchema getLoadedSchema(Future<ObjectSchema> future) throws IOException, JSONObjectAdapterException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading schemas", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException){
+				throw (IOException) cause;
+			}
+			if(cause instanceof JSONObjectAdapterException){
+				throw (JSONObjectAdapterException) cause;
+			}
+			if(cause instanceof RuntimeException){
+				throw (RuntimeException) cause;
+			}
+			if(cause instanceof Error){
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Read and parse a single schema file.
+	 * 
+	 * @param schemaSource - The root of the source tree.
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 * @throws JSONObjectAdapterException
+	 */
+	static ObjectSchema loadSchema(File schemaSource, File file) throws IOException, JSONObjectAdapterException {
+		String string = FileUtils.readToString(file);
+		// Create a new schema
+		ObjectSchema schema;
+		try {
+			schema = new ObjectSchemaImpl(new JSONObjectAdapterImpl(string));
+		} catch (JSONObjectAdapterException e) {
+			if (e.getCause() instanceof JSONException) {
+				JSONException e2 = (JSONException) e.getCause();
+				throw new JSONObjectAdapterException(file.getAbsolutePath() + ": " + e2.getMessage(), e2);
+			}
+			throw e;
+		}
+		// Now if the schema does not have a name use the file name
+		if(schema.getName() == null){
+			schema.setName(extractSchemaNameFromFileName(file));
+		}
+		// Set the id
+		String packageName = getPackageNameFromFiles(schemaSource, file);
+		schema.setId(packageName+schema.getName());
+		// Each base schema must be an object even if it is not set
+		if(schema.getType() == null){
+			schema.setType(TYPE.OBJECT);
+		}
+		return schema;
+	}
+
+	/**
+	 * Daemon threads, so a build that fails while loading does not hang on
+	 * the pool.
+	 */
+	private static class LoaderThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "schema-to-pojo-loader-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
 	/**
 	 * Extract the package name using the root file and the json file.
 	 * @param rootDir
@@ -0,0 +1,21 @@
+package org.sagebionetworks.schema.generator.handler;
+
+import org.sagebionetworks.schema.ObjectSchema;
+
+import com.sun.codemodel.JDefinedClass;
+
+/**
+ * This handler is responsible for adding deepCopy() to a POJO, and for
+ * declaring it on the interfaces the POJOs implement.
+ *
+ */
+public interface DeepCopyHandler {
+
+	/**
+	 * Add deepCopy() to the POJO or interface
+	 * @param classSchema
+	 * @param classType
+	 */
+	public void addDeepCopy(ObjectSchema classSchema, JDefinedClass classType);
+
+}
@@ -37,4 +37,24 @@ public interface HandlerFactory {
 	 */
 	public ToStringHandler getToStringHandler();
 
+	/**
+	 * This handler must add the validation of the property constraints
+	 * @return
+	 */
+	public ValidationHandler getValidationHandler();
+
+	/**
+	 * This handler must add deepCopy()
+	 * @return
+	 */
+	public DeepCopyHandler getDeepCopyHandler();
+
+	/**
+	 * A description of every option of this factory that changes the
+	 * generated code. Incremental generation regenerates all classes when it
+	 * changes.
+	 * @return
+	 */
+	public String getConfiguration();
+
 }
@@ -0,0 +1,21 @@
+package org.sagebionetworks.schema.generator.handler;
+
+import org.sagebionetworks.schema.ObjectSchema;
+
+import com.sun.codemodel.JDefinedClass;
+
+/**
+ * This handler is responsible for adding validation of the schema constraints
+ * (pattern, minLength, minimum, minItems...) to a POJO.
+ *
+ */
+public interface ValidationHandler {
+
+	/**
+	 * Add the validation of the property constraints to the POJO
+	 * @param classSchema
+	 * @param classType
+	 */
+	public void addValidation(ObjectSchema classSchema, JDefinedClass classType);
+
+}
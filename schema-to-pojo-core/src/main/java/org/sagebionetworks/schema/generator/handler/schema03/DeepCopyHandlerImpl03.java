@@ -0,0 +1,255 @@
+package org.sagebionetworks.schema.generator.handler.schema03;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sagebionetworks.schema.ObjectSchema;
+import org.sagebionetworks.schema.TYPE;
+import org.sagebionetworks.schema.generator.PropertyUtils;
+import org.sagebionetworks.schema.generator.handler.DeepCopyHandler;
+
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JDocComment;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+
+/**
+ * Adds deepCopy() to a POJO. The copy is made field by field by a copy
+ * constructor, so nothing is written to or read from JSON. Nested POJOs are
+ * copied with their own deepCopy(), so a field typed as an interface or a
+ * super class is copied as the class of its value.
+ *
+ */
+public class DeepCopyHandlerImpl03 implements DeepCopyHandler {
+
+	/**
+	 * The public method that returns a deep copy.
+	 */
+	public static final String DEEP_COPY = "deepCopy";
+
+	/**
+	 * The name of the parameter of the copy constructor.
+	 */
+	public static final String TO_COPY = "toCopy";
+
+	private boolean deepCopy = false;
+
+	/**
+	 * When set, deepCopy() is added to each class and interface. Nothing is
+	 * added otherwise.
+	 *
+	 * @param deepCopy
+	 */
+	public void setDeepCopy(boolean deepCopy) {
+		this.deepCopy = deepCopy;
+	}
+
+	@Override
+	public void addDeepCopy(ObjectSchema classSchema, JDefinedClass classType) {
+		if (!deepCopy) {
+			return;
+		}
+		if (TYPE.INTERFACE == classSchema.getType()) {
+			createInterfaceDeepCopy(classType);
+		} else {
+			JMethod constructor = createCopyConstructor(classSchema, classType);
+			createDeepCopy(classSchema, classType, constructor);
+		}
+	}
+
+	/**
+	 * Declare deepCopy() on an interface so fields of the interface type can
+	 * be copied.
+	 *
+	 * @param classType
+	 * @return
+	 */
+	protected JMethod createInterfaceDeepCopy(JDefinedClass classType) {
+		JMethod method = classType.method(JMod.PUBLIC, classType, DEEP_COPY);
+		method.javadoc().add("A deep copy of this object.");
+		return method;
+	}
+
+	/**
+	 * Create the public deepCopy() method.
+	 *
+	 * @param classSchema
+	 * @param classType
+	 * @param constructor
+	 * @return
+	 */
+	protected JMethod createDeepCopy(ObjectSchema classSchema, JDefinedClass classType, JMethod constructor) {
+		JMethod method = classType.method(JMod.PUBLIC, classType, DEEP_COPY);
+		if (classSchema.getExtends() != null
+				|| (classSchema.getImplements() != null && classSchema.getImplements().length > 0)) {
+			method.annotate(Override.class);
+		}
+		JDocComment docs = method.javadoc();
+		docs.add("A deep copy of this object. Mutable values (nested objects, collections and dates) are copied, ");
+		docs.add("immutable values are shared.");
+		method.body()._return(JExpr._new(classType).arg(JExpr._this()));
+		return method;
+	}
+
+	/**
+	 * Create the copy constructor that copies the properties declared by the
+	 * class. The properties of the super classes are copied by the super
+	 * constructor.
+	 *
+	 * @param classSchema
+	 * @param classType
+	 * @return
+	 */
+	protected JMethod createCopyConstructor(ObjectSchema classSchema, JDefinedClass classType) {
+		JMethod constructor = classType.constructor(JMod.PROTECTED);
+		JVar toCopy = constructor.param(classType, TO_COPY);
+		JDocComment docs = constructor.javadoc();
+		docs.add("Copy the given object. Used by deepCopy().");
+		docs.addParam(toCopy).add("The object to copy.");
+		JBlock body = constructor.body();
+		if (classSchema.getExtends() != null) {
+			body.invoke("super").arg(toCopy);
+		}
+		for (Map.Entry<String, ObjectSchema> entry : classSchema.getObjectFieldMap().entrySet()) {
+			JFieldVar field = PropertyUtils.getPropertyReference(classType, entry.getKey());
+			PropertyUtils.validateNonNullType(classType, entry.getValue());
+			JExpression value = toCopy.ref(field);
+			if (!needsCopy(field.type())) {
+				body.assign(JExpr._this().ref(field), value);
+			} else {
+				JBlock notNull = body._if(value.ne(JExpr._null()))._then();
+				notNull.assign(JExpr._this().ref(field), copyNonNull(notNull, field.type(), value, 0));
+			}
+		}
+		// The presence bits of primitive fields, the cached hash code and the
+		// initialized flag of an immutable class are copied as they are.
+		for (JFieldVar field : classType.fields().values()) {
+			if (field.name().startsWith(PropertyUtils.PRESENCE_FIELD_PREFIX)
+					|| HashAndEqualsHandlerImpl03.HASH_CODE_CACHE.equals(field.name())
+					|| TypeCreatorHandlerImpl03.INITIALIZED.equals(field.name())) {
+				body.assign(JExpr._this().ref(field), toCopy.ref(field));
+			}
+		}
+		return constructor;
+	}
+
+	/**
+	 * Does a value of the given type need to be copied? Primitives, strings,
+	 * boxed primitives and enumerations are immutable and are shared. So are
+	 * untyped (Object) values and classes that were not generated, since there
+	 * is no way to copy them.
+	 *
+	 * @param type
+	 * @return
+	 */
+	boolean needsCopy(JType type) {
+		if (type.isPrimitive()) {
+			return false;
+		}
+		if (type instanceof JDefinedClass) {
+			return ClassType.ENUM != ((JDefinedClass) type).getClassType();
+		}
+		JCodeModel model = type.owner();
+		JClass erasure = ((JClass) type).erasure();
+		return erasure == model.ref(Date.class) || erasure == model.ref(List.class) || erasure == model.ref(Set.class)
+				|| erasure == model.ref(Map.class);
+	}
+
+	/**
+	 * An expression for a copy of a value that is not null. Collections are
+	 * copied into a local variable declared in the given block.
+	 *
+	 * @param block
+	 * @param type
+	 * @param value
+	 * @param depth
+	 *            The depth of collections nested in the property, used to name
+	 *            the local variables.
+	 * @return
+	 */
+	private JExpression copyNonNull(JBlock block, JType type, JExpression value, int depth) {
+		if (type instanceof JDefinedClass) {
+			// Dispatch to the class of the value.
+			return value.invoke(DEEP_COPY);
+		}
+		JCodeModel model = type.owner();
+		JClass classType = (JClass) type;
+		JClass erasure = classType.erasure();
+		if (erasure == model.ref(Date.class)) {
+			return JExpr._new(model.ref(Date.class)).arg(value.invoke("getTime"));
+		}
+		List<JClass> typeParameters = classType.getTypeParameters();
+		if (erasure == model.ref(Map.class)) {
+			JClass keyType = typeParameters.get(0);
+			JClass valueType = typeParameters.get(1);
+			JClass mapType = model.ref(LinkedHashMap.class).narrow(keyType, valueType);
+			if (!needsCopy(keyType) && !needsCopy(valueType)) {
+				return JExpr._new(mapType).arg(value);
+			}
+			JVar copy = block.decl(classType, "__copy" + depth, JExpr._new(mapType).arg(value.invoke("size")));
+			JForEach each = block.forEach(model.ref(Map.Entry.class).narrow(keyType, valueType), "__entry" + depth,
+					value.invoke("entrySet"));
+			JBlock eachBody = each.body();
+			JExpression keyCopy = copyNullable(eachBody, keyType, each.var().invoke("getKey"), depth + 1, "__key");
+			JExpression valueCopy = copyNullable(eachBody, valueType, each.var().invoke("getValue"), depth + 1, "__value");
+			eachBody.add(copy.invoke("put").arg(keyCopy).arg(valueCopy));
+			return copy;
+		}
+		JClass elementType = typeParameters.get(0);
+		JClass collectionType = model.ref(erasure == model.ref(Set.class) ? LinkedHashSet.class : ArrayList.class)
+				.narrow(elementType);
+		if (!needsCopy(elementType)) {
+			return JExpr._new(collectionType).arg(value);
+		}
+		JVar copy = block.decl(classType, "__copy" + depth, JExpr._new(collectionType).arg(value.invoke("size")));
+		JForEach each = block.forEach(elementType, "__element" + depth, value);
+		JBlock eachBody = each.body();
+		eachBody.add(copy.invoke("add").arg(copyNullable(eachBody, elementType, each.var(), depth + 1, "__item")));
+		return copy;
+	}
+
+	/**
+	 * An expression for a copy of a value that might be null, such as an
+	 * element of a collection.
+	 *
+	 * @param block
+	 * @param type
+	 * @param value
+	 * @param depth
+	 * @param prefix
+	 *            The prefix of the local variable that holds a copied
+	 *            collection.
+	 * @return
+	 */
+	private JExpression copyNullable(JBlock block, JClass type, JExpression value, int depth, String prefix) {
+		if (!needsCopy(type)) {
+			return value;
+		}
+		JClass erasure = type.erasure();
+		JCodeModel model = type.owner();
+		if (erasure == model.ref(List.class) || erasure == model.ref(Set.class) || erasure == model.ref(Map.class)) {
+			JVar copy = block.decl(type, prefix + depth, JExpr._null());
+			JConditional notNull = block._if(value.ne(JExpr._null()));
+			notNull._then().assign(copy, copyNonNull(notNull._then(), type, value, depth));
+			return copy;
+		}
+		return JOp.cond(value.eq(JExpr._null()), JExpr._null(), copyNonNull(block, type, value, depth));
+	}
+}
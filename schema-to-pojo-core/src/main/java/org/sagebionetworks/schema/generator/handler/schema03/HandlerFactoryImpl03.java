@@ -1,11 +1,14 @@
 package org.sagebionetworks.schema.generator.handler.schema03;
 
+import org.sagebionetworks.schema.generator.handler.DeepCopyHandler;
 import org.sagebionetworks.schema.generator.handler.HandlerFactory;
 import org.sagebionetworks.schema.generator.handler.HashAndEqualsHandler;
 import org.sagebionetworks.schema.generator.handler.JSONMarshalingHandler;
 import org.sagebionetworks.schema.generator.handler.PropertyHandler;
 import org.sagebionetworks.schema.generator.handler.ToStringHandler;
 import org.sagebionetworks.schema.generator.handler.TypeCreatorHandler;
+import org.sagebionetworks.schema.generator.handler.ValidationHandler;
+import org.sagebionetworks.schema.util.ToStringLimits;
 
 /**
  * An implementation of the handler factor for the 03 version of the JSON schema
@@ -16,28 +19,150 @@ import org.sagebionetworks.schema.generator.handler.TypeCreatorHandler;
  */
 public class HandlerFactoryImpl03 implements HandlerFactory {
 
+	private boolean streamingMarshaling = false;
+	private boolean primitiveFields = false;
+	private boolean runtimeValidation = false;
+	private boolean marshalingMetrics = false;
+	private boolean immutable = false;
+	private ToStringLimits toStringLimits = null;
+	private boolean deepCopy = false;
+
+	/**
+	 * When set, the generated classes will also be able to read and write
+	 * themselves directly from/to a stream of JSON tokens.
+	 * 
+	 * @param streamingMarshaling
+	 */
+	public void setStreamingMarshaling(boolean streamingMarshaling) {
+		this.streamingMarshaling = streamingMarshaling;
+	}
+
+	/**
+	 * When set, boolean, number and integer properties of the generated
+	 * classes are stored in primitive fields plus a presence bit set instead
+	 * of boxed fields.
+	 * 
+	 * @param primitiveFields
+	 */
+	public void setPrimitiveFields(boolean primitiveFields) {
+		this.primitiveFields = primitiveFields;
+	}
+
+	/**
+	 * When set, the generated classes get a validate() method that checks
+	 * the pattern, length, range and item constraints of each property, and
+	 * the JSON marshaling calls it as each object is read.
+	 * 
+	 * @param runtimeValidation
+	 */
+	public void setRuntimeValidation(boolean runtimeValidation) {
+		this.runtimeValidation = runtimeValidation;
+	}
+
+	/**
+	 * When set, the JSON marshaling of the generated classes records each
+	 * call with MarshalingMetrics. The metrics are disabled until
+	 * MarshalingMetrics.setEnabled(true) is called.
+	 * 
+	 * @param marshalingMetrics
+	 */
+	public void setMarshalingMetrics(boolean marshalingMetrics) {
+		this.marshalingMetrics = marshalingMetrics;
+	}
+
+	/**
+	 * When set, the generated classes have no public setters. They are
+	 * created with a nested Builder or read from JSON, and cache their hash
+	 * code.
+	 * 
+	 * @param immutable
+	 */
+	public void setImmutable(boolean immutable) {
+		this.immutable = immutable;
+	}
+
+	/**
+	 * When set, toString() of the generated classes describes at most the
+	 * given number of collection elements, string characters and levels of
+	 * nested objects, and appends nested objects to a single StringBuilder.
+	 * 
+	 * @param toStringLimits
+	 *            Null to describe everything.
+	 */
+	public void setToStringLimits(ToStringLimits toStringLimits) {
+		this.toStringLimits = toStringLimits;
+	}
+
+	/**
+	 * When set, the generated classes get a deepCopy() method that copies
+	 * each property with a copy constructor instead of a JSON round trip.
+	 * 
+	 * @param deepCopy
+	 */
+	public void setDeepCopy(boolean deepCopy) {
+		this.deepCopy = deepCopy;
+	}
+
+	@Override
+	public String getConfiguration() {
+		return getClass().getName()
+				+ " streamingMarshaling=" + streamingMarshaling
+				+ " primitiveFields=" + primitiveFields
+				+ " runtimeValidation=" + runtimeValidation
+				+ " marshalingMetrics=" + marshalingMetrics
+				+ " immutable=" + immutable
+				+ " toStringLimits=" + toStringLimits
+				+ " deepCopy=" + deepCopy;
+	}
+
 	@Override
 	public TypeCreatorHandler getTypeCreatorHandler() {
-		return new TypeCreatorHandlerImpl03();
+		TypeCreatorHandlerImpl03 handler = new TypeCreatorHandlerImpl03();
+		handler.setImmutable(immutable);
+		return handler;
 	}
 
 	@Override
 	public PropertyHandler getPropertyHandler() {
-		return new PropertyHandlerImpl03();
+		PropertyHandlerImpl03 handler = new PropertyHandlerImpl03();
+		handler.setPrimitiveFields(primitiveFields);
+		handler.setImmutable(immutable);
+		return handler;
 	}
 
 	@Override
 	public JSONMarshalingHandler getJSONMArshalingHandler() {
-		return new JSONMarshalingHandlerImpl03();
+		JSONMarshalingHandlerImpl03 handler = new JSONMarshalingHandlerImpl03();
+		handler.setStreamingMarshaling(streamingMarshaling);
+		handler.setMarshalingMetrics(marshalingMetrics);
+		return handler;
 	}
 
 	@Override
 	public HashAndEqualsHandler getHashAndEqualsHandler() {
-		return new HashAndEqualsHandlerImpl03();
+		HashAndEqualsHandlerImpl03 handler = new HashAndEqualsHandlerImpl03();
+		handler.setImmutable(immutable);
+		return handler;
 	}
 	
 	@Override
 	public ToStringHandler getToStringHandler() {
-		return new ToStringHandlerImpl03();
+		ToStringHandlerImpl03 handler = new ToStringHandlerImpl03();
+		handler.setLimits(toStringLimits);
+		return handler;
+	}
+
+	@Override
+	public ValidationHandler getValidationHandler() {
+		ValidationHandlerImpl03 handler = new ValidationHandlerImpl03();
+		handler.setRuntimeValidation(runtimeValidation);
+		return handler;
+	}
+
+	@Override
+	public DeepCopyHandler getDeepCopyHandler() {
+		DeepCopyHandlerImpl03 handler = new DeepCopyHandlerImpl03();
+		handler.setDeepCopy(deepCopy);
+		return handler;
 	}
 }
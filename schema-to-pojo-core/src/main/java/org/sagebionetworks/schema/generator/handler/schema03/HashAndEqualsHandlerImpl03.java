@@ -1,6 +1,10 @@
 package org.sagebionetworks.schema.generator.handler.schema03;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.sagebionetworks.schema.ObjectSchema;
@@ -8,7 +12,9 @@ import org.sagebionetworks.schema.TYPE;
 import org.sagebionetworks.schema.generator.PropertyUtils;
 import org.sagebionetworks.schema.generator.handler.HashAndEqualsHandler;
 
+import com.sun.codemodel.ClassType;
 import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
 import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
@@ -17,10 +23,28 @@ import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JOp;
+import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
 
 public class HashAndEqualsHandlerImpl03 implements HashAndEqualsHandler {
 
+	/**
+	 * The name of the field that caches the hash code of an immutable class.
+	 */
+	public static final String HASH_CODE_CACHE = "__hashCode";
+
+	private boolean immutable = false;
+
+	/**
+	 * When set, the classes are immutable so hashCode() is computed once and
+	 * cached, and equals() returns false as soon as the hash codes differ.
+	 * 
+	 * @param immutable
+	 */
+	public void setImmutable(boolean immutable) {
+		this.immutable = immutable;
+	}
+
 	@Override
 	public void addHashAndEquals(ObjectSchema classSchema,	JDefinedClass classType) {
 		// There is nothing to do for interfaces.
@@ -45,6 +69,12 @@ public class HashAndEqualsHandlerImpl03 implements HashAndEqualsHandler {
 		method.annotate(Override.class);
 		// Start on the body
 		JBlock body = method.body();
+		JFieldVar cache = null;
+		if(immutable){
+			// Zero means not computed yet, the same as String.hashCode().
+			cache = classType.field(JMod.PRIVATE | JMod.TRANSIENT, classType.owner().INT, HASH_CODE_CACHE);
+			body._if(cache.ne(JExpr.lit(0)))._then()._return(cache);
+		}
 		JVar prime = body.decl(JMod.FINAL, classType.owner().INT, "prime", JExpr.lit(31));
 		// If we have a super then we use that to initialize the result
 		JExpression resultInit = null;
@@ -71,18 +101,45 @@ public class HashAndEqualsHandlerImpl03 implements HashAndEqualsHandler {
 
 			// For each type we need to setup the add expression
 			JExpression addExpression = null;
-			// For all non-primitives we can use "hashCode"
-			// If the object is not null then use hashCode() else, 0;
-			addExpression = JOp.cond(field.eq(JExpr._null()), JExpr.lit(0),
-					field.invoke("hashCode"));
+			if(PropertyUtils.hasPresenceBit(classType, field)){
+				// Same hash as the boxed value without boxing it.
+				addExpression = JOp.cond(PropertyUtils.isNull(classType, field), JExpr.lit(0),
+						primitiveHashCode(classType, field));
+			}else{
+				// For all non-primitives we can use "hashCode"
+				// If the object is not null then use hashCode() else, 0;
+				addExpression = JOp.cond(field.eq(JExpr._null()), JExpr.lit(0),
+						field.invoke("hashCode"));
+			}
 			// Put it all together
 			body.assign(result, prime.mul(result).plus(addExpression));
 		}
 
+		if(cache != null){
+			body.assign(cache, result);
+		}
         body._return(result);
 		return method;
 	}
 	
+	/**
+	 * The hash code of a primitive field matching the hashCode() of its boxed type.
+	 * @param classType
+	 * @param field
+	 * @return
+	 */
+	protected static JExpression primitiveHashCode(JDefinedClass classType, JFieldVar field){
+		if(classType.owner().BOOLEAN == field.type()){
+			return JOp.cond(field, JExpr.lit(1231), JExpr.lit(1237));
+		}else if(classType.owner().DOUBLE == field.type()){
+			JClass doubleClass = classType.owner().ref(Double.class);
+			JExpression bits = doubleClass.staticInvoke("doubleToLongBits").arg(field);
+			return JExpr.cast(classType.owner().INT, bits.xor(doubleClass.staticInvoke("doubleToLongBits").arg(field).shrz(JExpr.lit(32))));
+		}else{
+			return shiftXORCastLong(classType, field);
+		}
+	}
+
 	/**
 	 * Used to get the hash code for a long.
 	 * @param classType
@@ -115,13 +172,22 @@ public class HashAndEqualsHandlerImpl03 implements HashAndEqualsHandler {
 			body._if(JOp.not(JExpr._super().invoke("equals").arg(obj)))._then()._return(JExpr.lit(false));
 		}
 
-		body._if(JOp.ne(JExpr._this().invoke("getClass"), obj.invoke("getClass")))._then()._return(JExpr.lit(false));
+		if((classType.mods().getValue() & JMod.FINAL) != 0){
+			// Without sub-classes instanceof is the same as comparing the classes.
+			body._if(JOp.not(obj._instanceof(classType)))._then()._return(JExpr.lit(false));
+		}else{
+			body._if(JOp.ne(JExpr._this().invoke("getClass"), obj.invoke("getClass")))._then()._return(JExpr.lit(false));
+		}
 		// declare the other
 		JVar other = body.decl(JMod.NONE, classType, "other", JExpr.cast(classType, obj));
+		if(immutable && classSchema.getExtends() == null){
+			// The cached hash codes of the whole objects. A sub-class gets
+			// here through super.equals().
+			body._if(JOp.ne(JExpr.invoke("hashCode"), other.invoke("hashCode")))._then()._return(JExpr.lit(false));
+		}
 		
-		// Now process each property
-		Map<String, ObjectSchema> fieldMap = classSchema.getObjectFieldMap();
-		for (Map.Entry<String, ObjectSchema> entry : fieldMap.entrySet()) {
+		// Now process each property, the cheapest comparisons first
+		for (Map.Entry<String, ObjectSchema> entry : orderByEqualsCost(classSchema, classType)) {
 			String propName = entry.getKey();
 			ObjectSchema propSchema = entry.getValue();
 			// Look up the field for this property
@@ -129,6 +195,38 @@ public class HashAndEqualsHandlerImpl03 implements HashAndEqualsHandler {
 			// Now process this field
 			TYPE type = PropertyUtils.validateNonNullType(classType, propSchema);
 
+			if(PropertyUtils.hasPresenceBit(classType, field)){
+				// Compare the presence bits then the values.
+				JConditional outerCon = body._if(PropertyUtils.isNull(classType, field));
+				outerCon._then()
+						._if(JOp.not(PropertyUtils.isNull(classType, other, field)))
+						._then()._return(JExpr.lit(false));
+				outerCon._elseif(
+						PropertyUtils.isNull(classType, other, field).cor(
+								primitiveNotEqual(classType, field, JExpr.ref(other, field))))._then()
+						._return(JExpr.lit(false));
+				continue;
+			}
+			if(isEnum(field.type())){
+				// Each enum value is a single instance.
+				body._if(JOp.ne(field, JExpr.ref(other, field)))._then()._return(JExpr.lit(false));
+				continue;
+			}
+			JType unboxed = field.type().unboxify();
+			if(unboxed.isPrimitive() && unboxed != field.type()){
+				// Compare the unboxed values of a boxed Long, Double or Boolean.
+				String valueMethod = unboxed.name() + "Value";
+				JConditional outerCon = body._if(JOp.eq(field, JExpr._null()));
+				outerCon._then()
+						._if(JOp.ne(JExpr.ref(other, field), JExpr._null()))
+						._then()._return(JExpr.lit(false));
+				outerCon._elseif(
+						JOp.eq(JExpr.ref(other, field), JExpr._null()).cor(
+								primitiveNotEqual(classType, unboxed, field.invoke(valueMethod),
+										JExpr.ref(other, field).invoke(valueMethod))))._then()
+						._return(JExpr.lit(false));
+				continue;
+			}
 			// For all non-primitives we can use "hashCode"
 			// just use equals() for all objects
 			JConditional outerCon = body._if(JOp.eq(field, JExpr._null()));
@@ -173,4 +271,72 @@ public class HashAndEqualsHandlerImpl03 implements HashAndEqualsHandler {
 		return method;
 	}
 
+	/**
+	 * Doubles are compared by their bits so NaN equals NaN the same as Double.equals().
+	 * @param classType
+	 * @param field
+	 * @param otherField
+	 * @return
+	 */
+	protected static JExpression primitiveNotEqual(JDefinedClass classType, JFieldVar field, JExpression otherField){
+		return primitiveNotEqual(classType, field.type(), field, otherField);
+	}
+
+	private static JExpression primitiveNotEqual(JDefinedClass classType, JType primitiveType, JExpression value, JExpression otherValue){
+		if(classType.owner().DOUBLE == primitiveType){
+			JClass doubleClass = classType.owner().ref(Double.class);
+			return JOp.ne(doubleClass.staticInvoke("doubleToLongBits").arg(value),
+					doubleClass.staticInvoke("doubleToLongBits").arg(otherValue));
+		}
+		return JOp.ne(value, otherValue);
+	}
+
+	/**
+	 * The properties of the class ordered by the cost of comparing them:
+	 * primitives, then strings, then enumerations and dates, then other
+	 * objects, then collections. The schema order is kept within each group.
+	 * @param classSchema
+	 * @param classType
+	 * @return
+	 */
+	protected static List<Map.Entry<String, ObjectSchema>> orderByEqualsCost(ObjectSchema classSchema, JDefinedClass classType){
+		List<Map.Entry<String, ObjectSchema>> ordered = new ArrayList<Map.Entry<String, ObjectSchema>>(classSchema.getObjectFieldMap().entrySet());
+		// A stable sort.
+		ordered.sort((one, two) -> Integer.compare(equalsCost(classType, one.getKey()), equalsCost(classType, two.getKey())));
+		return ordered;
+	}
+
+	/**
+	 * The relative cost of comparing a property in equals().
+	 * @param classType
+	 * @param propName
+	 * @return
+	 */
+	static int equalsCost(JDefinedClass classType, String propName){
+		JFieldVar field = PropertyUtils.getPropertyReference(classType, propName);
+		JType type = field.type();
+		if(type.unboxify().isPrimitive()){
+			return 0;
+		}
+		String name = type.erasure().fullName();
+		if(String.class.getName().equals(name)){
+			return 1;
+		}
+		if(isEnum(type) || Date.class.getName().equals(name)){
+			return 2;
+		}
+		if(type instanceof JClass){
+			JClass erasure = ((JClass) type).erasure();
+			if(classType.owner().ref(Collection.class).isAssignableFrom(erasure)
+					|| classType.owner().ref(Map.class).isAssignableFrom(erasure)){
+				return 4;
+			}
+		}
+		return 3;
+	}
+
+	private static boolean isEnum(JType type){
+		return type instanceof JDefinedClass && ((JDefinedClass) type).getClassType() == ClassType.ENUM;
+	}
+
 }
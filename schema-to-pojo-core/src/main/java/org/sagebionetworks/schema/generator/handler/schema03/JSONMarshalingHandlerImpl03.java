@@ -8,7 +8,6 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 
 import org.sagebionetworks.schema.FORMAT;
-import org.sagebionetworks.schema.JavaKeyword;
 import org.sagebionetworks.schema.ObjectSchema;
 import org.sagebionetworks.schema.ObjectSchemaImpl;
 import org.sagebionetworks.schema.TYPE;
@@ -17,9 +16,15 @@ import org.sagebionetworks.schema.adapter.JSONEntity;
 import org.sagebionetworks.schema.adapter.JSONMapAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.streaming.JsonToken;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenReader;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenWriter;
+import org.sagebionetworks.schema.adapter.streaming.StreamingDateUtils;
+import org.sagebionetworks.schema.adapter.streaming.StreamingJSONEntity;
 import org.sagebionetworks.schema.generator.InstanceFactoryGenerator;
 import org.sagebionetworks.schema.generator.PropertyUtils;
 import org.sagebionetworks.schema.generator.handler.JSONMarshalingHandler;
+import org.sagebionetworks.schema.metrics.MarshalingMetrics;
 
 import com.sun.codemodel.ClassType;
 import com.sun.codemodel.JBlock;
@@ -39,6 +44,8 @@ import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JOp;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JTryBlock;
 import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
 import com.sun.codemodel.JWhileLoop;
@@ -47,6 +54,31 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 
 	private static final String VAR_PREFIX = "__";
 
+	private boolean streamingMarshaling = false;
+	private boolean marshalingMetrics = false;
+
+	/**
+	 * When set, each class will also implement {@link StreamingJSONEntity} so it
+	 * can be read from a {@link JsonTokenReader} and written to a
+	 * {@link JsonTokenWriter} in a single pass, without a JSONObjectAdapter.
+	 * 
+	 * @param streamingMarshaling
+	 */
+	public void setStreamingMarshaling(boolean streamingMarshaling) {
+		this.streamingMarshaling = streamingMarshaling;
+	}
+
+	/**
+	 * When set, initializeFromJSONObject() and writeToJSONObject() record each
+	 * call with {@link MarshalingMetrics}. The work is moved to a private
+	 * method and the public method times the call to it.
+	 * 
+	 * @param marshalingMetrics
+	 */
+	public void setMarshalingMetrics(boolean marshalingMetrics) {
+		this.marshalingMetrics = marshalingMetrics;
+	}
+
 	@Override
 	public void addJSONMarshaling(ObjectSchema classSchema,	JDefinedClass classType, InstanceFactoryGenerator interfaceFactoryGenerator) {
 		// There is nothing to do for interfaces.
@@ -58,11 +90,19 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 
 		// Create the init method
 		JMethod initMethod = createMethodInitializeFromJSONObject(classSchema, classType, interfaceFactoryGenerator);
+		if (marshalingMetrics) {
+			// The constructor calls the public method so it is also measured.
+			initMethod = classType.getMethod("initializeFromJSONObject", new JType[] { initMethod.params().get(0).type() });
+		}
 		// setup a constructor.
 		createConstructor(classSchema, classType, initMethod);
 		
 		// Add the second method.
 		createWriteToJSONObject(classSchema, classType);
+
+		if (streamingMarshaling) {
+			addStreamingMarshaling(classSchema, classType, interfaceFactoryGenerator);
+		}
 	}
 	
 	/**
@@ -86,8 +126,10 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 		docs.addThrows(JSONObjectAdapterException.class);
 		// Create the constructor body
         JBlock body = constructor.body();
-		// First add a super call
-        if(classSchema.getExtends() != null){
+		// First add a super call. The adapter constructor of an immutable super
+		// class would call the initializeFromJSONObject() of this class, which
+		// can only be called once, so the no-args constructor is used instead.
+        if(classSchema.getExtends() != null && getInitializedField(classType) == null){
         	JInvocation invocation = JExpr.invoke("super").arg(param);
         	body.add(invocation);
         }else{
@@ -117,6 +159,8 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 		JMethod method = createBaseMethod(classSchema, classType, "initializeFromJSONObject");
 		JVar param = method.params().get(0);
 		JBlock body = method.body();
+		rejectInitialized(body, classType);
+		resetHashCode(body, classType);
 		
 		// First validate against the schema
 		JFieldVar allKeyNames = classType.fields().get(ObjectSchema.ALL_KEYS_NAME);
@@ -161,9 +205,17 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 				}
 
 			} else if (TYPE.BOOLEAN == type || TYPE.NUMBER == type || TYPE.INTEGER == type) {
-				JClass typeClass = (JClass) field.type();
-				// Basic assign
-				thenBlock.assign(field, JExpr._new(typeClass).arg(param.invoke(type.getMethodName()).arg(propNameConstant)));
+				JExpression value = param.invoke(type.getMethodName()).arg(propNameConstant);
+				if (PropertyUtils.hasPresenceBit(classType, field)) {
+					// Primitive fields take the value as is.
+					PropertyUtils.assign(thenBlock, classType, field, value);
+				} else if (field.type().unboxify().isPrimitive()) {
+					// Use valueOf() to box so cached instances are used.
+					thenBlock.assign(field, ((JClass) field.type()).staticInvoke("valueOf").arg(value));
+				} else {
+					// Integers can be dates
+					thenBlock.assign(field, JExpr._new(field.type()).arg(value));
+				}
 			} else if (TYPE.ARRAY == type) {
 				// Determine the type of the field
 				JClass typeClass = (JClass) field.type();
@@ -378,19 +430,87 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 				//have a corresponding property
 				if (propSchema.getDefault() == null) {
 					// For non-require properties set the property to null
-					hasCondition._else().assign(field, JExpr._null());
+					PropertyUtils.assignNull(hasCondition._else(), classType, field);
 				} else {
 					JExpression propShouldBe = assignDefaultProperty(propSchema);
-					hasCondition._else().assign(field, propShouldBe);
+					PropertyUtils.assign(hasCondition._else(), classType, field, propShouldBe);
 				}
 
 			}
 		}
+		// Check the constraints of the properties that were just read
+		invokeValidateProperties(body, classType);
         // Always return the param
         body._return(param);
 		return method;
 	}
 
+	/**
+	 * Throw an IllegalStateException when an instance of an immutable class
+	 * has already been built or read from JSON, and otherwise mark it as
+	 * initialized. Only the root class of an immutable class hierarchy has
+	 * the field, and the methods of its sub-classes call the root first.
+	 * 
+	 * @param body
+	 * @param classType
+	 */
+	private void rejectInitialized(JBlock body, JDefinedClass classType) {
+		JFieldVar initialized = classType.fields().get(TypeCreatorHandlerImpl03.INITIALIZED);
+		if (initialized != null) {
+			JExpression message = JExpr.invoke("getClass").invoke("getName")
+					.plus(JExpr.lit(" is immutable and has already been initialized"));
+			body._if(JExpr._this().ref(initialized))._then()
+					._throw(JExpr._new(classType.owner().ref(IllegalStateException.class)).arg(message));
+			body.assign(JExpr._this().ref(initialized), JExpr.TRUE);
+		}
+	}
+
+	/**
+	 * Find the {@link TypeCreatorHandlerImpl03#INITIALIZED} field of the class
+	 * or of one of its generated super classes.
+	 * 
+	 * @param classType
+	 * @return null if the class is not immutable.
+	 */
+	private static JFieldVar getInitializedField(JDefinedClass classType) {
+		JClass type = classType;
+		while (type instanceof JDefinedClass) {
+			JFieldVar initialized = ((JDefinedClass) type).fields().get(TypeCreatorHandlerImpl03.INITIALIZED);
+			if (initialized != null) {
+				return initialized;
+			}
+			type = type._extends();
+		}
+		return null;
+	}
+
+	/**
+	 * Clear the hash code cached by an immutable class, when there is one, so
+	 * it is computed again from the properties that are about to be read.
+	 * 
+	 * @param body
+	 * @param classType
+	 */
+	private void resetHashCode(JBlock body, JDefinedClass classType) {
+		JFieldVar cache = classType.fields().get(HashAndEqualsHandlerImpl03.HASH_CODE_CACHE);
+		if (cache != null) {
+			body.assign(JExpr._this().ref(cache), JExpr.lit(0));
+		}
+	}
+
+	/**
+	 * Call the private method added by the ValidationHandler, when there is one.
+	 * 
+	 * @param body
+	 * @param classType
+	 */
+	private void invokeValidateProperties(JBlock body, JDefinedClass classType) {
+		JMethod validateProperties = classType.getMethod(ValidationHandlerImpl03.VALIDATE_PROPERTIES, new JType[0]);
+		if (validateProperties != null) {
+			body.invoke(validateProperties);
+		}
+	}
+
 	private JFieldVar getPropertyKeyConstantReference(JDefinedClass classType, String propName) {
 		JFieldVar propNameConstant = classType.fields().get(ObjectSchemaImpl.getKeyConstantName(propName));
 		if (propNameConstant == null) {
@@ -439,7 +559,7 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 			if(format == FORMAT.DATE_TIME || format == FORMAT.DATE || format == FORMAT.TIME){
 				// These are all date formats
 				// Use the adapter to adapter to convert from a string to a date
-				return adapter.invoke("convertStringToDate").arg(model.ref(FORMAT.class).staticInvoke("valueOf").arg(format.name())).arg(stringFromAdapter);
+				return adapter.invoke("convertStringToDate").arg(model.ref(FORMAT.class).staticRef(format.name())).arg(stringFromAdapter);
 			}else {
 				throw new IllegalArgumentException("Unsupporetd format: "+format);
 			}
@@ -496,7 +616,7 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 			if(format == FORMAT.DATE_TIME || format == FORMAT.DATE || format == FORMAT.TIME){
 				// These are all date formats
 				// Use the adapter to adapter to convert from a string to a date
-				return adapter.invoke("convertDateToString").arg(model.ref(FORMAT.class).staticInvoke("valueOf").arg(format.name())).arg(field);
+				return adapter.invoke("convertDateToString").arg(model.ref(FORMAT.class).staticRef(format.name())).arg(field);
 			}else{
 				throw new IllegalArgumentException("Unsupporetd format: "+format);
 			}
@@ -556,9 +676,7 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 	}
 
 	private JInvocation getJavaEnumValue(JClass enumClass, JExpression stringValue) {
-		JInvocation javaStringValue = enumClass.owner().ref(JavaKeyword.class)
-				.staticInvoke("determineJavaName").arg(stringValue);
-		return enumClass.staticInvoke("valueOf").arg(javaStringValue);
+		return enumClass.staticInvoke(TypeCreatorHandlerImpl03.ENUM_FROM_JSON_NAME).arg(stringValue);
 	}
 
 	protected JExpression createExpressionToGetFromMap(JVar adapter, JExpression jsonMap, JVar jsonKey, ObjectSchema typeSchema,
@@ -636,9 +754,57 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 	 * @return
 	 */
 	protected JMethod createBaseMethod(ObjectSchema classSchema, JDefinedClass classType, String methodName){
+		if (marshalingMetrics) {
+			return createMeasuredMethod(classSchema, classType, methodName);
+		}
 		JMethod method  = classType.method(JMod.PUBLIC, JSONObjectAdapter.class, methodName);
 		method._throws(JSONObjectAdapterException.class);
 		method.annotate(Override.class);
+		return addBaseMethodBody(classSchema, classType, methodName, method);
+	}
+
+	/**
+	 * Create a public method that records each call with
+	 * {@link MarshalingMetrics} and delegates to a private method. The private
+	 * method is returned so the caller can add the body to it.
+	 * 
+	 * @param classSchema
+	 * @param classType
+	 * @param methodName
+	 * @return
+	 */
+	private JMethod createMeasuredMethod(ObjectSchema classSchema, JDefinedClass classType, String methodName){
+		JCodeModel model = classType.owner();
+		String bodyName = VAR_PREFIX + methodName;
+		JMethod bodyMethod = classType.method(JMod.PRIVATE, JSONObjectAdapter.class, bodyName);
+		bodyMethod._throws(JSONObjectAdapterException.class);
+		addBaseMethodBody(classSchema, classType, methodName, bodyMethod);
+
+		JMethod method = classType.method(JMod.PUBLIC, JSONObjectAdapter.class, methodName);
+		method._throws(JSONObjectAdapterException.class);
+		method.annotate(Override.class);
+		JVar param = method.param(model._ref(JSONObjectAdapter.class), "adapter");
+		method.javadoc().add("@see JSONEntity#" + methodName + "(JSONObjectAdapter)");
+		JClass metrics = model.ref(MarshalingMetrics.class);
+		JFieldRef operation = model.ref(MarshalingMetrics.Operation.class).staticRef(
+				"initializeFromJSONObject".equals(methodName) ? "INITIALIZE" : "WRITE");
+		JBlock body = method.body();
+		// Only the most derived class records, not the super calls.
+		JVar start = body.decl(JMod.FINAL, model.LONG, VAR_PREFIX + "start",
+				metrics.staticInvoke("start").arg(JExpr._this()).arg(classType.dotclass()));
+		JVar success = body.decl(model.BOOLEAN, VAR_PREFIX + "success", JExpr.FALSE);
+		JTryBlock tryBlock = body._try();
+		JVar result = tryBlock.body().decl(JMod.FINAL, model._ref(JSONObjectAdapter.class), VAR_PREFIX + "result",
+				JExpr.invoke(bodyMethod).arg(param));
+		tryBlock.body().assign(success, JExpr.TRUE);
+		tryBlock.body()._return(result);
+		// The adapter does not know the size of its JSON, so no bytes are recorded.
+		tryBlock._finally().add(metrics.staticInvoke("record").arg(classType.dotclass()).arg(operation).arg(start)
+				.arg(success));
+		return bodyMethod;
+	}
+
+	private JMethod addBaseMethodBody(ObjectSchema classSchema, JDefinedClass classType, String methodName, JMethod method){
 		// add the parameter
 		JVar param = method.param(classType.owner()._ref(JSONObjectAdapter.class), "adapter");
 		JDocComment docs = method.javadoc();
@@ -687,13 +853,13 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 			TYPE type = PropertyUtils.validateNonNullType(classType, propSchema);
 			FORMAT format = propSchema.getFormat();
 
-			// Primitives are easy, just assign them
-			if (field.type().isPrimitive() && format == null) {
+			// Primitives without a presence bit are easy, just assign them
+			if (field.type().isPrimitive() && !PropertyUtils.hasPresenceBit(classType, field) && format == null) {
 				body.add(param.invoke("put").arg(propNameConstant).arg(field));
 				continue;
 			}
 			// Add an if
-			JConditional hasCondition = body._if(field.ne(JExpr._null()));
+			JConditional hasCondition = body._if(PropertyUtils.isNotNull(classType, field));
 			JBlock thenBlock = hasCondition._then();
 			// For strings and primitives we can just assign the value right
 			// from the adapter.
@@ -702,7 +868,7 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 				JExpression valueToPut = null;
 				if (propSchema.getEnum() != null) {
 					// Write the enum as a JSON string
-					valueToPut = enumGetJsonName(classType.owner(), field);
+					valueToPut = enumGetJsonName(field);
 				} else {
 					// This is just a string
 					valueToPut = assignPropertyToJSONString(
@@ -716,7 +882,6 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 				// Basic assign
 				thenBlock.add(param.invoke("put").arg(propNameConstant).arg(expr));
 			} else if (TYPE.BOOLEAN == type || TYPE.NUMBER == type) {
-				JClass typeClass = (JClass) field.type();
 				// Basic assign
 				thenBlock.add(param.invoke("put").arg(propNameConstant).arg(field));
 			} else if (TYPE.ARRAY == type) {
@@ -832,7 +997,7 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 			JDefinedClass getTheClass = (JDefinedClass)arrayTypeClass;
 			ClassType shouldHaveEnum = getTheClass.getClassType();
 			if (ClassType.ENUM == shouldHaveEnum){
-				return enumGetJsonName(arrayTypeClass.owner(), value);
+				return enumGetJsonName(value);
 			}
 		}
 		
@@ -862,7 +1027,7 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 			JDefinedClass getTheClass = (JDefinedClass) typeClass;
 			ClassType shouldHaveEnum = getTheClass.getClassType();
 			if (ClassType.ENUM == shouldHaveEnum) {
-				return enumGetJsonName(typeClass.owner(), value);
+				return enumGetJsonName(value);
 			}
 		}
 
@@ -885,8 +1050,503 @@ public class JSONMarshalingHandlerImpl03 implements JSONMarshalingHandler{
 		}
 	}
 
-	private JInvocation enumGetJsonName(JCodeModel codeModel, JExpression value) {
-		return codeModel.ref(JavaKeyword.class).staticInvoke("determineJsonName").arg(value.invoke("name"));
+	private JInvocation enumGetJsonName(JExpression value) {
+		return value.invoke(TypeCreatorHandlerImpl03.ENUM_GET_JSON_NAME);
+	}
+
+	/**
+	 * Add the methods of {@link StreamingJSONEntity}. Only the root of a class
+	 * hierarchy gets readFrom() and writeTo(); every class adds its own
+	 * properties by overriding initializeDefaults(), readProperty(),
+	 * validateRequired() and writeProperties().
+	 * 
+	 * @param classSchema
+	 * @param classType
+	 * @param interfaceFactoryGenerator
+	 */
+	protected void addStreamingMarshaling(ObjectSchema classSchema, JDefinedClass classType, InstanceFactoryGenerator interfaceFactoryGenerator) {
+		classType._implements(StreamingJSONEntity.class);
+		if (classSchema.getExtends() == null) {
+			createReadFrom(classType);
+			createWriteTo(classType);
+		}
+		createInitializeDefaults(classSchema, classType);
+		createReadProperty(classSchema, classType, interfaceFactoryGenerator);
+		createValidateRequired(classSchema, classType);
+		createWriteProperties(classSchema, classType);
+	}
+
+	/**
+	 * Create the readFrom() method that reads each name of the next JSON object
+	 * and passes it to readProperty().
+	 * 
+	 * @param classType
+	 * @return
+	 */
+	protected JMethod createReadFrom(JDefinedClass classType) {
+		JCodeModel model = classType.owner();
+		JMethod method = classType.method(JMod.PUBLIC, JsonTokenReader.class, "readFrom");
+		method._throws(JSONObjectAdapterException.class);
+		method.annotate(Override.class);
+		JVar reader = method.param(model.ref(JsonTokenReader.class), "reader");
+		JDocComment docs = method.javadoc();
+		docs.add("@see StreamingJSONEntity#readFrom(JsonTokenReader)");
+		docs.addParam(reader);
+		docs.addThrows(JSONObjectAdapterException.class);
+		JBlock body = method.body();
+		JFieldRef staticMessageRef = model.ref(StreamingJSONEntity.class).staticRef("READER_CANNOT_BE_NULL");
+		body._if(reader.eq(JExpr._null()))
+			._then()._throw(createIllegalArgumentException(classType, staticMessageRef));
+		rejectInitialized(body, classType);
+		body.invoke("initializeDefaults");
+		body.add(reader.invoke("beginObject"));
+		JWhileLoop loop = body._while(reader.invoke("hasNext"));
+		JVar name = loop.body().decl(model.ref(String.class), VAR_PREFIX + "name", reader.invoke("nextName"));
+		// null is treated the same as a missing property
+		JConditional ifNull = loop.body()._if(createIsNextNull(model, reader));
+		ifNull._then().add(reader.invoke("nextNull"));
+		ifNull._elseif(JExpr.invoke("readProperty").arg(name).arg(reader).not())
+			._then().add(reader.invoke("skipValue"));
+		body.add(reader.invoke("endObject"));
+		body.invoke("validateRequired");
+		if (classType.getMethod(ValidationHandlerImpl03.VALIDATE, new JType[0]) != null) {
+			body.invoke(ValidationHandlerImpl03.VALIDATE);
+		}
+		body._return(reader);
+		return method;
+	}
+
+	/**
+	 * Create the writeTo() method that writes a JSON object containing
+	 * everything added by writeProperties().
+	 * 
+	 * @param classType
+	 * @return
+	 */
+	protected JMethod createWriteTo(JDefinedClass classType) {
+		JCodeModel model = classType.owner();
+		JMethod method = classType.method(JMod.PUBLIC, JsonTokenWriter.class, "writeTo");
+		method._throws(JSONObjectAdapterException.class);
+		method.annotate(Override.class);
+		JVar writer = method.param(model.ref(JsonTokenWriter.class), "writer");
+		JDocComment docs = method.javadoc();
+		docs.add("@see StreamingJSONEntity#writeTo(JsonTokenWriter)");
+		docs.addParam(writer);
+		docs.addThrows(JSONObjectAdapterException.class);
+		JBlock body = method.body();
+		JFieldRef staticMessageRef = model.ref(StreamingJSONEntity.class).staticRef("WRITER_CANNOT_BE_NULL");
+		body._if(writer.eq(JExpr._null()))
+			._then()._throw(createIllegalArgumentException(classType, staticMessageRef));
+		body.add(writer.invoke("beginObject"));
+		body.invoke("writeProperties").arg(writer);
+		body.add(writer.invoke("endObject"));
+		body._return(writer);
+		return method;
+	}
+
+	/**
+	 * Create the method that sets each property to the value it should have
+	 * when it is missing from the JSON.
+	 * 
+	 * @param classSchema
+	 * @param classType
+	 * @return
+	 */
+	protected JMethod createInitializeDefaults(ObjectSchema classSchema, JDefinedClass classType) {
+		JMethod method = classType.method(JMod.PROTECTED, classType.owner().VOID, "initializeDefaults");
+		JBlock body = method.body();
+		if (classSchema.getExtends() != null) {
+			method.annotate(Override.class);
+			body.add(JExpr._super().invoke("initializeDefaults"));
+		}
+		resetHashCode(body, classType);
+		for (Map.Entry<String, ObjectSchema> entry : classSchema.getObjectFieldMap().entrySet()) {
+			ObjectSchema propSchema = entry.getValue();
+			JFieldVar field = PropertyUtils.getPropertyReference(classType, entry.getKey());
+			if (propSchema.getDefault() != null) {
+				PropertyUtils.assign(body, classType, field, assignDefaultProperty(propSchema));
+			} else {
+				PropertyUtils.assignNull(body, classType, field);
+			}
+		}
+		return method;
+	}
+
+	/**
+	 * Create the method that reads the value of a single property. The method
+	 * returns false when the name does not belong to a property of the class.
+	 * 
+	 * @param classSchema
+	 * @param classType
+	 * @param interfaceFactoryGenerator
+	 * @return
+	 */
+	protected JMethod createReadProperty(ObjectSchema classSchema, JDefinedClass classType, InstanceFactoryGenerator interfaceFactoryGenerator) {
+		JCodeModel model = classType.owner();
+		JMethod method = classType.method(JMod.PROTECTED, model.BOOLEAN, "readProperty");
+		method._throws(JSONObjectAdapterException.class);
+		JVar name = method.param(model.ref(String.class), VAR_PREFIX + "name");
+		JVar reader = method.param(model.ref(JsonTokenReader.class), "reader");
+		JBlock body = method.body();
+		Map<String, ObjectSchema> fieldMap = classSchema.getObjectFieldMap();
+		if (!fieldMap.isEmpty()) {
+			JSwitch nameSwitch = body._switch(name);
+			for (Map.Entry<String, ObjectSchema> entry : fieldMap.entrySet()) {
+				String propName = entry.getKey();
+				ObjectSchema propSchema = entry.getValue();
+				JFieldVar field = PropertyUtils.getPropertyReference(classType, propName);
+				JFieldVar propNameConstant = getPropertyKeyConstantReference(classType, propName);
+				PropertyUtils.validateNonNullType(classType, propSchema);
+				// Each case gets its own block so local variables do not collide.
+				JBlock caseBlock = new JBlock();
+				nameSwitch._case(propNameConstant).body().add(caseBlock);
+				readPropertyFromReader(caseBlock, classType, reader, propSchema, field, interfaceFactoryGenerator);
+				caseBlock._return(JExpr.TRUE);
+			}
+		}
+		if (classSchema.getExtends() != null) {
+			method.annotate(Override.class);
+			body._return(JExpr._super().invoke("readProperty").arg(name).arg(reader));
+		} else {
+			body._return(JExpr.FALSE);
+		}
+		return method;
+	}
+
+	/**
+	 * Read a single non-null property value from the reader and assign it to
+	 * the field.
+	 */
+	private void readPropertyFromReader(JBlock block, JDefinedClass classType, JVar reader, ObjectSchema propSchema, JFieldVar field,
+			InstanceFactoryGenerator interfaceFactoryGenerator) {
+		JCodeModel model = classType.owner();
+		TYPE type = propSchema.getType();
+		if (TYPE.ARRAY == type) {
+			JClass typeClass = (JClass) field.type();
+			if (typeClass.getTypeParameters().size() != 1)
+				throw new IllegalArgumentException("Cannot determine the type of an array: " + typeClass.fullName());
+			JClass arrayTypeClass = typeClass.getTypeParameters().get(0);
+			ObjectSchema arrayTypeSchema = propSchema.getItems();
+			if (arrayTypeSchema == null)
+				throw new IllegalArgumentException("A property type is ARRAY but the getItems() returned null");
+			if (arrayTypeSchema.getType() == null)
+				throw new IllegalArgumentException("TYPE cannot be null for an ObjectSchema");
+			if (!propSchema.getUniqueItems()) {
+				block.assign(field, JExpr._new(model.ref(ArrayList.class).narrow(arrayTypeClass)));
+			} else {
+				block.assign(field, JExpr._new(model.ref(LinkedHashSet.class).narrow(arrayTypeClass)));
+			}
+			block.add(reader.invoke("beginArray"));
+			JWhileLoop loop = block._while(reader.invoke("hasNext"));
+			JConditional ifNull = loop.body()._if(createIsNextNull(model, reader));
+			ifNull._then().add(reader.invoke("nextNull"));
+			ifNull._then().add(field.invoke("add").arg(JExpr._null()));
+			JBlock elseBlock = ifNull._else();
+			JExpression value = createExpressionToReadValue(elseBlock, reader, arrayTypeSchema, arrayTypeClass, interfaceFactoryGenerator);
+			elseBlock.add(field.invoke("add").arg(value));
+			block.add(reader.invoke("endArray"));
+		} else if (TYPE.TUPLE_ARRAY_MAP == type) {
+			JClass typeClass = (JClass) field.type();
+			if (typeClass.getTypeParameters().size() != 2)
+				throw new IllegalArgumentException("Cannot determine the key and value type of a map: " + typeClass.fullName());
+			ObjectSchema keyTypeSchema = propSchema.getKey();
+			if (keyTypeSchema == null)
+				throw new IllegalArgumentException("A property type is MAP but the getKey() returned null");
+			ObjectSchema valueTypeSchema = propSchema.getValue();
+			if (valueTypeSchema == null)
+				throw new IllegalArgumentException("A property type is MAP but the getValue() returned null");
+			JClass keyTypeClass = typeClass.getTypeParameters().get(0);
+			JClass valueTypeClass = typeClass.getTypeParameters().get(1);
+			block.assign(field, JExpr._new(model.ref(LinkedHashMap.class).narrow(keyTypeClass, valueTypeClass)));
+			// Each entry is written as {"key":k,"value":v}
+			block.add(reader.invoke("beginArray"));
+			JWhileLoop loop = block._while(reader.invoke("hasNext"));
+			JBlock loopBody = loop.body();
+			JVar key = loopBody.decl(keyTypeClass, VAR_PREFIX + "key", JExpr._null());
+			JVar value = loopBody.decl(valueTypeClass, VAR_PREFIX + "value", JExpr._null());
+			loopBody.add(reader.invoke("beginObject"));
+			JWhileLoop entryLoop = loopBody._while(reader.invoke("hasNext"));
+			JVar entryName = entryLoop.body().decl(model.ref(String.class), VAR_PREFIX + "entryName", reader.invoke("nextName"));
+			JConditional ifNull = entryLoop.body()._if(createIsNextNull(model, reader));
+			ifNull._then().add(reader.invoke("nextNull"));
+			JConditional ifKey = ifNull._elseif(JExpr.lit("key").invoke("equals").arg(entryName));
+			JBlock keyBlock = ifKey._then();
+			keyBlock.assign(key, createExpressionToReadValue(keyBlock, reader, keyTypeSchema, keyTypeClass, interfaceFactoryGenerator));
+			JConditional ifValue = ifKey._elseif(JExpr.lit("value").invoke("equals").arg(entryName));
+			JBlock valueBlock = ifValue._then();
+			valueBlock.assign(value, createExpressionToReadValue(valueBlock, reader, valueTypeSchema, valueTypeClass, interfaceFactoryGenerator));
+			ifValue._else().add(reader.invoke("skipValue"));
+			loopBody.add(reader.invoke("endObject"));
+			loopBody.add(field.invoke("put").arg(key).arg(value));
+			block.add(reader.invoke("endArray"));
+		} else if (TYPE.MAP == type) {
+			JClass typeClass = (JClass) field.type();
+			if (typeClass.getTypeParameters().size() != 2)
+				throw new IllegalArgumentException("Cannot determine the key and value type of a map: " + typeClass.fullName());
+			ObjectSchema valueTypeSchema = propSchema.getValue();
+			if (valueTypeSchema == null)
+				throw new IllegalArgumentException("A property type is MAP but the getValue() returned null");
+			JClass keyTypeClass = typeClass.getTypeParameters().get(0);
+			JClass valueTypeClass = typeClass.getTypeParameters().get(1);
+			block.assign(field, JExpr._new(model.ref(LinkedHashMap.class).narrow(keyTypeClass, valueTypeClass)));
+			block.add(reader.invoke("beginObject"));
+			JWhileLoop loop = block._while(reader.invoke("hasNext"));
+			JBlock loopBody = loop.body();
+			JVar key = loopBody.decl(model.ref(String.class), VAR_PREFIX + "key", reader.invoke("nextName"));
+			JVar value = loopBody.decl(valueTypeClass, VAR_PREFIX + "value");
+			JConditional ifNull = loopBody._if(createIsNextNull(model, reader));
+			ifNull._then().add(reader.invoke("nextNull"));
+			ifNull._then().assign(value, JExpr._null());
+			JBlock elseBlock = ifNull._else();
+			elseBlock.assign(value, createExpressionToReadValue(elseBlock, reader, valueTypeSchema, valueTypeClass, interfaceFactoryGenerator));
+			loopBody.add(field.invoke("put").arg(key).arg(value));
+			block.add(reader.invoke("endObject"));
+		} else {
+			JExpression value = createExpressionToReadValue(block, reader, propSchema, (JClass) field.type().boxify(), interfaceFactoryGenerator);
+			PropertyUtils.assign(block, classType, field, value);
+		}
+	}
+
+	/**
+	 * Create an expression that reads the next non-null value from the reader.
+	 * Objects need more than one statement so these are added to the passed
+	 * block and the resulting local variable is returned.
+	 */
+	protected JExpression createExpressionToReadValue(JBlock block, JVar reader, ObjectSchema typeSchema, JClass typeClass,
+			InstanceFactoryGenerator interfaceFactoryGenerator) {
+		JCodeModel model = typeClass.owner();
+		TYPE type = typeSchema.getType();
+		FORMAT format = typeSchema.getFormat();
+		if (isEnum(typeClass)) {
+			return getJavaEnumValue(typeClass, reader.invoke("nextString"));
+		}
+		if (isJavaObject(typeClass)) {
+			// The value can be any JSON type.
+			return reader.invoke("nextAnyValue");
+		}
+		if (TYPE.STRING == type) {
+			JExpression string = reader.invoke("nextString");
+			if (format == null || format == FORMAT.URI) {
+				return string;
+			} else if (format == FORMAT.DATE_TIME || format == FORMAT.DATE || format == FORMAT.TIME) {
+				return model.ref(StreamingDateUtils.class).staticInvoke("convertStringToDate")
+						.arg(model.ref(FORMAT.class).staticRef(format.name())).arg(string);
+			} else {
+				throw new IllegalArgumentException("Unsupporetd format: " + format);
+			}
+		} else if (TYPE.INTEGER == type) {
+			return convertLongAsNeeded(model, reader, format, reader.invoke("nextLong"));
+		} else if (TYPE.NUMBER == type) {
+			return reader.invoke("nextDouble");
+		} else if (TYPE.BOOLEAN == type) {
+			return reader.invoke("nextBoolean");
+		} else if (TYPE.ARRAY == type) {
+			throw new IllegalArgumentException("Nested arrays are currently not supported");
+		} else if (TYPE.TUPLE_ARRAY_MAP == type || TYPE.MAP == type) {
+			throw new IllegalArgumentException("Nested maps are currently not supported");
+		} else if (typeClass.isInterface() || typeClass.isAbstract()) {
+			if (interfaceFactoryGenerator == null)
+				throw new IllegalArgumentException("A InterfaceFactoryGenerator is need to create interfaces or abstract classes.");
+			// The concrete type is needed before the object can be created.
+			JDefinedClass createRegister = interfaceFactoryGenerator.getFactoryClass(typeClass);
+			JFieldRef conreteTypeRef = model.ref(ObjectSchema.class).staticRef("CONCRETE_TYPE");
+			JVar localAdapter = block.decl(model.ref(JSONObjectAdapter.class), VAR_PREFIX + "localAdapter", reader.invoke("nextJSONObjectAdapter"));
+			JVar object = block.decl(typeClass, VAR_PREFIX + "object", JExpr.cast(typeClass,
+					createRegister.staticInvoke("singleton").invoke("newInstance").arg(localAdapter.invoke("getString").arg(conreteTypeRef))));
+			block.add(object.invoke("initializeFromJSONObject").arg(localAdapter));
+			return object;
+		} else if (typeClass instanceof JDefinedClass) {
+			// Classes generated with this handler can read themselves.
+			JVar object = block.decl(typeClass, VAR_PREFIX + "object", JExpr._new(typeClass));
+			block.add(object.invoke("readFrom").arg(reader));
+			return object;
+		} else {
+			return JExpr._new(typeClass).arg(reader.invoke("nextJSONObjectAdapter"));
+		}
+	}
+
+	/**
+	 * Create the method that throws when a required property is missing.
+	 * 
+	 * @param classSchema
+	 * @param classType
+	 * @return
+	 */
+	protected JMethod createValidateRequired(ObjectSchema classSchema, JDefinedClass classType) {
+		JMethod method = classType.method(JMod.PROTECTED, classType.owner().VOID, "validateRequired");
+		JBlock body = method.body();
+		if (classSchema.getExtends() != null) {
+			method.annotate(Override.class);
+			body.add(JExpr._super().invoke("validateRequired"));
+		}
+		for (Map.Entry<String, ObjectSchema> entry : classSchema.getObjectFieldMap().entrySet()) {
+			String propName = entry.getKey();
+			ObjectSchema propSchema = entry.getValue();
+			if (propSchema.isRequired() && propSchema.getDefault() == null) {
+				JFieldVar field = PropertyUtils.getPropertyReference(classType, propName);
+				JFieldVar propNameConstant = getPropertyKeyConstantReference(classType, propName);
+				body._if(PropertyUtils.isNull(classType, field))
+					._then()._throw(createIllegalArgumentExceptionPropertyNotNull(classType, propNameConstant));
+			}
+		}
+		return method;
+	}
+
+	/**
+	 * Create the method that writes the name and value of each property.
+	 * 
+	 * @param classSchema
+	 * @param classType
+	 * @return
+	 */
+	protected JMethod createWriteProperties(ObjectSchema classSchema, JDefinedClass classType) {
+		JCodeModel model = classType.owner();
+		JMethod method = classType.method(JMod.PROTECTED, model.VOID, "writeProperties");
+		method._throws(JSONObjectAdapterException.class);
+		JVar writer = method.param(model.ref(JsonTokenWriter.class), "writer");
+		JBlock body = method.body();
+		if (classSchema.getExtends() != null) {
+			method.annotate(Override.class);
+			body.add(JExpr._super().invoke("writeProperties").arg(writer));
+		}
+		for (Map.Entry<String, ObjectSchema> entry : classSchema.getObjectFieldMap().entrySet()) {
+			String propName = entry.getKey();
+			ObjectSchema propSchema = entry.getValue();
+			JFieldVar field = PropertyUtils.getPropertyReference(classType, propName);
+			JFieldVar propNameConstant = getPropertyKeyConstantReference(classType, propName);
+			TYPE type = PropertyUtils.validateNonNullType(classType, propSchema);
+
+			JConditional hasCondition = body._if(PropertyUtils.isNotNull(classType, field));
+			JBlock thenBlock = hasCondition._then();
+			thenBlock.add(writer.invoke("name").arg(propNameConstant));
+			if (TYPE.ARRAY == type) {
+				JClass typeClass = (JClass) field.type();
+				if (typeClass.getTypeParameters().size() != 1)
+					throw new IllegalArgumentException("Cannot determine the type of an array: " + typeClass.fullName());
+				JClass arrayTypeClass = typeClass.getTypeParameters().get(0);
+				ObjectSchema arrayTypeSchema = propSchema.getItems();
+				if (arrayTypeSchema == null)
+					throw new IllegalArgumentException("A property type is ARRAY but the getItems() returned null");
+				if (arrayTypeSchema.getType() == null)
+					throw new IllegalArgumentException("TYPE cannot be null for an ObjectSchema");
+				thenBlock.add(writer.invoke("beginArray"));
+				JForEach loop = thenBlock.forEach(arrayTypeClass, VAR_PREFIX + "value", field);
+				writeNullableValue(loop.body(), writer, arrayTypeSchema, arrayTypeClass, loop.var());
+				thenBlock.add(writer.invoke("endArray"));
+			} else if (TYPE.TUPLE_ARRAY_MAP == type) {
+				JClass typeClass = (JClass) field.type();
+				if (typeClass.getTypeParameters().size() != 2)
+					throw new IllegalArgumentException("Cannot determine the key and value type of a map: " + typeClass.fullName());
+				ObjectSchema keyTypeSchema = propSchema.getKey();
+				if (keyTypeSchema == null)
+					throw new IllegalArgumentException("A property type is MAP but the getKey() returned null");
+				ObjectSchema valueTypeSchema = propSchema.getValue();
+				if (valueTypeSchema == null)
+					throw new IllegalArgumentException("A property type is MAP but the getValue() returned null");
+				JClass keyTypeClass = typeClass.getTypeParameters().get(0);
+				JClass valueTypeClass = typeClass.getTypeParameters().get(1);
+				thenBlock.add(writer.invoke("beginArray"));
+				JType mapEntry = model.ref(Map.Entry.class).narrow(keyTypeClass, valueTypeClass);
+				JForEach loop = thenBlock.forEach(mapEntry, VAR_PREFIX + "entry", field.invoke("entrySet"));
+				JBlock loopBody = loop.body();
+				loopBody.add(writer.invoke("beginObject"));
+				loopBody.add(writer.invoke("name").arg(JExpr.lit("key")));
+				writeNullableValue(loopBody, writer, keyTypeSchema, keyTypeClass, loop.var().invoke("getKey"));
+				loopBody.add(writer.invoke("name").arg(JExpr.lit("value")));
+				writeNullableValue(loopBody, writer, valueTypeSchema, valueTypeClass, loop.var().invoke("getValue"));
+				loopBody.add(writer.invoke("endObject"));
+				thenBlock.add(writer.invoke("endArray"));
+			} else if (TYPE.MAP == type) {
+				JClass typeClass = (JClass) field.type();
+				if (typeClass.getTypeParameters().size() != 2)
+					throw new IllegalArgumentException("Cannot determine the key and value type of a map: " + typeClass.fullName());
+				ObjectSchema valueTypeSchema = propSchema.getValue();
+				if (valueTypeSchema == null)
+					throw new IllegalArgumentException("A property type is STR_KEY_MAP but the getValue() returned null");
+				JClass keyTypeClass = typeClass.getTypeParameters().get(0);
+				JClass valueTypeClass = typeClass.getTypeParameters().get(1);
+				thenBlock.add(writer.invoke("beginObject"));
+				JType mapEntry = model.ref(Map.Entry.class).narrow(keyTypeClass, valueTypeClass);
+				JForEach loop = thenBlock.forEach(mapEntry, VAR_PREFIX + "entry", field.invoke("entrySet"));
+				loop.body().add(writer.invoke("name").arg(loop.var().invoke("getKey")));
+				writeNullableValue(loop.body(), writer, valueTypeSchema, valueTypeClass, loop.var().invoke("getValue"));
+				thenBlock.add(writer.invoke("endObject"));
+			} else {
+				writeValue(thenBlock, writer, propSchema, (JClass) field.type().boxify(), field);
+			}
+			// throw an exception it this is a required fields
+			if (propSchema.isRequired()) {
+				hasCondition._else()
+						._throw(createIllegalArgumentExceptionPropertyNotNull(classType, propNameConstant));
+			}
+		}
+		return method;
+	}
+
+	/**
+	 * Write a value that might be null.
+	 */
+	private void writeNullableValue(JBlock block, JVar writer, ObjectSchema typeSchema, JClass typeClass, JExpression value) {
+		JConditional ifNull = block._if(value.eq(JExpr._null()));
+		ifNull._then().add(writer.invoke("nullValue"));
+		writeValue(ifNull._else(), writer, typeSchema, typeClass, value);
+	}
+
+	/**
+	 * Write a non-null value.
+	 */
+	protected void writeValue(JBlock block, JVar writer, ObjectSchema typeSchema, JClass typeClass, JExpression value) {
+		JCodeModel model = typeClass.owner();
+		TYPE type = typeSchema.getType();
+		FORMAT format = typeSchema.getFormat();
+		JExpression toWrite;
+		if (isJavaObject(typeClass)) {
+			block.add(writer.invoke("anyValue").arg(value));
+			return;
+		}
+		if (isEnum(typeClass)) {
+			toWrite = enumGetJsonName(value);
+		} else if (TYPE.STRING == type) {
+			if (format == null || format == FORMAT.URI) {
+				toWrite = value;
+			} else if (format == FORMAT.DATE_TIME || format == FORMAT.DATE || format == FORMAT.TIME) {
+				toWrite = model.ref(StreamingDateUtils.class).staticInvoke("convertDateToString")
+						.arg(model.ref(FORMAT.class).staticRef(format.name())).arg(value);
+			} else {
+				throw new IllegalArgumentException("Unsupporetd format: " + format);
+			}
+		} else if (TYPE.INTEGER == type) {
+			toWrite = assignPropertyToJSONLong(model, typeSchema, value);
+		} else if (TYPE.ARRAY == type) {
+			throw new IllegalArgumentException("Nested arrays are currently not supported");
+		} else if (TYPE.TUPLE_ARRAY_MAP == type || TYPE.MAP == type) {
+			throw new IllegalArgumentException("Nested maps are currently not supported");
+		} else {
+			// Numbers, booleans and entities can be written as they are.
+			toWrite = value;
+		}
+		block.add(writer.invoke("value").arg(toWrite));
+	}
+
+	/**
+	 * Expression that is true when the next token of the reader is null.
+	 */
+	private JExpression createIsNextNull(JCodeModel model, JVar reader) {
+		return reader.invoke("peek").eq(model.ref(JsonToken.class).staticRef("NULL"));
+	}
+
+	/**
+	 * Is the passed class java.lang.Object?
+	 */
+	private boolean isJavaObject(JClass typeClass) {
+		return Object.class.getName().equals(typeClass.fullName());
+	}
+
+	/**
+	 * Is the passed class a generated enumeration?
+	 */
+	private boolean isEnum(JClass typeClass) {
+		return typeClass instanceof JDefinedClass && ClassType.ENUM == ((JDefinedClass) typeClass).getClassType();
 	}
 
 	/**
@@ -1,19 +1,33 @@
 package org.sagebionetworks.schema.generator.handler.schema03;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.sagebionetworks.schema.ObjectSchema;
+import org.sagebionetworks.schema.generator.PropertyUtils;
 import org.sagebionetworks.schema.generator.handler.PropertyHandler;
 
 import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
 import com.sun.codemodel.JCommentPart;
 import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JDocComment;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
 import com.sun.codemodel.JType;
+import com.sun.codemodel.JTypeVar;
 import com.sun.codemodel.JVar;
 
 /**
@@ -25,6 +39,32 @@ import com.sun.codemodel.JVar;
  */
 public class PropertyHandlerImpl03 implements PropertyHandler {
 
+	private boolean primitiveFields = false;
+	private boolean immutable = false;
+
+	/**
+	 * When set, boolean, number and integer properties are stored in primitive
+	 * fields with a presence bit instead of boxed fields. The getters and
+	 * setters still use the boxed types so null means the property is not set.
+	 * 
+	 * @param primitiveFields
+	 */
+	public void setPrimitiveFields(boolean primitiveFields) {
+		this.primitiveFields = primitiveFields;
+	}
+
+	/**
+	 * When set, there are no public setters. Each property is set with the
+	 * Builder added by the TypeCreatorHandler, which copies the lists, sets,
+	 * maps and dates it is given. The getters of list, set and map properties
+	 * return unmodifiable views and the getters of dates return copies.
+	 * 
+	 * @param immutable
+	 */
+	public void setImmutable(boolean immutable) {
+		this.immutable = immutable;
+	}
+
 	@Override
 	public JFieldVar createProperty(ObjectSchema propertySchema, JDefinedClass classType, String propertyName, JType propertyType) {
 		// Create a private field for this property.
@@ -34,6 +74,10 @@ public class PropertyHandlerImpl03 implements PropertyHandler {
 			if(ObjectSchema.CONCRETE_TYPE.equals(propertyName)){
 				// Initialize the concrete type property with the full class name.
 				field = classType.field(JMod.PRIVATE, propertyType, propertyName, classType.staticRef("class").invoke("getName"));
+			}else if(primitiveFields && propertyType.unboxify().isPrimitive()){
+				// Store the unboxed value and track null with a presence bit.
+				field = classType.field(JMod.PRIVATE, propertyType.unboxify(), propertyName);
+				PropertyUtils.addPresenceBit(classType, field);
 			}else{
 				field = classType.field(JMod.PRIVATE, propertyType, propertyName);
 			}
@@ -46,7 +90,16 @@ public class PropertyHandlerImpl03 implements PropertyHandler {
 
 		// Create the getter and setter
 		createGetter(propertySchema, classType, propertyName, propertyType, field);
-		createSetter(propertySchema, classType, propertyName, propertyType, field);
+		if(!immutable){
+			createSetter(propertySchema, classType, propertyName, propertyType, field);
+		}else if(!classType.isInterface()){
+			// Only the builder can call the setter.
+			JMethod setter = createSetter(propertySchema, classType, propertyName, propertyType, field);
+			setter.mods().setPrivate();
+			if(!ObjectSchema.CONCRETE_TYPE.equals(propertyName)){
+				createBuilderSetter(propertySchema, classType, propertyName, propertyType);
+			}
+		}
 		return field;
 	}
 	
@@ -64,7 +117,16 @@ public class PropertyHandlerImpl03 implements PropertyHandler {
 		// Create a method body if this is not an interface
 		if(!classType.isInterface()){
 	        JBlock body = method.body();
-	        body._return(field);
+	        String unmodifiable = immutable ? unmodifiableMethod(propertyType) : null;
+	        if(unmodifiable != null){
+	        	body._if(field.eq(JExpr._null()))._then()._return(JExpr._null());
+	        	body._return(classType.owner().ref(Collections.class).staticInvoke(unmodifiable).arg(field));
+	        }else if(immutable && isDate(propertyType)){
+	        	// A Date is mutable so only a copy is returned.
+	        	body._return(copyOf(propertyType, field));
+	        }else{
+	        	body._return(PropertyUtils.boxedValue(classType, field));
+	        }
 		}
         // Add the java doc
         JDocComment doc = method.javadoc();
@@ -80,8 +142,9 @@ public class PropertyHandlerImpl03 implements PropertyHandler {
 	 * @param propertyName
 	 * @param propertyType
 	 * @param field
+	 * @return
 	 */
-	private void createSetter(ObjectSchema propertySchema, JDefinedClass classType, String propertyName, JType propertyType, JFieldVar field){
+	private JMethod createSetter(ObjectSchema propertySchema, JDefinedClass classType, String propertyName, JType propertyType, JFieldVar field){
 		String methodName = setterName(propertyName);
 		JMethod method = classType.method(JMod.PUBLIC, classType.owner().VOID, methodName);
 		// Add the parameter
@@ -97,12 +160,107 @@ public class PropertyHandlerImpl03 implements PropertyHandler {
 	        	invoke.arg(propertyName+" is required and cannot be set to null");
 	        	conditional._then()._throw(invoke);
 	        }
-	        body.assign(JExpr._this().ref(field), param);
+	        if(PropertyUtils.hasPresenceBit(classType, field)){
+	        	// A null clears the presence bit.
+	        	if(!propertySchema.isRequired()){
+	        		JConditional isNull = body._if(param.eq(JExpr._null()));
+	        		PropertyUtils.assignNull(isNull._then(), classType, field);
+	        		isNull._then()._return();
+	        	}
+	        	body.assign(JExpr._this().ref(field), param);
+	        	PropertyUtils.setPresent(body, classType, field);
+	        }else{
+	        	body.assign(JExpr._this().ref(field), param);
+	        }
 		}
         // Add the java doc
         JDocComment doc = method.javadoc();
         setCommentTileAndDescription(propertySchema, doc);
         JCommentPart part = doc.addParam(param);
+        return method;
+	}
+
+	/**
+	 * Add a method to the AbstractBuilder of the class that calls the setter
+	 * of the property with a copy of any list, set, map or date, and returns
+	 * the builder.
+	 * @param propertySchema
+	 * @param classType
+	 * @param propertyName
+	 * @param propertyType
+	 */
+	private void createBuilderSetter(ObjectSchema propertySchema, JDefinedClass classType, String propertyName, JType propertyType){
+		JDefinedClass builder = TypeCreatorHandlerImpl03.getAbstractBuilder(classType);
+		if(builder == null){
+			throw new IllegalArgumentException("Immutable class " + classType.fullName() + " does not have a builder");
+		}
+		// The second type parameter is the type of the concrete builder.
+		JTypeVar builderType = builder.typeParams()[1];
+		String methodName = setterName(propertyName);
+		JMethod method = builder.method(JMod.PUBLIC, builderType, methodName);
+		JVar param = method.param(propertyType, propertyName);
+		// The setter is private so the target is cast to the class that declares it.
+		JExpression target = JExpr.cast(classType, JExpr.invoke("target"));
+		method.body().add(target.invoke(methodName).arg(copyOf(propertyType, param)));
+		method.body()._return(JExpr.invoke("self"));
+		JDocComment doc = method.javadoc();
+		setCommentTileAndDescription(propertySchema, doc);
+		doc.addParam(param);
+		doc.addReturn().add("this builder");
+	}
+
+	/**
+	 * An expression for a copy of a list, set, map or date value that might
+	 * be null, so the caller cannot change the value held by an immutable
+	 * class. Values of other types are immutable and are used as they are.
+	 * @param propertyType
+	 * @param value
+	 * @return
+	 */
+	private static JExpression copyOf(JType propertyType, JExpression value){
+		if(!(propertyType instanceof JClass)){
+			return value;
+		}
+		JClass classType = (JClass) propertyType;
+		String unmodifiable = unmodifiableMethod(propertyType);
+		JExpression copy;
+		if(isDate(propertyType)){
+			copy = JExpr._new(classType).arg(value.invoke("getTime"));
+		}else if("unmodifiableList".equals(unmodifiable)){
+			copy = JExpr._new(classType.owner().ref(ArrayList.class).narrow(classType.getTypeParameters())).arg(value);
+		}else if("unmodifiableSet".equals(unmodifiable)){
+			copy = JExpr._new(classType.owner().ref(LinkedHashSet.class).narrow(classType.getTypeParameters())).arg(value);
+		}else if("unmodifiableMap".equals(unmodifiable)){
+			copy = JExpr._new(classType.owner().ref(LinkedHashMap.class).narrow(classType.getTypeParameters())).arg(value);
+		}else{
+			return value;
+		}
+		return JOp.cond(value.eq(JExpr._null()), JExpr._null(), copy);
+	}
+
+	private static boolean isDate(JType propertyType){
+		return propertyType instanceof JClass && ((JClass) propertyType).erasure().fullName().equals(Date.class.getName());
+	}
+
+	/**
+	 * The method of Collections that wraps a value of the given type in an
+	 * unmodifiable view.
+	 * @param propertyType
+	 * @return null if the type is not a list, set or map.
+	 */
+	private static String unmodifiableMethod(JType propertyType){
+		if(!(propertyType instanceof JClass)){
+			return null;
+		}
+		JClass erasure = ((JClass) propertyType).erasure();
+		if(erasure.fullName().equals(List.class.getName())){
+			return "unmodifiableList";
+		}else if(erasure.fullName().equals(Set.class.getName())){
+			return "unmodifiableSet";
+		}else if(erasure.fullName().equals(Map.class.getName())){
+			return "unmodifiableMap";
+		}
+		return null;
 	}
 
 	/**
@@ -7,8 +7,13 @@ import org.sagebionetworks.schema.ObjectSchema;
 import org.sagebionetworks.schema.TYPE;
 import org.sagebionetworks.schema.generator.PropertyUtils;
 import org.sagebionetworks.schema.generator.handler.ToStringHandler;
+import org.sagebionetworks.schema.util.BoundedToString;
+import org.sagebionetworks.schema.util.ToStringLimits;
 
 import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JDocComment;
 import com.sun.codemodel.JExpr;
@@ -24,6 +29,26 @@ import com.sun.codemodel.JVar;
  *
  */
 public class ToStringHandlerImpl03 implements ToStringHandler {
+
+	/**
+	 * The name of the constant with the limits of a bounded toString().
+	 */
+	public static final String TO_STRING_LIMITS = "__TO_STRING_LIMITS";
+
+	private ToStringLimits limits = null;
+
+	/**
+	 * When set, toString() describes at most the given number of collection
+	 * elements, string characters and levels of nested objects. Each class
+	 * implements {@link BoundedToString} so nested objects append to the
+	 * same StringBuilder.
+	 * 
+	 * @param limits
+	 *            Null for a toString() that describes everything.
+	 */
+	public void setLimits(ToStringLimits limits) {
+		this.limits = limits;
+	}
 	
 	/**
 	 * Add toString() to the POJO
@@ -37,7 +62,116 @@ public class ToStringHandlerImpl03 implements ToStringHandler {
 			throw new IllegalArgumentException("Cannot add hash and equals to an interface");
 		}
 		// Add the toString method
-		addToString(classSchema, classType);
+		if(limits != null){
+			addBoundedToString(classSchema, classType);
+		}else{
+			addToString(classSchema, classType);
+		}
+	}
+
+	/**
+	 * Add toString() and the two toString(StringBuilder) methods of
+	 * {@link BoundedToString}. toString() presizes its builder with an
+	 * estimate of the length of a typical description of the class.
+	 * 
+	 * @param classSchema
+	 * @param classType
+	 * @return The toString(StringBuilder, int) method.
+	 */
+	protected JMethod addBoundedToString(ObjectSchema classSchema, JDefinedClass classType){
+		JCodeModel model = classType.owner();
+		JClass builderClass = model.ref(StringBuilder.class);
+		classType._implements(BoundedToString.class);
+		JClass limitsClass = model.ref(ToStringLimits.class);
+		JFieldVar limitsField = classType.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, limitsClass, TO_STRING_LIMITS,
+				JExpr._new(limitsClass).arg(JExpr.lit(limits.getMaxElements())).arg(JExpr.lit(limits.getMaxStringLength()))
+						.arg(JExpr.lit(limits.getMaxDepth())));
+
+		JMethod toString = classType.method(JMod.PUBLIC, model.ref(String.class), "toString");
+		toString.annotate(Override.class);
+		toString.javadoc().add("A description of this object within the limits of " + TO_STRING_LIMITS + ".");
+		toString.body()._return(JExpr.invoke("toString")
+				.arg(JExpr._new(builderClass).arg(JExpr.lit(estimateLength(classSchema, classType.fullName()))))
+				.arg(JExpr.lit(0)).invoke("toString"));
+
+		JMethod append = classType.method(JMod.PUBLIC, builderClass, "toString");
+		append.annotate(Override.class);
+		JVar appendBuilder = append.param(builderClass, "builder");
+		append.body()._return(JExpr.invoke("toString").arg(appendBuilder).arg(JExpr.lit(0)));
+
+		JMethod method = classType.method(JMod.PUBLIC, builderClass, "toString");
+		method.annotate(Override.class);
+		JVar builder = method.param(builderClass, "builder");
+		JVar depth = method.param(model.INT, "depth");
+		JBlock body = method.body();
+		if(classSchema.getExtends() != null){
+			body.add(JExpr._super().invoke("toString").arg(builder).arg(depth));
+		}
+		body.add(builder.invoke("append").arg(classType.fullName() + " ["));
+		for (Map.Entry<String, ObjectSchema> entry: classSchema.getObjectFieldMap().entrySet()){
+			String keyName = entry.getKey();
+			JFieldVar field = PropertyUtils.getPropertyReference(classType, keyName);
+			PropertyUtils.validateNonNullType(classType, entry.getValue());
+			body.add(builder.invoke("append").arg(JavaKeyword.determineJavaName(keyName) + "="));
+			if(PropertyUtils.hasPresenceBit(classType, field)){
+				// Append the primitive without boxing it.
+				JConditional isNull = body._if(PropertyUtils.isNull(classType, field));
+				isNull._then().add(builder.invoke("append").arg("null"));
+				isNull._else().add(builder.invoke("append").arg(field));
+			}else{
+				body.add(limitsField.invoke("append").arg(builder).arg(field).arg(depth));
+			}
+			body.add(builder.invoke("append").arg(" "));
+		}
+		body.add(builder.invoke("append").arg("]"));
+		body._return(builder);
+		return method;
+	}
+
+	/**
+	 * An estimate of the length of the description of a class, used for the
+	 * initial capacity of the StringBuilder.
+	 * 
+	 * @param classSchema
+	 * @param className
+	 * @return
+	 */
+	int estimateLength(ObjectSchema classSchema, String className){
+		// The name of the class, " [" and "]".
+		int length = className.length() + 3;
+		for (Map.Entry<String, ObjectSchema> entry: classSchema.getObjectFieldMap().entrySet()){
+			// The name, "=" and " ".
+			length += entry.getKey().length() + 2 + estimateValueLength(entry.getValue());
+		}
+		ObjectSchema superSchema = classSchema.getExtends();
+		if(superSchema != null && superSchema.getId() != null){
+			length += estimateLength(superSchema, superSchema.getId());
+		}
+		return length;
+	}
+
+	private int estimateValueLength(ObjectSchema propSchema){
+		TYPE type = propSchema.getType();
+		if(propSchema.getFormat() != null && propSchema.getFormat().isDateFormat()){
+			return 28;
+		}
+		if(propSchema.getEnum() != null){
+			return 12;
+		}
+		if(TYPE.BOOLEAN == type){
+			return 5;
+		}
+		if(TYPE.INTEGER == type || TYPE.NUMBER == type){
+			return 8;
+		}
+		if(TYPE.STRING == type){
+			return Math.min(16, limits.getMaxStringLength());
+		}
+		if(TYPE.ARRAY == type || TYPE.MAP == type || TYPE.TUPLE_ARRAY_MAP == type){
+			// A few short elements.
+			return 2 + 10 * Math.min(3, limits.getMaxElements());
+		}
+		return limits.getMaxDepth() > 0 ? 32 : 3;
 	}
 	
 	/**
@@ -111,7 +245,7 @@ public class ToStringHandlerImpl03 implements ToStringHandler {
 					TYPE.INTERFACE == type){
 				//add an assignment statements to the body
 				body.add(result.invoke("append").arg(JavaKeyword.determineJavaName(keyName) + "="));
-				body.add(result.invoke("append").arg(field));
+				body.add(result.invoke("append").arg(PropertyUtils.boxedValue(classType, field)));
 				body.add(result.invoke("append").arg(" "));
 			}else {
 				throw new IllegalArgumentException(keyName + 
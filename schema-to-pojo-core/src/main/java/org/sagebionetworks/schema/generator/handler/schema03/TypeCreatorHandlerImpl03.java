@@ -2,6 +2,7 @@ package org.sagebionetworks.schema.generator.handler.schema03;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,7 @@ import org.sagebionetworks.schema.adapter.JSONEntity;
 import org.sagebionetworks.schema.generator.handler.TypeCreatorHandler;
 
 import com.sun.codemodel.JArray;
+import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassAlreadyExistsException;
 import com.sun.codemodel.JCodeModel;
@@ -25,9 +27,13 @@ import com.sun.codemodel.JEnumConstant;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JSwitch;
 import com.sun.codemodel.JType;
+import com.sun.codemodel.JTypeVar;
+import com.sun.codemodel.JVar;
 
 /**
  * Handles type creation for version 03 
@@ -40,7 +46,45 @@ public class TypeCreatorHandlerImpl03 implements TypeCreatorHandler {
 	
 	
 	public static final String AUTO_GENERATED_MESSAGE = "Note: This class was auto-generated, and should not be directly modified.";
+	/**
+	 * The name of the field that holds the JSON name of each enumeration constant.
+	 */
+	public static final String ENUM_JSON_NAME_FIELD = "__jsonName";
+	/**
+	 * The name of the method that returns the JSON name of an enumeration constant.
+	 */
+	public static final String ENUM_GET_JSON_NAME = "getJsonName";
+	/**
+	 * The name of the static method that looks up an enumeration constant by its JSON name.
+	 */
+	public static final String ENUM_FROM_JSON_NAME = "fromJsonName";
+	/**
+	 * The name of the nested class that holds the builder methods of each
+	 * property of an immutable class.
+	 */
+	public static final String ABSTRACT_BUILDER = "AbstractBuilder";
+	/**
+	 * The name of the nested builder class of an immutable class.
+	 */
+	public static final String BUILDER = "Builder";
+	/**
+	 * The name of the field of the root class of an immutable class hierarchy
+	 * that is set once an instance has been built or read from JSON, after
+	 * which the instance cannot be initialized again.
+	 */
+	public static final String INITIALIZED = "__initialized";
 
+	private boolean immutable = false;
+
+	/**
+	 * When set, each class gets a nested Builder. The PropertyHandler adds a
+	 * method to the builder for each property in place of a public setter.
+	 * 
+	 * @param immutable
+	 */
+	public void setImmutable(boolean immutable) {
+		this.immutable = immutable;
+	}
 
 	@Override
 	public JType handelCreateType(JCodeModel codeModel, ObjectSchema schema, JType superType, JType arrayType, JType keyType,
@@ -170,6 +214,9 @@ public class TypeCreatorHandlerImpl03 implements TypeCreatorHandler {
 			}
 			// add all of the key constants
 			addKeyConstants(schema, newClass);
+			if(immutable && !newClass.isInterface()){
+				addBuilder(newClass, superType);
+			}
 			// Add all of the comments
 			addComments(schema, newClass);
 			return newClass;
@@ -210,6 +257,88 @@ public class TypeCreatorHandlerImpl03 implements TypeCreatorHandler {
 		}
 	}
 
+	/**
+	 * Add the builder classes of an immutable class. The AbstractBuilder of a
+	 * class extends the AbstractBuilder of its super class so the setters of
+	 * the inherited properties return the builder of the sub-class. The
+	 * Builder sets the properties of a single new instance that is returned
+	 * by build(). The root class also gets the {@link #INITIALIZED} field that
+	 * build() sets.
+	 * 
+	 * @param newClass
+	 * @param superType
+	 */
+	protected void addBuilder(JDefinedClass newClass, JType superType) {
+		JCodeModel codeModel = newClass.owner();
+		JDefinedClass abstractBuilder = createNestedClass(newClass, JMod.PUBLIC | JMod.STATIC | JMod.ABSTRACT, ABSTRACT_BUILDER);
+		JTypeVar instanceType = abstractBuilder.generify("T", newClass);
+		JTypeVar builderType = abstractBuilder.generify("B");
+		builderType.bound(abstractBuilder.narrow(instanceType, builderType));
+		abstractBuilder.javadoc().add("Sets the properties of a new " + newClass.name() + ".");
+		JDefinedClass superBuilder = superType instanceof JDefinedClass ? getAbstractBuilder((JDefinedClass) superType) : null;
+		JMethod constructor = abstractBuilder.constructor(JMod.PROTECTED);
+		JVar instanceParam = constructor.param(instanceType, "instance");
+		if(superBuilder != null){
+			abstractBuilder._extends(superBuilder.narrow(instanceType, builderType));
+			constructor.body().invoke("super").arg(instanceParam);
+		}else{
+			JFieldVar initialized = newClass.field(JMod.PRIVATE, codeModel.BOOLEAN, INITIALIZED);
+			// The root of the builders holds the instance.
+			JFieldVar instance = abstractBuilder.field(JMod.PRIVATE, instanceType, "instance");
+			constructor.body().assign(JExpr._this().ref(instance), instanceParam);
+
+			abstractBuilder.method(JMod.PROTECTED | JMod.ABSTRACT, builderType, "self");
+
+			JMethod target = abstractBuilder.method(JMod.PROTECTED, instanceType, "target");
+			target.javadoc().add("The instance being built.");
+			target.javadoc().addThrows(IllegalStateException.class).add("If build() has been called.");
+			target.body()._if(instance.eq(JExpr._null()))._then()._throw(
+					JExpr._new(codeModel.ref(IllegalStateException.class)).arg("build() has already been called"));
+			target.body()._return(instance);
+
+			JMethod build = abstractBuilder.method(JMod.PUBLIC, instanceType, "build");
+			build.javadoc().add("The built instance. The builder cannot be used after this is called.");
+			JVar result = build.body().decl(instanceType, "result", JExpr.invoke(target));
+			JExpression built = JExpr.cast(newClass, result);
+			build.body().assign(built.ref(initialized), JExpr.TRUE);
+			build.body().assign(instance, JExpr._null());
+			build.body()._return(result);
+		}
+
+		JDefinedClass builder = createNestedClass(newClass, JMod.PUBLIC | JMod.STATIC | JMod.FINAL, BUILDER);
+		builder._extends(abstractBuilder.narrow(newClass, builder));
+		builder.javadoc().add("Builds a new " + newClass.name() + ".");
+		builder.constructor(JMod.PUBLIC).body().invoke("super").arg(JExpr._new(newClass));
+		JMethod self = builder.method(JMod.PROTECTED, builder, "self");
+		self.annotate(Override.class);
+		self.body()._return(JExpr._this());
+	}
+
+	private static JDefinedClass createNestedClass(JDefinedClass outer, int mods, String name) {
+		try {
+			return outer._class(mods, name);
+		} catch (JClassAlreadyExistsException e) {
+			throw new IllegalArgumentException(outer.fullName() + " already has a nested class named " + name, e);
+		}
+	}
+
+	/**
+	 * Get the AbstractBuilder of an immutable class.
+	 * 
+	 * @param classType
+	 * @return null if the class does not have a builder.
+	 */
+	public static JDefinedClass getAbstractBuilder(JDefinedClass classType) {
+		Iterator<JDefinedClass> it = classType.classes();
+		while(it.hasNext()){
+			JDefinedClass nested = it.next();
+			if(ABSTRACT_BUILDER.equals(nested.name())){
+				return nested;
+			}
+		}
+		return null;
+	}
+
 	public void addComments(ObjectSchema schema, JDefinedClass newClass) {
 		// Add the comments to the class
 		JDocComment docs = newClass.javadoc();
@@ -226,6 +355,41 @@ public class TypeCreatorHandlerImpl03 implements TypeCreatorHandler {
 	}
 
 
+	/**
+	 * Add the cached JSON name of each constant and a static lookup from the
+	 * JSON name to the constant so marshaling does not need to translate
+	 * names with JavaKeyword.
+	 * @param schema
+	 * @param enumClass
+	 */
+	private void addEnumJsonNames(ObjectSchema schema, JDefinedClass enumClass) {
+		JCodeModel codeModel = enumClass.owner();
+		JFieldVar jsonNameField = enumClass.field(JMod.PRIVATE | JMod.FINAL, String.class, ENUM_JSON_NAME_FIELD);
+		JMethod constructor = enumClass.constructor(JMod.PRIVATE);
+		JVar jsonNameParam = constructor.param(String.class, "jsonName");
+		constructor.body().assign(JExpr._this().ref(jsonNameField), jsonNameParam);
+
+		JMethod getJsonName = enumClass.method(JMod.PUBLIC, String.class, ENUM_GET_JSON_NAME);
+		getJsonName.body()._return(jsonNameField);
+		getJsonName.javadoc().add("The name of this value in JSON.");
+		getJsonName.javadoc().addReturn();
+
+		JMethod fromJsonName = enumClass.method(JMod.PUBLIC | JMod.STATIC, enumClass, ENUM_FROM_JSON_NAME);
+		JVar name = fromJsonName.param(String.class, "jsonName");
+		fromJsonName.javadoc().add("Find the value with the given JSON name.");
+		fromJsonName.javadoc().addParam(name);
+		fromJsonName.javadoc().addReturn();
+		fromJsonName.javadoc().addThrows(IllegalArgumentException.class).add("If there is no value with the given JSON name.");
+		JSwitch nameSwitch = fromJsonName.body()._switch(name);
+		for(EnumValue enumName: schema.getEnum()){
+			String javaEnumName = JavaKeyword.determineJavaName(enumName.getName());
+			nameSwitch._case(JExpr.lit(enumName.getName())).body()._return(enumClass.staticRef(javaEnumName));
+		}
+		// Same result and error as valueOf() for any other name.
+		JBlock defaultBody = nameSwitch._default().body();
+		defaultBody._return(enumClass.staticInvoke("valueOf").arg(name));
+	}
+
 	/**
 	 * Create or get an Enum class.
 	 * @param _package
@@ -242,12 +406,15 @@ public class TypeCreatorHandlerImpl03 implements TypeCreatorHandler {
 			for(EnumValue enumName: schema.getEnum()){
 				String javaEnumName = JavaKeyword.determineJavaName(enumName.getName());
 				JEnumConstant enumConst = enumClass.enumConstant(javaEnumName);
+				// Each constant holds its JSON name.
+				enumConst.arg(JExpr.lit(enumName.getName()));
 				if(enumName.getDescription() != null) {
 					JDocComment doc = enumConst.javadoc();
 					doc.add(enumName.getDescription());
 				}
 				
 			}
+			addEnumJsonNames(schema, enumClass);
 			// Add all of the comments
 			addComments(schema, enumClass);
 			return enumClass;
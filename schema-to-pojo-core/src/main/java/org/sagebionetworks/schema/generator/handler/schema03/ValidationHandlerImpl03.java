@@ -0,0 +1,245 @@
+package org.sagebionetworks.schema.generator.handler.schema03;
+
+import java.util.Map;
+
+import org.sagebionetworks.schema.ObjectSchema;
+import org.sagebionetworks.schema.TYPE;
+import org.sagebionetworks.schema.generator.PropertyUtils;
+import org.sagebionetworks.schema.generator.handler.ValidationHandler;
+import org.sagebionetworks.schema.util.ValidationUtils;
+
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JDocComment;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JType;
+
+/**
+ * Adds validate() to a POJO. Each constraint of a property becomes a single
+ * comparison against a constant, patterns are compiled once into static
+ * constants, so the check can run as part of every deserialization.
+ *
+ */
+public class ValidationHandlerImpl03 implements ValidationHandler {
+
+	/**
+	 * The public method that validates the properties of the class and all of
+	 * its super classes.
+	 */
+	public static final String VALIDATE = "validate";
+
+	/**
+	 * The private method that validates only the properties declared by the
+	 * class. It is private so the JSON marshaling of a super class cannot call
+	 * it before the properties of the sub class have been read.
+	 */
+	public static final String VALIDATE_PROPERTIES = "__validateProperties";
+
+	private boolean runtimeValidation = false;
+
+	/**
+	 * When set, validate() is added to each class. Nothing is added otherwise.
+	 *
+	 * @param runtimeValidation
+	 */
+	public void setRuntimeValidation(boolean runtimeValidation) {
+		this.runtimeValidation = runtimeValidation;
+	}
+
+	@Override
+	public void addValidation(ObjectSchema classSchema, JDefinedClass classType) {
+		// There is nothing to do for interfaces.
+		if(TYPE.INTERFACE == classSchema.getType()){
+			throw new IllegalArgumentException("Cannot add validation to an interface");
+		}
+		if (!runtimeValidation) {
+			return;
+		}
+		JMethod validateProperties = createValidateProperties(classSchema, classType);
+		createValidate(classSchema, classType, validateProperties);
+	}
+
+	/**
+	 * Create the public validate() method.
+	 *
+	 * @param classSchema
+	 * @param classType
+	 * @param validateProperties
+	 *            The method that validates the properties declared by the
+	 *            class, or null when the class declares no constraints.
+	 * @return
+	 */
+	protected JMethod createValidate(ObjectSchema classSchema, JDefinedClass classType, JMethod validateProperties) {
+		JMethod method = classType.method(JMod.PUBLIC, classType.owner().VOID, VALIDATE);
+		JDocComment docs = method.javadoc();
+		docs.add("Validate the value of each property against the constraints of its schema.");
+		docs.addThrows(IllegalArgumentException.class).add("If a property violates a constraint.");
+		JBlock body = method.body();
+		if (classSchema.getExtends() != null && extendsGeneratedClass(classType)) {
+			method.annotate(Override.class);
+			body.add(JExpr._super().invoke(VALIDATE));
+		}
+		if (validateProperties != null) {
+			body.invoke(validateProperties);
+		}
+		return method;
+	}
+
+	/**
+	 * Does the class extend a class generated in the same run? Only those get
+	 * validate(), so only those can be called with super.validate().
+	 *
+	 * @param classType
+	 * @return
+	 */
+	private static boolean extendsGeneratedClass(JDefinedClass classType) {
+		JClass superClass = classType._extends();
+		return superClass instanceof JDefinedClass && superClass.owner() == classType.owner();
+	}
+
+	/**
+	 * Create the private method that validates the properties declared by the
+	 * class. The method is not created when none of the properties has a
+	 * constraint, so there is nothing to call while parsing.
+	 *
+	 * @param classSchema
+	 * @param classType
+	 * @return The method, or null if the class declares no constraints.
+	 */
+	protected JMethod createValidateProperties(ObjectSchema classSchema, JDefinedClass classType) {
+		JBlock body = new JBlock(false, false);
+		for (Map.Entry<String, ObjectSchema> entry : classSchema.getObjectFieldMap().entrySet()) {
+			String propName = entry.getKey();
+			ObjectSchema propSchema = entry.getValue();
+			JFieldVar field = PropertyUtils.getPropertyReference(classType, propName);
+			TYPE type = PropertyUtils.validateNonNullType(classType, propSchema);
+			// Only declare the null check when there is something to check.
+			JBlock checks = new JBlock(false, false);
+			if (TYPE.STRING == type && isString(field.type())) {
+				addStringChecks(checks, classType, propName, propSchema, field);
+			} else if ((TYPE.NUMBER == type || TYPE.INTEGER == type) && field.type().unboxify().isPrimitive()) {
+				addNumberChecks(checks, classType, propName, propSchema, field);
+			} else if (TYPE.ARRAY == type && !field.type().isPrimitive()) {
+				addArrayChecks(checks, classType, propName, propSchema, field);
+			}
+			if (!checks.isEmpty()) {
+				body._if(PropertyUtils.isNotNull(classType, field))._then().add(checks);
+			}
+		}
+		if (body.isEmpty()) {
+			return null;
+		}
+		JMethod method = classType.method(JMod.PRIVATE, classType.owner().VOID, VALIDATE_PROPERTIES);
+		method.body().add(body);
+		return method;
+	}
+
+	private void addStringChecks(JBlock checks, JDefinedClass classType, String propName, ObjectSchema propSchema, JFieldVar field) {
+		if (propSchema.getPattern() != null) {
+			JFieldVar pattern = PropertyUtils.getPatternConstant(classType, propName, propSchema.getPattern());
+			addCheck(checks, classType, pattern.invoke("matcher").arg(field).invoke("matches").not(),
+					propName, "must match the pattern: " + propSchema.getPattern(), field);
+		}
+		if (propSchema.getMinLength() != null) {
+			addCheck(checks, classType, field.invoke("length").lt(JExpr.lit(propSchema.getMinLength())),
+					propName, "must have a length of at least " + propSchema.getMinLength(), field);
+		}
+		if (propSchema.getMaxLength() != null) {
+			addCheck(checks, classType, field.invoke("length").gt(JExpr.lit(propSchema.getMaxLength())),
+					propName, "must have a length of at most " + propSchema.getMaxLength(), field);
+		}
+	}
+
+	private void addNumberChecks(JBlock checks, JDefinedClass classType, String propName, ObjectSchema propSchema, JFieldVar field) {
+		JCodeModel model = classType.owner();
+		boolean isLong = field.type().unboxify() == model.LONG;
+		if (propSchema.getMinimum() != null) {
+			addCheck(checks, classType, field.lt(numberLiteral(propSchema.getMinimum(), isLong)),
+					propName, "must be at least " + propSchema.getMinimum(), field);
+		}
+		if (propSchema.getExclusiveMinimum() != null) {
+			addCheck(checks, classType, field.lte(numberLiteral(propSchema.getExclusiveMinimum(), isLong)),
+					propName, "must be greater than " + propSchema.getExclusiveMinimum(), field);
+		}
+		if (propSchema.getMaximum() != null) {
+			addCheck(checks, classType, field.gt(numberLiteral(propSchema.getMaximum(), isLong)),
+					propName, "must be at most " + propSchema.getMaximum(), field);
+		}
+		if (propSchema.getExclusiveMaximum() != null) {
+			addCheck(checks, classType, field.gte(numberLiteral(propSchema.getExclusiveMaximum(), isLong)),
+					propName, "must be less than " + propSchema.getExclusiveMaximum(), field);
+		}
+		Number divisibleBy = propSchema.getDivisibleBy();
+		if (divisibleBy != null) {
+			if (divisibleBy.doubleValue() == 0.0)
+				throw new IllegalArgumentException("Property: '" + propName + "' cannot be divisibleBy zero on class: " + classType.name());
+			JExpression notDivisible;
+			if (isLong && isIntegral(divisibleBy)) {
+				notDivisible = JOp.mod(field, JExpr.lit(divisibleBy.longValue())).ne(JExpr.lit(0L));
+			} else {
+				notDivisible = model.ref(ValidationUtils.class).staticInvoke("isDivisibleBy").arg(field)
+						.arg(JExpr.lit(divisibleBy.doubleValue())).not();
+			}
+			addCheck(checks, classType, notDivisible, propName, "must be divisible by " + divisibleBy, field);
+		}
+	}
+
+	private void addArrayChecks(JBlock checks, JDefinedClass classType, String propName, ObjectSchema propSchema, JFieldVar field) {
+		if (propSchema.getMinItems() != null) {
+			addCheck(checks, classType, field.invoke("size").lt(JExpr.lit(propSchema.getMinItems())),
+					propName, "must have at least " + propSchema.getMinItems() + " items", null);
+		}
+		if (propSchema.getMaxItems() != null) {
+			addCheck(checks, classType, field.invoke("size").gt(JExpr.lit(propSchema.getMaxItems())),
+					propName, "must have at most " + propSchema.getMaxItems() + " items", null);
+		}
+		// A Set cannot hold duplicates so only lists need to be checked.
+		if (propSchema.getUniqueItems() && "java.util.List".equals(field.type().erasure().fullName())) {
+			addCheck(checks, classType, classType.owner().ref(ValidationUtils.class).staticInvoke("hasUniqueItems").arg(field).not(),
+					propName, "must have unique items", null);
+		}
+	}
+
+	/**
+	 * Add an if that throws an IllegalArgumentException when the given
+	 * condition is true. The message is built only when the check fails.
+	 *
+	 * @param checks
+	 * @param classType
+	 * @param failed
+	 * @param propName
+	 * @param description
+	 * @param value
+	 *            The value to add to the message, or null.
+	 */
+	private void addCheck(JBlock checks, JDefinedClass classType, JExpression failed, String propName, String description, JExpression value) {
+		JExpression message = JExpr.lit("Property: '" + propName + "' " + description + (value == null ? "" : ", was: "));
+		if (value != null) {
+			message = message.plus(value);
+		}
+		checks._if(failed)._then()._throw(JExpr._new(classType.owner().ref(IllegalArgumentException.class)).arg(message));
+	}
+
+	private static boolean isString(JType type) {
+		return String.class.getName().equals(type.fullName());
+	}
+
+	private static boolean isIntegral(Number number) {
+		double value = number.doubleValue();
+		return value == Math.rint(value) && !Double.isInfinite(value);
+	}
+
+	private static JExpression numberLiteral(Number number, boolean isLong) {
+		if (isLong && (number instanceof Long || number instanceof Integer)) {
+			return JExpr.lit(number.longValue());
+		}
+		return JExpr.lit(number.doubleValue());
+	}
+}
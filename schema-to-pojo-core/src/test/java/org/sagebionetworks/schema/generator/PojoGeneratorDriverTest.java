@@ -35,6 +35,7 @@ import org.sagebionetworks.schema.TYPE;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
 import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
 import org.sagebionetworks.schema.generator.handler.schema03.HandlerFactoryImpl03;
+import org.sagebionetworks.schema.generator.handler.schema03.TypeCreatorHandlerImpl03;
 
 public class PojoGeneratorDriverTest {
 	
@@ -780,14 +781,15 @@ public class PojoGeneratorDriverTest {
 		
 		Map<String, JFieldVar> fields = impl.fields();
 		assertNotNull(fields);
-		// Enums should have no fields
-		assertEquals(0, fields.size());
+		// Enums only have the JSON name field
+		assertEquals(1, fields.size());
+		assertNotNull(fields.get(TypeCreatorHandlerImpl03.ENUM_JSON_NAME_FIELD));
 		Collection<JMethod> methods = impl.methods();
 		assertNotNull(methods);
-		// enums should have no methods
-		assertEquals(0, methods.size());
-		// Enums should have no constructors
-		assertFalse(impl.constructors().hasNext());
+		// enums only have the JSON name methods
+		assertEquals(2, methods.size());
+		// Enums only have the JSON name constructor
+		assertTrue(impl.constructors().hasNext());
 	}
 	
 	@Test
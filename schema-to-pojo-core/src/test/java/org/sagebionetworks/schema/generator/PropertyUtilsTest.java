@@ -76,4 +76,96 @@ class PropertyUtilsTest {
 		assertEquals(TYPE.STRING, type);
 	}
 
+	@Test
+	public void testGetPresenceField(){
+		JFieldVar first = jDefinedClass.field(JMod.PRIVATE, jDefinedClass.owner().LONG, "first");
+		JFieldVar presence = PropertyUtils.addPresenceBit(jDefinedClass, first);
+		assertEquals("__presence0", presence.name());
+		JFieldVar second = jDefinedClass.field(JMod.PRIVATE, jDefinedClass.owner().BOOLEAN, "second");
+		assertSame(presence, PropertyUtils.addPresenceBit(jDefinedClass, second));
+		assertEquals(0, PropertyUtils.getPresenceIndex(jDefinedClass, first));
+		assertEquals(1, PropertyUtils.getPresenceIndex(jDefinedClass, second));
+		assertSame(presence, PropertyUtils.getPresenceField(jDefinedClass, second));
+		assertTrue(PropertyUtils.hasPresenceBit(jDefinedClass, first));
+	}
+
+	@Test
+	public void testGetPresenceField_indexNotFromFieldOrder(){
+		// fields declared by other handlers do not shift the index
+		JFieldVar unrelated = jDefinedClass.field(JMod.PRIVATE, jDefinedClass.owner().INT, "unrelated");
+		JFieldVar first = jDefinedClass.field(JMod.PRIVATE, jDefinedClass.owner().LONG, "first");
+		PropertyUtils.addPresenceBit(jDefinedClass, first);
+		assertEquals(0, PropertyUtils.getPresenceIndex(jDefinedClass, first));
+		assertFalse(PropertyUtils.hasPresenceBit(jDefinedClass, unrelated));
+	}
+
+	@Test
+	public void testGetPresenceField_secondWord(){
+		JFieldVar last = null;
+		for (int i = 0; i <= Long.SIZE; i++) {
+			last = jDefinedClass.field(JMod.PRIVATE, jDefinedClass.owner().INT, "field" + i);
+			PropertyUtils.addPresenceBit(jDefinedClass, last);
+		}
+		assertEquals("__presence1", PropertyUtils.getPresenceField(jDefinedClass, last).name());
+	}
+
+	@Test
+	public void testAddPresenceBit_twice(){
+		JFieldVar field = jDefinedClass.field(JMod.PRIVATE, jDefinedClass.owner().LONG, "field");
+		PropertyUtils.addPresenceBit(jDefinedClass, field);
+		assertThrows(IllegalArgumentException.class, () ->
+			PropertyUtils.addPresenceBit(jDefinedClass, field)
+		);
+	}
+
+	@Test
+	public void testAddPresenceBit_eachCodeModel() throws JClassAlreadyExistsException {
+		JFieldVar field = jDefinedClass.field(JMod.PRIVATE, jDefinedClass.owner().LONG, "field");
+		PropertyUtils.addPresenceBit(jDefinedClass, field);
+		// the same class generated again starts over
+		JDefinedClass again = new JCodeModel()._package("org.sagebionetworks.test.class")._class("myTestClass");
+		JFieldVar other = again.field(JMod.PRIVATE, again.owner().INT, "other");
+		JFieldVar sameName = again.field(JMod.PRIVATE, again.owner().LONG, "field");
+		assertFalse(PropertyUtils.hasPresenceBit(again, sameName));
+		PropertyUtils.addPresenceBit(again, other);
+		assertEquals(0, PropertyUtils.getPresenceIndex(again, other));
+		assertEquals(0, PropertyUtils.getPresenceIndex(jDefinedClass, field));
+	}
+
+	@Test
+	public void testGetPresenceField_noBit(){
+		JFieldVar field = jDefinedClass.field(JMod.PRIVATE, jDefinedClass.owner().LONG, "field");
+		assertFalse(PropertyUtils.hasPresenceBit(jDefinedClass, field));
+		assertThrows(IllegalArgumentException.class, () ->
+			PropertyUtils.getPresenceField(jDefinedClass, field)
+		);
+	}
+
+	@Test
+	public void testGetPatternConstant(){
+		JFieldVar constant = PropertyUtils.getPatternConstant(jDefinedClass, "someProp", "[a-z]+\\d");
+		assertEquals("_PATTERN_SOMEPROP", constant.name());
+		assertEquals(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, constant.mods().getValue());
+		assertEquals("java.util.regex.Pattern", constant.type().fullName());
+		// the same constant is returned for the same property
+		assertSame(constant, PropertyUtils.getPatternConstant(jDefinedClass, "someProp", "[a-z]+\\d"));
+	}
+
+	@Test
+	public void testGetPatternConstant_invalidPattern(){
+		String error = assertThrows(IllegalArgumentException.class, () ->
+			PropertyUtils.getPatternConstant(jDefinedClass, "someProp", "[a-z")
+		).getMessage();
+		assertTrue(error.startsWith("Property: 'someProp' has an invalid pattern on class: myTestClass"));
+		assertNull(jDefinedClass.fields().get("_PATTERN_SOMEPROP"));
+	}
+
+	@Test
+	public void testGetPresenceField_notPrimitive(){
+		JFieldVar field = jDefinedClass.field(JMod.PRIVATE, Long.class, "boxed");
+		assertThrows(IllegalArgumentException.class, () ->
+			PropertyUtils.addPresenceBit(jDefinedClass, field)
+		);
+	}
+
 }
\ No newline at end of file
@@ -20,7 +20,7 @@ import org.sagebionetworks.schema.adapter.JSONEntity;
 import com.sun.codemodel.JClassAlreadyExistsException;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
-import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JFormatter;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JPackage;
@@ -83,13 +83,17 @@ public class RegisterGeneratorTest {
 	}
 	
 	@Test
-	public void testCreateMapRef() throws JClassAlreadyExistsException{
+	public void testCreateClassNamesField() throws JClassAlreadyExistsException{
 		JCodeModel codeModel = new JCodeModel();
 		JPackage _package = codeModel._package("org.sample");
-		// Create the enum
 		JDefinedClass testClass = _package._class("Test");
-		JFieldRef mapRef = RegisterGenerator.createMapFieldRef(codeModel, testClass);
-		assertNotNull(mapRef);
+		JFieldVar names = RegisterGenerator.createClassNamesField(codeModel, list, testClass);
+		assertNotNull(names);
+		StringWriter writer = new StringWriter();
+		JFormatter formatter = new JFormatter(writer);
+		testClass.declare(formatter);
+		String value = writer.toString();
+		assertTrue(value.indexOf("private final static java.lang.String[] CLASS_NAMES = new java.lang.String[] {\"org.example.One\", \"org.example.Two\"};") > 0);
 	}
 	
 	/**
@@ -98,55 +102,66 @@ public class RegisterGeneratorTest {
 	 * @throws JClassAlreadyExistsException
 	 */
 	@Test
-	public void testCreateConstructor() throws JClassAlreadyExistsException {
+	public void testCreateNewInstanceMethod() throws JClassAlreadyExistsException {
 		JCodeModel codeModel = new JCodeModel();
 		JPackage _package = codeModel._package("org.sample");
 		// Create the enum
 		JDefinedClass testClass = _package._class("Test");
-		JFieldRef mapRef = RegisterGenerator.createMapFieldRef(codeModel, testClass);
-		JMethod method = RegisterGenerator.createConstructor(codeModel, list, testClass, mapRef);
+		JMethod hash = RegisterGenerator.createHashMethod(codeModel, testClass);
+		JMethod method = RegisterGenerator.createNewInstanceMethod(codeModel, list, testClass, hash, JSONEntity.class.getName());
 		assertNotNull(method);
 		StringWriter writer = new StringWriter();
 		JFormatter formatter = new JFormatter(writer);
 		method.declare(formatter);
 		String methodValue = writer.toString();
-//		System.out.println(methodValue);
-		assertTrue(methodValue.indexOf("public Test() {") >= 0);
-		assertTrue(methodValue.indexOf("this.map = new java.util.HashMap<java.lang.String, java.lang.Integer>();") > 0);
-		assertTrue(methodValue.indexOf("this.map.put(org.example.One.class.getName(), 0);") > 0);
-		assertTrue(methodValue.indexOf("this.map.put(org.example.Two.class.getName(), 1);") > 0);
+		assertTrue(methodValue.indexOf("public org.sagebionetworks.schema.adapter.JSONEntity newInstance(java.lang.CharSequence className) {") >= 0);
+		assertTrue(methodValue.indexOf("switch (hash(className)) {") > 0);
+		assertTrue(methodValue.indexOf(" "+"org.example.One".hashCode()+" :") > 0);
+		assertTrue(methodValue.indexOf("if (\"org.example.One\".contentEquals(className)) {") > 0);
+		assertTrue(methodValue.indexOf("return new org.example.One();") > 0);
+		assertTrue(methodValue.indexOf(" "+"org.example.Two".hashCode()+" :") > 0);
+		assertTrue(methodValue.indexOf("throw new java.lang.IllegalArgumentException((\"Cannot create new instance. Unknown class: \"+ className));") > 0);
+		// No map lookup or boxing
+		assertFalse(methodValue.contains("java.lang.Integer"));
 	}
 	
+	@Test
+	public void testCreateNewInstanceMethodHashCollision() throws JClassAlreadyExistsException {
+		// "Aa" and "BB" have the same hash code
+		list.clear();
+		ObjectSchema schema = new ObjectSchemaImpl(TYPE.OBJECT);
+		schema.setId("org.example.Aa");
+		list.add(schema);
+		schema = new ObjectSchemaImpl(TYPE.OBJECT);
+		schema.setId("org.example.BB");
+		list.add(schema);
+		assertEquals("org.example.Aa".hashCode(), "org.example.BB".hashCode());
+		JCodeModel codeModel = new JCodeModel();
+		JDefinedClass testClass = codeModel._package("org.sample")._class("Test");
+		JMethod hash = RegisterGenerator.createHashMethod(codeModel, testClass);
+		JMethod method = RegisterGenerator.createNewInstanceMethod(codeModel, list, testClass, hash, null);
+		StringWriter writer = new StringWriter();
+		method.declare(new JFormatter(writer));
+		String methodValue = writer.toString();
+		int caseIndex = methodValue.indexOf("case "+"org.example.Aa".hashCode()+" :");
+		assertTrue(caseIndex > 0);
+		// both classes are under the same case
+		assertEquals(caseIndex, methodValue.lastIndexOf("case "));
+		assertTrue(methodValue.indexOf("return new org.example.Aa();") > caseIndex);
+		assertTrue(methodValue.indexOf("return new org.example.BB();") > caseIndex);
+	}
 	
-	/**
-	 * Test
-	 * 
-	 * @throws JClassAlreadyExistsException
-	 */
 	@Test
-	public void testCreateNewInstanceMethod() throws JClassAlreadyExistsException {
+	public void testCreateHashMethod() throws JClassAlreadyExistsException {
 		JCodeModel codeModel = new JCodeModel();
-		JPackage _package = codeModel._package("org.sample");
-		// Create the enum
-		JDefinedClass testClass = _package._class("Test");
-		JFieldRef mapRef = RegisterGenerator.createMapFieldRef(codeModel, testClass);
-		JMethod method = RegisterGenerator.createNewInstanceMethod(codeModel, list, testClass, mapRef, JSONEntity.class.getName());
-		assertNotNull(method);
+		JDefinedClass testClass = codeModel._package("org.sample")._class("Test");
+		JMethod method = RegisterGenerator.createHashMethod(codeModel, testClass);
 		StringWriter writer = new StringWriter();
-		JFormatter formatter = new JFormatter(writer);
-		method.declare(formatter);
+		method.declare(new JFormatter(writer));
 		String methodValue = writer.toString();
-		System.out.println(methodValue);
-		assertTrue(methodValue.indexOf("public org.sagebionetworks.schema.adapter.JSONEntity newInstance(java.lang.String className) {") >= 0);
-		assertTrue(methodValue.indexOf("java.lang.Integer intObject = this.map.get(className);") > 0);
-		assertTrue(methodValue.indexOf("if (intObject == null) {") > 0);
-		assertTrue(methodValue.indexOf("throw new java.lang.IllegalArgumentException((\"Cannot create new instance. Unknown class: \"+ className));") > 0);
-		assertTrue(methodValue.indexOf("int index = intObject.intValue();") > 0);
-		assertTrue(methodValue.indexOf("switch (index) {") > 0);
-		assertTrue(methodValue.indexOf("case  0 :") > 0);
-		assertTrue(methodValue.indexOf("return new org.example.One();") > 0);
-		assertTrue(methodValue.indexOf("default:") > 0);
-		assertTrue(methodValue.indexOf("throw new java.lang.IllegalStateException((((\"No match found for index: \"+ index)+\" for class name: \")+ className));") > 0);
+		assertTrue(methodValue.indexOf("private static int hash(java.lang.CharSequence chars) {") >= 0);
+		assertTrue(methodValue.indexOf("return chars.hashCode();") > 0);
+		assertTrue(methodValue.indexOf("hash = ((31 *hash)+ chars.charAt(i));") > 0);
 	}
 	
 	/**
@@ -160,8 +175,8 @@ public class RegisterGeneratorTest {
 		JPackage _package = codeModel._package("org.sample");
 		// Create the enum
 		JDefinedClass testClass = _package._class("Test");
-		JFieldRef mapRef = RegisterGenerator.createMapFieldRef(codeModel, testClass);
-		JMethod method = RegisterGenerator.createKeySetIterator(codeModel, testClass, mapRef);
+		JFieldVar names = RegisterGenerator.createClassNamesField(codeModel, list, testClass);
+		JMethod method = RegisterGenerator.createKeySetIterator(codeModel, testClass, names);
 		assertNotNull(method);
 		StringWriter writer = new StringWriter();
 		JFormatter formatter = new JFormatter(writer);
@@ -170,11 +185,11 @@ public class RegisterGeneratorTest {
 		System.out.println(methodValue);
 		assertTrue(methodValue.indexOf("Get the key set iterator.") >= 0);
 		assertTrue(methodValue.indexOf("public java.util.Iterator<java.lang.String> getKeySetIterator() {") > 0);
-		assertTrue(methodValue.indexOf("return this.map.keySet().iterator();") > 0);
+		assertTrue(methodValue.indexOf("return java.util.Arrays.asList(CLASS_NAMES).iterator();") > 0);
 	}
 
 	@Test
-	public void testCreateMap() {
+	public void testCreateRegister() {
 		JCodeModel model = new JCodeModel();
 		JDefinedClass def = RegisterGenerator.createRegister(model, list, RegisterGenerator.createClassFromFullName(model,"org.example.Register"), JSONEntity.class.getName());
 		assertNotNull(def);
@@ -185,7 +200,9 @@ public class RegisterGeneratorTest {
 		String value = writer.toString();
 //		System.out.println(writer.toString());
 		assertTrue(value.indexOf("Note: This class was auto-generated, and should not be directly modified") > 0);
-		assertTrue(value.indexOf("private java.util.Map<java.lang.String, java.lang.Integer> map;") > 0);
+		assertFalse(value.contains("java.util.Map"));
+		assertTrue(value.indexOf("public org.sagebionetworks.schema.adapter.JSONEntity newInstance(java.lang.String className) {") > 0);
+		assertTrue(value.indexOf("return newInstance(((java.lang.CharSequence) className));") > 0);
 	}
 
 	@Test
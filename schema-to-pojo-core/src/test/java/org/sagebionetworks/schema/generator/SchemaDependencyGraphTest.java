@@ -0,0 +1,149 @@
+package org.sagebionetworks.schema.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.ObjectSchema;
+import org.sagebionetworks.schema.ObjectSchemaImpl;
+import org.sagebionetworks.schema.TYPE;
+
+public class SchemaDependencyGraphTest {
+
+	List<ObjectSchema> schemas;
+	ObjectSchema pet;
+	ObjectSchema dog;
+	ObjectSchema owner;
+	ObjectSchema other;
+
+	@BeforeEach
+	public void before() {
+		pet = create("org.sample.Pet", TYPE.INTERFACE);
+		pet.putProperty("name", property(TYPE.STRING));
+		dog = create("org.sample.Dog", TYPE.OBJECT);
+		dog.setImplements(new ObjectSchema[] { ref("org.sample.Pet") });
+		owner = create("org.sample.Owner", TYPE.OBJECT);
+		owner.putProperty("pet", ref("org.sample.Pet"));
+		other = create("org.sample.Other", TYPE.OBJECT);
+		other.putProperty("count", property(TYPE.INTEGER));
+		schemas = new ArrayList<ObjectSchema>(Arrays.asList(pet, dog, owner, other));
+	}
+
+	@Test
+	public void testReferences() throws Exception {
+		SchemaDependencyGraph graph = new SchemaDependencyGraph(schemas);
+		assertEquals(Arrays.asList("org.sample.Pet", "org.sample.Dog", "org.sample.Owner", "org.sample.Other"), graph.getRootIds());
+		assertEquals(Collections.singleton("org.sample.Pet"), graph.getReferences("org.sample.Dog"));
+		assertEquals(Collections.singleton("org.sample.Pet"), graph.getReferences("org.sample.Owner"));
+		assertTrue(graph.getReferences("org.sample.Other").isEmpty());
+	}
+
+	@Test
+	public void testNullId() {
+		schemas.add(new ObjectSchemaImpl(TYPE.OBJECT));
+		assertThrows(IllegalArgumentException.class, () -> {
+			new SchemaDependencyGraph(schemas);
+		});
+	}
+
+	@Test
+	public void testFingerprintsStable() throws Exception {
+		Map<String, String> first = new SchemaDependencyGraph(schemas).computeFingerprints("config");
+		Map<String, String> second = new SchemaDependencyGraph(schemas).computeFingerprints("config");
+		assertEquals(first, second);
+		Map<String, String> otherConfig = new SchemaDependencyGraph(schemas).computeFingerprints("other");
+		assertNotEquals(first.get("org.sample.Other"), otherConfig.get("org.sample.Other"));
+	}
+
+	@Test
+	public void testFingerprintsTransitive() throws Exception {
+		Map<String, String> before = new SchemaDependencyGraph(schemas).computeFingerprints("config");
+		pet.putProperty("age", property(TYPE.INTEGER));
+		Map<String, String> after = new SchemaDependencyGraph(schemas).computeFingerprints("config");
+		assertNotEquals(before.get("org.sample.Pet"), after.get("org.sample.Pet"));
+		assertNotEquals(before.get("org.sample.Dog"), after.get("org.sample.Dog"));
+		assertNotEquals(before.get("org.sample.Owner"), after.get("org.sample.Owner"));
+		assertEquals(before.get("org.sample.Other"), after.get("org.sample.Other"));
+	}
+
+	@Test
+	public void testFingerprintsNewImplementation() throws Exception {
+		Map<String, String> before = new SchemaDependencyGraph(schemas).computeFingerprints("config");
+		ObjectSchema cat = create("org.sample.Cat", TYPE.OBJECT);
+		cat.setImplements(new ObjectSchema[] { ref("org.sample.Pet") });
+		schemas.add(cat);
+		Map<String, String> after = new SchemaDependencyGraph(schemas).computeFingerprints("config");
+		// only the factory of the interface lists the implementations
+		assertNotEquals(before.get("org.sample.Pet"), after.get("org.sample.Pet"));
+		assertEquals(before.get("org.sample.Dog"), after.get("org.sample.Dog"));
+		assertEquals(before.get("org.sample.Owner"), after.get("org.sample.Owner"));
+	}
+
+	@Test
+	public void testFingerprintsCycle() throws Exception {
+		ObjectSchema a = create("org.sample.A", TYPE.OBJECT);
+		a.putProperty("b", ref("org.sample.B"));
+		ObjectSchema b = create("org.sample.B", TYPE.OBJECT);
+		b.putProperty("a", ref("org.sample.A"));
+		b.putProperty("other", ref("org.sample.Other"));
+		schemas.add(a);
+		schemas.add(b);
+		Map<String, String> before = new SchemaDependencyGraph(schemas).computeFingerprints("config");
+		assertEquals(before.get("org.sample.A"), before.get("org.sample.B"));
+		other.putProperty("total", property(TYPE.INTEGER));
+		Map<String, String> after = new SchemaDependencyGraph(schemas).computeFingerprints("config");
+		assertNotEquals(before.get("org.sample.A"), after.get("org.sample.A"));
+		assertEquals(before.get("org.sample.Dog"), after.get("org.sample.Dog"));
+	}
+
+	@Test
+	public void testGenerationClosure() throws Exception {
+		SchemaDependencyGraph graph = new SchemaDependencyGraph(schemas);
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("org.sample.Other")),
+				graph.getGenerationClosure(Collections.singleton("org.sample.Other")));
+		// the owner needs the interface, and the interface needs its implementations for the factory.
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("org.sample.Owner", "org.sample.Pet", "org.sample.Dog")),
+				graph.getGenerationClosure(Collections.singleton("org.sample.Owner")));
+	}
+
+	@Test
+	public void testClassOwners() throws Exception {
+		ObjectSchema nested = property(TYPE.OBJECT);
+		nested.setId("org.sample.Nested");
+		other.putProperty("nested", nested);
+		SchemaDependencyGraph graph = new SchemaDependencyGraph(schemas);
+		Map<String, String> owners = graph.getClassOwners(Arrays.asList("org.sample.Pet", "org.sample.Other"));
+		assertEquals("org.sample.Pet", owners.get("org.sample.Pet"));
+		assertEquals("org.sample.Pet", owners.get("org.sample.PetInstanceFactory"));
+		assertEquals("org.sample.Other", owners.get("org.sample.Other"));
+		assertEquals("org.sample.Other", owners.get("org.sample.Nested"));
+		assertEquals(4, owners.size());
+	}
+
+	private static ObjectSchema create(String id, TYPE type) {
+		ObjectSchema schema = new ObjectSchemaImpl(type);
+		schema.setId(id);
+		schema.setName(id.substring(id.lastIndexOf('.') + 1));
+		return schema;
+	}
+
+	private static ObjectSchema property(TYPE type) {
+		return new ObjectSchemaImpl(type);
+	}
+
+	private static ObjectSchema ref(String id) {
+		ObjectSchema ref = new ObjectSchemaImpl();
+		ref.setRef(id);
+		return ref;
+	}
+}
@@ -4,14 +4,21 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.sagebionetworks.schema.ObjectSchema;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
 import org.sagebionetworks.schema.generator.handler.HandlerFactory;
 import org.sagebionetworks.schema.generator.handler.schema03.HandlerFactoryImpl03;
@@ -116,6 +123,103 @@ public class SchemaToPojoTest {
 		System.out.println(resultString);
 	}
 
+	@Test
+	public void testLoadSchemasParallelOrder() throws IOException, JSONObjectAdapterException {
+		File source = new File("src/test/resources");
+		List<ObjectSchema> sequential = SchemaToPojo.loadSchemas(source, null);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<ObjectSchema> parallel = SchemaToPojo.loadSchemas(source, executor);
+			assertEquals(sequential.size(), parallel.size());
+			for (int i = 0; i < sequential.size(); i++) {
+				assertEquals(sequential.get(i).getId(), parallel.get(i).getId());
+				assertEquals(sequential.get(i), parallel.get(i));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testLoadSchemasParallelErrorHasPath() throws IOException {
+		File source = new File(outputDir, "schemas");
+		File good = new File(source, "org/sample/Good.json");
+		File bad = new File(source, "org/sample/Bad.json");
+		good.getParentFile().mkdirs();
+		Files.write(good.toPath(), "{\"type\":\"object\"}".getBytes(StandardCharsets.UTF_8));
+		Files.write(bad.toPath(), "{\"type\":".getBytes(StandardCharsets.UTF_8));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			SchemaToPojo.loadSchemas(source, executor);
+			fail("The bad file should have failed to load");
+		} catch (JSONObjectAdapterException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith(bad.getAbsolutePath()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testIncremental() throws IOException, JSONObjectAdapterException, ClassNotFoundException {
+		File source = new File(outputDir, "schemas");
+		File generated = new File(outputDir, "generated");
+		writeSchema(source, "org/sample/Pet.json", "{\"type\":\"interface\",\"properties\":{\"name\":{\"type\":\"string\"}}}");
+		writeSchema(source, "org/sample/Dog.json", "{\"type\":\"object\",\"implements\":[{\"$ref\":\"org.sample.Pet\"}]}");
+		writeSchema(source, "org/sample/Owner.json", "{\"type\":\"object\",\"properties\":{\"pet\":{\"$ref\":\"org.sample.Pet\"}}}");
+		writeSchema(source, "org/sample/Other.json", "{\"type\":\"object\",\"properties\":{\"count\":{\"type\":\"integer\"}}}");
+
+		assertEquals("Generating 4 of 4 schemas", generateIncremental(source, generated));
+		assertTrue(new File(generated, SchemaFingerprintIndex.INDEX_FILE_NAME).isFile());
+		assertTrue(new File(generated, "org/sample/Register.java").isFile());
+		assertTrue(new File(generated, "org/sample/PetInstanceFactory.java").isFile());
+		assertTrue(new File(generated, "org/sample/Other-effective.json").isFile());
+
+		// nothing changed
+		assertEquals("All 4 schemas are up to date", generateIncremental(source, generated));
+
+		// only the changed schema is generated
+		writeSchema(source, "org/sample/Other.json", "{\"type\":\"object\",\"properties\":{\"total\":{\"type\":\"integer\"}}}");
+		assertEquals("Generating 1 of 4 schemas", generateIncremental(source, generated));
+		assertTrue(FileUtils.readToString(new File(generated, "org/sample/Other.java")).contains("total"));
+
+		// a new implementation changes the factory of the interface but not the users of the interface
+		writeSchema(source, "org/sample/Cat.json", "{\"type\":\"object\",\"implements\":[{\"$ref\":\"org.sample.Pet\"}]}");
+		assertEquals("Generating 2 of 5 schemas", generateIncremental(source, generated));
+		assertTrue(FileUtils.readToString(new File(generated, "org/sample/PetInstanceFactory.java")).contains("org.sample.Cat"));
+
+		// the files of a deleted schema are deleted
+		assertTrue(new File(source, "org/sample/Other.json").delete());
+		assertEquals("Generating 0 of 4 schemas", generateIncremental(source, generated));
+		assertFalse(new File(generated, "org/sample/Other.java").exists());
+		assertFalse(new File(generated, "org/sample/Other-effective.json").exists());
+		assertFalse(FileUtils.readToString(new File(generated, "org/sample/Register.java")).contains("org.sample.Other"));
+
+		// a change to the interface changes everything that depends on it
+		writeSchema(source, "org/sample/Pet.json", "{\"type\":\"interface\",\"properties\":{\"age\":{\"type\":\"integer\"}}}");
+		assertEquals("Generating 4 of 4 schemas", generateIncremental(source, generated));
+		assertTrue(FileUtils.readToString(new File(generated, "org/sample/Dog.java")).contains("age"));
+
+		// a missing file is generated again
+		assertTrue(new File(generated, "org/sample/Owner.java").delete());
+		assertEquals("Generating 1 of 4 schemas", generateIncremental(source, generated));
+		assertTrue(new File(generated, "org/sample/Owner.java").isFile());
+	}
+
+	/**
+	 * Run an incremental build and return the first line of the log.
+	 */
+	private static String generateIncremental(File source, File generated) throws IOException, JSONObjectAdapterException, ClassNotFoundException {
+		StringBuilder log = new StringBuilder();
+		SchemaToPojo.generatePojos(source, generated, "org.sample.Register", new HandlerFactoryImpl03(), log, 1, true);
+		return log.substring(0, log.indexOf("\n"));
+	}
+
+	private static void writeSchema(File root, String path, String json) throws IOException {
+		File file = new File(root, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+	}
+
 	@Test
 	public void testGetPackageName() throws IOException{
 		File root = File.createTempFile("root file test", "");
@@ -0,0 +1,195 @@
+package org.sagebionetworks.schema.generator.handler.schema03;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.ObjectSchema;
+import org.sagebionetworks.schema.ObjectSchemaImpl;
+import org.sagebionetworks.schema.TYPE;
+import org.sagebionetworks.schema.generator.PropertyUtils;
+
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDeclaration;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFormatter;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JType;
+
+public class DeepCopyHandlerImpl03Test {
+
+	ObjectSchema schema;
+	JCodeModel codeModel;
+	JDefinedClass sampleClass;
+	DeepCopyHandlerImpl03 handler;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		schema = new ObjectSchemaImpl();
+		schema.setType(TYPE.OBJECT);
+		codeModel = new JCodeModel();
+		sampleClass = codeModel._class("ImASampleClass");
+		handler = new DeepCopyHandlerImpl03();
+		handler.setDeepCopy(true);
+	}
+
+	@Test
+	public void testDisabled() {
+		handler.setDeepCopy(false);
+		handler.addDeepCopy(schema, sampleClass);
+		assertTrue(sampleClass.methods().isEmpty());
+		assertNull(sampleClass.getConstructor(new JType[] { sampleClass }));
+	}
+
+	@Test
+	public void testDeepCopy() {
+		handler.addDeepCopy(schema, sampleClass);
+		JMethod method = sampleClass.getMethod(DeepCopyHandlerImpl03.DEEP_COPY, new JType[0]);
+		assertNotNull(method);
+		String methodString = declareToString(method);
+		assertTrue(methodString.indexOf("public ImASampleClass deepCopy() {") > 0);
+		assertTrue(methodString.indexOf("return new ImASampleClass(this);") > 0);
+		assertTrue(methodString.indexOf("@java.lang.Override") < 0);
+		JMethod constructor = sampleClass.getConstructor(new JType[] { sampleClass });
+		assertNotNull(constructor);
+		assertEquals(JMod.PROTECTED, constructor.mods().getValue());
+	}
+
+	@Test
+	public void testInterface() throws Exception {
+		schema.setType(TYPE.INTERFACE);
+		JDefinedClass sampleInterface = codeModel._package("org.sample")._interface("SampleInterface");
+		handler.addDeepCopy(schema, sampleInterface);
+		JMethod method = sampleInterface.getMethod(DeepCopyHandlerImpl03.DEEP_COPY, new JType[0]);
+		assertNotNull(method);
+		String methodString = declareToString(method);
+		assertTrue(methodString.indexOf("public org.sample.SampleInterface deepCopy();") > 0);
+		assertTrue(sampleInterface.constructors().hasNext() == false);
+	}
+
+	@Test
+	public void testImmutableValuesShared() throws Exception {
+		addProperty("name", TYPE.STRING, codeModel.ref(String.class));
+		addProperty("count", TYPE.INTEGER, codeModel.ref(Long.class));
+		JDefinedClass enumClass = codeModel._package("org.sample")._enum("SampleEnum");
+		addProperty("color", TYPE.STRING, enumClass);
+		addProperty("anything", TYPE.ANY, codeModel.ref(Object.class));
+		addProperty("names", TYPE.ARRAY, codeModel.ref(List.class).narrow(String.class));
+		addProperty("colors", TYPE.ARRAY, codeModel.ref(Set.class).narrow(enumClass));
+
+		String constructorString = declareCopyConstructor();
+		assertTrue(constructorString.indexOf("this.name = toCopy.name;") > 0);
+		assertTrue(constructorString.indexOf("this.count = toCopy.count;") > 0);
+		assertTrue(constructorString.indexOf("this.color = toCopy.color;") > 0);
+		assertTrue(constructorString.indexOf("this.anything = toCopy.anything;") > 0);
+		assertTrue(constructorString.indexOf("this.names = new java.util.ArrayList<java.lang.String>(toCopy.names);") > 0);
+		assertTrue(constructorString.indexOf("this.colors = new java.util.LinkedHashSet<org.sample.SampleEnum>(toCopy.colors);") > 0);
+	}
+
+	@Test
+	public void testDate() {
+		addProperty("created", TYPE.STRING, codeModel.ref(Date.class));
+		String constructorString = declareCopyConstructor();
+		assertTrue(constructorString.indexOf("if (toCopy.created!= null) {") > 0);
+		assertTrue(constructorString.indexOf("this.created = new java.util.Date(toCopy.created.getTime());") > 0);
+	}
+
+	@Test
+	public void testNestedObjects() throws Exception {
+		JDefinedClass shape = codeModel._package("org.sample")._interface("Shape");
+		addProperty("shape", TYPE.INTERFACE, shape);
+		addProperty("shapes", TYPE.ARRAY, codeModel.ref(List.class).narrow(shape));
+		addProperty("byName", TYPE.MAP, codeModel.ref(Map.class).narrow(codeModel.ref(String.class), shape));
+
+		String constructorString = declareCopyConstructor();
+		// Each nested object is copied by its own class.
+		assertTrue(constructorString.indexOf("this.shape = toCopy.shape.deepCopy();") > 0);
+		assertTrue(constructorString.indexOf("java.util.List<org.sample.Shape> __copy0 = new java.util.ArrayList<org.sample.Shape>(toCopy.shapes.size());") > 0);
+		assertTrue(constructorString.indexOf("for (org.sample.Shape __element0 : toCopy.shapes) {") > 0);
+		assertTrue(constructorString.indexOf("__copy0 .add(((__element0 == null)?null:__element0 .deepCopy()));") > 0);
+		assertTrue(constructorString.indexOf("this.shapes = __copy0;") > 0);
+		assertTrue(constructorString.indexOf("java.util.Map<java.lang.String, org.sample.Shape> __copy0 = new java.util.LinkedHashMap<java.lang.String, org.sample.Shape>(toCopy.byName.size());") > 0);
+		assertTrue(constructorString.indexOf("__copy0 .put(__entry0 .getKey(), ((__entry0 .getValue() == null)?null:__entry0 .getValue().deepCopy()));") > 0);
+	}
+
+	@Test
+	public void testNestedCollections() {
+		JClass dates = codeModel.ref(List.class).narrow(Date.class);
+		addProperty("grid", TYPE.ARRAY, codeModel.ref(List.class).narrow(dates));
+
+		String constructorString = declareCopyConstructor();
+		assertTrue(constructorString.indexOf("for (java.util.List<java.util.Date> __element0 : toCopy.grid) {") > 0);
+		assertTrue(constructorString.indexOf("java.util.List<java.util.Date> __item1 = null;") > 0);
+		assertTrue(constructorString.indexOf("if (__element0 != null) {") > 0);
+		assertTrue(constructorString.indexOf("java.util.List<java.util.Date> __copy1 = new java.util.ArrayList<java.util.Date>(__element0 .size());") > 0);
+		assertTrue(constructorString.indexOf("__copy1 .add(((__element1 == null)?null:new java.util.Date(__element1 .getTime())));") > 0);
+		assertTrue(constructorString.indexOf("__copy0 .add(__item1);") > 0);
+	}
+
+	@Test
+	public void testSuper() throws Exception {
+		ObjectSchema childSchema = new ObjectSchemaImpl();
+		childSchema.setType(TYPE.OBJECT);
+		childSchema.setExtends(schema);
+		JDefinedClass childClass = codeModel._package("org.sample")._class("ChildOfSample");
+		childClass._extends(sampleClass);
+
+		handler.addDeepCopy(childSchema, childClass);
+		String constructorString = declareToString(childClass.getConstructor(new JType[] { childClass }));
+		assertTrue(constructorString.indexOf("super(toCopy);") > 0);
+		String methodString = declareToString(childClass.getMethod(DeepCopyHandlerImpl03.DEEP_COPY, new JType[0]));
+		assertTrue(methodString.indexOf("@java.lang.Override") >= 0);
+		assertTrue(methodString.indexOf("return new org.sample.ChildOfSample(this);") > 0);
+	}
+
+	@Test
+	public void testPresenceAndHashCodeCopied() {
+		addProperty("count", TYPE.INTEGER, codeModel.LONG);
+		sampleClass.field(JMod.PRIVATE, codeModel.LONG, PropertyUtils.PRESENCE_FIELD_PREFIX + 0);
+		sampleClass.field(JMod.PRIVATE | JMod.TRANSIENT, codeModel.INT, HashAndEqualsHandlerImpl03.HASH_CODE_CACHE);
+		sampleClass.field(JMod.PRIVATE, codeModel.BOOLEAN, TypeCreatorHandlerImpl03.INITIALIZED);
+
+		String constructorString = declareCopyConstructor();
+		assertTrue(constructorString.indexOf("this.count = toCopy.count;") > 0);
+		assertTrue(constructorString.indexOf("this.__presence0 = toCopy.__presence0;") > 0);
+		assertTrue(constructorString.indexOf("this.__hashCode = toCopy.__hashCode;") > 0);
+		assertTrue(constructorString.indexOf("this.__initialized = toCopy.__initialized;") > 0);
+	}
+
+	private void addProperty(String name, TYPE type, JType fieldType) {
+		ObjectSchema propSchema = new ObjectSchemaImpl();
+		propSchema.setType(type);
+		schema.putProperty(name, propSchema);
+		sampleClass.field(JMod.PRIVATE, fieldType, name);
+	}
+
+	private String declareCopyConstructor() {
+		handler.addDeepCopy(schema, sampleClass);
+		JMethod constructor = sampleClass.getConstructor(new JType[] { sampleClass });
+		assertNotNull(constructor);
+		return declareToString(constructor);
+	}
+
+	/**
+	 * Helper to declare a model object to string.
+	 * @param toDeclare
+	 * @return
+	 */
+	public String declareToString(JDeclaration toDeclare){
+		StringWriter writer = new StringWriter();
+		JFormatter formatter = new JFormatter(writer);
+		toDeclare.declare(formatter);
+		return writer.toString();
+	}
+}
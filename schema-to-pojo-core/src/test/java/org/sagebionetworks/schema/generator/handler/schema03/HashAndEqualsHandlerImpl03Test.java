@@ -366,6 +366,96 @@ public class HashAndEqualsHandlerImpl03Test {
 		assertTrue(methodString.indexOf("if (!propertyName.equals(other.propertyName)) {") > 0);
 	}
 	
+	@Test
+	public void testHashCodeImmutable(){
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(String.class), "propertyName");
+		schema.putProperty("propertyName", new ObjectSchemaImpl(TYPE.STRING));
+		HashAndEqualsHandlerImpl03 handler = new HashAndEqualsHandlerImpl03();
+		handler.setImmutable(true);
+		JMethod method = handler.addHashCode(schema, sampleClass);
+		assertNotNull(sampleClass.fields().get(HashAndEqualsHandlerImpl03.HASH_CODE_CACHE));
+		String methodString = declareToString(method);
+		assertTrue(methodString.indexOf("if (__hashCode!= 0) {") > 0);
+		assertTrue(methodString.indexOf("return __hashCode;") > 0);
+		assertTrue(methodString.indexOf("__hashCode = result;") > 0);
+	}
+
+	@Test
+	public void testEqualsImmutable(){
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(String.class), "propertyName");
+		schema.putProperty("propertyName", new ObjectSchemaImpl(TYPE.STRING));
+		HashAndEqualsHandlerImpl03 handler = new HashAndEqualsHandlerImpl03();
+		handler.setImmutable(true);
+		String methodString = declareToString(handler.addEquals(schema, sampleClass));
+		// The hash codes are compared before any field.
+		int hashCheck = methodString.indexOf("if (hashCode()!= other.hashCode()) {");
+		assertTrue(hashCheck > 0);
+		assertTrue(hashCheck < methodString.indexOf("propertyName"));
+	}
+
+	@Test
+	public void testEqualsImmutableSubClass() throws JClassAlreadyExistsException{
+		ObjectSchema childSchema = new ObjectSchemaImpl(TYPE.OBJECT);
+		childSchema.setExtends(schema);
+		JDefinedClass childClass = codeModel._class("ChildOfSample");
+		childClass._extends(sampleClass);
+		HashAndEqualsHandlerImpl03 handler = new HashAndEqualsHandlerImpl03();
+		handler.setImmutable(true);
+		String methodString = declareToString(handler.addEquals(childSchema, childClass));
+		// super.equals() already compared the hash codes.
+		assertFalse(methodString.contains("hashCode()"));
+	}
+
+	@Test
+	public void testEqualsCostOrder() throws JClassAlreadyExistsException{
+		// Declared from the most to the least expensive.
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(List.class).narrow(String.class), "list");
+		sampleClass.field(JMod.PRIVATE, sampleClass, "object");
+		JDefinedClass enumClass = _package._enum("SampleEnum");
+		sampleClass.field(JMod.PRIVATE, enumClass, "enumValue");
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(String.class), "string");
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(Long.class), "id");
+		ObjectSchema listSchema = new ObjectSchemaImpl(TYPE.ARRAY);
+		listSchema.setItems(new ObjectSchemaImpl(TYPE.STRING));
+		schema.putProperty("list", listSchema);
+		schema.putProperty("object", new ObjectSchemaImpl(TYPE.OBJECT));
+		schema.putProperty("enumValue", new ObjectSchemaImpl(TYPE.STRING));
+		schema.putProperty("string", new ObjectSchemaImpl(TYPE.STRING));
+		schema.putProperty("id", new ObjectSchemaImpl(TYPE.INTEGER));
+		HashAndEqualsHandlerImpl03 handler = new HashAndEqualsHandlerImpl03();
+		String methodString = declareToString(handler.addEquals(schema, sampleClass));
+		int id = methodString.indexOf("if (id == null) {");
+		int string = methodString.indexOf("if (string == null) {");
+		int enumValue = methodString.indexOf("if (enumValue!= other.enumValue) {");
+		int object = methodString.indexOf("if (object == null) {");
+		int list = methodString.indexOf("if (list == null) {");
+		assertTrue(id > 0);
+		assertTrue(id < string);
+		assertTrue(string < enumValue);
+		assertTrue(enumValue < object);
+		assertTrue(object < list);
+		// The boxed number is compared by its value.
+		assertTrue(methodString.indexOf("if ((other.id == null)||(id.longValue()!= other.id.longValue())) {") > 0);
+	}
+
+	@Test
+	public void testEqualsBoxedDouble(){
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(Double.class), "propertyName");
+		schema.putProperty("propertyName", new ObjectSchemaImpl(TYPE.NUMBER));
+		HashAndEqualsHandlerImpl03 handler = new HashAndEqualsHandlerImpl03();
+		String methodString = declareToString(handler.addEquals(schema, sampleClass));
+		assertTrue(methodString.indexOf("java.lang.Double.doubleToLongBits(propertyName.doubleValue())!= java.lang.Double.doubleToLongBits(other.propertyName.doubleValue())") > 0);
+	}
+
+	@Test
+	public void testEqualsFinalClass() throws JClassAlreadyExistsException{
+		JDefinedClass finalClass = _package._class(JMod.PUBLIC | JMod.FINAL, "FinalSample");
+		HashAndEqualsHandlerImpl03 handler = new HashAndEqualsHandlerImpl03();
+		String methodString = declareToString(handler.addEquals(schema, finalClass));
+		assertTrue(methodString.indexOf("if (!(obj instanceof org.sample.FinalSample)) {") > 0);
+		assertFalse(methodString.contains("getClass()"));
+	}
+
 	/**
 	 * Helper to declare a model object to string.
 	 * @param toDeclare
@@ -262,7 +262,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		JExpression rhs = handler.assignJSONStringToProperty(codeModel, adapter, propertyKeyConstants[0], propertySchema);
 		String methodString = generateToString(rhs);
 //		System.out.println(methodString);
-		assertEquals("adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.valueOf(\"DATE_TIME\"), adapter.getString(_KEY_DATENAME))", methodString);
+		assertEquals("adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.DATE_TIME, adapter.getString(_KEY_DATENAME))", methodString);
 	}
 	
 	@Test
@@ -280,7 +280,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		JExpression rhs = handler.assignJSONStringToProperty(codeModel, adapter, propertyKeyConstants[0], propertySchema);
 		String methodString = generateToString(rhs);
 //		System.out.println(methodString);
-		assertEquals("adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.valueOf(\"DATE\"), adapter.getString(_KEY_DATENAME))", methodString);
+		assertEquals("adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.DATE, adapter.getString(_KEY_DATENAME))", methodString);
 	}
 	
 	@Test
@@ -316,7 +316,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		JExpression rhs = handler.assignJSONStringToProperty(codeModel, adapter, propertyKeyConstants[0], propertySchema);
 		String methodString = generateToString(rhs);
 //		System.out.println(methodString);
-		assertEquals("adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.valueOf(\"TIME\"), adapter.getString(_KEY_DATENAME))", methodString);
+		assertEquals("adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.TIME, adapter.getString(_KEY_DATENAME))", methodString);
 	}
 	
 	@Test
@@ -340,7 +340,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		// It should check to see if the property exits in the adapter
 		assertTrue(methodString.indexOf("if (!adapter.isNull(_KEY_DATENAME)) {") > 0);
 		// This should convert from a string to a date.
-		assertTrue(methodString.indexOf("dateName = adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.valueOf(\"DATE_TIME\"), adapter.getString(_KEY_DATENAME));") > 0);
+		assertTrue(methodString.indexOf("dateName = adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.DATE_TIME, adapter.getString(_KEY_DATENAME));") > 0);
 		// It should also have an else that sets it to null
 		assertTrue(methodString.indexOf("} else {") > 0);
 		assertTrue(methodString.indexOf("dateName = null;") > 0);
@@ -418,7 +418,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		String methodString = declareToString(method);;
 		System.out.println(methodString);
 		// Is the primitive assigned correctly?
-		assertTrue(methodString.indexOf("longName = new java.lang.Long(adapter.getLong(_KEY_LONGNAME));") > 0);
+		assertTrue(methodString.indexOf("longName = java.lang.Long.valueOf(adapter.getLong(_KEY_LONGNAME));") > 0);
 		assertTrue(methodString.indexOf("longName = null;") > 0);
 	}
 	
@@ -439,7 +439,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		String methodString = declareToString(constructor);
 //		System.out.println(methodString);
 		// Is the primitive assigned correctly?
-		assertTrue(methodString.contains("oubleName = new java.lang.Double(adapter.getDouble(_KEY_DOUBLENAME));"));
+		assertTrue(methodString.contains("oubleName = java.lang.Double.valueOf(adapter.getDouble(_KEY_DOUBLENAME));"));
 		assertTrue(methodString.contains("doubleName = null;"));
 	}
 	
@@ -460,7 +460,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		String methodString = declareToString(constructor);
 		System.out.println(methodString);
 		// Is the primitive assigned correctly?
-		assertTrue(methodString.indexOf("propName = new java.lang.Boolean(adapter.getBoolean(_KEY_PROPNAME));") > 0);
+		assertTrue(methodString.indexOf("propName = java.lang.Boolean.valueOf(adapter.getBoolean(_KEY_PROPNAME));") > 0);
 		assertTrue(methodString.indexOf("propName = null;") > 0);
 	}
 	
@@ -699,7 +699,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		String methodString = declareToString(constructor);
 		System.out.println(methodString);
 		// Is the primitive assigned correctly?
-		assertTrue(methodString.contains("enumName = org.sample.SomeEnum.valueOf(org.sagebionetworks.schema.JavaKeyword.determineJavaName(adapter.getString(_KEY_ENUMNAME)));"));
+		assertTrue(methodString.contains("enumName = org.sample.SomeEnum.fromJsonName(adapter.getString(_KEY_ENUMNAME));"));
 	}
 	
 	@Test
@@ -736,7 +736,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		JExpression rhs = handler.assignPropertyToJSONString(codeModel, adapter, propertySchema, field);
 		String methodString = generateToString(rhs);
 //		System.out.println(methodString);
-		assertEquals("adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.valueOf(\"DATE_TIME\"), dateName)", methodString);
+		assertEquals("adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.DATE_TIME, dateName)", methodString);
 	}
 	
 	@Test
@@ -754,7 +754,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		JExpression rhs = handler.assignPropertyToJSONString(codeModel, adapter, propertySchema, field);
 		String methodString = generateToString(rhs);
 //		System.out.println(methodString);
-		assertEquals("adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.valueOf(\"DATE\"), dateName)", methodString);
+		assertEquals("adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.DATE, dateName)", methodString);
 	}
 	
 	@Test
@@ -772,7 +772,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		JExpression rhs = handler.assignPropertyToJSONString(codeModel, adapter, propertySchema, field);
 		String methodString = generateToString(rhs);
 //		System.out.println(methodString);
-		assertEquals("adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.valueOf(\"TIME\"), dateName)", methodString);
+		assertEquals("adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.TIME, dateName)", methodString);
 	}
 	
 	@Test
@@ -814,7 +814,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		// It should check to see if the property exits in the adapter
 		assertTrue(methodString.indexOf("if (dateName!= null) {") > 0);
 		// It should directly set the value
-		assertTrue(methodString.indexOf("adapter.put(_KEY_DATENAME, adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.valueOf(\"DATE_TIME\"), dateName));") > 0);
+		assertTrue(methodString.indexOf("adapter.put(_KEY_DATENAME, adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.DATE_TIME, dateName));") > 0);
 		assertTrue(methodString.indexOf("return adapter;") > 0);
 	}
 	
@@ -999,7 +999,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		assertTrue(methodString.indexOf("while (__it.hasNext()) {") > 0);
 		assertTrue(methodString.indexOf("java.util.Date __value = __it.next();") > 0);
 		assertTrue(methodString
-				.indexOf("__array.put(__index, ((__value == null)?null:adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.valueOf(\"DATE_TIME\"), __value)));") > 0);
+				.indexOf("__array.put(__index, ((__value == null)?null:adapter.convertDateToString(org.sagebionetworks.schema.FORMAT.DATE_TIME, __value)));") > 0);
 		assertTrue(methodString.indexOf("__index++;") > 0);
 		assertTrue(methodString.indexOf("adapter.put(_KEY_ARRAYDATES, __array);") > 0);
 	}
@@ -1176,7 +1176,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		String methodString = declareToString(constructor);
 //		System.out.println(methodString);
 		// Is the primitive assigned correctly?
-		assertTrue(methodString.indexOf("adapter.put(_KEY_ENUMNAME, org.sagebionetworks.schema.JavaKeyword.determineJsonName(enumName.name()));") > 0);
+		assertTrue(methodString.indexOf("adapter.put(_KEY_ENUMNAME, enumName.getJsonName());") > 0);
 	}
 	
 	@Test
@@ -1210,7 +1210,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		String methodString = declareToString(method);
 		System.out.println(methodString);
 		// Make sure there is a call to super.
-		assertTrue(methodString.indexOf("fromInterface = new java.lang.Boolean(adapter.getBoolean(_KEY_FROMINTERFACE));") > 0);
+		assertTrue(methodString.indexOf("fromInterface = java.lang.Boolean.valueOf(adapter.getBoolean(_KEY_FROMINTERFACE));") > 0);
 	}
 	
 	@Test
@@ -1294,6 +1294,63 @@ public class JSONMarshalingHandlerImpl03Test {
 	 * Tests that initializeFromJSONObject works for properties
 	 *  that have a default string set.
 	 */
+	@Test
+	public void testInitializeFromJSONObjectResetsHashCode() throws Exception {
+		sampleClass.field(JMod.PRIVATE, codeModel._ref(String.class), "name");
+		schema.putProperty("name", new ObjectSchemaImpl(TYPE.STRING));
+		addKeyConstant(sampleClass, "name");
+		sampleClass.field(JMod.PRIVATE | JMod.TRANSIENT, codeModel.INT, HashAndEqualsHandlerImpl03.HASH_CODE_CACHE);
+		JSONMarshalingHandlerImpl03 handler = new JSONMarshalingHandlerImpl03();
+		String methodString = declareToString(handler.createMethodInitializeFromJSONObject(schema, sampleClass));
+		assertTrue(methodString.indexOf("this.__hashCode = 0;") > 0);
+		assertTrue(methodString.indexOf("this.__hashCode = 0;") < methodString.indexOf("return adapter;"));
+		methodString = declareToString(handler.createInitializeDefaults(schema, sampleClass));
+		assertTrue(methodString.indexOf("this.__hashCode = 0;") > 0);
+	}
+
+	@Test
+	public void testInitializeFromJSONObjectNoHashCodeCache() throws Exception {
+		sampleClass.field(JMod.PRIVATE, codeModel._ref(String.class), "name");
+		schema.putProperty("name", new ObjectSchemaImpl(TYPE.STRING));
+		addKeyConstant(sampleClass, "name");
+		JSONMarshalingHandlerImpl03 handler = new JSONMarshalingHandlerImpl03();
+		String methodString = declareToString(handler.createMethodInitializeFromJSONObject(schema, sampleClass));
+		assertFalse(methodString.contains("__hashCode"));
+		assertFalse(methodString.contains("__initialized"));
+	}
+
+	@Test
+	public void testInitializeFromJSONObjectRejectsInitialized() throws Exception {
+		sampleClass.field(JMod.PRIVATE, codeModel._ref(String.class), "name");
+		schema.putProperty("name", new ObjectSchemaImpl(TYPE.STRING));
+		addKeyConstant(sampleClass, "name");
+		sampleClass.field(JMod.PRIVATE, codeModel.BOOLEAN, TypeCreatorHandlerImpl03.INITIALIZED);
+		JSONMarshalingHandlerImpl03 handler = new JSONMarshalingHandlerImpl03();
+		String methodString = declareToString(handler.createMethodInitializeFromJSONObject(schema, sampleClass));
+		int check = methodString.indexOf("if (this.__initialized) {");
+		assertTrue(check > 0);
+		assertTrue(methodString.indexOf("throw new java.lang.IllegalStateException((getClass().getName()+\" is immutable and has already been initialized\"));") > check);
+		int set = methodString.indexOf("this.__initialized = true;");
+		assertTrue(set > check);
+		assertTrue(set < methodString.indexOf("name = adapter.getString(_KEY_NAME);"));
+	}
+
+	@Test
+	public void testCreateConstructorImmutableSuperClass() throws JClassAlreadyExistsException {
+		sampleClass.field(JMod.PRIVATE, codeModel.BOOLEAN, TypeCreatorHandlerImpl03.INITIALIZED);
+		ObjectSchema childSchema = new ObjectSchemaImpl();
+		childSchema.setExtends(schema);
+		JDefinedClass childClasss = codeModel._class("ChildOfSample");
+		childClasss._extends(sampleClass);
+		JSONMarshalingHandlerImpl03 handler = new JSONMarshalingHandlerImpl03();
+		JMethod initMethod = childClasss.method(JMod.PUBLIC, Void.class, "initializeFromJSONObject");
+		String constructorString = declareToString(handler.createConstructor(childSchema, childClasss, initMethod));
+		// The super class would call the init method of the child a second time.
+		assertFalse(constructorString.contains("super(adapter);"));
+		assertTrue(constructorString.indexOf("super();") > 0);
+		assertTrue(constructorString.indexOf("initializeFromJSONObject(adapter);") > 0);
+	}
+
 	@Test
 	public void testCreateMethodInitializeFromJSONWithDefaultStringProperty() throws Exception {
 		//make a property that has default set with a string
@@ -1365,7 +1422,7 @@ public class JSONMarshalingHandlerImpl03Test {
 				.indexOf("org.sagebionetworks.schema.adapter.JSONArrayAdapter __jsonArray = adapter.getJSONArray(_KEY_DATELIST);") > 0);
 		assertTrue(methodString.indexOf("for (int __i = 0; (__i<__jsonArray.length()); __i ++) {") > 0);
 		assertTrue(methodString
-				.indexOf("dateList.add((__jsonArray.isNull(__i)?null:adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.valueOf(\"DATE_TIME\"), __jsonArray.getString(__i))));") > 0);
+				.indexOf("dateList.add((__jsonArray.isNull(__i)?null:adapter.convertStringToDate(org.sagebionetworks.schema.FORMAT.DATE_TIME, __jsonArray.getString(__i))));") > 0);
 	}
 	
 	@Test
@@ -1685,7 +1742,7 @@ public class JSONMarshalingHandlerImpl03Test {
 				.indexOf("org.sagebionetworks.schema.adapter.JSONArrayAdapter __jsonArray = adapter.getJSONArray(_KEY_ARRAYWHOSEITEMISANENUM);") > 0);
 		assertTrue(methodString.indexOf("for (int __i = 0; (__i<__jsonArray.length()); __i ++) {") > 0);
 		assertTrue(methodString
-				.indexOf("arrayWhoseItemIsAnEnum.add((__jsonArray.isNull(__i)?null:org.sample.Animals.valueOf(org.sagebionetworks.schema.JavaKeyword.determineJavaName(__jsonArray.getString(__i)))));") > 0);
+				.indexOf("arrayWhoseItemIsAnEnum.add((__jsonArray.isNull(__i)?null:org.sample.Animals.fromJsonName(__jsonArray.getString(__i))));") > 0);
 	}
 	
 	/**
@@ -1754,7 +1811,7 @@ public class JSONMarshalingHandlerImpl03Test {
 				.contains("org.sagebionetworks.schema.adapter.JSONArrayAdapter __jsonArray = adapter.getJSONArray(_KEY_ARRAYWHOSEITEMISANENUM);"));
 		assertTrue(methodString.contains("for (int __i = 0; (__i<__jsonArray.length()); __i ++) {"));
 		assertTrue(methodString
-				.contains("arrayWhoseItemIsAnEnum.add((__jsonArray.isNull(__i)?null:org.sample.Animals.valueOf(org.sagebionetworks.schema.JavaKeyword.determineJavaName(__jsonArray.getString(__i)))));"));
+				.contains("arrayWhoseItemIsAnEnum.add((__jsonArray.isNull(__i)?null:org.sample.Animals.fromJsonName(__jsonArray.getString(__i))));"));
 		
 		//check that everything was created correctly for the array without an enum
 		assertTrue(methodString.contains("arrayWhoseItemIsNotEnum = new java.util.ArrayList<java.lang.String>();"));
@@ -1811,7 +1868,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		
 		//make sure everything was created correctly
 		assertTrue(methodString.indexOf("org.sample.Animals __value = __it.next();") > 0);
-		assertTrue(methodString.indexOf("__array.put(__index, ((__value == null)?null:org.sagebionetworks.schema.JavaKeyword.determineJsonName(__value.name())));") > 0);
+		assertTrue(methodString.indexOf("__array.put(__index, ((__value == null)?null:__value.getJsonName()));") > 0);
 	}
 	
 	/**
@@ -1874,7 +1931,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		//make sure everything is in order for the property that has an enum
 		assertTrue(methodString.indexOf("java.util.Iterator<org.sample.Animals> __it = arrayWhoseItemIsAnEnum.iterator();") > 0);
 		assertTrue(methodString.indexOf("org.sample.Animals __value = __it.next();") > 0);
-		assertTrue(methodString.indexOf("__array.put(__index, ((__value == null)?null:org.sagebionetworks.schema.JavaKeyword.determineJsonName(__value.name())));") > 0);
+		assertTrue(methodString.indexOf("__array.put(__index, ((__value == null)?null:__value.getJsonName()));") > 0);
 		
 		//make sure everything is in order for the property that does not have an enum
 		assertTrue(methodString.indexOf("java.util.Iterator<java.lang.String> __it = arrayWhoseItemIsNotEnum.iterator();") > 0);
@@ -1952,8 +2009,8 @@ public class JSONMarshalingHandlerImpl03Test {
 		assertTrue(methodString.contains("if (__jsonMap.isNull(__keyObject)) {"));
 		assertTrue(methodString.contains("__value = null;"));
 		assertTrue(methodString.contains("} else {"));
-		assertTrue(methodString.contains("__value = org.sample.Pets.valueOf(org.sagebionetworks.schema.JavaKeyword.determineJavaName(__jsonMap.getString(__keyObject)));"));
-		assertTrue(methodString.contains("org.sample.Animals __key = org.sample.Animals.valueOf(org.sagebionetworks.schema.JavaKeyword.determineJavaName(((java.lang.String) __keyObject)));"));
+		assertTrue(methodString.contains("__value = org.sample.Pets.fromJsonName(__jsonMap.getString(__keyObject));"));
+		assertTrue(methodString.contains("org.sample.Animals __key = org.sample.Animals.fromJsonName(((java.lang.String) __keyObject));"));
 		assertTrue(methodString.contains("mapWhoseItemIsAnEnum.put(__key, __value);"));
 	}
 
@@ -2018,7 +2075,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		assertTrue(methodString.contains("if (__entry.getValue() == null) {"));
 		assertTrue(methodString.contains("__map.putNull(__entry.getKey());"));
 		assertTrue(methodString.contains("} else {"));
-		assertTrue(methodString.contains("__map.put(__entry.getKey(), org.sagebionetworks.schema.JavaKeyword.determineJsonName(__entry.getValue().name()))"));
+		assertTrue(methodString.contains("__map.put(__entry.getKey(), __entry.getValue().getJsonName())"));
 	}
 
 
@@ -2077,7 +2134,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		assertTrue(methodString.contains("if (__jsonStringMap.isNull(__key)) {"));
 		assertTrue(methodString.contains("__value = null;"));
 		assertTrue(methodString.contains("} else {"));
-		assertTrue(methodString.contains("__value = org.sample.Pets.valueOf(org.sagebionetworks.schema.JavaKeyword.determineJavaName(__jsonStringMap.getString(__key)));"));
+		assertTrue(methodString.contains("__value = org.sample.Pets.fromJsonName(__jsonStringMap.getString(__key));"));
 		assertTrue(methodString.contains("mapWhoseItemIsAnEnum.put(__key, __value);"));
 	}
 
@@ -2203,7 +2260,7 @@ public class JSONMarshalingHandlerImpl03Test {
 		assertTrue(methodString.contains("if (__entry.getValue() == null) {"));
 		assertTrue(methodString.contains("__map.putNull(__entry.getKey());"));
 		assertTrue(methodString.contains("} else {"));
-		assertTrue(methodString.contains("__map.put(__entry.getKey(), org.sagebionetworks.schema.JavaKeyword.determineJsonName(__entry.getValue().name()))"));
+		assertTrue(methodString.contains("__map.put(__entry.getKey(), __entry.getValue().getJsonName())"));
 	}
 
 
@@ -2242,4 +2299,70 @@ public class JSONMarshalingHandlerImpl03Test {
 				handler.createWriteToJSONObject(schema, sampleClass)
 		);
 	}
+
+	@Test
+	public void testCreateReadPropertyStringProperty() throws Exception {
+		String propName = "stringName";
+		schema.putProperty(propName, new ObjectSchemaImpl(TYPE.STRING));
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(String.class), propName);
+		addKeyConstant(sampleClass, propName);
+		JSONMarshalingHandlerImpl03 handler = new JSONMarshalingHandlerImpl03();
+		JMethod method = handler.createReadProperty(schema, sampleClass, null);
+		String methodString = declareToString(method);
+		assertTrue(methodString.contains("switch (__name) {"));
+		assertTrue(methodString.contains("case _KEY_STRINGNAME:"));
+		assertTrue(methodString.contains("stringName = reader.nextString();"));
+		assertTrue(methodString.contains("return false;"));
+	}
+
+	@Test
+	public void testCreateWritePropertiesRequired() throws Exception {
+		String propName = "longName";
+		ObjectSchema propertySchema = new ObjectSchemaImpl(TYPE.INTEGER);
+		propertySchema.setRequired(true);
+		schema.putProperty(propName, propertySchema);
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(Long.class), propName);
+		addKeyConstant(sampleClass, propName);
+		JSONMarshalingHandlerImpl03 handler = new JSONMarshalingHandlerImpl03();
+		JMethod method = handler.createWriteProperties(schema, sampleClass);
+		String methodString = declareToString(method);
+		assertTrue(methodString.contains("writer.name(_KEY_LONGNAME);"));
+		assertTrue(methodString.contains("writer.value(longName);"));
+		assertTrue(methodString.contains("throw new java.lang.IllegalArgumentException"));
+	}
+
+	@Test
+	public void testCreateBaseMethodMarshalingMetrics() throws Exception {
+		JSONMarshalingHandlerImpl03 handler = new JSONMarshalingHandlerImpl03();
+		handler.setMarshalingMetrics(true);
+		JMethod method = handler.createBaseMethod(schema, sampleClass, "writeToJSONObject");
+		// The body goes to a private method.
+		assertEquals("__writeToJSONObject", method.name());
+		assertEquals(JMod.PRIVATE, method.mods().getValue());
+		String methodString = declareToString(method);
+		assertFalse(methodString.contains("@java.lang.Override"));
+		assertTrue(methodString.contains("if (adapter == null)"));
+		// The public method records the call.
+		JMethod wrapper = sampleClass.getMethod("writeToJSONObject", new JType[] { codeModel.ref(JSONObjectAdapter.class) });
+		assertNotNull(wrapper);
+		String wrapperString = declareToString(wrapper);
+		assertTrue(wrapperString.contains("@java.lang.Override"));
+		assertTrue(wrapperString.contains("final long __start = org.sagebionetworks.schema.metrics.MarshalingMetrics.start(this, Sample.class);"));
+		assertTrue(wrapperString.contains("final org.sagebionetworks.schema.adapter.JSONObjectAdapter __result = __writeToJSONObject(adapter);"));
+		assertTrue(wrapperString.contains("org.sagebionetworks.schema.metrics.MarshalingMetrics.record(Sample.class, org.sagebionetworks.schema.metrics.MarshalingMetrics.Operation.WRITE, __start, __success);"));
+	}
+
+	@Test
+	public void testAddJSONMarshalingMetricsConstructor() throws Exception {
+		JSONMarshalingHandlerImpl03 handler = new JSONMarshalingHandlerImpl03();
+		handler.setMarshalingMetrics(true);
+		handler.addJSONMarshaling(schema, sampleClass, null);
+		JMethod constructor = sampleClass.getConstructor(new JType[] { codeModel.ref(JSONObjectAdapter.class) });
+		String constructorString = declareToString(constructor);
+		// The constructor should use the measured method.
+		assertTrue(constructorString.contains(" initializeFromJSONObject(adapter);"));
+		assertFalse(constructorString.contains("__initializeFromJSONObject(adapter);"));
+		JMethod init = sampleClass.getMethod("initializeFromJSONObject", new JType[] { codeModel.ref(JSONObjectAdapter.class) });
+		assertTrue(declareToString(init).contains("MarshalingMetrics.Operation.INITIALIZE"));
+	}
 }
\ No newline at end of file
@@ -4,6 +4,10 @@ import static org.junit.Assert.*;
 
 import java.io.StringWriter;
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -310,5 +314,97 @@ public class PropertyHandlerImpl03Test {
 		System.out.println(classString);
 		 assertTrue(classString.indexOf("private java.lang.String concreteType = org.sample.Sample.class.getName();") > 0);
 	}
+
+	@Test
+	public void testCreatePropertyPrimitiveFields(){
+		PropertyHandlerImpl03 handler = new PropertyHandlerImpl03();
+		handler.setPrimitiveFields(true);
+		schema.setType(TYPE.INTEGER);
+		JFieldVar field = handler.createProperty(schema, sampleClass, "count", codeModel.ref(Long.class));
+		assertEquals(codeModel.LONG, field.type());
+		assertNotNull(sampleClass.fields().get("__presence0"));
+		StringWriter writer = new StringWriter();
+		JFormatter formatter = new JFormatter(writer);
+		sampleClass.declare(formatter);
+		String classString = writer.toString();
+		// The getters and setters are still boxed.
+		assertTrue(classString.indexOf("public java.lang.Long getCount()") > 0);
+		assertTrue(classString.indexOf("return (((__presence0 & 1L) == 0L)?null:java.lang.Long.valueOf(count));") > 0);
+		assertTrue(classString.indexOf("public void setCount(java.lang.Long count)") > 0);
+		assertTrue(classString.indexOf("__presence0 = (__presence0 | 1L);") > 0);
+	}
+
+	@Test
+	public void testCreatePropertyPrimitiveFieldsString(){
+		PropertyHandlerImpl03 handler = new PropertyHandlerImpl03();
+		handler.setPrimitiveFields(true);
+		JFieldVar field = handler.createProperty(schema, sampleClass, "name", type);
+		assertEquals(type, field.type());
+		assertNull(sampleClass.fields().get("__presence0"));
+	}
 	
-}
+	@Test
+	public void testCreatePropertyImmutable() throws ClassNotFoundException{
+		TypeCreatorHandlerImpl03 typeCreator = new TypeCreatorHandlerImpl03();
+		typeCreator.setImmutable(true);
+		ObjectSchema classSchema = new ObjectSchemaImpl(TYPE.OBJECT);
+		classSchema.setName("Immutable");
+		classSchema.setId("org.sample.Immutable");
+		JDefinedClass immutableClass = (JDefinedClass) typeCreator.handelCreateType(codeModel, classSchema, codeModel._ref(Object.class), null, null, null, null);
+		PropertyHandlerImpl03 handler = new PropertyHandlerImpl03();
+		handler.setImmutable(true);
+		handler.createProperty(schema, immutableClass, "name", type);
+		handler.createProperty(new ObjectSchemaImpl(TYPE.ARRAY), immutableClass, "names", codeModel.ref(List.class).narrow(String.class));
+		StringWriter writer = new StringWriter();
+		JFormatter formatter = new JFormatter(writer);
+		immutableClass.declare(formatter);
+		String classString = writer.toString();
+		// Only the builder can call the setters.
+		assertTrue(classString.indexOf("private void setName(java.lang.String name)") > 0);
+		assertTrue(classString.indexOf("public B setName(java.lang.String name) {") > 0);
+		assertTrue(classString.indexOf("((org.sample.Immutable) target()).setName(name);") > 0);
+		assertTrue(classString.indexOf("return java.util.Collections.unmodifiableList(names);") > 0);
+		// The builder keeps a copy of the list.
+		assertTrue(classString.indexOf("setNames(((names == null)?null:new java.util.ArrayList<java.lang.String>(names)));") > 0);
+	}
+
+	@Test
+	public void testCreatePropertyImmutableCopies() throws ClassNotFoundException{
+		TypeCreatorHandlerImpl03 typeCreator = new TypeCreatorHandlerImpl03();
+		typeCreator.setImmutable(true);
+		ObjectSchema classSchema = new ObjectSchemaImpl(TYPE.OBJECT);
+		classSchema.setName("Immutable");
+		classSchema.setId("org.sample.Immutable");
+		JDefinedClass immutableClass = (JDefinedClass) typeCreator.handelCreateType(codeModel, classSchema, codeModel._ref(Object.class), null, null, null, null);
+		PropertyHandlerImpl03 handler = new PropertyHandlerImpl03();
+		handler.setImmutable(true);
+		handler.createProperty(new ObjectSchemaImpl(TYPE.STRING), immutableClass, "created", codeModel.ref(Date.class));
+		handler.createProperty(new ObjectSchemaImpl(TYPE.ARRAY), immutableClass, "tags", codeModel.ref(Set.class).narrow(String.class));
+		handler.createProperty(new ObjectSchemaImpl(TYPE.MAP), immutableClass, "attributes", codeModel.ref(Map.class).narrow(String.class, Long.class));
+		StringWriter writer = new StringWriter();
+		JFormatter formatter = new JFormatter(writer);
+		immutableClass.declare(formatter);
+		String classString = writer.toString();
+		// Dates are copied in and out.
+		assertTrue(classString.indexOf("return ((created == null)?null:new java.util.Date(created.getTime()));") > 0);
+		assertTrue(classString.indexOf("setCreated(((created == null)?null:new java.util.Date(created.getTime())));") > 0);
+		assertTrue(classString.indexOf("setTags(((tags == null)?null:new java.util.LinkedHashSet<java.lang.String>(tags)));") > 0);
+		assertTrue(classString.indexOf("setAttributes(((attributes == null)?null:new java.util.LinkedHashMap<java.lang.String, java.lang.Long>(attributes)));") > 0);
+	}
+
+	@Test
+	public void testCreatePropertyImmutableInterface(){
+		PropertyHandlerImpl03 handler = new PropertyHandlerImpl03();
+		handler.setImmutable(true);
+		handler.createProperty(schema, sampleInterfance, "name", type);
+		assertNotNull(sampleInterfance.getMethod("getName", new JType[0]));
+		assertNull(sampleInterfance.getMethod("setName", new JType[] { type }));
+	}
+
+	@Test (expected=IllegalArgumentException.class)
+	public void testCreatePropertyImmutableNoBuilder(){
+		PropertyHandlerImpl03 handler = new PropertyHandlerImpl03();
+		handler.setImmutable(true);
+		handler.createProperty(schema, sampleClass, "name", type);
+	}
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.sagebionetworks.schema.generator.handler.schema03;
 
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -20,6 +21,7 @@ import org.sagebionetworks.schema.JavaKeyword;
 import org.sagebionetworks.schema.ObjectSchema;
 import org.sagebionetworks.schema.ObjectSchemaImpl;
 import org.sagebionetworks.schema.TYPE;
+import org.sagebionetworks.schema.util.ToStringLimits;
 
 public class ToStringHandlerImpl03Test {
 	ObjectSchema schema;
@@ -326,6 +328,55 @@ public class ToStringHandlerImpl03Test {
 		assertTrue(methodString.indexOf("result.append(_enum);") > 0);
 	}
 
+	/**
+	 * Tests that a bounded toString() appends each property through the
+	 * limits and presizes its builder.
+	 * @throws Exception
+	 */
+	@Test
+	public void testBoundedToString() throws Exception {
+		ObjectSchema stringProp = new ObjectSchemaImpl();
+		stringProp.setType(TYPE.STRING);
+		schema.putProperty("stringPropKeyName", stringProp);
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(String.class), "stringPropKeyName");
+
+		ToStringHandlerImpl03 handler = new ToStringHandlerImpl03();
+		handler.setLimits(new ToStringLimits(2, 5, 1));
+		handler.addToStringMethod(schema, sampleClass);
+
+		String classString = declareToString(sampleClass);
+		assertTrue(classString.indexOf("implements org.sagebionetworks.schema.util.BoundedToString") > 0);
+		assertTrue(classString.indexOf("private final static org.sagebionetworks.schema.util.ToStringLimits __TO_STRING_LIMITS = new org.sagebionetworks.schema.util.ToStringLimits(2, 5, 1);") > 0);
+		int estimate = handler.estimateLength(schema, "ImASampleClass");
+		assertEquals("ImASampleClass".length() + 3 + "stringPropKeyName".length() + 2 + 5, estimate);
+		assertTrue(classString.indexOf("return toString(new java.lang.StringBuilder(" + estimate + "), 0).toString();") > 0);
+		assertTrue(classString.indexOf("return toString(builder, 0);") > 0);
+		assertTrue(classString.indexOf("builder.append(\"stringPropKeyName=\");") > 0);
+		assertTrue(classString.indexOf("__TO_STRING_LIMITS.append(builder, stringPropKeyName, depth);") > 0);
+		assertTrue(classString.indexOf("return builder;") > 0);
+	}
+
+	/**
+	 * Tests that a bounded toString() starts with the description of the super
+	 * class.
+	 * @throws Exception
+	 */
+	@Test
+	public void testBoundedToStringSuper() throws Exception {
+		ObjectSchema childSchema = new ObjectSchemaImpl();
+		childSchema.setExtends(schema);
+		JDefinedClass childClass = codeModel._class("ChildOfSample");
+		childClass._extends(sampleClass);
+
+		ToStringHandlerImpl03 handler = new ToStringHandlerImpl03();
+		handler.setLimits(new ToStringLimits(2, 5, 1));
+		JMethod method = handler.addBoundedToString(childSchema, childClass);
+
+		String methodString = declareToString(method);
+		assertTrue(methodString.indexOf("super.toString(builder, depth);") > 0);
+		assertTrue(methodString.indexOf("builder.append(\"ChildOfSample [\");") > 0);
+	}
+
 	/**
 	 * Helper to declare a model object to string.
 	 * @param toDeclare
@@ -3,6 +3,7 @@ package org.sagebionetworks.schema.generator.handler.schema03;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.StringWriter;
@@ -23,6 +24,7 @@ import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDeclaration;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JFormatter;
+import com.sun.codemodel.JMod;
 import com.sun.codemodel.JPackage;
 import com.sun.codemodel.JType;
 
@@ -300,15 +302,36 @@ public class TypeCreatorHandlerImpl03Test {
 		JDefinedClass sampleClass = (JDefinedClass)clazz;
 		String classString = declareToString(sampleClass);
 		System.out.println(classString);
-		assertTrue(classString.indexOf("one,") > 0);
-		assertTrue(classString.indexOf("two,") > 0);
-		assertTrue(classString.indexOf("three;") > 0);
+		assertTrue(classString.indexOf("one(\"one\"),") > 0);
+		assertTrue(classString.indexOf("two(\"two\"),") > 0);
+		assertTrue(classString.indexOf("three(\"three\");") > 0);
 		assertTrue(classString.indexOf(title) > 0);
 		assertTrue(classString.indexOf(description) > 0);
 		assertTrue(classString.indexOf(TypeCreatorHandlerImpl03.AUTO_GENERATED_MESSAGE) > 0);
 		assertTrue(classString.contains("two's description"));
 	}
 
+	@Test
+	public void testCreateEnumerationJsonNames() throws ClassNotFoundException {
+		schema.setType(TYPE.STRING);
+		schema.setEnum(new EnumValue[]{
+				new EnumValue("one"),
+				new EnumValue("final")
+		});
+		schema.setName("KeywordEnum");
+		TypeCreatorHandlerImpl03 handler = new TypeCreatorHandlerImpl03();
+		JDefinedClass sampleClass = (JDefinedClass) handler.handelCreateType(codeModel, schema, codeModel._ref(Object.class), null, null, null, null);
+		String classString = declareToString(sampleClass);
+		// Keywords keep their JSON name
+		assertTrue(classString.contains("_final(\"final\");"));
+		assertTrue(classString.contains("private final java.lang.String __jsonName;"));
+		assertTrue(classString.contains("return __jsonName;"));
+		assertTrue(classString.contains("KeywordEnum fromJsonName(java.lang.String jsonName) {"));
+		assertTrue(classString.contains("case \"final\":"));
+		assertTrue(classString.contains("KeywordEnum._final;"));
+		assertTrue(classString.contains("KeywordEnum.valueOf(jsonName);"));
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void testHandelCreateType_StringKeyMap_nullValue() throws ClassNotFoundException{
 		String title = "This is the title";
@@ -428,4 +451,42 @@ public class TypeCreatorHandlerImpl03Test {
 		return writer.toString();
 	}
 
+	@Test
+	public void testCreateImmutableClassBuilder() throws ClassNotFoundException{
+		TypeCreatorHandlerImpl03 handler = new TypeCreatorHandlerImpl03();
+		handler.setImmutable(true);
+		JDefinedClass parent = (JDefinedClass) handler.handelCreateType(codeModel, schema, codeModel._ref(Object.class), null, null, null, null);
+		JDefinedClass parentBuilder = TypeCreatorHandlerImpl03.getAbstractBuilder(parent);
+		assertNotNull(parentBuilder);
+		String parentString = declareToString(parentBuilder);
+		assertTrue(parentString.contains("public static abstract class AbstractBuilder<T extends org.sample.Sample, B extends org.sample.Sample.AbstractBuilder<T, B> >"));
+		assertTrue(parentString.contains("protected abstract B self();"));
+		assertTrue(parentString.contains("public T build() {"));
+		assertTrue(parentString.contains("((org.sample.Sample) result).__initialized = true;"));
+		assertNotNull(parent.fields().get(TypeCreatorHandlerImpl03.INITIALIZED));
+		// A sub-class builder extends the builder of the super class.
+		ObjectSchema childSchema = new ObjectSchemaImpl();
+		childSchema.setType(TYPE.OBJECT);
+		childSchema.setName("Child");
+		childSchema.setId("org.sample.Child");
+		JDefinedClass child = (JDefinedClass) handler.handelCreateType(codeModel, childSchema, parent, null, null, null, null);
+		String childString = declareToString(TypeCreatorHandlerImpl03.getAbstractBuilder(child));
+		assertTrue(childString.contains("extends org.sample.Sample.AbstractBuilder<T, B>"));
+		assertTrue(childString.contains("super(instance);"));
+		// only the root class has the flag
+		assertNull(child.fields().get(TypeCreatorHandlerImpl03.INITIALIZED));
+		String classString = declareToString(child);
+		assertTrue(classString.contains("public final static class Builder"));
+		assertTrue(classString.contains("extends org.sample.Child.AbstractBuilder<org.sample.Child, org.sample.Child.Builder>"));
+		assertTrue(classString.contains("super(new org.sample.Child());"));
+	}
+
+	@Test
+	public void testCreateClassNotImmutable() throws ClassNotFoundException{
+		TypeCreatorHandlerImpl03 handler = new TypeCreatorHandlerImpl03();
+		JDefinedClass clazz = (JDefinedClass) handler.handelCreateType(codeModel, schema, codeModel._ref(Object.class), null, null, null, null);
+		assertEquals(null, TypeCreatorHandlerImpl03.getAbstractBuilder(clazz));
+		assertFalse(clazz.classes().hasNext());
+		assertEquals(0, clazz.mods().getValue() & JMod.ABSTRACT);
+	}
 }
@@ -0,0 +1,251 @@
+package org.sagebionetworks.schema.generator.handler.schema03;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.ObjectSchema;
+import org.sagebionetworks.schema.ObjectSchemaImpl;
+import org.sagebionetworks.schema.TYPE;
+import org.sagebionetworks.schema.generator.PropertyUtils;
+
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDeclaration;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFormatter;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JType;
+
+public class ValidationHandlerImpl03Test {
+
+	ObjectSchema schema;
+	JCodeModel codeModel;
+	JDefinedClass sampleClass;
+	ValidationHandlerImpl03 handler;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		schema = new ObjectSchemaImpl();
+		schema.setType(TYPE.OBJECT);
+		codeModel = new JCodeModel();
+		sampleClass = codeModel._class("ImASampleClass");
+		handler = new ValidationHandlerImpl03();
+		handler.setRuntimeValidation(true);
+	}
+
+	@Test
+	public void testDisabled() {
+		handler.setRuntimeValidation(false);
+		handler.addValidation(schema, sampleClass);
+		assertTrue(sampleClass.methods().isEmpty());
+	}
+
+	@Test
+	public void testInterface() {
+		schema.setType(TYPE.INTERFACE);
+		assertThrows(IllegalArgumentException.class, () -> {
+			handler.addValidation(schema, sampleClass);
+		});
+	}
+
+	@Test
+	public void testStringConstraints() {
+		ObjectSchema propSchema = new ObjectSchemaImpl();
+		propSchema.setType(TYPE.STRING);
+		propSchema.setPattern("a*b");
+		propSchema.setMinLength(2);
+		propSchema.setMaxLength(5);
+		schema.putProperty("name", propSchema);
+		sampleClass.field(JMod.PRIVATE, String.class, "name");
+
+		handler.addValidation(schema, sampleClass);
+		JMethod method = sampleClass.getMethod(ValidationHandlerImpl03.VALIDATE_PROPERTIES, new JType[0]);
+		assertNotNull(method);
+		String methodString = declareToString(method);
+		assertTrue(methodString.indexOf("private void __validateProperties() {") >= 0);
+		assertTrue(methodString.indexOf("if (name!= null) {") > 0);
+		assertTrue(methodString.indexOf("if (!_PATTERN_NAME.matcher(name).matches()) {") > 0);
+		assertTrue(methodString.indexOf("throw new java.lang.IllegalArgumentException((\"Property: 'name' must match the pattern: a*b, was: \"+ name));") > 0);
+		assertTrue(methodString.indexOf("if (name.length()< 2) {") > 0);
+		assertTrue(methodString.indexOf("if (name.length()> 5) {") > 0);
+		assertNotNull(sampleClass.fields().get(PropertyUtils.PATTERN_PREFIX + "NAME"));
+	}
+
+	@Test
+	public void testNumberConstraints() {
+		ObjectSchema propSchema = new ObjectSchemaImpl();
+		propSchema.setType(TYPE.INTEGER);
+		propSchema.setMinimum(1L);
+		propSchema.setExclusiveMaximum(10L);
+		propSchema.setDivisibleBy(3L);
+		schema.putProperty("count", propSchema);
+		sampleClass.field(JMod.PRIVATE, Long.class, "count");
+		ObjectSchema doubleSchema = new ObjectSchemaImpl();
+		doubleSchema.setType(TYPE.NUMBER);
+		doubleSchema.setMaximum(1.5);
+		doubleSchema.setDivisibleBy(0.5);
+		schema.putProperty("ratio", doubleSchema);
+		sampleClass.field(JMod.PRIVATE, Double.class, "ratio");
+
+		handler.addValidation(schema, sampleClass);
+		String methodString = declareToString(sampleClass.getMethod(ValidationHandlerImpl03.VALIDATE_PROPERTIES, new JType[0]));
+		assertTrue(methodString.indexOf("if (count< 1L) {") > 0);
+		assertTrue(methodString.indexOf("if (count >= 10L) {") > 0);
+		assertTrue(methodString.indexOf("if ((count% 3L)!= 0L) {") > 0);
+		assertTrue(methodString.indexOf("if (ratio > 1.5D) {") > 0);
+		assertTrue(methodString.indexOf("if (!org.sagebionetworks.schema.util.ValidationUtils.isDivisibleBy(ratio, 0.5D)) {") > 0);
+	}
+
+	@Test
+	public void testDivisibleByZero() {
+		ObjectSchema propSchema = new ObjectSchemaImpl();
+		propSchema.setType(TYPE.INTEGER);
+		propSchema.setDivisibleBy(0L);
+		schema.putProperty("count", propSchema);
+		sampleClass.field(JMod.PRIVATE, Long.class, "count");
+		assertThrows(IllegalArgumentException.class, () -> {
+			handler.addValidation(schema, sampleClass);
+		});
+	}
+
+	@Test
+	public void testArrayConstraints() {
+		ObjectSchema propSchema = new ObjectSchemaImpl();
+		propSchema.setType(TYPE.ARRAY);
+		propSchema.setMinItems(1L);
+		propSchema.setMaxItems(4L);
+		propSchema.setUniqueItems(true);
+		schema.putProperty("list", propSchema);
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(List.class).narrow(String.class), "list");
+		ObjectSchema setSchema = new ObjectSchemaImpl();
+		setSchema.setType(TYPE.ARRAY);
+		setSchema.setUniqueItems(true);
+		schema.putProperty("set", setSchema);
+		sampleClass.field(JMod.PRIVATE, codeModel.ref(Set.class).narrow(String.class), "set");
+
+		handler.addValidation(schema, sampleClass);
+		String methodString = declareToString(sampleClass.getMethod(ValidationHandlerImpl03.VALIDATE_PROPERTIES, new JType[0]));
+		assertTrue(methodString.indexOf("if (list.size()< 1L) {") > 0);
+		assertTrue(methodString.indexOf("if (list.size()> 4L) {") > 0);
+		assertTrue(methodString.indexOf("if (!org.sagebionetworks.schema.util.ValidationUtils.hasUniqueItems(list)) {") > 0);
+		// a set cannot have duplicates
+		assertFalse(methodString.contains("set"));
+	}
+
+	@Test
+	public void testNoConstraints() {
+		ObjectSchema propSchema = new ObjectSchemaImpl();
+		propSchema.setType(TYPE.STRING);
+		schema.putProperty("name", propSchema);
+		sampleClass.field(JMod.PRIVATE, String.class, "name");
+		handler.addValidation(schema, sampleClass);
+		// nothing to check so there is no private method to call
+		assertNull(sampleClass.getMethod(ValidationHandlerImpl03.VALIDATE_PROPERTIES, new JType[0]));
+		assertNull(sampleClass.fields().get(PropertyUtils.PATTERN_PREFIX + "NAME"));
+		String methodString = declareToString(sampleClass.getMethod(ValidationHandlerImpl03.VALIDATE, new JType[0]));
+		assertFalse(methodString.contains("__validateProperties"));
+	}
+
+	@Test
+	public void testValidateSuper() throws Exception {
+		ObjectSchema childSchema = new ObjectSchemaImpl();
+		childSchema.setType(TYPE.OBJECT);
+		childSchema.setExtends(schema);
+		ObjectSchema propSchema = new ObjectSchemaImpl();
+		propSchema.setType(TYPE.STRING);
+		propSchema.setMinLength(1);
+		childSchema.putProperty("name", propSchema);
+		JDefinedClass childClass = codeModel._class("ChildOfSample");
+		childClass._extends(sampleClass);
+		childClass.field(JMod.PRIVATE, String.class, "name");
+
+		handler.addValidation(childSchema, childClass);
+		JMethod method = childClass.getMethod(ValidationHandlerImpl03.VALIDATE, new JType[0]);
+		String methodString = declareToString(method);
+		assertTrue(methodString.indexOf("@java.lang.Override") >= 0);
+		assertTrue(methodString.indexOf("super.validate();") > 0);
+		assertTrue(methodString.indexOf("__validateProperties();") > methodString.indexOf("super.validate();"));
+		assertEquals(JMod.PUBLIC, method.mods().getValue());
+	}
+
+	@Test
+	public void testValidateSuperNoConstraints() throws Exception {
+		ObjectSchema childSchema = new ObjectSchemaImpl();
+		childSchema.setType(TYPE.OBJECT);
+		childSchema.setExtends(schema);
+		JDefinedClass childClass = codeModel._class("ChildOfSample");
+		childClass._extends(sampleClass);
+
+		handler.addValidation(childSchema, childClass);
+		String methodString = declareToString(childClass.getMethod(ValidationHandlerImpl03.VALIDATE, new JType[0]));
+		assertTrue(methodString.indexOf("super.validate();") > 0);
+		assertFalse(methodString.contains("__validateProperties"));
+	}
+
+	@Test
+	public void testValidateExternalSuper() throws Exception {
+		ObjectSchema childSchema = new ObjectSchemaImpl();
+		childSchema.setType(TYPE.OBJECT);
+		childSchema.setExtends(schema);
+		JDefinedClass childClass = codeModel._class("ChildOfExternal");
+		// a class that was not generated does not have validate()
+		childClass._extends(codeModel.ref(java.util.Date.class));
+
+		handler.addValidation(childSchema, childClass);
+		String methodString = declareToString(childClass.getMethod(ValidationHandlerImpl03.VALIDATE, new JType[0]));
+		assertFalse(methodString.contains("super.validate()"));
+		assertFalse(methodString.contains("@java.lang.Override"));
+	}
+
+	@Test
+	public void testInitializeFromJSONObjectCallsValidation() {
+		ObjectSchema propSchema = new ObjectSchemaImpl();
+		propSchema.setType(TYPE.STRING);
+		propSchema.setMinLength(1);
+		schema.putProperty("name", propSchema);
+		sampleClass.field(JMod.PRIVATE, String.class, "name");
+		TypeCreatorHandlerImpl03.addKeyConstants(schema, sampleClass);
+		handler.addValidation(schema, sampleClass);
+
+		JSONMarshalingHandlerImpl03 marshaling = new JSONMarshalingHandlerImpl03();
+		String methodString = declareToString(marshaling.createMethodInitializeFromJSONObject(schema, sampleClass));
+		assertTrue(methodString.indexOf("__validateProperties();") > 0);
+		assertTrue(methodString.indexOf("__validateProperties();") < methodString.indexOf("return adapter;"));
+	}
+
+	@Test
+	public void testInitializeFromJSONObjectNoConstraints() {
+		ObjectSchema propSchema = new ObjectSchemaImpl();
+		propSchema.setType(TYPE.STRING);
+		schema.putProperty("name", propSchema);
+		sampleClass.field(JMod.PRIVATE, String.class, "name");
+		TypeCreatorHandlerImpl03.addKeyConstants(schema, sampleClass);
+		handler.addValidation(schema, sampleClass);
+
+		JSONMarshalingHandlerImpl03 marshaling = new JSONMarshalingHandlerImpl03();
+		String methodString = declareToString(marshaling.createMethodInitializeFromJSONObject(schema, sampleClass));
+		assertFalse(methodString.contains("__validateProperties"));
+	}
+
+	/**
+	 * Helper to declare a model object to string.
+	 * @param toDeclare
+	 * @return
+	 */
+	public String declareToString(JDeclaration toDeclare){
+		StringWriter writer = new StringWriter();
+		JFormatter formatter = new JFormatter(writer);
+		toDeclare.declare(formatter);
+		return writer.toString();
+	}
+}
@@ -1,13 +1,12 @@
 package org.sagebionetworks.gwt.client.schema.adapter;
 
-import java.io.UnsupportedEncodingException;
 import java.util.Date;
 
 import org.sagebionetworks.schema.FORMAT;
 import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
-import org.sagebionetworks.schema.binary.Base64;
+import org.sagebionetworks.schema.binary.Base64Codec;
 
 import com.google.gwt.json.client.JSONArray;
 import com.google.gwt.json.client.JSONBoolean;
@@ -233,25 +232,13 @@ public class JSONArrayGwt extends GwtAdapterFactory implements JSONArrayAdapter
 	@Override
 	public JSONArrayAdapter put(int index, byte[] value)throws JSONObjectAdapterException {
 		// Base64 encode the byte array
-		try {
-			byte[] encoded = Base64.encodeBase64(value);
-			String stringValue = new String(encoded, "UTF-8");
-			return put(index, stringValue);
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
-
+		return put(index, Base64Codec.encodeToString(value));
 	}
 
 	@Override
 	public byte[] getBinary(int index) throws JSONObjectAdapterException {
-		try {
-			// Get the string value
-			String base64String = getString(index);
-			return Base64.decodeBase64(base64String.getBytes("UTF-8"));
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
+		// Get the string value
+		return Base64Codec.decode(getString(index));
 	}
 
 
@@ -1,6 +1,5 @@
 package org.sagebionetworks.gwt.client.schema.adapter;
 
-import java.io.UnsupportedEncodingException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -12,7 +11,7 @@ import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
 import org.sagebionetworks.schema.adapter.JSONMapAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
-import org.sagebionetworks.schema.binary.Base64;
+import org.sagebionetworks.schema.binary.Base64Codec;
 
 import com.google.gwt.json.client.JSONArray;
 import com.google.gwt.json.client.JSONBoolean;
@@ -231,25 +230,13 @@ public class JSONMapGwt extends GwtAdapterFactory implements JSONMapAdapter {
 	@Override
 	public JSONMapAdapter put(Object key, byte[] value) throws JSONObjectAdapterException {
 		// Base64 encode the byte array
-		try {
-			byte[] encoded = Base64.encodeBase64(value);
-			String stringValue = new String(encoded, "UTF-8");
-			return put(key, stringValue);
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
-
+		return put(key, Base64Codec.encodeToString(value));
 	}
 
 	@Override
 	public byte[] getBinary(Object key) throws JSONObjectAdapterException {
-		try {
-			// Get the string value
-			String base64String = getString(key);
-			return Base64.decodeBase64(base64String.getBytes("UTF-8"));
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
+		// Get the string value
+		return Base64Codec.decode(getString(key));
 	}
 
 	@Override
@@ -1,15 +1,16 @@
 package org.sagebionetworks.gwt.client.schema.adapter;
 
-import java.io.UnsupportedEncodingException;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 import org.sagebionetworks.schema.FORMAT;
 import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
 import org.sagebionetworks.schema.adapter.JSONMapAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
-import org.sagebionetworks.schema.binary.Base64;
+import org.sagebionetworks.schema.binary.Base64Codec;
 
 import com.google.gwt.json.client.JSONBoolean;
 import com.google.gwt.json.client.JSONNull;
@@ -27,6 +28,13 @@ import com.google.gwt.regexp.shared.RegExp;
  */
 public class JSONObjectGwt extends GwtAdapterFactory implements JSONObjectAdapter {
 	
+	/**
+	 * The maximum number of compiled patterns kept by validatePatternProperty().
+	 */
+	static final int MAX_CACHED_PATTERNS = 256;
+	
+	private static final Map<String, RegExp> PATTERN_CACHE = new HashMap<String, RegExp>();
+	
 	protected JSONObject wrapped = null;
 	
 	public JSONObjectGwt() {
@@ -242,6 +250,22 @@ public class JSONObjectGwt extends GwtAdapterFactory implements JSONObjectAdapte
 		return DateUtils.convertStringToDate(format, toFormat);
 	}
 
+	/**
+	 * Get the compiled RegExp for a pattern, compiling it on first use. The
+	 * cache is simply dropped when it reaches its limit.
+	 */
+	static RegExp getRegExp(String pattern) {
+		RegExp regExp = PATTERN_CACHE.get(pattern);
+		if (regExp == null) {
+			regExp = RegExp.compile(pattern);
+			if (PATTERN_CACHE.size() >= MAX_CACHED_PATTERNS) {
+				PATTERN_CACHE.clear();
+			}
+			PATTERN_CACHE.put(pattern, regExp);
+		}
+		return regExp;
+	}
+
 	/**
 	 * Method to validate a regular expression string against a pattern.
 	 */
@@ -254,7 +278,7 @@ public class JSONObjectGwt extends GwtAdapterFactory implements JSONObjectAdapte
 			throw new IllegalArgumentException("can not validatePatternProperty for pattern "
 					+ pattern + "because property is null");
 		}
-		RegExp regExp = RegExp.compile(pattern);
+		RegExp regExp = getRegExp(pattern);
 		MatchResult matcher = regExp.exec(property);
 		//for the property to MATCH the pattern three things must be true
 		//first, matcher can't be null, that means no matches were found
@@ -296,24 +320,12 @@ public class JSONObjectGwt extends GwtAdapterFactory implements JSONObjectAdapte
 	@Override
 	public JSONObjectAdapter put(String key, byte[] value)	throws JSONObjectAdapterException {
 		// Base64 encode the byte array
-		try {
-			byte[] encoded = Base64.encodeBase64(value);
-			String stringValue = new String(encoded, "UTF-8");
-			return put(key, stringValue);
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
-
+		return put(key, Base64Codec.encodeToString(value));
 	}
 
 	@Override
 	public byte[] getBinary(String key) throws JSONObjectAdapterException {
-		try {
-			// Get the string value
-			String base64String = getString(key);
-			return Base64.decodeBase64(base64String.getBytes("UTF-8"));
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
+		// Get the string value
+		return Base64Codec.decode(getString(key));
 	}
 }
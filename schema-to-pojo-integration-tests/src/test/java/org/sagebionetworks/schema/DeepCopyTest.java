@@ -0,0 +1,98 @@
+package org.sagebionetworks.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
+import org.sagebionetworks.streaming.ABImpl;
+import org.sagebionetworks.streaming.ABImpl2;
+import org.sagebionetworks.streaming.AllTypes;
+import org.sagebionetworks.streaming.InterfaceA;
+import org.sagebionetworks.streaming.MapOfStringToInterface;
+import org.sagebionetworks.streaming.StandaloneEnum;
+
+/**
+ * The classes in org.sagebionetworks.streaming are generated with deepCopy, as
+ * well as the streaming methods.
+ *
+ */
+public class DeepCopyTest {
+
+	@Test
+	public void testAllTypes() throws Exception {
+		AllTypes allTypes = new AllTypes();
+		allTypes.setStringProp("string");
+		allTypes.setDoubleProp(123.4);
+		allTypes.setStringAsDate(new Date(1000L));
+		List<InterfaceA> interfaces = new ArrayList<InterfaceA>();
+		ABImpl impl = new ABImpl();
+		impl.setFromMe("mine");
+		interfaces.add(impl);
+		interfaces.add(null);
+		allTypes.setInterfaceList(interfaces);
+		List<StandaloneEnum> enumList = new ArrayList<StandaloneEnum>();
+		enumList.add(StandaloneEnum.one);
+		allTypes.setEnumList(enumList);
+
+		AllTypes copy = allTypes.deepCopy();
+		assertEquals(allTypes, copy);
+		// The copy is the same as a JSON round trip.
+		assertEquals(EntityFactory.createEntityFromJSONString(EntityFactory.createJSONStringForEntity(allTypes),
+				AllTypes.class), copy);
+		// Mutable values are copied.
+		assertNotSame(allTypes.getStringAsDate(), copy.getStringAsDate());
+		assertNotSame(allTypes.getInterfaceList(), copy.getInterfaceList());
+		assertNotSame(impl, copy.getInterfaceList().get(0));
+		assertNull(copy.getInterfaceList().get(1));
+		// Immutable values are shared.
+		assertSame(allTypes.getStringProp(), copy.getStringProp());
+		assertSame(StandaloneEnum.one, copy.getEnumList().get(0));
+		// Changing the original does not change the copy.
+		allTypes.getStringAsDate().setTime(2000L);
+		impl.setFromMe("changed");
+		assertEquals(1000L, copy.getStringAsDate().getTime());
+		assertEquals("mine", ((ABImpl) copy.getInterfaceList().get(0)).getFromMe());
+	}
+
+	@Test
+	public void testInterfaceValues() throws Exception {
+		MapOfStringToInterface map = new MapOfStringToInterface();
+		map.setMap(new HashMap<String, InterfaceA>());
+		ABImpl value = new ABImpl();
+		value.setFromMe("aa");
+		map.getMap().put("a", value);
+		ABImpl2 value2 = new ABImpl2();
+		value2.setFromMe2("bb");
+		map.getMap().put("b", value2);
+		map.getMap().put("c", null);
+
+		MapOfStringToInterface copy = map.deepCopy();
+		assertEquals(map, copy);
+		// Each value is copied as the class of the value.
+		assertTrue(copy.getMap().get("a") instanceof ABImpl);
+		assertTrue(copy.getMap().get("b") instanceof ABImpl2);
+		assertNotSame(value2, copy.getMap().get("b"));
+		assertNull(copy.getMap().get("c"));
+		assertNull(copy.getMapConcrete());
+	}
+
+	@Test
+	public void testCopyThroughInterface() {
+		ABImpl2 value = new ABImpl2();
+		value.setFromMe2("bb");
+		InterfaceA a = value;
+		InterfaceA copy = a.deepCopy();
+		assertTrue(copy instanceof ABImpl2);
+		assertEquals(value, copy);
+		assertNotSame(value, copy);
+	}
+}
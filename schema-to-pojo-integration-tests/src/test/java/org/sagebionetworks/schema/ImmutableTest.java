@@ -0,0 +1,161 @@
+package org.sagebionetworks.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.immutable.ImmutableChild;
+import org.sagebionetworks.immutable.ImmutableParent;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenReader;
+
+/**
+ * The classes in org.sagebionetworks.immutable are generated with immutable so
+ * nothing the caller holds on to can change a built instance, or its cached
+ * hash code.
+ *
+ */
+public class ImmutableTest {
+
+	List<String> tags;
+	Set<String> labels;
+	Map<String, Long> attributes;
+	Date created;
+	ImmutableParent parent;
+	ImmutableParent same;
+
+	@BeforeEach
+	public void before() {
+		tags = new ArrayList<String>();
+		tags.add("a");
+		labels = new HashSet<String>();
+		labels.add("b");
+		attributes = new HashMap<String, Long>();
+		attributes.put("c", 1L);
+		created = new Date(1000L);
+		parent = new ImmutableParent.Builder().setName("parent").setTags(tags).setLabels(labels)
+				.setAttributes(attributes).setCreated(created).build();
+		same = new ImmutableParent.Builder().setName("parent").setTags(tags).setLabels(labels)
+				.setAttributes(attributes).setCreated(created).build();
+	}
+
+	@Test
+	public void testBuilderCopies() {
+		int hashCode = parent.hashCode();
+		assertEquals(same, parent);
+
+		tags.add("changed");
+		labels.add("changed");
+		attributes.put("changed", 2L);
+		created.setTime(2000L);
+
+		assertEquals(hashCode, parent.hashCode());
+		assertEquals(new Date(1000L), parent.getCreated());
+		assertEquals(1, parent.getTags().size());
+		assertEquals(1, parent.getLabels().size());
+		assertEquals(1, parent.getAttributes().size());
+		// the same values built again are still equal
+		assertEquals(new ImmutableParent.Builder().setName("parent").setTags(parent.getTags())
+				.setLabels(parent.getLabels()).setAttributes(parent.getAttributes())
+				.setCreated(parent.getCreated()).build(), parent);
+	}
+
+	@Test
+	public void testGettersCannotChange() {
+		int hashCode = parent.hashCode();
+		assertNotSame(parent.getCreated(), parent.getCreated());
+		parent.getCreated().setTime(2000L);
+		assertThrows(UnsupportedOperationException.class, () -> {
+			parent.getTags().add("changed");
+		});
+		assertThrows(UnsupportedOperationException.class, () -> {
+			parent.getLabels().clear();
+		});
+		assertThrows(UnsupportedOperationException.class, () -> {
+			parent.getAttributes().put("changed", 2L);
+		});
+		assertEquals(hashCode, parent.hashCode());
+		assertEquals(same, parent);
+	}
+
+	@Test
+	public void testInitializeFromJSONObjectCannotChangeBuilt() throws JSONObjectAdapterException {
+		int hashCode = parent.hashCode();
+		ImmutableParent other = new ImmutableParent.Builder().setName("other").build();
+		JSONObjectAdapter adapter = new JSONObjectAdapterImpl();
+		other.writeToJSONObject(adapter);
+
+		assertThrows(IllegalStateException.class, () -> {
+			parent.initializeFromJSONObject(adapter);
+		});
+		assertEquals(hashCode, parent.hashCode());
+		assertEquals(same, parent);
+		assertNotEquals(other, parent);
+	}
+
+	@Test
+	public void testReadFromCannotChangeBuilt() throws JSONObjectAdapterException {
+		ImmutableChild child = new ImmutableChild.Builder().setName("child").setSize(1.5).build();
+		int hashCode = child.hashCode();
+
+		assertThrows(IllegalStateException.class, () -> {
+			child.readFrom(new JsonTokenReader("{\"name\":\"other\",\"size\":2.5}"));
+		});
+		assertEquals(hashCode, child.hashCode());
+		assertEquals("child", child.getName());
+		assertEquals(1.5, child.getSize());
+	}
+
+	@Test
+	public void testReadOnlyOnce() throws JSONObjectAdapterException {
+		ImmutableChild expected = new ImmutableChild.Builder().setName("child").setTags(tags).setSize(1.5).build();
+		JSONObjectAdapter adapter = new JSONObjectAdapterImpl();
+		expected.writeToJSONObject(adapter);
+
+		// a new instance is read once, whichever way it is created
+		ImmutableChild fromConstructor = new ImmutableChild(adapter);
+		assertEquals(expected, fromConstructor);
+		ImmutableChild fromAdapter = new ImmutableChild();
+		fromAdapter.initializeFromJSONObject(adapter);
+		assertEquals(expected, fromAdapter);
+		ImmutableChild fromReader = new ImmutableChild();
+		fromReader.readFrom(new JsonTokenReader(adapter.toJSONString()));
+		assertEquals(expected, fromReader);
+
+		for (ImmutableChild read : new ImmutableChild[] { fromConstructor, fromAdapter, fromReader }) {
+			assertThrows(IllegalStateException.class, () -> {
+				read.initializeFromJSONObject(adapter);
+			});
+			assertThrows(IllegalStateException.class, () -> {
+				read.readFrom(new JsonTokenReader("{\"name\":\"other\"}"));
+			});
+			assertEquals(expected, read);
+		}
+	}
+
+	@Test
+	public void testChildBuilderCopies() {
+		Date modified = new Date(3000L);
+		ImmutableChild child = new ImmutableChild.Builder().setName("child").setTags(tags).setModified(modified)
+				.build();
+		int hashCode = child.hashCode();
+		tags.add("changed");
+		modified.setTime(4000L);
+		assertEquals(hashCode, child.hashCode());
+		assertEquals(new Date(3000L), child.getModified());
+		assertEquals(1, child.getTags().size());
+	}
+}
@@ -2,6 +2,7 @@ package org.sagebionetworks.schema;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -47,6 +48,16 @@ public class KeywordSchemaIntegrationTest {
 
 		assertEquals(keywordAsProperties, clone);
 	}
-}
 
+	@Test
+	public void testEnumJsonNames() {
+		assertEquals("final", KeywordEnum._final.getJsonName());
+		assertSame(KeywordEnum._final, KeywordEnum.fromJsonName("final"));
+		assertSame(KeywordEnum._null, KeywordEnum.fromJsonName("null"));
+	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void testEnumUnknownJsonName() {
+		KeywordEnum.fromJsonName("unknown");
+	}
+}
@@ -47,6 +47,8 @@ public class ObjectSchemaTest {
 				assertNotNull(clone);
 				System.out.println(clone.toJSONString(new JSONObjectAdapterImpl()));
 				assertEquals("Field named: '"+field.getName()+"' did not make the round trip from ObjectSchema to JSON back to ObjectSchema",toTest, clone);
+				// A deep copy is the same as the round trip.
+				assertEquals("Field named: '"+field.getName()+"' was not copied",clone, ObjectSchemaImpl.createDeepCopy(toTest));
 			}
 		}
 		
@@ -219,6 +221,8 @@ public class ObjectSchemaTest {
 		assertNotNull(clone);
 		System.out.println(clone.toJSONString(new JSONObjectAdapterImpl()));
 		assertEquals(toValidate, clone);
+		// A deep copy is the same as the round trip.
+		assertEquals(clone, ObjectSchemaImpl.createDeepCopy(toValidate));
 	}
 	
 	@Test
@@ -0,0 +1,137 @@
+package org.sagebionetworks.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.primitive.PrimitiveObject;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenReader;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenWriter;
+
+/**
+ * The classes in org.sagebionetworks.primitive are generated with
+ * primitiveFields so numbers and booleans are not boxed.
+ *
+ */
+public class PrimitiveFieldsTest {
+
+	PrimitiveObject object;
+
+	@BeforeEach
+	public void before() {
+		object = new PrimitiveObject();
+		object.setFromInterface(1L);
+		object.setLongProp(Long.MIN_VALUE);
+		object.setDoubleProp(Double.NaN);
+		object.setBooleanProp(false);
+		object.setRequiredLong(0L);
+		object.setLongWithDefault(8L);
+		object.setLongAsDate(new Date(123L));
+		object.setStringProp("string");
+	}
+
+	@Test
+	public void testFieldsArePrimitive() throws Exception {
+		assertEquals(long.class, PrimitiveObject.class.getDeclaredField("longProp").getType());
+		assertEquals(double.class, PrimitiveObject.class.getDeclaredField("doubleProp").getType());
+		assertEquals(boolean.class, PrimitiveObject.class.getDeclaredField("booleanProp").getType());
+		// Dates are still objects
+		assertEquals(Date.class, PrimitiveObject.class.getDeclaredField("longAsDate").getType());
+		assertEquals(Long.class, PrimitiveObject.class.getMethod("getLongProp").getReturnType());
+	}
+
+	@Test
+	public void testNullIsNotZero() {
+		PrimitiveObject empty = new PrimitiveObject();
+		assertNull(empty.getLongProp());
+		assertNull(empty.getDoubleProp());
+		assertNull(empty.getBooleanProp());
+		empty.setLongProp(0L);
+		assertEquals(Long.valueOf(0), empty.getLongProp());
+		assertNotEquals(new PrimitiveObject(), empty);
+		empty.setLongProp(null);
+		assertNull(empty.getLongProp());
+		assertEquals(new PrimitiveObject(), empty);
+		assertEquals(new PrimitiveObject().hashCode(), empty.hashCode());
+	}
+
+	@Test
+	public void testRequiredSetter() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			object.setRequiredLong(null);
+		});
+	}
+
+	@Test
+	public void testAdapterRoundTrip() throws JSONObjectAdapterException {
+		JSONObjectAdapter adapter = new JSONObjectAdapterImpl();
+		object.writeToJSONObject(adapter);
+		PrimitiveObject clone = new PrimitiveObject(new JSONObjectAdapterImpl(adapter.toJSONString()));
+		assertEquals(object, clone);
+		assertEquals(object.hashCode(), clone.hashCode());
+		assertEquals(object.toString(), clone.toString());
+	}
+
+	@Test
+	public void testStreamingRoundTrip() throws JSONObjectAdapterException {
+		StringBuilder builder = new StringBuilder();
+		JsonTokenWriter writer = new JsonTokenWriter(builder);
+		object.writeTo(writer);
+		writer.flush();
+		PrimitiveObject clone = new PrimitiveObject();
+		clone.readFrom(new JsonTokenReader(builder.toString()));
+		assertEquals(object, clone);
+	}
+
+	@Test
+	public void testMissingPropertiesAreNull() throws JSONObjectAdapterException {
+		PrimitiveObject read = new PrimitiveObject(new JSONObjectAdapterImpl("{\"requiredLong\":3}"));
+		assertEquals(Long.valueOf(3), read.getRequiredLong());
+		assertNull(read.getLongProp());
+		assertNull(read.getBooleanProp());
+		assertEquals(Long.valueOf(7), read.getLongWithDefault());
+		JSONObjectAdapter adapter = new JSONObjectAdapterImpl();
+		read.writeToJSONObject(adapter);
+		assertFalse(adapter.has("longProp"));
+		assertTrue(read.toString().contains("longProp=null"));
+	}
+
+	@Test
+	public void testRequiredMissing() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new PrimitiveObject().writeToJSONObject(new JSONObjectAdapterImpl());
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			new PrimitiveObject().readFrom(new JsonTokenReader("{}"));
+		});
+	}
+
+	@Test
+	public void testEquals() {
+		PrimitiveObject other = new PrimitiveObject();
+		other.setFromInterface(1L);
+		other.setLongProp(Long.MIN_VALUE);
+		other.setDoubleProp(Double.NaN);
+		other.setBooleanProp(false);
+		other.setRequiredLong(0L);
+		other.setLongWithDefault(8L);
+		other.setLongAsDate(new Date(123L));
+		other.setStringProp("string");
+		assertEquals(object, other);
+		assertEquals(object.hashCode(), other.hashCode());
+		other.setBooleanProp(true);
+		assertNotEquals(object, other);
+		other.setBooleanProp(null);
+		assertNotEquals(object, other);
+	}
+}
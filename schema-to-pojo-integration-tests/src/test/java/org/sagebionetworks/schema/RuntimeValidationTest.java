@@ -0,0 +1,100 @@
+package org.sagebionetworks.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.primitive.ValidatedObject;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenReader;
+
+/**
+ * The classes in org.sagebionetworks.primitive are generated with
+ * runtimeValidation so the constraints of each property are checked as the
+ * object is read.
+ *
+ */
+public class RuntimeValidationTest {
+
+	ValidatedObject object;
+
+	@BeforeEach
+	public void before() {
+		object = new ValidatedObject();
+		object.setCode("ABC-12");
+		object.setCount(10L);
+		object.setRatio(0.5);
+		object.setTags(new ArrayList<String>(Arrays.asList("a", "b")));
+	}
+
+	@Test
+	public void testValid() {
+		object.validate();
+		// missing properties are not checked
+		new ValidatedObject().validate();
+	}
+
+	@Test
+	public void testPattern() {
+		object.setCode("abc-12");
+		String message = assertThrows(IllegalArgumentException.class, object::validate).getMessage();
+		assertEquals("Property: 'code' must match the pattern: [A-Z]{3}-\\d+, was: abc-12", message);
+	}
+
+	@Test
+	public void testLength() {
+		object.setCode("ABC-123456789");
+		assertThrows(IllegalArgumentException.class, object::validate);
+	}
+
+	@Test
+	public void testMinimumAndMaximum() {
+		object.setCount(0L);
+		assertThrows(IllegalArgumentException.class, object::validate);
+		object.setCount(102L);
+		assertThrows(IllegalArgumentException.class, object::validate);
+		object.setCount(100L);
+		object.validate();
+	}
+
+	@Test
+	public void testDivisibleBy() {
+		object.setCount(11L);
+		String message = assertThrows(IllegalArgumentException.class, object::validate).getMessage();
+		assertEquals("Property: 'count' must be divisible by 2, was: 11", message);
+	}
+
+	@Test
+	public void testExclusiveBounds() {
+		object.setRatio(1.0);
+		assertThrows(IllegalArgumentException.class, object::validate);
+		object.setRatio(0.0);
+		assertThrows(IllegalArgumentException.class, object::validate);
+	}
+
+	@Test
+	public void testItems() {
+		object.setTags(new ArrayList<String>());
+		assertThrows(IllegalArgumentException.class, object::validate);
+		object.setTags(Arrays.asList("a", "b", "c", "d"));
+		assertThrows(IllegalArgumentException.class, object::validate);
+	}
+
+	@Test
+	public void testValidatedOnRead() throws JSONObjectAdapterException {
+		String json = "{\"code\":\"ABC-12\",\"count\":3}";
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ValidatedObject(new JSONObjectAdapterImpl(json));
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ValidatedObject().readFrom(new JsonTokenReader(json));
+		});
+		ValidatedObject read = new ValidatedObject(new JSONObjectAdapterImpl("{\"code\":\"ABC-12\",\"count\":4}"));
+		assertEquals(Long.valueOf(4), read.getCount());
+	}
+}
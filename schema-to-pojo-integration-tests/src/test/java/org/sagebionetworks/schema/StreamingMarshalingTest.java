@@ -0,0 +1,262 @@
+package org.sagebionetworks.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.streaming.ABImpl;
+import org.sagebionetworks.streaming.ABImpl2;
+import org.sagebionetworks.streaming.AllTypes;
+import org.sagebionetworks.streaming.DefaultObject;
+import org.sagebionetworks.streaming.HasEnumProperty;
+import org.sagebionetworks.streaming.InterfaceA;
+import org.sagebionetworks.streaming.MapOfStringToInterface;
+import org.sagebionetworks.streaming.PetType;
+import org.sagebionetworks.streaming.Recursive;
+import org.sagebionetworks.streaming.StandaloneEnum;
+import org.sagebionetworks.streaming.ValidPets;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
+import org.sagebionetworks.schema.adapter.org.json.EntityIterator;
+import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenReader;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenWriter;
+import org.sagebionetworks.schema.adapter.streaming.StreamingJSONEntity;
+
+/**
+ * The classes in org.sagebionetworks.streaming are generated with
+ * streamingMarshaling so the readFrom() and writeTo() methods must agree with
+ * the JSONObjectAdapter methods.
+ *
+ */
+public class StreamingMarshalingTest {
+
+	@Test
+	public void testAllTypesRoundTrip() throws JSONObjectAdapterException {
+		AllTypes allTypes = new AllTypes();
+		allTypes.setStringProp("string \"quoted\"");
+		allTypes.setLongProp(Long.MAX_VALUE);
+		allTypes.setDoubleProp(123.4);
+		allTypes.setBooleanProp(true);
+		allTypes.setStringAsDate(new Date());
+		allTypes.setLongAsDate(new Date(System.currentTimeMillis()));
+		allTypes.setListOfStrings(new ArrayList<String>());
+		allTypes.getListOfStrings().add("list value");
+		allTypes.getListOfStrings().add(null);
+		allTypes.setSetOfStrings(new HashSet<String>());
+		allTypes.getSetOfStrings().add("set value");
+		List<Date> dateList = new ArrayList<Date>();
+		dateList.add(new Date(System.currentTimeMillis()));
+		allTypes.setDateList(dateList);
+		dateList = new ArrayList<Date>();
+		dateList.add(new Date(System.currentTimeMillis() - 23234));
+		allTypes.setDateList2(dateList);
+		ABImpl impl1 = new ABImpl();
+		impl1.setFromMe("mine1");
+		ABImpl2 impl2 = new ABImpl2();
+		impl2.setFromMe2("mine2");
+		List<InterfaceA> interfaces = new ArrayList<InterfaceA>();
+		interfaces.add(impl1);
+		interfaces.add(impl2);
+		allTypes.setInterfaceList(interfaces);
+		List<StandaloneEnum> enumList = new ArrayList<StandaloneEnum>();
+		enumList.add(StandaloneEnum.one);
+		enumList.add(StandaloneEnum.three);
+		allTypes.setEnumList(enumList);
+		allTypes.setLongList(new ArrayList<Long>());
+		allTypes.getLongList().add(99L);
+		allTypes.setDoubleList(new ArrayList<Double>());
+		allTypes.getDoubleList().add(99.77);
+		Map<String, Long> stringIntegerMap = new HashMap<String, Long>();
+		stringIntegerMap.put("a", 20L);
+		stringIntegerMap.put("b", null);
+		allTypes.setStringIntegerMap(stringIntegerMap);
+		Map<PetType, Boolean> enumBooleanMap = new HashMap<PetType, Boolean>();
+		enumBooleanMap.put(PetType.DOG, true);
+		allTypes.setEnumBooleanMap(enumBooleanMap);
+		Map<Object, StandaloneEnum> objectEnumMap = new HashMap<Object, StandaloneEnum>();
+		objectEnumMap.put("a", StandaloneEnum.four);
+		objectEnumMap.put(20, StandaloneEnum.two);
+		allTypes.setObjectEnumMap(objectEnumMap);
+
+		String json = writeToString(allTypes);
+		// streaming to streaming
+		AllTypes clone = new AllTypes();
+		clone.readFrom(new JsonTokenReader(json));
+		assertEquals(allTypes, clone);
+		// streaming to adapter
+		assertEquals(allTypes, new AllTypes(new JSONObjectAdapterImpl(json)));
+		// adapter to streaming
+		JSONObjectAdapter adapter = new JSONObjectAdapterImpl();
+		allTypes.writeToJSONObject(adapter);
+		clone = new AllTypes();
+		clone.readFrom(new JsonTokenReader(adapter.toJSONString()));
+		assertEquals(allTypes, clone);
+	}
+
+	@Test
+	public void testDoubleNaN() throws JSONObjectAdapterException {
+		AllTypes allTypes = new AllTypes();
+		allTypes.setDoubleProp(Double.NaN);
+		AllTypes clone = new AllTypes();
+		clone.readFrom(new JsonTokenReader(writeToString(allTypes)));
+		assertEquals(allTypes, clone);
+	}
+
+	@Test
+	public void testReadResetsPreviousValues() throws JSONObjectAdapterException {
+		AllTypes allTypes = new AllTypes();
+		allTypes.setStringProp("old");
+		allTypes.readFrom(new JsonTokenReader("{\"longProp\":1,\"stringProp\":null,\"unknown\":{\"a\":[1,2]}}"));
+		assertNull(allTypes.getStringProp());
+		assertEquals(Long.valueOf(1), allTypes.getLongProp());
+	}
+
+	@Test
+	public void testMapOfStringToInterface() throws JSONObjectAdapterException {
+		MapOfStringToInterface map = new MapOfStringToInterface();
+		map.setMap(new LinkedHashMap<String, InterfaceA>());
+		ABImpl value = new ABImpl();
+		value.setFromMe("aa");
+		map.getMap().put("a", value);
+		map.getMap().put("b", null);
+		map.setMapConcrete(new HashMap<String, ABImpl>());
+		ABImpl concreteValue = new ABImpl();
+		concreteValue.setFromMe("cc");
+		map.getMapConcrete().put("c", concreteValue);
+
+		MapOfStringToInterface clone = new MapOfStringToInterface();
+		clone.readFrom(new JsonTokenReader(writeToString(map)));
+		assertEquals(map, clone);
+	}
+
+	@Test
+	public void testRecursive() throws JSONObjectAdapterException {
+		Recursive root = new Recursive();
+		root.setName("root");
+		Recursive child = new Recursive();
+		child.setName("child");
+		root.setRefToSelf(child);
+		root.setListOfRecursive(new ArrayList<Recursive>());
+		root.getListOfRecursive().add(child);
+
+		Recursive clone = new Recursive();
+		clone.readFrom(new JsonTokenReader(writeToString(root)));
+		assertEquals(root, clone);
+	}
+
+	@Test
+	public void testEntityFactoryWriteEntity() throws JSONObjectAdapterException {
+		MapOfStringToInterface map = new MapOfStringToInterface();
+		map.setMap(new LinkedHashMap<String, InterfaceA>());
+		ABImpl value = new ABImpl();
+		value.setFromMe("\u00e9\u4e2d");
+		map.getMap().put("a", value);
+
+		// the generated writeTo() is used, so the output is the same as writing the tokens
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EntityFactory.writeEntity(map, out);
+		assertEquals(writeToString(map), new String(out.toByteArray(), StandardCharsets.UTF_8));
+		byte[] bytes = out.toByteArray();
+		assertEquals(map, EntityFactory.createEntityFromJSONBytes(bytes, 0, bytes.length, MapOfStringToInterface.class));
+	}
+
+	@Test
+	public void testEntityFactoryReadEntities() throws Exception {
+		StringBuilder json = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			Recursive recursive = new Recursive();
+			recursive.setName("r" + i);
+			Recursive child = new Recursive();
+			child.setName("child" + i);
+			recursive.setRefToSelf(child);
+			json.append(writeToString(recursive)).append('\n');
+		}
+		// concrete classes are read straight from the tokens
+		int count = 0;
+		try (EntityIterator<Recursive> iterator = EntityFactory.readEntities(new StringReader(json.toString()), Recursive.class)) {
+			while (iterator.hasNext()) {
+				Recursive next = iterator.next();
+				assertEquals("r" + count, next.getName());
+				assertEquals("child" + count, next.getRefToSelf().getName());
+				count++;
+			}
+		}
+		assertEquals(1000, count);
+
+		// interfaces are resolved per element
+		ABImpl impl1 = new ABImpl();
+		impl1.setFromMe("one");
+		ABImpl2 impl2 = new ABImpl2();
+		impl2.setFromMe2("two");
+		String array = "[" + writeToString(impl1) + "," + writeToString(impl2) + "]";
+		try (Stream<InterfaceA> stream = EntityFactory.streamEntities(
+				new ByteArrayInputStream(array.getBytes(StandardCharsets.UTF_8)), InterfaceA.class)) {
+			List<InterfaceA> list = stream.collect(Collectors.toList());
+			assertEquals(2, list.size());
+			assertEquals(impl1, list.get(0));
+			assertEquals(impl2, list.get(1));
+		}
+	}
+
+	@Test
+	public void testRequired() throws JSONObjectAdapterException {
+		HasEnumProperty hasEnum = new HasEnumProperty();
+		assertThrows(IllegalArgumentException.class, () -> {
+			hasEnum.writeTo(new JsonTokenWriter(new StringBuilder()));
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			hasEnum.readFrom(new JsonTokenReader("{}"));
+		});
+		hasEnum.readFrom(new JsonTokenReader("{\"someEnum\":\"DOG\"}"));
+		assertEquals(ValidPets.DOG, hasEnum.getSomeEnum());
+	}
+
+	@Test
+	public void testDefaults() throws JSONObjectAdapterException {
+		DefaultObject defaults = new DefaultObject();
+		defaults.readFrom(new JsonTokenReader("{}"));
+		assertEquals(new DefaultObject(new JSONObjectAdapterImpl("{}")), defaults);
+		assertEquals("hello", defaults.getStringWithDefault());
+	}
+
+	@Test
+	public void testNullReader() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new AllTypes().readFrom(null);
+		});
+	}
+
+	@Test
+	public void testImplementsStreamingJSONEntity() {
+		assertTrue(new AllTypes() instanceof StreamingJSONEntity);
+		// the classes generated with the default options do not
+		assertFalse(new org.sagebionetworks.AllTypes() instanceof StreamingJSONEntity);
+	}
+
+	private static String writeToString(StreamingJSONEntity entity) throws JSONObjectAdapterException {
+		StringBuilder builder = new StringBuilder();
+		JsonTokenWriter writer = new JsonTokenWriter(builder);
+		entity.writeTo(writer);
+		writer.flush();
+		return builder.toString();
+	}
+}
@@ -1,6 +1,7 @@
 package org.sagebionetworks.schema;
 
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
@@ -585,6 +586,199 @@ public class ObjectSchemaImpl implements ObjectSchema {
 		return schema;
 	}
 
+	/**
+	 * Create a deep copy of a schema without writing it to JSON. The copy is
+	 * equal to the schema read back from writeToJSONObject(), except that a
+	 * sub-schema referenced more than once is copied only once, and the copies
+	 * are shared (and cycles are preserved) in the same way.
+	 * 
+	 * @param schema
+	 * @return
+	 */
+	public static ObjectSchema createDeepCopy(ObjectSchema schema) {
+		if (schema == null)
+			throw new IllegalArgumentException("Schema cannot be null");
+		return copy(schema, new IdentityHashMap<ObjectSchema, ObjectSchema>());
+	}
+
+	/**
+	 * Create a copy of a schema without its properties, items, value, extends
+	 * and implements, for a caller that builds its own copies of them, such
+	 * as the effective schema. Any other sub-schema, such as the key of a map,
+	 * is deep copied as by {@link #createDeepCopy(ObjectSchema)}.
+	 * 
+	 * @param schema
+	 * @return
+	 */
+	public static ObjectSchema createShallowCopy(ObjectSchema schema) {
+		if (schema == null)
+			throw new IllegalArgumentException("Schema cannot be null");
+		if (!(schema instanceof ObjectSchemaImpl)) {
+			throw new IllegalArgumentException("Cannot copy a schema of type: " + schema.getClass().getName());
+		}
+		ObjectSchemaImpl original = (ObjectSchemaImpl) schema;
+		ObjectSchemaImpl copy = new ObjectSchemaImpl();
+		if (original.is$RecursiveRefInstance) {
+			copy.$recursiveRef = SELF_REFERENCE;
+			return copy;
+		}
+		Map<ObjectSchema, ObjectSchema> copies = new IdentityHashMap<ObjectSchema, ObjectSchema>();
+		copies.put(schema, copy);
+		copyValues(original, copy, copies);
+		return copy;
+	}
+
+	/**
+	 * Copy a schema, or get the copy that was already made of it.
+	 * 
+	 * @param schema
+	 * @param copies
+	 *            Each schema copied so far mapped to its copy.
+	 * @return
+	 */
+	private static ObjectSchema copy(ObjectSchema schema, Map<ObjectSchema, ObjectSchema> copies) {
+		if (schema == null) {
+			return null;
+		}
+		ObjectSchema existing = copies.get(schema);
+		if (existing != null) {
+			return existing;
+		}
+		if (!(schema instanceof ObjectSchemaImpl)) {
+			throw new IllegalArgumentException("Cannot copy a schema of type: " + schema.getClass().getName());
+		}
+		ObjectSchemaImpl original = (ObjectSchemaImpl) schema;
+		ObjectSchemaImpl copy = new ObjectSchemaImpl();
+		// Added before the sub-schemas are copied so a cycle ends here.
+		copies.put(schema, copy);
+		if (original.is$RecursiveRefInstance) {
+			// Same as writeToJSONObject()
+			copy.$recursiveRef = SELF_REFERENCE;
+			return copy;
+		}
+		copy.properties = copy(original.properties, copies);
+		copy.items = copy(original.items, copies);
+		copy.value = copy(original.value, copies);
+		if (original._implements != null) {
+			copy._implements = new ObjectSchema[original._implements.length];
+			for (int i = 0; i < original._implements.length; i++) {
+				copy._implements[i] = copy(original._implements[i], copies);
+			}
+		}
+		copy._extends = copy(original._extends, copies);
+		copyValues(original, copy, copies);
+		return copy;
+	}
+
+	/**
+	 * Copy everything but the properties, items, value, extends and
+	 * implements of a schema.
+	 * 
+	 * @param original
+	 * @param copy
+	 * @param copies
+	 *            Each schema copied so far mapped to its copy.
+	 */
+	private static void copyValues(ObjectSchemaImpl original, ObjectSchemaImpl copy,
+			Map<ObjectSchema, ObjectSchema> copies) {
+		copy.name = original.name;
+		copy.type = original.type;
+		copy.additionalProperties = copy(original.additionalProperties, copies);
+		copy.uniqueItems = original.uniqueItems;
+		copy.additionalItems = copy(original.additionalItems, copies);
+		copy.key = copy(original.key, copies);
+		copy.required = original.required;
+		if (original.dependencies != null) {
+			copy.dependencies = new String[original.dependencies.length];
+			for (int i = 0; i < original.dependencies.length; i++) {
+				copy.dependencies[i] = original.dependencies[i];
+			}
+		}
+		// Numbers are stored as the type of the schema, as if read from JSON.
+		copy.minimum = copyNumber(original.minimum, original.type);
+		copy.exclusiveMinimum = copyNumber(original.exclusiveMinimum, original.type);
+		copy.maximum = copyNumber(original.maximum, original.type);
+		copy.exclusiveMaximum = copyNumber(original.exclusiveMaximum, original.type);
+		copy.description = original.description;
+		copy.id = original.id;
+		copy.ref = original.ref;
+		copy.format = original.format;
+		if (original._enum != null) {
+			copy._enum = new EnumValue[original._enum.length];
+			for (int i = 0; i < original._enum.length; i++) {
+				EnumValue value = original._enum[i];
+				copy._enum[i] = new EnumValue(value.getName(), value.getDescription());
+			}
+		}
+		copy.contentEncoding = original.contentEncoding;
+		copy._transient = original._transient;
+		// Defaults are strings, numbers or booleans.
+		copy._default = original._default;
+		copy.minItems = original.minItems;
+		copy.maxItems = original.maxItems;
+		copy.pattern = original.pattern;
+		copy.minLength = original.minLength;
+		copy.maxLength = original.maxLength;
+		copy.title = original.title;
+		copy.divisibleBy = copyNumber(original.divisibleBy, original.type);
+		copy.disallow = original.disallow;
+		copy.schema = original.schema;
+		if (original.links != null) {
+			copy.links = new LinkDescription[original.links.length];
+			for (int i = 0; i < original.links.length; i++) {
+				LinkDescription link = original.links[i];
+				copy.links[i] = new LinkDescription(link.getRel(), link.getHref());
+			}
+		}
+		copy.$recursiveAnchor = original.$recursiveAnchor;
+		copy.$recursiveRef = original.$recursiveRef;
+	}
+
+	/**
+	 * Copy each schema of a map.
+	 * 
+	 * @param map
+	 * @param copies
+	 * @return
+	 */
+	private static LinkedHashMap<String, ObjectSchema> copy(Map<String, ObjectSchema> map,
+			Map<ObjectSchema, ObjectSchema> copies) {
+		if (map == null) {
+			return null;
+		}
+		LinkedHashMap<String, ObjectSchema> copy = new LinkedHashMap<String, ObjectSchema>();
+		for (Map.Entry<String, ObjectSchema> entry : map.entrySet()) {
+			copy.put(entry.getKey(), copy(entry.getValue(), copies));
+		}
+		return copy;
+	}
+
+	/**
+	 * Copy a minimum, maximum or divisibleBy the way putBasedOnType() and
+	 * getNumberBasedOnType() would.
+	 * 
+	 * @param value
+	 * @param type
+	 * @return
+	 */
+	private static Number copyNumber(Number value, TYPE type) {
+		if (value == null) {
+			return null;
+		}
+		if (type == null)
+			throw new IllegalArgumentException("Type cannot be null");
+		if (TYPE.INTEGER == type) {
+			return value.longValue();
+		} else if (TYPE.NUMBER == type) {
+			return value.doubleValue();
+		} else {
+			throw new IllegalArgumentException(
+					"Unknown type: "
+							+ type
+							+ ". Only numeric types can have minimum or maximum attributes");
+		}
+	}
+
 	public String getName() {
 		return name;
 	}
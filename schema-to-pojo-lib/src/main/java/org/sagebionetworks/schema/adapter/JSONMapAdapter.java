@@ -157,7 +157,9 @@ public interface JSONMapAdapter extends JSONAdapter{
     public String toJSONString();
 
 	/**
-	 * get the keys for iterating over
+	 * get the keys for iterating over, in the order of the pairs. Reading the
+	 * value of each key as it is returned is the cheapest way to read a whole
+	 * map, generated code reads maps this way.
 	 * 
 	 * @return
 	 */
@@ -0,0 +1,128 @@
+package org.sagebionetworks.schema.adapter;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * An AdapterFactory that can also create adapters directly from UTF-8
+ * encoded bytes or a stream of characters, so a payload does not have to be
+ * decoded into a String before it is parsed.
+ * <p>
+ * This is not part of the GWT module since GWT does not emulate java.io
+ * streams or java.nio buffers.
+ *
+ */
+public interface Utf8AdapterFactory extends AdapterFactory {
+
+	/**
+	 * Create a new Adapter from a slice of UTF-8 encoded bytes.
+	 * @param utf8
+	 * @param offset
+	 * @param length
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONObjectAdapter createNew(byte[] utf8, int offset, int length) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new Adapter from the remaining UTF-8 encoded bytes of the
+	 * buffer. The position of the buffer is not changed.
+	 * @param utf8
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONObjectAdapter createNew(ByteBuffer utf8) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new Adapter from a stream of UTF-8 encoded bytes. The stream is
+	 * not closed.
+	 * @param utf8
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONObjectAdapter createNew(InputStream utf8) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new Adapter from a stream of characters. The reader is not
+	 * closed.
+	 * @param json
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONObjectAdapter createNew(Reader json) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new array from a slice of UTF-8 encoded bytes.
+	 * @param utf8
+	 * @param offset
+	 * @param length
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONArrayAdapter createNewArray(byte[] utf8, int offset, int length) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new array from the remaining UTF-8 encoded bytes of the buffer.
+	 * The position of the buffer is not changed.
+	 * @param utf8
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONArrayAdapter createNewArray(ByteBuffer utf8) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new array from a stream of UTF-8 encoded bytes. The stream is
+	 * not closed.
+	 * @param utf8
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONArrayAdapter createNewArray(InputStream utf8) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new array from a stream of characters. The reader is not
+	 * closed.
+	 * @param json
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONArrayAdapter createNewArray(Reader json) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new map from a slice of UTF-8 encoded bytes.
+	 * @param utf8
+	 * @param offset
+	 * @param length
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONMapAdapter createNewMap(byte[] utf8, int offset, int length) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new map from the remaining UTF-8 encoded bytes of the buffer.
+	 * The position of the buffer is not changed.
+	 * @param utf8
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONMapAdapter createNewMap(ByteBuffer utf8) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new map from a stream of UTF-8 encoded bytes. The stream is not
+	 * closed.
+	 * @param utf8
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONMapAdapter createNewMap(InputStream utf8) throws JSONObjectAdapterException;
+
+	/**
+	 * Create a new map from a stream of characters. The reader is not closed.
+	 * @param json
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONMapAdapter createNewMap(Reader json) throws JSONObjectAdapterException;
+
+}
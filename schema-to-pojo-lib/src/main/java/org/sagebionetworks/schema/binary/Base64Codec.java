@@ -0,0 +1,317 @@
+package org.sagebionetworks.schema.binary;
+
+/**
+ * A table driven Base64 codec (RFC 2045 alphabet, without line breaks) that
+ * encodes straight into chars and decodes straight from chars, so binary
+ * values do not need an intermediate byte[] of ASCII or a second String.
+ * <p>
+ * The same as {@link Base64}, characters outside of the Base64 alphabet (such
+ * as whitespace) are ignored when decoding and decoding stops at the first
+ * pad character.
+ * <p>
+ * This class only uses java.lang so it can be used by GWT code. See
+ * {@link Base64Streams} for streaming encoding and decoding.
+ *
+ */
+public final class Base64Codec {
+
+	static final char PAD = '=';
+
+	static final char[] ENCODE = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	static final int INVALID = -1;
+	static final int PADDING = -2;
+
+	/**
+	 * The six bit value of each ASCII character, INVALID for characters
+	 * outside of the alphabet and PADDING for '='.
+	 */
+	static final byte[] DECODE = new byte[128];
+
+	static {
+		for (int i = 0; i < DECODE.length; i++) {
+			DECODE[i] = INVALID;
+		}
+		for (int i = 0; i < ENCODE.length; i++) {
+			DECODE[ENCODE[i]] = (byte) i;
+		}
+		DECODE[PAD] = PADDING;
+	}
+
+	private Base64Codec() {
+	}
+
+	/**
+	 * The number of characters needed to encode the given number of bytes.
+	 *
+	 * @param length
+	 * @return
+	 */
+	public static int encodedLength(int length) {
+		return ((length + 2) / 3) * 4;
+	}
+
+	/**
+	 * Encode the given bytes as a String.
+	 *
+	 * @param data
+	 * @return
+	 */
+	public static String encodeToString(byte[] data) {
+		if (data == null) throw new IllegalArgumentException("Data cannot be null");
+		char[] chars = new char[encodedLength(data.length)];
+		encode(data, 0, data.length, chars, 0);
+		return new String(chars);
+	}
+
+	/**
+	 * Encode a slice of bytes into a char[].
+	 *
+	 * @param src
+	 * @param offset
+	 * @param length
+	 * @param dst
+	 *            Must have room for {@link #encodedLength(int)} characters.
+	 * @param dstOffset
+	 * @return The number of characters written.
+	 */
+	public static int encode(byte[] src, int offset, int length, char[] dst, int dstOffset) {
+		int end = offset + length - length % 3;
+		int d = dstOffset;
+		for (int s = offset; s < end; s += 3) {
+			int bits = (src[s] & 0xff) << 16 | (src[s + 1] & 0xff) << 8 | (src[s + 2] & 0xff);
+			dst[d++] = ENCODE[bits >>> 18];
+			dst[d++] = ENCODE[(bits >>> 12) & 0x3f];
+			dst[d++] = ENCODE[(bits >>> 6) & 0x3f];
+			dst[d++] = ENCODE[bits & 0x3f];
+		}
+		int remaining = length % 3;
+		if (remaining > 0) {
+			int bits = (src[end] & 0xff) << 16;
+			if (remaining == 2) {
+				bits |= (src[end + 1] & 0xff) << 8;
+			}
+			dst[d++] = ENCODE[bits >>> 18];
+			dst[d++] = ENCODE[(bits >>> 12) & 0x3f];
+			dst[d++] = remaining == 2 ? ENCODE[(bits >>> 6) & 0x3f] : PAD;
+			dst[d++] = PAD;
+		}
+		return d - dstOffset;
+	}
+
+	/**
+	 * Encode a slice of bytes into a byte[] of ASCII characters.
+	 *
+	 * @param src
+	 * @param offset
+	 * @param length
+	 * @param dst
+	 *            Must have room for {@link #encodedLength(int)} bytes.
+	 * @param dstOffset
+	 * @return The number of bytes written.
+	 */
+	public static int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+		int end = offset + length - length % 3;
+		int d = dstOffset;
+		for (int s = offset; s < end; s += 3) {
+			int bits = (src[s] & 0xff) << 16 | (src[s + 1] & 0xff) << 8 | (src[s + 2] & 0xff);
+			dst[d++] = (byte) ENCODE[bits >>> 18];
+			dst[d++] = (byte) ENCODE[(bits >>> 12) & 0x3f];
+			dst[d++] = (byte) ENCODE[(bits >>> 6) & 0x3f];
+			dst[d++] = (byte) ENCODE[bits & 0x3f];
+		}
+		int remaining = length % 3;
+		if (remaining > 0) {
+			int bits = (src[end] & 0xff) << 16;
+			if (remaining == 2) {
+				bits |= (src[end + 1] & 0xff) << 8;
+			}
+			dst[d++] = (byte) ENCODE[bits >>> 18];
+			dst[d++] = (byte) ENCODE[(bits >>> 12) & 0x3f];
+			dst[d++] = (byte) (remaining == 2 ? ENCODE[(bits >>> 6) & 0x3f] : PAD);
+			dst[d++] = (byte) PAD;
+		}
+		return d - dstOffset;
+	}
+
+	/**
+	 * Decode the Base64 characters of the given String or other
+	 * CharSequence.
+	 *
+	 * @param base64
+	 * @return
+	 */
+	public static byte[] decode(CharSequence base64) {
+		if (base64 == null) throw new IllegalArgumentException("Base64 cannot be null");
+		return decode(base64, 0, base64.length());
+	}
+
+	/**
+	 * Decode a slice of Base64 characters.
+	 *
+	 * @param base64
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	public static byte[] decode(char[] base64, int offset, int length) {
+		if (base64 == null) throw new IllegalArgumentException("Base64 cannot be null");
+		return decode(new CharArraySequence(base64), offset, offset + length);
+	}
+
+	/**
+	 * Decode a slice of Base64 characters held as ASCII bytes.
+	 *
+	 * @param base64
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	public static byte[] decode(byte[] base64, int offset, int length) {
+		if (base64 == null) throw new IllegalArgumentException("Base64 cannot be null");
+		return decode(new AsciiSequence(base64), offset, offset + length);
+	}
+
+	/**
+	 * Decode the characters from start (inclusive) to end (exclusive) in a
+	 * single pass. The result is sized as if every character before the
+	 * trailing padding carries data, so it only needs to be trimmed when the
+	 * input has whitespace or other characters outside of the alphabet.
+	 *
+	 * @param base64
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	private static byte[] decode(CharSequence base64, int start, int end) {
+		int dataEnd = end;
+		while (dataEnd > start && valueOf(base64.charAt(dataEnd - 1)) < 0) {
+			dataEnd--;
+		}
+		byte[] decoded = new byte[decodedLength(dataEnd - start)];
+		int bits = 0;
+		int count = 0;
+		int d = 0;
+		for (int i = start; i < dataEnd; i++) {
+			int value = valueOf(base64.charAt(i));
+			if (value == PADDING) {
+				break;
+			}
+			if (value < 0) {
+				continue;
+			}
+			bits = bits << 6 | value;
+			if (++count == 4) {
+				decoded[d++] = (byte) (bits >> 16);
+				decoded[d++] = (byte) (bits >> 8);
+				decoded[d++] = (byte) bits;
+				bits = 0;
+				count = 0;
+			}
+		}
+		d += finish(bits, count, decoded, d);
+		if (d == decoded.length) {
+			return decoded;
+		}
+		byte[] trimmed = new byte[d];
+		System.arraycopy(decoded, 0, trimmed, 0, d);
+		return trimmed;
+	}
+
+	/**
+	 * The six bit value of a character, INVALID or PADDING.
+	 *
+	 * @param c
+	 * @return
+	 */
+	static int valueOf(char c) {
+		return c < 128 ? DECODE[c] : INVALID;
+	}
+
+	/**
+	 * The number of bytes held by the given number of six bit values. A
+	 * single left over value does not hold a whole byte so it is dropped.
+	 *
+	 * @param sextets
+	 * @return
+	 */
+	static int decodedLength(int sextets) {
+		return sextets / 4 * 3 + Math.max(0, sextets % 4 - 1);
+	}
+
+	/**
+	 * Write the bytes of the last partial group of values.
+	 *
+	 * @return The number of bytes written.
+	 */
+	static int finish(int bits, int count, byte[] decoded, int d) {
+		if (count == 2) {
+			decoded[d] = (byte) (bits >> 4);
+			return 1;
+		} else if (count == 3) {
+			decoded[d] = (byte) (bits >> 10);
+			decoded[d + 1] = (byte) (bits >> 2);
+			return 2;
+		}
+		return 0;
+	}
+
+	/**
+	 * A char[] viewed as a CharSequence without copying it.
+	 */
+	private static final class CharArraySequence implements CharSequence {
+
+		private final char[] chars;
+
+		CharArraySequence(char[] chars) {
+			this.chars = chars;
+		}
+
+		@Override
+		public int length() {
+			return chars.length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return chars[index];
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new String(chars, start, end - start);
+		}
+	}
+
+	/**
+	 * A byte[] of ASCII characters viewed as a CharSequence without decoding
+	 * it.
+	 */
+	private static final class AsciiSequence implements CharSequence {
+
+		private final byte[] bytes;
+
+		AsciiSequence(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int length() {
+			return bytes.length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) (bytes[index] & 0xff);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			StringBuilder builder = new StringBuilder(end - start);
+			for (int i = start; i < end; i++) {
+				builder.append(charAt(i));
+			}
+			return builder.toString();
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package org.sagebionetworks.schema.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Streaming Base64 encoding and decoding for payloads that are too large to
+ * hold in memory more than once. Uses the same alphabet and rules as
+ * {@link Base64Codec}.
+ *
+ */
+public final class Base64Streams {
+
+	private static final int BUFFER_SIZE = 3 * 1024;
+
+	private Base64Streams() {
+	}
+
+	/**
+	 * An OutputStream that encodes the bytes written to it as Base64
+	 * characters and appends them to the given Appendable. Only a small
+	 * buffer is held at a time. Closing the stream writes the final group of
+	 * characters and flushes the Appendable if it is a Writer, but does not
+	 * close it.
+	 *
+	 * @param out
+	 * @return
+	 */
+	public static OutputStream encoder(Appendable out) {
+		if (out == null) throw new IllegalArgumentException("Appendable cannot be null");
+		return new EncodingOutputStream(out);
+	}
+
+	/**
+	 * An InputStream of the bytes decoded from the Base64 characters of the
+	 * given Reader. Characters outside of the alphabet are ignored and the
+	 * stream ends at the first pad character. Closing the stream closes the
+	 * Reader.
+	 *
+	 * @param in
+	 * @return
+	 */
+	public static InputStream decoder(Reader in) {
+		if (in == null) throw new IllegalArgumentException("Reader cannot be null");
+		return new DecodingInputStream(in);
+	}
+
+	private static final class EncodingOutputStream extends OutputStream {
+
+		private final Appendable out;
+		// bytes waiting for a whole group of three
+		private final byte[] pending = new byte[BUFFER_SIZE];
+		private int pendingLength;
+		private final char[] chars = new char[Base64Codec.encodedLength(BUFFER_SIZE)];
+		private boolean closed;
+
+		EncodingOutputStream(Appendable out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			ensureOpen();
+			if (pendingLength == pending.length) {
+				encodePending(false);
+			}
+			pending[pendingLength++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			ensureOpen();
+			if (off < 0 || len < 0 || off + len > b.length) throw new IndexOutOfBoundsException();
+			while (len > 0) {
+				if (pendingLength == pending.length) {
+					encodePending(false);
+				}
+				int chunk = Math.min(len, pending.length - pendingLength);
+				System.arraycopy(b, off, pending, pendingLength, chunk);
+				pendingLength += chunk;
+				off += chunk;
+				len -= chunk;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			ensureOpen();
+			encodePending(false);
+			if (out instanceof Writer) {
+				((Writer) out).flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			encodePending(true);
+			closed = true;
+			if (out instanceof Writer) {
+				((Writer) out).flush();
+			}
+		}
+
+		/**
+		 * Encode the whole groups of pending bytes, or all of them when this
+		 * is the end of the data.
+		 */
+		private void encodePending(boolean end) throws IOException {
+			int length = end ? pendingLength : pendingLength - pendingLength % 3;
+			if (length == 0) {
+				return;
+			}
+			int count = Base64Codec.encode(pending, 0, length, chars, 0);
+			if (out instanceof Writer) {
+				((Writer) out).write(chars, 0, count);
+			} else {
+				out.append(CharBuffer.wrap(chars, 0, count));
+			}
+			System.arraycopy(pending, length, pending, 0, pendingLength - length);
+			pendingLength -= length;
+		}
+
+		private void ensureOpen() throws IOException {
+			if (closed) throw new IOException("Stream closed");
+		}
+	}
+
+	private static final class DecodingInputStream extends InputStream {
+
+		private final Reader in;
+		private final char[] chars = new char[Base64Codec.encodedLength(BUFFER_SIZE)];
+		// A full block of chars decodes to BUFFER_SIZE bytes, plus up to two
+		// more for a partial group left over from the previous block.
+		private final byte[] decoded = new byte[BUFFER_SIZE + 2];
+		private int position;
+		private int limit;
+		// the six bit values of a partial group
+		private int bits;
+		private int count;
+		private boolean done;
+
+		DecodingInputStream(Reader in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (position == limit && !fill()) {
+				return -1;
+			}
+			return decoded[position++] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (off < 0 || len < 0 || off + len > b.length) throw new IndexOutOfBoundsException();
+			if (len == 0) {
+				return 0;
+			}
+			if (position == limit && !fill()) {
+				return -1;
+			}
+			int chunk = Math.min(len, limit - position);
+			System.arraycopy(decoded, position, b, off, chunk);
+			position += chunk;
+			return chunk;
+		}
+
+		@Override
+		public int available() {
+			return limit - position;
+		}
+
+		@Override
+		public void close() throws IOException {
+			done = true;
+			in.close();
+		}
+
+		/**
+		 * Decode the next block of characters.
+		 *
+		 * @return False at the end of the data.
+		 */
+		private boolean fill() throws IOException {
+			position = 0;
+			limit = 0;
+			while (limit == 0 && !done) {
+				int read = in.read(chars, 0, chars.length);
+				if (read < 0) {
+					done = true;
+					limit = Base64Codec.finish(bits, count, decoded, 0);
+					break;
+				}
+				for (int i = 0; i < read; i++) {
+					int value = Base64Codec.valueOf(chars[i]);
+					if (value == Base64Codec.PADDING) {
+						done = true;
+						break;
+					}
+					if (value < 0) {
+						continue;
+					}
+					bits = bits << 6 | value;
+					if (++count == 4) {
+						decoded[limit++] = (byte) (bits >> 16);
+						decoded[limit++] = (byte) (bits >> 8);
+						decoded[limit++] = (byte) bits;
+						bits = 0;
+						count = 0;
+					}
+				}
+				if (done) {
+					limit += Base64Codec.finish(bits, count, decoded, limit);
+				}
+			}
+			return limit > 0;
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package org.sagebionetworks.schema.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Optional metrics of the time spent marshaling entities to and from JSON,
+ * kept for each entity class and {@link Operation}.
+ * <p>
+ * Metrics are disabled by default. While disabled {@link #start()} returns
+ * zero without reading the clock and {@link #record} returns immediately, so
+ * the only cost is a read of a volatile boolean. While enabled the counters
+ * are striped (LongAdder) so threads marshaling the same class do not
+ * contend.
+ * <p>
+ * The metrics can be read with {@link #snapshot()} or over JMX once
+ * {@link #registerMBean()} has been called. Uses java.util.concurrent and
+ * JMX, so this package is not available to GWT code.
+ *
+ */
+public final class MarshalingMetrics {
+
+	/**
+	 * The name of the MBean registered by {@link #registerMBean()}.
+	 */
+	public static final String OBJECT_NAME = "org.sagebionetworks.schema:type=MarshalingMetrics";
+
+	/**
+	 * What was done to an entity.
+	 */
+	public enum Operation {
+		/**
+		 * JSON text was parsed into an entity by the EntityFactory.
+		 */
+		PARSE,
+		/**
+		 * An entity was written as JSON text by the EntityFactory.
+		 */
+		SERIALIZE,
+		/**
+		 * A generated initializeFromJSONObject() call.
+		 */
+		INITIALIZE,
+		/**
+		 * A generated writeToJSONObject() call.
+		 */
+		WRITE
+	}
+
+	private static volatile boolean enabled = false;
+
+	private static final ConcurrentMap<Class<?>, MarshalingStats[]> STATS = new ConcurrentHashMap<Class<?>, MarshalingStats[]>();
+
+	private MarshalingMetrics() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Start or stop recording. The metrics recorded so far are kept.
+	 *
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		MarshalingMetrics.enabled = enabled;
+	}
+
+	/**
+	 * The start time of an operation, or zero when metrics are disabled.
+	 *
+	 * @return
+	 */
+	public static long start() {
+		return enabled ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * The start time of an operation of a generated method, or zero when
+	 * metrics are disabled or the entity is a sub-class of the class declaring
+	 * the method. A sub-class calls the method of its super-class, so only the
+	 * call of the most derived class is recorded.
+	 *
+	 * @param entity
+	 * @param declaringClass
+	 * @return
+	 */
+	public static long start(Object entity, Class<?> declaringClass) {
+		return enabled && entity.getClass() == declaringClass ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * Record an operation that began at the given start time. Does nothing
+	 * when the start time is zero.
+	 *
+	 * @param type
+	 *            The class of the entity.
+	 * @param operation
+	 * @param start
+	 *            From {@link #start()}.
+	 * @param bytes
+	 *            The number of bytes of UTF-8 encoded JSON that were read or
+	 *            written.
+	 * @param success
+	 *            False if the operation threw an exception.
+	 */
+	public static void record(Class<?> type, Operation operation, long start, long bytes, boolean success) {
+		if (start == 0L) {
+			return;
+		}
+		long nanos = System.nanoTime() - start;
+		statsFor(type)[operation.ordinal()].record(nanos, bytes, success);
+	}
+
+	/**
+	 * Record an operation that began at the given start time when the number
+	 * of bytes of JSON is not known, such as when the JSON is a String or an
+	 * adapter. The operation is counted but adds nothing to the bytes.
+	 * Does nothing when the start time is zero.
+	 *
+	 * @param type
+	 *            The class of the entity.
+	 * @param operation
+	 * @param start
+	 *            From {@link #start()}.
+	 * @param success
+	 *            False if the operation threw an exception.
+	 */
+	public static void record(Class<?> type, Operation operation, long start, boolean success) {
+		record(type, operation, start, 0L, success);
+	}
+
+	private static MarshalingStats[] statsFor(Class<?> type) {
+		MarshalingStats[] stats = STATS.get(type);
+		if (stats == null) {
+			MarshalingStats[] created = new MarshalingStats[Operation.values().length];
+			for (int i = 0; i < created.length; i++) {
+				created[i] = new MarshalingStats();
+			}
+			stats = STATS.putIfAbsent(type, created);
+			if (stats == null) {
+				stats = created;
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * A copy of the metrics of each class and operation that has been
+	 * recorded at least once, sorted by class name then operation.
+	 *
+	 * @return
+	 */
+	public static List<MarshalingSnapshot> snapshot() {
+		List<MarshalingSnapshot> snapshots = new ArrayList<MarshalingSnapshot>();
+		for (java.util.Map.Entry<Class<?>, MarshalingStats[]> entry : STATS.entrySet()) {
+			for (Operation operation : Operation.values()) {
+				MarshalingSnapshot snapshot = entry.getValue()[operation.ordinal()].snapshot(entry.getKey().getName(), operation);
+				if (snapshot.getCount() > 0) {
+					snapshots.add(snapshot);
+				}
+			}
+		}
+		snapshots.sort(null);
+		return snapshots;
+	}
+
+	/**
+	 * Clear all recorded metrics.
+	 */
+	public static void reset() {
+		STATS.clear();
+	}
+
+	/**
+	 * Register the {@link MarshalingMetricsMXBean} with the platform MBean
+	 * server under {@link #OBJECT_NAME}. Registering more than once has no
+	 * effect.
+	 *
+	 * @return The name of the MBean.
+	 * @throws JMException
+	 */
+	public static synchronized ObjectName registerMBean() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		if (!server.isRegistered(name)) {
+			server.registerMBean(new MBean(), name);
+		}
+		return name;
+	}
+
+	/**
+	 * Remove the MBean registered by {@link #registerMBean()} if there is one.
+	 *
+	 * @throws JMException
+	 */
+	public static synchronized void unregisterMBean() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		if (server.isRegistered(name)) {
+			server.unregisterMBean(name);
+		}
+	}
+
+	private static class MBean implements MarshalingMetricsMXBean {
+
+		@Override
+		public boolean isEnabled() {
+			return MarshalingMetrics.isEnabled();
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {
+			MarshalingMetrics.setEnabled(enabled);
+		}
+
+		@Override
+		public List<MarshalingSnapshot> getSnapshots() {
+			return snapshot();
+		}
+
+		@Override
+		public void reset() {
+			MarshalingMetrics.reset();
+		}
+	}
+}
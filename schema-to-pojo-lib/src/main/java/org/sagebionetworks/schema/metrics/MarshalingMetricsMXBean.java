@@ -0,0 +1,26 @@
+package org.sagebionetworks.schema.metrics;
+
+import java.util.List;
+
+/**
+ * The JMX view of {@link MarshalingMetrics}.
+ *
+ */
+public interface MarshalingMetricsMXBean {
+
+	public boolean isEnabled();
+
+	public void setEnabled(boolean enabled);
+
+	/**
+	 * The metrics of each class and operation.
+	 *
+	 * @return
+	 */
+	public List<MarshalingSnapshot> getSnapshots();
+
+	/**
+	 * Clear all recorded metrics.
+	 */
+	public void reset();
+}
@@ -0,0 +1,141 @@
+package org.sagebionetworks.schema.metrics;
+
+import java.beans.ConstructorProperties;
+import java.util.Arrays;
+
+/**
+ * A copy of the metrics of a single class and operation. The counters are
+ * read one at a time while other threads may still be recording, so they are
+ * not guaranteed to be consistent with each other.
+ *
+ */
+public class MarshalingSnapshot implements Comparable<MarshalingSnapshot> {
+
+	private final String type;
+	private final String operation;
+	private final long count;
+	private final long failures;
+	private final long bytes;
+	private final long totalNanos;
+	private final long[] histogram;
+
+	@ConstructorProperties({ "type", "operation", "count", "failures", "bytes", "totalNanos", "histogram" })
+	public MarshalingSnapshot(String type, String operation, long count, long failures, long bytes, long totalNanos,
+			long[] histogram) {
+		this.type = type;
+		this.operation = operation;
+		this.count = count;
+		this.failures = failures;
+		this.bytes = bytes;
+		this.totalNanos = totalNanos;
+		this.histogram = histogram.clone();
+	}
+
+	/**
+	 * The name of the entity class.
+	 *
+	 * @return
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * The name of the {@link MarshalingMetrics.Operation}.
+	 *
+	 * @return
+	 */
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * The number of operations, including the failures.
+	 *
+	 * @return
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * The number of operations that threw an exception.
+	 *
+	 * @return
+	 */
+	public long getFailures() {
+		return failures;
+	}
+
+	/**
+	 * The total number of bytes of UTF-8 encoded JSON of the operations where
+	 * it was known. Operations that read or wrote a String, a JSONObject or an
+	 * adapter add nothing, so this is not an average size per operation.
+	 *
+	 * @return
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getMeanNanos() {
+		return count == 0 ? 0 : totalNanos / count;
+	}
+
+	/**
+	 * Bucket i counts the operations that took less than 2^i nanoseconds and
+	 * at least 2^(i-1). The last bucket also holds everything slower.
+	 *
+	 * @return
+	 */
+	public long[] getHistogram() {
+		return histogram.clone();
+	}
+
+	/**
+	 * An upper bound of the given percentile of the latency in nanoseconds,
+	 * accurate to a power of two.
+	 *
+	 * @param percentile
+	 *            Between 0 and 100.
+	 * @return
+	 */
+	public long percentileNanos(double percentile) {
+		if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		long total = 0;
+		for (long bucket : histogram) {
+			total += bucket;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(total * percentile / 100.0);
+		long seen = 0;
+		for (int i = 0; i < histogram.length; i++) {
+			seen += histogram[i];
+			if (seen >= rank && seen > 0) {
+				return 1L << i;
+			}
+		}
+		return 1L << (histogram.length - 1);
+	}
+
+	@Override
+	public int compareTo(MarshalingSnapshot other) {
+		int result = type.compareTo(other.type);
+		if (result != 0) {
+			return result;
+		}
+		return MarshalingMetrics.Operation.valueOf(operation).compareTo(MarshalingMetrics.Operation.valueOf(other.operation));
+	}
+
+	@Override
+	public String toString() {
+		return "MarshalingSnapshot [type=" + type + ", operation=" + operation + ", count=" + count + ", failures=" + failures
+				+ ", bytes=" + bytes + ", totalNanos=" + totalNanos + ", histogram=" + Arrays.toString(histogram) + "]";
+	}
+}
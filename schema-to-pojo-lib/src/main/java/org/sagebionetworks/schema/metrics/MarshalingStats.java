@@ -0,0 +1,58 @@
+package org.sagebionetworks.schema.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.sagebionetworks.schema.metrics.MarshalingMetrics.Operation;
+
+/**
+ * The counters of a single class and operation.
+ *
+ */
+class MarshalingStats {
+
+	/**
+	 * Bucket i of the latency histogram counts the operations that took less
+	 * than 2^i nanoseconds (and at least 2^(i-1)). The last bucket also holds
+	 * everything slower.
+	 */
+	static final int BUCKETS = 40;
+
+	private final LongAdder count = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder nanos = new LongAdder();
+	private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+	MarshalingStats() {
+		for (int i = 0; i < BUCKETS; i++) {
+			histogram[i] = new LongAdder();
+		}
+	}
+
+	void record(long elapsed, long length, boolean success) {
+		if (elapsed < 0) {
+			elapsed = 0;
+		}
+		count.increment();
+		if (!success) {
+			failures.increment();
+		}
+		if (length > 0) {
+			bytes.add(length);
+		}
+		nanos.add(elapsed);
+		histogram[bucketOf(elapsed)].increment();
+	}
+
+	static int bucketOf(long elapsed) {
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(elapsed));
+	}
+
+	MarshalingSnapshot snapshot(String type, Operation operation) {
+		long[] buckets = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = histogram[i].sum();
+		}
+		return new MarshalingSnapshot(type, operation.name(), count.sum(), failures.sum(), bytes.sum(), nanos.sum(), buckets);
+	}
+}
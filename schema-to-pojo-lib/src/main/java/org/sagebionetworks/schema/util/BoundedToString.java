@@ -0,0 +1,29 @@
+package org.sagebionetworks.schema.util;
+
+/**
+ * An object that can append a size-bounded description of itself to a
+ * StringBuilder. Generated with the bounded toString option, where the limits
+ * come from a {@link ToStringLimits}.
+ *
+ */
+public interface BoundedToString {
+
+	/**
+	 * Append the same description as toString() to the given builder.
+	 * 
+	 * @param builder
+	 * @return The given builder.
+	 */
+	public StringBuilder toString(StringBuilder builder);
+
+	/**
+	 * Append the description of this object when it is nested the given
+	 * number of levels inside the object being described.
+	 * 
+	 * @param builder
+	 * @param depth
+	 *            Zero for the outermost object.
+	 * @return The given builder.
+	 */
+	public StringBuilder toString(StringBuilder builder, int depth);
+}
@@ -0,0 +1,345 @@
+package org.sagebionetworks.schema.util;
+
+import java.util.TimeZone;
+
+import org.sagebionetworks.schema.FORMAT;
+
+/**
+ * Parses and prints the date formats of a schema without a date library.
+ * <p>
+ * The output is the same as Joda's ISODateTimeFormat: a DATE_TIME is printed
+ * as yyyy-MM-dd'T'HH:mm:ss.SSS followed by the offset ('Z' for UTC), a DATE as
+ * yyyy-MM-dd and a TIME as HH:mm:ss.SSS followed by the offset. Dates are
+ * printed in the default time zone. A DATE_TIME or TIME is parsed with the
+ * offset it contains, and a DATE is parsed as midnight in the default time
+ * zone. A UTC_MILLISEC is the number of milliseconds since the epoch.
+ * <p>
+ * Text is read directly from a CharSequence and printed into a single char[],
+ * so no intermediate objects are created. The default time zone is read once,
+ * the same as Joda does.
+ *
+ */
+public final class IsoDateUtils {
+
+	private static final long MILLIS_PER_SECOND = 1000L;
+	private static final long MILLIS_PER_MINUTE = 60L * MILLIS_PER_SECOND;
+	private static final long MILLIS_PER_HOUR = 60L * MILLIS_PER_MINUTE;
+	private static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+	/**
+	 * The longest printed value: a nine digit signed year and an offset with
+	 * seconds and milliseconds.
+	 */
+	private static final int MAX_LENGTH = 48;
+
+	private static final TimeZone DEFAULT_ZONE = TimeZone.getDefault();
+
+	private IsoDateUtils() {
+	}
+
+	/**
+	 * Print the given time in the default time zone.
+	 *
+	 * @param format
+	 * @param millis
+	 * @return
+	 */
+	public static String format(FORMAT format, long millis) {
+		return format(format, millis, DEFAULT_ZONE);
+	}
+
+	/**
+	 * Print the given time in the given time zone.
+	 *
+	 * @param format
+	 * @param millis
+	 * @param zone
+	 * @return
+	 */
+	public static String format(FORMAT format, long millis, TimeZone zone) {
+		checkFormat(format);
+		if (zone == null) throw new IllegalArgumentException("TimeZone cannot be null");
+		if (FORMAT.UTC_MILLISEC == format) {
+			return Long.toString(millis);
+		}
+		char[] buffer = new char[MAX_LENGTH];
+		int offset = zone.getOffset(millis);
+		long local = millis + offset;
+		int pos = 0;
+		if (FORMAT.TIME != format) {
+			pos = writeDate(Math.floorDiv(local, MILLIS_PER_DAY), buffer, pos);
+			if (FORMAT.DATE == format) {
+				return new String(buffer, 0, pos);
+			}
+			buffer[pos++] = 'T';
+		}
+		pos = writeTime(Math.floorMod(local, MILLIS_PER_DAY), buffer, pos);
+		pos = writeOffset(offset, buffer, pos);
+		return new String(buffer, 0, pos);
+	}
+
+	/**
+	 * Parse the given text. A DATE is parsed as midnight in the default time
+	 * zone.
+	 *
+	 * @param format
+	 * @param text
+	 * @return The milliseconds since the epoch.
+	 * @throws IllegalArgumentException
+	 *             If the text is not of the given format.
+	 */
+	public static long parse(FORMAT format, CharSequence text) {
+		return parse(format, text, DEFAULT_ZONE);
+	}
+
+	/**
+	 * Parse the given text. A DATE is parsed as midnight in the given time
+	 * zone.
+	 *
+	 * @param format
+	 * @param text
+	 * @param zone
+	 * @return The milliseconds since the epoch.
+	 * @throws IllegalArgumentException
+	 *             If the text is not of the given format.
+	 */
+	public static long parse(FORMAT format, CharSequence text, TimeZone zone) {
+		checkFormat(format);
+		if (text == null) throw new IllegalArgumentException("Text cannot be null");
+		if (zone == null) throw new IllegalArgumentException("TimeZone cannot be null");
+		if (FORMAT.UTC_MILLISEC == format) {
+			return Long.parseLong(text.toString());
+		}
+		int length = text.length();
+		int pos = 0;
+		long epochDay = 0;
+		if (FORMAT.TIME != format) {
+			boolean negative = false;
+			if (pos < length && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+				negative = text.charAt(pos) == '-';
+				pos++;
+			}
+			int start = pos;
+			long year = 0;
+			while (pos < length && pos - start < 9 && isDigit(text.charAt(pos))) {
+				year = year * 10 + (text.charAt(pos++) - '0');
+			}
+			if (pos - start < 4) throw invalid(text);
+			if (negative) {
+				year = -year;
+			}
+			pos = expect(text, pos, '-');
+			int month = twoDigits(text, pos);
+			pos = expect(text, pos + 2, '-');
+			int day = twoDigits(text, pos);
+			pos += 2;
+			if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) throw invalid(text);
+			epochDay = daysFromCivil(year, month, day);
+			if (FORMAT.DATE == format) {
+				if (pos != length) throw invalid(text);
+				return localToUtc(epochDay * MILLIS_PER_DAY, zone);
+			}
+			pos = expect(text, pos, 'T');
+		}
+		int hour = twoDigits(text, pos);
+		pos = expect(text, pos + 2, ':');
+		int minute = twoDigits(text, pos);
+		pos = expect(text, pos + 2, ':');
+		int second = twoDigits(text, pos);
+		pos += 2;
+		if (hour > 23 || minute > 59 || second > 59) throw invalid(text);
+		int millis = 0;
+		if (pos < length && text.charAt(pos) == '.') {
+			int start = ++pos;
+			while (pos < length && pos - start < 9 && isDigit(text.charAt(pos))) {
+				if (pos - start < 3) {
+					millis = millis * 10 + (text.charAt(pos) - '0');
+				}
+				pos++;
+			}
+			int digits = pos - start;
+			if (digits == 0) throw invalid(text);
+			for (; digits < 3; digits++) {
+				millis *= 10;
+			}
+		}
+		long local = epochDay * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE
+				+ second * MILLIS_PER_SECOND + millis;
+		// offset
+		if (pos >= length) throw invalid(text);
+		char c = text.charAt(pos++);
+		long offset = 0;
+		if (c == '+' || c == '-') {
+			offset = twoDigits(text, pos) * MILLIS_PER_HOUR;
+			pos += 2;
+			if (pos < length) {
+				if (text.charAt(pos) == ':') {
+					pos++;
+				}
+				offset += twoDigits(text, pos) * MILLIS_PER_MINUTE;
+				pos += 2;
+			}
+			if (pos < length) {
+				if (text.charAt(pos) == ':') {
+					pos++;
+				}
+				offset += twoDigits(text, pos) * MILLIS_PER_SECOND;
+				pos += 2;
+			}
+			if (offset >= MILLIS_PER_DAY) throw invalid(text);
+			if (c == '-') {
+				offset = -offset;
+			}
+		} else if (c != 'Z') {
+			throw invalid(text);
+		}
+		if (pos != length) throw invalid(text);
+		return local - offset;
+	}
+
+	private static void checkFormat(FORMAT format) {
+		if (format == null) throw new IllegalArgumentException("FORMAT cannot be null");
+		if (!format.isDateFormat()) throw new IllegalArgumentException("Not a date format: " + format.name());
+	}
+
+	/**
+	 * Convert a local time to UTC with the offset that applies at that time.
+	 */
+	private static long localToUtc(long local, TimeZone zone) {
+		long guess = local - zone.getOffset(local);
+		return local - zone.getOffset(guess);
+	}
+
+	/**
+	 * Write yyyy-MM-dd for the given day of the proleptic Gregorian calendar.
+	 * See Howard Hinnant's civil_from_days.
+	 */
+	private static int writeDate(long epochDay, char[] buffer, int pos) {
+		long z = epochDay + 719468;
+		long era = Math.floorDiv(z, 146097);
+		long dayOfEra = z - era * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long year = yearOfEra + era * 400;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long mp = (5 * dayOfYear + 2) / 153;
+		int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+		int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+		if (month <= 2) {
+			year++;
+		}
+		if (year < 0) {
+			buffer[pos++] = '-';
+			year = -year;
+		}
+		if (year < 10000) {
+			pos = writeDigits((int) year, 4, buffer, pos);
+		} else {
+			String digits = Long.toString(year);
+			digits.getChars(0, digits.length(), buffer, pos);
+			pos += digits.length();
+		}
+		buffer[pos++] = '-';
+		pos = writeDigits(month, 2, buffer, pos);
+		buffer[pos++] = '-';
+		return writeDigits(day, 2, buffer, pos);
+	}
+
+	/**
+	 * Write HH:mm:ss.SSS
+	 */
+	private static int writeTime(long millisOfDay, char[] buffer, int pos) {
+		pos = writeDigits((int) (millisOfDay / MILLIS_PER_HOUR), 2, buffer, pos);
+		buffer[pos++] = ':';
+		pos = writeDigits((int) (millisOfDay / MILLIS_PER_MINUTE % 60), 2, buffer, pos);
+		buffer[pos++] = ':';
+		pos = writeDigits((int) (millisOfDay / MILLIS_PER_SECOND % 60), 2, buffer, pos);
+		buffer[pos++] = '.';
+		return writeDigits((int) (millisOfDay % MILLIS_PER_SECOND), 3, buffer, pos);
+	}
+
+	/**
+	 * Write 'Z' or +HH:mm, with seconds and milliseconds only when they are
+	 * not zero.
+	 */
+	private static int writeOffset(int offset, char[] buffer, int pos) {
+		if (offset == 0) {
+			buffer[pos++] = 'Z';
+			return pos;
+		}
+		buffer[pos++] = offset < 0 ? '-' : '+';
+		offset = Math.abs(offset);
+		pos = writeDigits((int) (offset / MILLIS_PER_HOUR), 2, buffer, pos);
+		buffer[pos++] = ':';
+		pos = writeDigits((int) (offset / MILLIS_PER_MINUTE % 60), 2, buffer, pos);
+		int seconds = (int) (offset / MILLIS_PER_SECOND % 60);
+		int millis = (int) (offset % MILLIS_PER_SECOND);
+		if (seconds != 0 || millis != 0) {
+			buffer[pos++] = ':';
+			pos = writeDigits(seconds, 2, buffer, pos);
+			if (millis != 0) {
+				buffer[pos++] = '.';
+				pos = writeDigits(millis, 3, buffer, pos);
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * Write a non-negative value, zero padded to the given number of digits.
+	 */
+	private static int writeDigits(int value, int digits, char[] buffer, int pos) {
+		for (int i = pos + digits - 1; i >= pos; i--) {
+			buffer[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return pos + digits;
+	}
+
+	/**
+	 * See Howard Hinnant's days_from_civil.
+	 */
+	static long daysFromCivil(long year, int month, int day) {
+		if (month <= 2) {
+			year--;
+		}
+		long era = Math.floorDiv(year, 400);
+		long yearOfEra = year - era * 400;
+		long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	private static int daysInMonth(long year, int month) {
+		switch (month) {
+		case 2:
+			return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	private static int twoDigits(CharSequence text, int pos) {
+		if (pos + 1 >= text.length()) throw invalid(text);
+		char tens = text.charAt(pos);
+		char ones = text.charAt(pos + 1);
+		if (!isDigit(tens) || !isDigit(ones)) throw invalid(text);
+		return (tens - '0') * 10 + (ones - '0');
+	}
+
+	private static int expect(CharSequence text, int pos, char expected) {
+		if (pos >= text.length() || text.charAt(pos) != expected) throw invalid(text);
+		return pos + 1;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static IllegalArgumentException invalid(CharSequence text) {
+		return new IllegalArgumentException("Invalid format: \"" + text + "\"");
+	}
+}
@@ -0,0 +1,157 @@
+package org.sagebionetworks.schema.util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * A bounded, thread-safe cache of compiled regular expressions.
+ * <p>
+ * Compiling a {@link Pattern} is far more expensive than matching with it, so
+ * the adapters share a single cache ({@link #getShared()}) instead of calling
+ * {@link Pattern#compile(String)} each time a property is validated. When the
+ * cache is full an arbitrary entry is evicted; schemas declare a small, fixed
+ * set of patterns so the bound is only a guard against unbounded input.
+ *
+ */
+public class PatternCache {
+
+	/**
+	 * The maximum number of patterns held by the shared cache.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 512;
+
+	private static final PatternCache SHARED = new PatternCache(DEFAULT_MAXIMUM_SIZE);
+
+	private final int maximumSize;
+	private final ConcurrentHashMap<String, Pattern> patterns;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param maximumSize
+	 *            The maximum number of compiled patterns to keep.
+	 */
+	public PatternCache(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Maximum size must be at least one: " + maximumSize);
+		}
+		this.maximumSize = maximumSize;
+		this.patterns = new ConcurrentHashMap<String, Pattern>(Math.min(maximumSize, 64));
+	}
+
+	/**
+	 * The cache shared by all adapters.
+	 *
+	 * @return
+	 */
+	public static PatternCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Get the compiled form of the given regular expression, compiling it on
+	 * the first request.
+	 *
+	 * @param regex
+	 * @return
+	 * @throws java.util.regex.PatternSyntaxException
+	 *             If the expression is not valid. Invalid expressions are not
+	 *             cached.
+	 */
+	public Pattern getPattern(String regex) {
+		if (regex == null) {
+			throw new IllegalArgumentException("Regex cannot be null");
+		}
+		Pattern pattern = patterns.get(regex);
+		if (pattern != null) {
+			hits.increment();
+			return pattern;
+		}
+		misses.increment();
+		pattern = Pattern.compile(regex);
+		if (patterns.size() >= maximumSize) {
+			evict();
+		}
+		Pattern existing = patterns.putIfAbsent(regex, pattern);
+		return existing != null ? existing : pattern;
+	}
+
+	/**
+	 * Does the entire input match the given regular expression?
+	 *
+	 * @param regex
+	 * @param input
+	 * @return
+	 */
+	public boolean matches(String regex, CharSequence input) {
+		return getPattern(regex).matcher(input).matches();
+	}
+
+	private void evict() {
+		Iterator<String> it = patterns.keySet().iterator();
+		while (patterns.size() >= maximumSize && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * The number of patterns currently cached.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return patterns.size();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * The number of requests served from the cache.
+	 *
+	 * @return
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * The number of requests that had to compile the pattern.
+	 *
+	 * @return
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * The number of patterns removed to stay within the maximum size.
+	 *
+	 * @return
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Remove all cached patterns and reset the metrics.
+	 */
+	public void clear() {
+		patterns.clear();
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "PatternCache [size=" + size() + ", maximumSize=" + maximumSize + ", hits=" + getHitCount()
+				+ ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+}
@@ -0,0 +1,138 @@
+package org.sagebionetworks.schema.util;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Limits on the size of a description of an object, and the code that
+ * appends values within those limits. Strings are cut to the maximum length,
+ * only the first elements of collections and maps are described, and objects
+ * nested deeper than the maximum depth are elided.
+ *
+ */
+public final class ToStringLimits {
+
+	private static final String ELLIPSIS = "...";
+
+	private final int maxElements;
+	private final int maxStringLength;
+	private final int maxDepth;
+
+	/**
+	 * 
+	 * @param maxElements
+	 *            The number of elements of a collection or entries of a map to
+	 *            describe.
+	 * @param maxStringLength
+	 *            The number of characters of a string, or of the toString() of
+	 *            any other value, to describe.
+	 * @param maxDepth
+	 *            The number of levels of nested objects and collections to
+	 *            describe.
+	 */
+	public ToStringLimits(int maxElements, int maxStringLength, int maxDepth) {
+		if (maxElements < 0) throw new IllegalArgumentException("Max elements cannot be negative");
+		if (maxStringLength < 0) throw new IllegalArgumentException("Max string length cannot be negative");
+		if (maxDepth < 0) throw new IllegalArgumentException("Max depth cannot be negative");
+		this.maxElements = maxElements;
+		this.maxStringLength = maxStringLength;
+		this.maxDepth = maxDepth;
+	}
+
+	public int getMaxElements() {
+		return maxElements;
+	}
+
+	public int getMaxStringLength() {
+		return maxStringLength;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Append a description of a property value of an object at the given
+	 * depth.
+	 * 
+	 * @param builder
+	 * @param value
+	 * @param depth
+	 *            The depth of the object that holds the value.
+	 * @return The given builder.
+	 */
+	public StringBuilder append(StringBuilder builder, Object value, int depth) {
+		if (value == null) {
+			return builder.append("null");
+		}
+		if (value instanceof CharSequence) {
+			return appendChars(builder, (CharSequence) value);
+		}
+		if (value instanceof BoundedToString) {
+			if (depth >= maxDepth) {
+				return builder.append(ELLIPSIS);
+			}
+			return ((BoundedToString) value).toString(builder, depth + 1);
+		}
+		if (value instanceof Collection) {
+			Collection<?> collection = (Collection<?>) value;
+			if (depth >= maxDepth && !collection.isEmpty()) {
+				return builder.append('[').append(ELLIPSIS).append(collection.size()).append(" elements]");
+			}
+			builder.append('[');
+			int count = 0;
+			for (Iterator<?> it = collection.iterator(); it.hasNext() && count < maxElements; count++) {
+				if (count > 0) {
+					builder.append(", ");
+				}
+				append(builder, it.next(), depth + 1);
+			}
+			appendRemainder(builder, collection.size() - count, count > 0);
+			return builder.append(']');
+		}
+		if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			if (depth >= maxDepth && !map.isEmpty()) {
+				return builder.append('{').append(ELLIPSIS).append(map.size()).append(" entries}");
+			}
+			builder.append('{');
+			int count = 0;
+			for (Iterator<? extends Map.Entry<?, ?>> it = map.entrySet().iterator(); it.hasNext() && count < maxElements; count++) {
+				Map.Entry<?, ?> entry = it.next();
+				if (count > 0) {
+					builder.append(", ");
+				}
+				append(builder, entry.getKey(), depth + 1);
+				builder.append('=');
+				append(builder, entry.getValue(), depth + 1);
+			}
+			appendRemainder(builder, map.size() - count, count > 0);
+			return builder.append('}');
+		}
+		return appendChars(builder, String.valueOf(value));
+	}
+
+	private StringBuilder appendChars(StringBuilder builder, CharSequence chars) {
+		int length = chars.length();
+		if (length <= maxStringLength) {
+			return builder.append(chars);
+		}
+		return builder.append(chars, 0, maxStringLength).append(ELLIPSIS).append('(').append(length).append(" chars)");
+	}
+
+	private void appendRemainder(StringBuilder builder, int remaining, boolean separator) {
+		if (remaining > 0) {
+			if (separator) {
+				builder.append(", ");
+			}
+			builder.append(ELLIPSIS).append(remaining).append(" more");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ToStringLimits [maxElements=" + maxElements + ", maxStringLength=" + maxStringLength + ", maxDepth="
+				+ maxDepth + "]";
+	}
+}
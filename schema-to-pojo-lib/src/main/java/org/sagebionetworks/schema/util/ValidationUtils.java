@@ -0,0 +1,66 @@
+package org.sagebionetworks.schema.util;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks used by the validate() method of generated POJOs for the constraints
+ * that cannot be expressed as a simple comparison.
+ *
+ */
+public class ValidationUtils {
+
+	/**
+	 * Lists up to this size are checked for duplicates by comparing each pair,
+	 * which does not allocate.
+	 */
+	static final int PAIRWISE_UNIQUE_LIMIT = 16;
+
+	/**
+	 * Are all of the items of the given list unique? Two items are the same if
+	 * they are both null or equal.
+	 *
+	 * @param list
+	 * @return
+	 */
+	public static boolean hasUniqueItems(List<?> list) {
+		int size = list.size();
+		if (size < 2) {
+			return true;
+		}
+		if (size <= PAIRWISE_UNIQUE_LIMIT) {
+			for (int i = 0; i < size; i++) {
+				Object item = list.get(i);
+				for (int j = i + 1; j < size; j++) {
+					Object other = list.get(j);
+					if (item == null ? other == null : item.equals(other)) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		Set<Object> seen = new HashSet<Object>(size * 2);
+		for (Object item : list) {
+			if (!seen.add(item)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Is the value divisible by the divisor with no remainder? The quotient is
+	 * compared to the nearest integer using {@link CompareUtils#doubleEquals(double, double)}
+	 * so values such as 0.3 are divisible by 0.1.
+	 *
+	 * @param value
+	 * @param divisor
+	 * @return
+	 */
+	public static boolean isDivisibleBy(double value, double divisor) {
+		double quotient = value / divisor;
+		return CompareUtils.doubleEquals(quotient, Math.rint(quotient));
+	}
+}
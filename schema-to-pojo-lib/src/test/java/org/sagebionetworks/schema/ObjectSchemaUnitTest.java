@@ -186,6 +186,105 @@ public class ObjectSchemaUnitTest {
 			index++;
 		}
 	}
+
+	@Test
+	public void testCreateDeepCopy(){
+		ObjectSchemaImpl schema = new ObjectSchemaImpl(TYPE.OBJECT);
+		schema.setName("SampleClass");
+		schema.setId("org.sample.SampleClass");
+		ObjectSchema count = new ObjectSchemaImpl(TYPE.INTEGER);
+		count.setMinimum(Integer.valueOf(5));
+		schema.putProperty("count", count);
+		ObjectSchema list = new ObjectSchemaImpl(TYPE.ARRAY);
+		list.setItems(new ObjectSchemaImpl(TYPE.STRING));
+		schema.putProperty("list", list);
+		schema.setExtends(new ObjectSchemaImpl(TYPE.OBJECT));
+		schema.setImplements(new ObjectSchema[]{new ObjectSchemaImpl(TYPE.INTERFACE)});
+		schema.setEnum(new EnumValue[]{new EnumValue("a", "a description")});
+		schema.setLinks(new LinkDescription[]{new LinkDescription(LinkDescription.LinkRel.ROOT, "http://localhost:8080/")});
+
+		ObjectSchema copy = ObjectSchemaImpl.createDeepCopy(schema);
+		assertNotSame(schema, copy);
+		assertEquals("org.sample.SampleClass", copy.getId());
+		assertNotSame(count, copy.getProperties().get("count"));
+		// Numbers are stored as the type of the schema, as if read from JSON.
+		assertEquals(Long.valueOf(5), copy.getProperties().get("count").getMinimum());
+		assertNotSame(list.getItems(), copy.getProperties().get("list").getItems());
+		assertEquals(list.getItems(), copy.getProperties().get("list").getItems());
+		assertNotSame(schema.getExtends(), copy.getExtends());
+		assertEquals(schema.getExtends(), copy.getExtends());
+		assertNotSame(schema.getImplements()[0], copy.getImplements()[0]);
+		assertEquals(schema.getImplements()[0], copy.getImplements()[0]);
+		assertNotSame(schema.getEnum()[0], copy.getEnum()[0]);
+		assertEquals(schema.getEnum()[0], copy.getEnum()[0]);
+		assertArrayEquals(schema.getLinks(), copy.getLinks());
+		// Changing the copy does not change the original.
+		copy.getProperties().get("list").getItems().setType(TYPE.BOOLEAN);
+		assertEquals(TYPE.STRING, list.getItems().getType());
+	}
+
+	@Test
+	public void testCreateDeepCopyShared(){
+		ObjectSchema schema = new ObjectSchemaImpl(TYPE.OBJECT);
+		ObjectSchema shared = new ObjectSchemaImpl(TYPE.OBJECT);
+		schema.putProperty("one", shared);
+		schema.putProperty("two", shared);
+		// A cycle back to the root.
+		shared.putProperty("parent", schema);
+
+		ObjectSchema copy = ObjectSchemaImpl.createDeepCopy(schema);
+		ObjectSchema sharedCopy = copy.getProperties().get("one");
+		assertNotSame(shared, sharedCopy);
+		assertSame(sharedCopy, copy.getProperties().get("two"));
+		assertSame(copy, sharedCopy.getProperties().get("parent"));
+	}
+
+	@Test
+	public void testCreateDeepCopyRecursiveInstance(){
+		ObjectSchema schema = new ObjectSchemaImpl(TYPE.OBJECT);
+		ObjectSchema instance = new ObjectSchemaImpl(TYPE.OBJECT);
+		instance.setName("Recursive");
+		instance.setIs$RecursiveRefInstance(true);
+		schema.putProperty("child", instance);
+
+		ObjectSchema copy = ObjectSchemaImpl.createDeepCopy(schema);
+		// Same as writing the instance to JSON.
+		ObjectSchema expected = new ObjectSchemaImpl();
+		expected.set$recursiveRef(ObjectSchemaImpl.SELF_REFERENCE);
+		assertEquals(expected, copy.getProperties().get("child"));
+	}
+
+	@Test (expected=IllegalArgumentException.class)
+	public void testCreateDeepCopyNull(){
+		ObjectSchemaImpl.createDeepCopy(null);
+	}
+
+	@Test
+	public void testCreateShallowCopy(){
+		ObjectSchema schema = new ObjectSchemaImpl(TYPE.MAP);
+		schema.setId("org.sample.SampleMap");
+		schema.setDescription("a map");
+		schema.putProperty("count", new ObjectSchemaImpl(TYPE.INTEGER));
+		schema.setKey(new ObjectSchemaImpl(TYPE.STRING));
+		schema.setValue(new ObjectSchemaImpl(TYPE.OBJECT));
+		schema.setItems(new ObjectSchemaImpl(TYPE.STRING));
+		schema.setExtends(new ObjectSchemaImpl(TYPE.OBJECT));
+		schema.setImplements(new ObjectSchema[]{new ObjectSchemaImpl(TYPE.INTERFACE)});
+
+		ObjectSchema copy = ObjectSchemaImpl.createShallowCopy(schema);
+		assertEquals(TYPE.MAP, copy.getType());
+		assertEquals("org.sample.SampleMap", copy.getId());
+		assertEquals("a map", copy.getDescription());
+		// left for the caller
+		assertNull(copy.getProperties());
+		assertNull(copy.getValue());
+		assertNull(copy.getItems());
+		assertNull(copy.getExtends());
+		assertNull(copy.getImplements());
+		// other sub-schemas are still copied
+		assertNotSame(schema.getKey(), copy.getKey());
+		assertEquals(schema.getKey(), copy.getKey());
+	}
 	
 
 	
@@ -0,0 +1,159 @@
+package org.sagebionetworks.schema.binary;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class Base64CodecTest {
+
+	@Test
+	void testSameAsJdk() {
+		Random random = new Random(42);
+		for (int length = 0; length < 300; length++) {
+			byte[] data = new byte[length];
+			random.nextBytes(data);
+			String expected = java.util.Base64.getEncoder().encodeToString(data);
+			assertEquals(expected, Base64Codec.encodeToString(data));
+			assertArrayEquals(data, Base64Codec.decode(expected));
+			assertArrayEquals(data, Base64Codec.decode(expected.toCharArray(), 0, expected.length()));
+			assertArrayEquals(expected.getBytes(StandardCharsets.US_ASCII), Base64.encodeBase64(data));
+			assertArrayEquals(data, Base64.decodeBase64(expected.getBytes(StandardCharsets.US_ASCII)));
+		}
+	}
+
+	@Test
+	void testChunked() {
+		Random random = new Random(7);
+		for (int length : new int[] { 0, 1, 56, 57, 58, 114, 1000 }) {
+			byte[] data = new byte[length];
+			random.nextBytes(data);
+			String expected = java.util.Base64.getMimeEncoder().encodeToString(data);
+			if (length > 0) {
+				expected += "\r\n";
+			}
+			assertEquals(expected, new String(Base64.encodeBase64Chunked(data), StandardCharsets.US_ASCII));
+			assertArrayEquals(data, Base64.decodeBase64(expected.getBytes(StandardCharsets.US_ASCII)));
+		}
+	}
+
+	@Test
+	void testDecodeIgnoresNonAlphabet() {
+		byte[] data = "schema-to-pojo".getBytes(StandardCharsets.UTF_8);
+		assertArrayEquals(data, Base64Codec.decode(" c2No\r\nZW1h\tLXRv\u00e9LXBvam8= "));
+		// missing padding
+		assertArrayEquals(data, Base64Codec.decode("c2NoZW1hLXRvLXBvam8"));
+		// stops at the first pad character
+		assertArrayEquals(new byte[] { 'a' }, Base64Codec.decode("YQ==YWJj"));
+		assertEquals(0, Base64Codec.decode("").length);
+	}
+
+	@Test
+	void testDecodeSlices() {
+		byte[] data = "schema-to-pojo".getBytes(StandardCharsets.UTF_8);
+		String encoded = "xx c2No\r\nZW1hLXRvLXBvam8=\n yy";
+		int offset = 2;
+		int length = encoded.length() - 4;
+		assertArrayEquals(data, Base64Codec.decode(encoded.toCharArray(), offset, length));
+		assertArrayEquals(data, Base64Codec.decode(encoded.getBytes(StandardCharsets.US_ASCII), offset, length));
+		// only padding and whitespace
+		assertEquals(0, Base64Codec.decode(" ==\n".toCharArray(), 0, 4).length);
+	}
+
+	@Test
+	void testStreams() throws IOException {
+		Random random = new Random(11);
+		byte[] data = new byte[20000];
+		random.nextBytes(data);
+		StringWriter writer = new StringWriter();
+		try (OutputStream out = Base64Streams.encoder(writer)) {
+			// uneven writes so groups are split between calls
+			int offset = 0;
+			while (offset < data.length) {
+				int length = Math.min(data.length - offset, random.nextInt(1000));
+				out.write(data, offset, length);
+				offset += length;
+				if (offset < data.length) {
+					out.write(data[offset++]);
+				}
+			}
+		}
+		String encoded = writer.toString();
+		assertEquals(java.util.Base64.getEncoder().encodeToString(data), encoded);
+
+		StringBuilder builder = new StringBuilder();
+		try (OutputStream out = Base64Streams.encoder(builder)) {
+			out.write(data);
+		}
+		assertEquals(encoded, builder.toString());
+
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		try (InputStream in = Base64Streams.decoder(new StringReader(encoded))) {
+			byte[] buffer = new byte[777];
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				decoded.write(buffer, 0, read);
+			}
+		}
+		assertArrayEquals(data, decoded.toByteArray());
+	}
+
+	@Test
+	void testStreamsShortReads() throws IOException {
+		// a short read leaves three values of a group, then a full block ends with a pad
+		StringBuilder encoded = new StringBuilder("QUJ");
+		for (int i = 0; i < 4095; i++) {
+			encoded.append('A');
+		}
+		encoded.append('=');
+		Reader reader = new Reader() {
+			private final StringReader in = new StringReader(encoded.toString());
+			private boolean first = true;
+
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				if (first) {
+					first = false;
+					return in.read(cbuf, off, Math.min(len, 3));
+				}
+				return in.read(cbuf, off, len);
+			}
+
+			@Override
+			public void close() {
+				in.close();
+			}
+		};
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		try (InputStream in = Base64Streams.decoder(reader)) {
+			byte[] buffer = new byte[1000];
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				decoded.write(buffer, 0, read);
+			}
+		}
+		assertArrayEquals(Base64Codec.decode(encoded), decoded.toByteArray());
+	}
+
+	@Test
+	void testNull() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			Base64Codec.encodeToString(null);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Base64Codec.decode((String) null);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Base64Streams.encoder(null);
+		});
+	}
+}
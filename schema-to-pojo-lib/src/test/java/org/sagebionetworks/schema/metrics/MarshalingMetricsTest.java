@@ -0,0 +1,109 @@
+package org.sagebionetworks.schema.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.metrics.MarshalingMetrics.Operation;
+
+class MarshalingMetricsTest {
+
+	@BeforeEach
+	void before() {
+		MarshalingMetrics.reset();
+	}
+
+	@AfterEach
+	void after() throws Exception {
+		MarshalingMetrics.setEnabled(false);
+		MarshalingMetrics.reset();
+		MarshalingMetrics.unregisterMBean();
+	}
+
+	@Test
+	void testDisabledByDefault() {
+		assertFalse(MarshalingMetrics.isEnabled());
+		long start = MarshalingMetrics.start();
+		assertEquals(0L, start);
+		MarshalingMetrics.record(String.class, Operation.PARSE, start, 10, true);
+		assertTrue(MarshalingMetrics.snapshot().isEmpty());
+	}
+
+	@Test
+	void testRecord() {
+		MarshalingMetrics.setEnabled(true);
+		MarshalingMetrics.record(String.class, Operation.PARSE, MarshalingMetrics.start(), 10, true);
+		MarshalingMetrics.record(String.class, Operation.PARSE, MarshalingMetrics.start(), 5, false);
+		MarshalingMetrics.record(String.class, Operation.WRITE, MarshalingMetrics.start(), true);
+		List<MarshalingSnapshot> snapshots = MarshalingMetrics.snapshot();
+		assertEquals(2, snapshots.size());
+		MarshalingSnapshot parse = snapshots.get(0);
+		assertEquals(String.class.getName(), parse.getType());
+		assertEquals("PARSE", parse.getOperation());
+		assertEquals(2, parse.getCount());
+		assertEquals(1, parse.getFailures());
+		assertEquals(15, parse.getBytes());
+		long histogramTotal = 0;
+		for (long bucket : parse.getHistogram()) {
+			histogramTotal += bucket;
+		}
+		assertEquals(2, histogramTotal);
+		assertEquals("WRITE", snapshots.get(1).getOperation());
+		assertEquals(1, snapshots.get(1).getCount());
+		assertEquals(0, snapshots.get(1).getBytes());
+	}
+
+	@Test
+	void testStartOnlyForDeclaringClass() {
+		MarshalingMetrics.setEnabled(true);
+		assertNotEquals(0L, MarshalingMetrics.start("value", String.class));
+		// a super call from a sub-class is not recorded
+		assertEquals(0L, MarshalingMetrics.start("value", Object.class));
+	}
+
+	@Test
+	void testBucketOf() {
+		assertEquals(0, MarshalingStats.bucketOf(0));
+		assertEquals(1, MarshalingStats.bucketOf(1));
+		assertEquals(10, MarshalingStats.bucketOf(1000));
+		assertEquals(MarshalingStats.BUCKETS - 1, MarshalingStats.bucketOf(Long.MAX_VALUE));
+	}
+
+	@Test
+	void testPercentile() {
+		long[] histogram = new long[MarshalingStats.BUCKETS];
+		histogram[3] = 90;
+		histogram[10] = 10;
+		MarshalingSnapshot snapshot = new MarshalingSnapshot("type", "PARSE", 100, 0, 0, 0, histogram);
+		assertEquals(8, snapshot.percentileNanos(50));
+		assertEquals(8, snapshot.percentileNanos(90));
+		assertEquals(1024, snapshot.percentileNanos(99));
+		assertThrows(IllegalArgumentException.class, () -> snapshot.percentileNanos(101));
+	}
+
+	@Test
+	void testMBean() throws Exception {
+		ObjectName name = MarshalingMetrics.registerMBean();
+		// a second call is ignored
+		assertEquals(name, MarshalingMetrics.registerMBean());
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		assertEquals(Boolean.FALSE, server.getAttribute(name, "Enabled"));
+		server.setAttribute(name, new javax.management.Attribute("Enabled", Boolean.TRUE));
+		assertTrue(MarshalingMetrics.isEnabled());
+		MarshalingMetrics.record(Integer.class, Operation.SERIALIZE, MarshalingMetrics.start(), 3, true);
+		CompositeData[] snapshots = (CompositeData[]) server.getAttribute(name, "Snapshots");
+		assertEquals(1, snapshots.length);
+		assertEquals(Integer.class.getName(), snapshots[0].get("type"));
+		assertEquals(3L, snapshots[0].get("bytes"));
+		server.invoke(name, "reset", null, null);
+		assertTrue(MarshalingMetrics.snapshot().isEmpty());
+	}
+}
@@ -0,0 +1,101 @@
+package org.sagebionetworks.schema.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.FORMAT;
+
+class IsoDateUtilsTest {
+
+	static final String[] ZONES = { "UTC", "America/New_York", "Asia/Kolkata", "Europe/London" };
+	static final long START = 315532800000L; // 1980-01-01
+	static final long END = 1893456000000L; // 2030-01-01
+
+	@Test
+	void testSameAsJoda() {
+		Random random = new Random(42);
+		for (String id : ZONES) {
+			TimeZone zone = TimeZone.getTimeZone(id);
+			DateTimeZone jodaZone = DateTimeZone.forID(id);
+			DateTimeFormatter dateTime = ISODateTimeFormat.dateTime().withZone(jodaZone);
+			DateTimeFormatter date = ISODateTimeFormat.date().withZone(jodaZone);
+			DateTimeFormatter time = ISODateTimeFormat.time().withZone(jodaZone);
+			for (int i = 0; i < 2000; i++) {
+				long millis = START + (long) (random.nextDouble() * (END - START));
+				String printed = IsoDateUtils.format(FORMAT.DATE_TIME, millis, zone);
+				assertEquals(dateTime.print(millis), printed);
+				assertEquals(millis, IsoDateUtils.parse(FORMAT.DATE_TIME, printed, zone));
+				assertEquals(dateTime.parseMillis(printed), IsoDateUtils.parse(FORMAT.DATE_TIME, printed, zone));
+
+				printed = IsoDateUtils.format(FORMAT.DATE, millis, zone);
+				assertEquals(date.print(millis), printed);
+				assertEquals(date.parseMillis(printed), IsoDateUtils.parse(FORMAT.DATE, printed, zone));
+
+				printed = IsoDateUtils.format(FORMAT.TIME, millis, zone);
+				assertEquals(time.print(millis), printed);
+				assertEquals(time.parseMillis(printed), IsoDateUtils.parse(FORMAT.TIME, printed, zone));
+			}
+		}
+	}
+
+	@Test
+	void testFormatEdges() {
+		TimeZone utc = TimeZone.getTimeZone("UTC");
+		assertEquals("1970-01-01T00:00:00.000Z", IsoDateUtils.format(FORMAT.DATE_TIME, 0L, utc));
+		assertEquals("1969-12-31T23:59:59.999Z", IsoDateUtils.format(FORMAT.DATE_TIME, -1L, utc));
+		assertEquals("2000-02-29", IsoDateUtils.format(FORMAT.DATE, 951782400000L, utc));
+		assertEquals("0001-01-01T00:00:00.000Z", IsoDateUtils.format(FORMAT.DATE_TIME, -62135596800000L, utc));
+		assertEquals("12:00:00.000+05:30", IsoDateUtils.format(FORMAT.TIME, 23400000L, TimeZone.getTimeZone("Asia/Kolkata")));
+		assertEquals("-123", IsoDateUtils.format(FORMAT.UTC_MILLISEC, -123L, utc));
+	}
+
+	@Test
+	void testParseVariants() {
+		TimeZone utc = TimeZone.getTimeZone("UTC");
+		long expected = 1293840000123L; // 2011-01-01T00:00:00.123Z
+		assertEquals(expected, IsoDateUtils.parse(FORMAT.DATE_TIME, "2011-01-01T00:00:00.123Z", utc));
+		assertEquals(expected, IsoDateUtils.parse(FORMAT.DATE_TIME, "2011-01-01T00:00:00.123456789Z", utc));
+		assertEquals(expected - 23, IsoDateUtils.parse(FORMAT.DATE_TIME, "2011-01-01T00:00:00.1Z", utc));
+		assertEquals(expected - 123, IsoDateUtils.parse(FORMAT.DATE_TIME, "2011-01-01T00:00:00Z", utc));
+		assertEquals(expected, IsoDateUtils.parse(FORMAT.DATE_TIME, "2010-12-31T16:00:00.123-08:00", utc));
+		assertEquals(expected, IsoDateUtils.parse(FORMAT.DATE_TIME, "2010-12-31T16:00:00.123-0800", utc));
+		assertEquals(expected, IsoDateUtils.parse(FORMAT.DATE_TIME, "2011-01-01T05:30:00.123+05:30", utc));
+		assertEquals(expected, IsoDateUtils.parse(FORMAT.DATE_TIME, new StringBuilder("2011-01-01T02:00:00.123+02"), utc));
+		assertEquals(123L, IsoDateUtils.parse(FORMAT.UTC_MILLISEC, "123", utc));
+	}
+
+	@Test
+	void testParseInvalid() {
+		String[] invalid = { "", "2011-13-01T00:00:00.000Z", "2011-02-29T00:00:00.000Z", "2011-01-01T24:00:00.000Z",
+				"2011-01-01T00:00:00.000", "2011-01-01T00:00:00.000Zx", "2011-01-01 00:00:00.000Z", "11-01-01T00:00:00.000Z",
+				"2011-01-01T00:00:00.Z", "2011-1-01T00:00:00.000Z" };
+		for (String text : invalid) {
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+				IsoDateUtils.parse(FORMAT.DATE_TIME, text);
+			});
+			assertEquals("Invalid format: \"" + text + "\"", e.getMessage());
+		}
+		assertThrows(IllegalArgumentException.class, () -> {
+			IsoDateUtils.parse(FORMAT.DATE, "2011-01-01T00:00:00.000Z");
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			IsoDateUtils.parse(FORMAT.UTC_MILLISEC, "one");
+		});
+	}
+
+	@Test
+	void testNotDateFormat() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			IsoDateUtils.format(FORMAT.URI, 0L);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			IsoDateUtils.parse(null, "0");
+		});
+	}
+}
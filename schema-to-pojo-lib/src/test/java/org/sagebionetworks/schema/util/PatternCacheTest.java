@@ -0,0 +1,76 @@
+package org.sagebionetworks.schema.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PatternCacheTest {
+
+	PatternCache cache;
+
+	@BeforeEach
+	void before() {
+		cache = new PatternCache(2);
+	}
+
+	@Test
+	void testGetPatternCached() {
+		Pattern first = cache.getPattern("[a-z]+");
+		assertSame(first, cache.getPattern("[a-z]+"));
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	void testMatches() {
+		assertTrue(cache.matches("[a-z]+", "abc"));
+		// the whole input must match
+		assertFalse(cache.matches("[a-z]+", "abc1"));
+	}
+
+	@Test
+	void testBounded() {
+		cache.getPattern("a");
+		cache.getPattern("b");
+		cache.getPattern("c");
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(3, cache.getMissCount());
+	}
+
+	@Test
+	void testInvalidNotCached() {
+		assertThrows(PatternSyntaxException.class, () -> {
+			cache.getPattern("[");
+		});
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void testNullRegex() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			cache.getPattern(null);
+		});
+	}
+
+	@Test
+	void testClear() {
+		cache.getPattern("a");
+		cache.getPattern("a");
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+	}
+
+	@Test
+	void testShared() {
+		assertSame(PatternCache.getShared(), PatternCache.getShared());
+		assertEquals(PatternCache.DEFAULT_MAXIMUM_SIZE, PatternCache.getShared().getMaximumSize());
+	}
+}
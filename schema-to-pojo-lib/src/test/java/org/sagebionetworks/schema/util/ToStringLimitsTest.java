@@ -0,0 +1,121 @@
+package org.sagebionetworks.schema.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ToStringLimitsTest {
+
+	ToStringLimits limits;
+
+	@BeforeEach
+	void before() {
+		limits = new ToStringLimits(2, 5, 1);
+	}
+
+	/**
+	 * A nested object that describes itself through the limits.
+	 */
+	static class Node implements BoundedToString {
+
+		Object value;
+
+		Node(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		public StringBuilder toString(StringBuilder builder) {
+			return toString(builder, 0);
+		}
+
+		@Override
+		public StringBuilder toString(StringBuilder builder, int depth) {
+			builder.append("Node [value=");
+			return new ToStringLimits(2, 5, 1).append(builder, value, depth).append("]");
+		}
+	}
+
+	String append(Object value, int depth) {
+		return limits.append(new StringBuilder(), value, depth).toString();
+	}
+
+	@Test
+	void testNegativeLimits() {
+		assertThrows(IllegalArgumentException.class, () -> new ToStringLimits(-1, 0, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ToStringLimits(0, -1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ToStringLimits(0, 0, -1));
+	}
+
+	@Test
+	void testNull() {
+		assertEquals("null", append(null, 0));
+	}
+
+	@Test
+	void testShortString() {
+		assertEquals("abcde", append("abcde", 0));
+	}
+
+	@Test
+	void testLongString() {
+		assertEquals("abcde...(7 chars)", append("abcdefg", 0));
+	}
+
+	@Test
+	void testOtherValue() {
+		assertEquals("12345...(6 chars)", append(123456L, 0));
+		assertEquals("true", append(Boolean.TRUE, 0));
+	}
+
+	@Test
+	void testCollection() {
+		assertEquals("[]", append(Collections.emptyList(), 0));
+		assertEquals("[a, b]", append(Arrays.asList("a", "b"), 0));
+		assertEquals("[a, b, ...2 more]", append(Arrays.asList("a", "b", "c", "d"), 0));
+	}
+
+	@Test
+	void testCollectionAtMaxDepth() {
+		assertEquals("[...3 elements]", append(Arrays.asList("a", "b", "c"), 1));
+		assertEquals("[]", append(Collections.emptyList(), 1));
+	}
+
+	@Test
+	void testMap() {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("a", 1L);
+		map.put("b", "abcdefg");
+		assertEquals("{a=1, b=abcde...(7 chars)}", append(map, 0));
+		map.put("c", 3L);
+		assertEquals("{a=1, b=abcde...(7 chars), ...1 more}", append(map, 0));
+		assertEquals("{...3 entries}", append(map, 1));
+	}
+
+	@Test
+	void testZeroElements() {
+		limits = new ToStringLimits(0, 5, 1);
+		assertEquals("[...2 more]", append(Arrays.asList("a", "b"), 0));
+	}
+
+	@Test
+	void testNested() {
+		assertEquals("Node [value=Node [value=...]]", new Node(new Node(new Node("a"))).toString(new StringBuilder()).toString());
+	}
+
+	@Test
+	void testNestedAtMaxDepth() {
+		assertEquals("...", append(new Node("a"), 1));
+	}
+
+	@Test
+	void testNestedInCollection() {
+		assertEquals("[...]", append(Arrays.asList(new Node("a")), 0));
+	}
+}
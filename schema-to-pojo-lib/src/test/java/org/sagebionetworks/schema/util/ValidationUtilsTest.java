@@ -0,0 +1,41 @@
+package org.sagebionetworks.schema.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ValidationUtilsTest {
+
+	@Test
+	void testHasUniqueItems() {
+		assertTrue(ValidationUtils.hasUniqueItems(Collections.emptyList()));
+		assertTrue(ValidationUtils.hasUniqueItems(Arrays.asList("a", "b", null)));
+		assertFalse(ValidationUtils.hasUniqueItems(Arrays.asList("a", "b", "a")));
+		assertFalse(ValidationUtils.hasUniqueItems(Arrays.asList(null, "b", null)));
+	}
+
+	@Test
+	void testHasUniqueItemsLarge() {
+		List<Long> list = new ArrayList<Long>();
+		for (long i = 0; i < ValidationUtils.PAIRWISE_UNIQUE_LIMIT * 2; i++) {
+			list.add(i);
+		}
+		assertTrue(ValidationUtils.hasUniqueItems(list));
+		list.add(3L);
+		assertFalse(ValidationUtils.hasUniqueItems(list));
+	}
+
+	@Test
+	void testIsDivisibleBy() {
+		assertTrue(ValidationUtils.isDivisibleBy(9.0, 3.0));
+		assertTrue(ValidationUtils.isDivisibleBy(0.3, 0.1));
+		assertTrue(ValidationUtils.isDivisibleBy(-4.5, 1.5));
+		assertFalse(ValidationUtils.isDivisibleBy(10.0, 3.0));
+		assertFalse(ValidationUtils.isDivisibleBy(0.35, 0.1));
+	}
+}
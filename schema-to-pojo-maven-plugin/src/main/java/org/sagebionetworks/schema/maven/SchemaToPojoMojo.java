@@ -13,6 +13,7 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.sagebionetworks.schema.generator.SchemaToPojo;
 import org.sagebionetworks.schema.generator.handler.schema03.HandlerFactoryImpl03;
+import org.sagebionetworks.schema.util.ToStringLimits;
 
 /**
  * @goal generate
@@ -58,6 +59,126 @@ public class SchemaToPojoMojo extends AbstractMojo {
     * @since 0.1.13
     */
     private String createRegister;
+
+    /**
+     * When true, the generated classes will also implement StreamingJSONEntity
+     * so they can be read from a JsonTokenReader and written to a
+     * JsonTokenWriter without an intermediate JSONObjectAdapter.
+     * 
+     * @parameter expression="${schema-to-pojo.streamingMarshaling}" default-value="false"
+     * @since 0.6.0
+     */
+    private boolean streamingMarshaling;
+
+    /**
+     * When true, boolean, number and integer properties are stored in
+     * primitive fields with a presence bit set instead of boxed fields. The
+     * getters and setters of the generated classes do not change.
+     * 
+     * @parameter expression="${schema-to-pojo.primitiveFields}" default-value="false"
+     * @since 0.6.0
+     */
+    private boolean primitiveFields;
+
+    /**
+     * When true, the generated classes get a validate() method for the
+     * pattern, minLength, maxLength, minimum, maximum, minItems, maxItems,
+     * uniqueItems and divisibleBy constraints, and each object is validated
+     * as it is read from JSON.
+     * 
+     * @parameter expression="${schema-to-pojo.runtimeValidation}" default-value="false"
+     * @since 0.6.0
+     */
+    private boolean runtimeValidation;
+
+    /**
+     * When true, initializeFromJSONObject() and writeToJSONObject() of the
+     * generated classes record the count, latency and failures of each call
+     * with MarshalingMetrics. Recording stays off until it is enabled at
+     * runtime. Not supported by GWT.
+     * 
+     * @parameter expression="${schema-to-pojo.marshalingMetrics}" default-value="false"
+     * @since 0.6.0
+     */
+    private boolean marshalingMetrics;
+
+    /**
+     * When true, the generated classes have no public setters. New instances
+     * are created with the nested Builder of each class, the getters of
+     * collections return unmodifiable views, and the hash code is computed
+     * once and cached.
+     * 
+     * @parameter expression="${schema-to-pojo.immutable}" default-value="false"
+     * @since 0.6.0
+     */
+    private boolean immutable;
+
+    /**
+     * When true, toString() of the generated classes is bounded by
+     * toStringMaxElements, toStringMaxStringLength and toStringMaxDepth, and
+     * nested objects are appended to the same StringBuilder.
+     * 
+     * @parameter expression="${schema-to-pojo.boundedToString}" default-value="false"
+     * @since 0.6.0
+     */
+    private boolean boundedToString;
+
+    /**
+     * The number of elements of each collection or map described by a
+     * bounded toString().
+     * 
+     * @parameter expression="${schema-to-pojo.toStringMaxElements}" default-value="10"
+     * @since 0.6.0
+     */
+    private int toStringMaxElements;
+
+    /**
+     * The number of characters of each string described by a bounded
+     * toString().
+     * 
+     * @parameter expression="${schema-to-pojo.toStringMaxStringLength}" default-value="200"
+     * @since 0.6.0
+     */
+    private int toStringMaxStringLength;
+
+    /**
+     * The number of levels of nested objects and collections described by a
+     * bounded toString().
+     * 
+     * @parameter expression="${schema-to-pojo.toStringMaxDepth}" default-value="3"
+     * @since 0.6.0
+     */
+    private int toStringMaxDepth;
+
+    /**
+     * When true, the generated classes get a deepCopy() method that copies
+     * each property with a copy constructor instead of a JSON round trip.
+     * 
+     * @parameter expression="${schema-to-pojo.deepCopy}" default-value="false"
+     * @since 0.6.0
+     */
+    private boolean deepCopy;
+
+    /**
+     * The number of threads used to read and parse the schema files. When
+     * zero or less, one thread per available processor is used. The order of
+     * the generated classes does not depend on this value.
+     * 
+     * @parameter expression="${schema-to-pojo.loadThreads}" default-value="0"
+     * @since 0.6.0
+     */
+    private int loadThreads;
+
+    /**
+     * When true, a fingerprint of each schema and of everything it references
+     * is kept in the output directory, and only the classes of the schemas
+     * that changed since the last build are generated. The files of deleted
+     * schemas are removed.
+     * 
+     * @parameter expression="${schema-to-pojo.incremental}" default-value="false"
+     * @since 0.6.0
+     */
+    private boolean incremental;
     
     
     /**
@@ -75,9 +196,19 @@ public class SchemaToPojoMojo extends AbstractMojo {
 			 project.addCompileSourceRoot(outputDirectory.getPath());
 			 // Hard code the factory for now
 			 HandlerFactoryImpl03 factory = new HandlerFactoryImpl03();
+			 factory.setStreamingMarshaling(streamingMarshaling);
+			 factory.setPrimitiveFields(primitiveFields);
+			 factory.setRuntimeValidation(runtimeValidation);
+			 factory.setMarshalingMetrics(marshalingMetrics);
+			 factory.setImmutable(immutable);
+			 if (boundedToString) {
+				 factory.setToStringLimits(new ToStringLimits(toStringMaxElements, toStringMaxStringLength, toStringMaxDepth));
+			 }
+			 factory.setDeepCopy(deepCopy);
 			 // Generate the classes from their schemas.
 			StringBuilder tmplog = new StringBuilder();
-			SchemaToPojo.generatePojos(sourceDirectory, outputDirectory,createRegister, factory, tmplog);
+			int threads = loadThreads > 0 ? loadThreads : SchemaToPojo.DEFAULT_LOAD_THREADS;
+			SchemaToPojo.generatePojos(sourceDirectory, outputDirectory,createRegister, factory, tmplog, threads, incremental);
 			if (tmplog.length() > 0) {
 				getLog().info(tmplog.toString());
 			}
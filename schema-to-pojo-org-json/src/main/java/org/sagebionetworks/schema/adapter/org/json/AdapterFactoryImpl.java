@@ -1,10 +1,23 @@
 package org.sagebionetworks.schema.adapter.org.json;
 
-import org.sagebionetworks.schema.adapter.AdapterFactory;
+import java.io.ByteArrayInputStream;
+import java.io.CharArrayReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
 import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
 import org.sagebionetworks.schema.adapter.JSONMapAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.Utf8AdapterFactory;
 
 /**
  * The json.org implementation of AdapterFactory.
@@ -12,7 +25,7 @@ import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
  * @author John
  *
  */
-public class AdapterFactoryImpl implements AdapterFactory {
+public class AdapterFactoryImpl implements Utf8AdapterFactory {
 
 	@Override
 	public JSONObjectAdapter createNew() {
@@ -24,6 +37,31 @@ public class AdapterFactoryImpl implements AdapterFactory {
 		return new JSONObjectAdapterImpl(json);
 	}
 
+	@Override
+	public JSONObjectAdapter createNew(byte[] utf8, int offset, int length) throws JSONObjectAdapterException {
+		return createNew(createReader(utf8, offset, length));
+	}
+
+	@Override
+	public JSONObjectAdapter createNew(ByteBuffer utf8) throws JSONObjectAdapterException {
+		return createNew(createReader(utf8));
+	}
+
+	@Override
+	public JSONObjectAdapter createNew(InputStream utf8) throws JSONObjectAdapterException {
+		return createNew(createReader(utf8));
+	}
+
+	@Override
+	public JSONObjectAdapter createNew(Reader json) throws JSONObjectAdapterException {
+		if(json == null) throw new IllegalArgumentException("Reader cannot be null");
+		try {
+			return new JSONObjectAdapterImpl(new JSONObject(new JSONTokener(json)));
+		} catch (JSONException e) {
+			throw new JSONObjectAdapterException(e);
+		}
+	}
+
 	@Override
 	public JSONArrayAdapter createNewArray() {
 		return new JSONArrayAdapterImpl();
@@ -34,6 +72,26 @@ public class AdapterFactoryImpl implements AdapterFactory {
 		return new JSONArrayAdapterImpl(json);
 	}
 
+	@Override
+	public JSONArrayAdapter createNewArray(byte[] utf8, int offset, int length) throws JSONObjectAdapterException {
+		return createNewArray(createReader(utf8, offset, length));
+	}
+
+	@Override
+	public JSONArrayAdapter createNewArray(ByteBuffer utf8) throws JSONObjectAdapterException {
+		return createNewArray(createReader(utf8));
+	}
+
+	@Override
+	public JSONArrayAdapter createNewArray(InputStream utf8) throws JSONObjectAdapterException {
+		return createNewArray(createReader(utf8));
+	}
+
+	@Override
+	public JSONArrayAdapter createNewArray(Reader json) throws JSONObjectAdapterException {
+		return new JSONArrayAdapterImpl(parseArray(json));
+	}
+
 	@Override
 	public JSONMapAdapter createNewMap() {
 		return new JSONMapAdapterImpl();
@@ -43,4 +101,59 @@ public class AdapterFactoryImpl implements AdapterFactory {
 	public JSONMapAdapter createNewMap(String json) throws JSONObjectAdapterException {
 		return new JSONMapAdapterImpl(json);
 	}
+
+	@Override
+	public JSONMapAdapter createNewMap(byte[] utf8, int offset, int length) throws JSONObjectAdapterException {
+		return createNewMap(createReader(utf8, offset, length));
+	}
+
+	@Override
+	public JSONMapAdapter createNewMap(ByteBuffer utf8) throws JSONObjectAdapterException {
+		return createNewMap(createReader(utf8));
+	}
+
+	@Override
+	public JSONMapAdapter createNewMap(InputStream utf8) throws JSONObjectAdapterException {
+		return createNewMap(createReader(utf8));
+	}
+
+	@Override
+	public JSONMapAdapter createNewMap(Reader json) throws JSONObjectAdapterException {
+		return new JSONMapAdapterImpl(parseArray(json));
+	}
+
+	private static JSONArray parseArray(Reader json) throws JSONObjectAdapterException {
+		if(json == null) throw new IllegalArgumentException("Reader cannot be null");
+		try {
+			return new JSONArray(new JSONTokener(json));
+		} catch (JSONException e) {
+			throw new JSONObjectAdapterException(e);
+		}
+	}
+
+	/**
+	 * The bytes are decoded as the tokener reads them.
+	 */
+	static Reader createReader(byte[] utf8, int offset, int length) {
+		if(utf8 == null) throw new IllegalArgumentException("JSON cannot be null");
+		if (offset < 0 || length < 0 || offset + length > utf8.length) {
+			throw new IndexOutOfBoundsException("offset: " + offset + " length: " + length + " array length: " + utf8.length);
+		}
+		return new InputStreamReader(new ByteArrayInputStream(utf8, offset, length), StandardCharsets.UTF_8);
+	}
+
+	static Reader createReader(ByteBuffer utf8) {
+		if(utf8 == null) throw new IllegalArgumentException("Buffer cannot be null");
+		if(utf8.hasArray()){
+			return createReader(utf8.array(), utf8.arrayOffset() + utf8.position(), utf8.remaining());
+		}
+		// A direct buffer is decoded in one pass.
+		CharBuffer chars = StandardCharsets.UTF_8.decode(utf8.duplicate());
+		return new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+	}
+
+	static Reader createReader(InputStream utf8) {
+		if(utf8 == null) throw new IllegalArgumentException("InputStream cannot be null");
+		return new InputStreamReader(utf8, StandardCharsets.UTF_8);
+	}
 }
@@ -1,17 +1,42 @@
 package org.sagebionetworks.schema.adapter.org.json;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 import org.json.JSONObject;
 import org.sagebionetworks.schema.ObjectSchema;
 import org.sagebionetworks.schema.adapter.JSONEntity;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenReader;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenWriter;
+import org.sagebionetworks.schema.adapter.streaming.StreamingJSONEntity;
+import org.sagebionetworks.schema.metrics.MarshalingMetrics;
+import org.sagebionetworks.schema.metrics.MarshalingMetrics.Operation;
 
 /**
  * Helper for generating JSONEntity using adapters.
+ * <p>
+ * When {@link MarshalingMetrics} are enabled each call is recorded as a PARSE
+ * or SERIALIZE of the entity class.
  * @author jmhill
  *
  */
 public class EntityFactory {
+
+	private static final AdapterFactoryImpl ADAPTER_FACTORY = new AdapterFactoryImpl();
 	
 	/**
 	 * Create a JSON String representing the passed entity.
@@ -21,8 +46,14 @@ public class EntityFactory {
 	 */
 	public static String createJSONStringForEntity(JSONEntity entity) throws JSONObjectAdapterException{
 		if(entity == null) throw new IllegalArgumentException("Entity cannot be null");
-		JSONObjectAdapterImpl adapter = writeEntityToAdapter(entity);
-		return adapter.toJSONString();
+		long start = MarshalingMetrics.start();
+		String json = null;
+		try {
+			json = writeEntityToAdapter(entity).toJSONString();
+			return json;
+		} finally {
+			MarshalingMetrics.record(entity.getClass(), Operation.SERIALIZE, start, json != null);
+		}
 	}
 	
 	/**
@@ -33,8 +64,67 @@ public class EntityFactory {
 	 */
 	public static JSONObject createJSONObjectForEntity(JSONEntity entity) throws JSONObjectAdapterException{
 		if(entity == null) throw new IllegalArgumentException("Entity cannot be null");
-		JSONObjectAdapterImpl adapter = writeEntityToAdapter(entity);
-		return adapter.wrapped;
+		long start = MarshalingMetrics.start();
+		boolean success = false;
+		try {
+			JSONObject json = writeEntityToAdapter(entity).wrapped;
+			success = true;
+			return json;
+		} finally {
+			MarshalingMetrics.record(entity.getClass(), Operation.SERIALIZE, start, success);
+		}
+	}
+
+	/**
+	 * Write the passed entity to a stream as UTF-8 encoded JSON. The JSON is
+	 * encoded as it is written through small fixed size buffers. For a
+	 * {@link StreamingJSONEntity} neither a JSONObject nor a String of the
+	 * whole entity is created. Any other entity is first written to an
+	 * in-memory adapter, see {@link JsonTokenWriter#value(JSONEntity)}. The
+	 * stream is flushed but not closed.
+	 * @param entity
+	 * @param utf8
+	 * @throws JSONObjectAdapterException
+	 */
+	public static void writeEntity(JSONEntity entity, OutputStream utf8) throws JSONObjectAdapterException{
+		if(utf8 == null) throw new IllegalArgumentException("Output stream cannot be null");
+		writeEntity(entity, new OutputStreamWriter(utf8, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Write the passed entity to a Writer as JSON. The writer is flushed but
+	 * not closed.
+	 * @param entity
+	 * @param writer
+	 * @throws JSONObjectAdapterException
+	 */
+	public static void writeEntity(JSONEntity entity, Writer writer) throws JSONObjectAdapterException{
+		writeEntity(entity, (Appendable) writer);
+	}
+
+	/**
+	 * Write the passed entity to an Appendable as JSON. At most one small
+	 * buffer of characters is held before it is passed on. Only a
+	 * {@link StreamingJSONEntity} is written without first building the whole
+	 * entity in memory. If the Appendable is a Writer it is flushed but not
+	 * closed.
+	 * @param entity
+	 * @param out
+	 * @throws JSONObjectAdapterException
+	 */
+	public static void writeEntity(JSONEntity entity, Appendable out) throws JSONObjectAdapterException{
+		if(entity == null) throw new IllegalArgumentException("Entity cannot be null");
+		if(out == null) throw new IllegalArgumentException("Appendable cannot be null");
+		long start = MarshalingMetrics.start();
+		boolean success = false;
+		try {
+			JsonTokenWriter writer = new JsonTokenWriter(out);
+			writer.value(entity);
+			writer.flush();
+			success = true;
+		} finally {
+			MarshalingMetrics.record(entity.getClass(), Operation.SERIALIZE, start, success);
+		}
 	}
 
 	/**
@@ -61,12 +151,179 @@ public class EntityFactory {
 	public static <T extends JSONEntity> T createEntityFromJSONString(String jsonString, Class<? extends T> clazz) throws JSONObjectAdapterException{
 		if(jsonString == null) throw new IllegalArgumentException("JSON string cannot be null");
 		if(clazz == null) throw new IllegalArgumentException("JSONEntity class cannot be null");
-		// First create an adapter with the datat
-		JSONObjectAdapter adapter = new JSONObjectAdapterImpl(jsonString);
-		return createEntityFromAdapter(clazz, adapter); 
+		long start = MarshalingMetrics.start();
+		boolean success = false;
+		try {
+			// First create an adapter with the datat
+			JSONObjectAdapter adapter = new JSONObjectAdapterImpl(jsonString);
+			T entity = createEntityFromAdapter(clazz, adapter);
+			success = true;
+			return entity;
+		} finally {
+			MarshalingMetrics.record(clazz, Operation.PARSE, start, success);
+		}
 	}
 	
 	
+	/**
+	 * Create an entity from a slice of UTF-8 encoded JSON bytes, without
+	 * first decoding them into a String.
+	 * @param <T>
+	 * @param utf8
+	 * @param offset
+	 * @param length
+	 * @param clazz
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public static <T extends JSONEntity> T createEntityFromJSONBytes(byte[] utf8, int offset, int length, Class<? extends T> clazz) throws JSONObjectAdapterException{
+		if(utf8 == null) throw new IllegalArgumentException("JSON bytes cannot be null");
+		if(clazz == null) throw new IllegalArgumentException("JSONEntity class cannot be null");
+		long start = MarshalingMetrics.start();
+		boolean success = false;
+		try {
+			T entity = createEntityFromAdapter(clazz, ADAPTER_FACTORY.createNew(utf8, offset, length));
+			success = true;
+			return entity;
+		} finally {
+			MarshalingMetrics.record(clazz, Operation.PARSE, start, length, success);
+		}
+	}
+
+	/**
+	 * Create an entity from the remaining UTF-8 encoded JSON bytes of a
+	 * buffer. The position of the buffer is not changed.
+	 * @param <T>
+	 * @param utf8
+	 * @param clazz
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public static <T extends JSONEntity> T createEntityFromJSONBuffer(ByteBuffer utf8, Class<? extends T> clazz) throws JSONObjectAdapterException{
+		if(utf8 == null) throw new IllegalArgumentException("JSON buffer cannot be null");
+		if(clazz == null) throw new IllegalArgumentException("JSONEntity class cannot be null");
+		long start = MarshalingMetrics.start();
+		boolean success = false;
+		try {
+			T entity = createEntityFromAdapter(clazz, ADAPTER_FACTORY.createNew(utf8));
+			success = true;
+			return entity;
+		} finally {
+			MarshalingMetrics.record(clazz, Operation.PARSE, start, utf8.remaining(), success);
+		}
+	}
+
+	/**
+	 * Create an entity from a stream of UTF-8 encoded JSON. The stream is not
+	 * closed.
+	 * @param <T>
+	 * @param utf8
+	 * @param clazz
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public static <T extends JSONEntity> T createEntityFromJSONStream(InputStream utf8, Class<? extends T> clazz) throws JSONObjectAdapterException{
+		if(utf8 == null) throw new IllegalArgumentException("JSON stream cannot be null");
+		if(clazz == null) throw new IllegalArgumentException("JSONEntity class cannot be null");
+		long start = MarshalingMetrics.start();
+		boolean success = false;
+		try {
+			T entity = createEntityFromAdapter(clazz, ADAPTER_FACTORY.createNew(utf8));
+			success = true;
+			return entity;
+		} finally {
+			MarshalingMetrics.record(clazz, Operation.PARSE, start, success);
+		}
+	}
+
+	/**
+	 * Create an entity from a stream of JSON characters. The reader is not
+	 * closed.
+	 * @param <T>
+	 * @param json
+	 * @param clazz
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public static <T extends JSONEntity> T createEntityFromJSONReader(Reader json, Class<? extends T> clazz) throws JSONObjectAdapterException{
+		if(json == null) throw new IllegalArgumentException("JSON reader cannot be null");
+		if(clazz == null) throw new IllegalArgumentException("JSONEntity class cannot be null");
+		long start = MarshalingMetrics.start();
+		boolean success = false;
+		try {
+			T entity = createEntityFromAdapter(clazz, ADAPTER_FACTORY.createNew(json));
+			success = true;
+			return entity;
+		} finally {
+			MarshalingMetrics.record(clazz, Operation.PARSE, start, success);
+		}
+	}
+
+	/**
+	 * Read the entities of a top-level JSON array, or of newline delimited
+	 * JSON, from a stream of UTF-8 encoded JSON one element at a time. Only a
+	 * single element is held in memory at a time. Interfaces are resolved
+	 * with the concreteType of each element. Closing the iterator closes the
+	 * stream.
+	 * @param <T>
+	 * @param utf8
+	 * @param clazz
+	 * @return
+	 */
+	public static <T extends JSONEntity> EntityIterator<T> readEntities(InputStream utf8, Class<? extends T> clazz){
+		if(utf8 == null) throw new IllegalArgumentException("JSON stream cannot be null");
+		return readEntities(new InputStreamReader(utf8, StandardCharsets.UTF_8), clazz);
+	}
+
+	/**
+	 * Read the entities of a top-level JSON array, or of newline delimited
+	 * JSON, from a stream of JSON characters one element at a time. Closing
+	 * the iterator closes the reader.
+	 * @param <T>
+	 * @param json
+	 * @param clazz
+	 * @return
+	 */
+	public static <T extends JSONEntity> EntityIterator<T> readEntities(Reader json, Class<? extends T> clazz){
+		if(json == null) throw new IllegalArgumentException("JSON reader cannot be null");
+		if(clazz == null) throw new IllegalArgumentException("JSONEntity class cannot be null");
+		return new EntityIterator<T>(new JsonTokenReader(json), clazz);
+	}
+
+	/**
+	 * The entities of {@link #readEntities(InputStream, Class)} as a sequential
+	 * Stream. Closing the Stream closes the input stream.
+	 * @param <T>
+	 * @param utf8
+	 * @param clazz
+	 * @return
+	 */
+	public static <T extends JSONEntity> Stream<T> streamEntities(InputStream utf8, Class<? extends T> clazz){
+		return toStream(readEntities(utf8, clazz));
+	}
+
+	/**
+	 * The entities of {@link #readEntities(Reader, Class)} as a sequential
+	 * Stream. Closing the Stream closes the reader.
+	 * @param <T>
+	 * @param json
+	 * @param clazz
+	 * @return
+	 */
+	public static <T extends JSONEntity> Stream<T> streamEntities(Reader json, Class<? extends T> clazz){
+		return toStream(readEntities(json, clazz));
+	}
+
+	private static <T extends JSONEntity> Stream<T> toStream(final EntityIterator<T> iterator){
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false).onClose(() -> {
+			try {
+				iterator.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
 	/**
 	 * Create an entity from a JSON String.
 	 * @param <T>
@@ -78,20 +335,31 @@ public class EntityFactory {
 	public static <T extends JSONEntity> T createEntityFromJSONObject(JSONObject jsonEntity, Class<? extends T> clazz) throws JSONObjectAdapterException{
 		if(jsonEntity == null) throw new IllegalArgumentException("JSONObject cannot be null");
 		if(clazz == null) throw new IllegalArgumentException("JSONEntity class cannot be null");
-		// First create an adapter with the datat
-		JSONObjectAdapter adapter = new JSONObjectAdapterImpl(jsonEntity);
-		return createEntityFromAdapter(clazz, adapter); 
+		long start = MarshalingMetrics.start();
+		boolean success = false;
+		try {
+			// First create an adapter with the datat
+			JSONObjectAdapter adapter = new JSONObjectAdapterImpl(jsonEntity);
+			T entity = createEntityFromAdapter(clazz, adapter);
+			success = true;
+			return entity;
+		} finally {
+			// The object is already parsed so there is no input length.
+			MarshalingMetrics.record(clazz, Operation.PARSE, start, success);
+		}
 	}
 
 	/**
-	 * Given an adapter and class, create an instance of the entity.
+	 * Given an adapter and class, create an instance of the entity. The
+	 * constructors are cached by the {@link EntityInstantiator} so no
+	 * reflection is used after the first instance of each class.
 	 * @param <T>
 	 * @param clazz
 	 * @param adapter
 	 * @return
 	 * @throws JSONObjectAdapterException
 	 */
-	private static <T extends JSONEntity> T createEntityFromAdapter(Class<? extends T> clazz, JSONObjectAdapter adapter) throws JSONObjectAdapterException {
+	static <T extends JSONEntity> T createEntityFromAdapter(Class<? extends T> clazz, JSONObjectAdapter adapter) throws JSONObjectAdapterException {
 		// Now create a new instance of the class
 		try {
 			T newInstance = null;
@@ -99,9 +367,9 @@ public class EntityFactory {
 				// we need to determine the concrete type
 				String concreteType = adapter.getString(ObjectSchema.CONCRETE_TYPE);
 				// Use the concrete type to instanciate the object.
-				newInstance = (T)Class.forName(concreteType).newInstance();
+				newInstance = EntityInstantiator.newInstance(clazz, concreteType);
 			}else{
-				newInstance = clazz.newInstance();
+				newInstance = EntityInstantiator.newInstance(clazz);
 			}
 			newInstance.initializeFromJSONObject(adapter);
 			return newInstance;
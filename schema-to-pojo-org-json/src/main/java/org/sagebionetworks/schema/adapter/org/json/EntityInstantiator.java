@@ -0,0 +1,110 @@
+package org.sagebionetworks.schema.adapter.org.json;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.sagebionetworks.schema.adapter.JSONEntity;
+
+/**
+ * Creates new instances of JSONEntity classes for the EntityFactory.
+ * <p>
+ * The no-args constructor of each class is looked up once and cached in a
+ * {@link ClassValue}, and the concrete types of each interface are resolved
+ * once per name, so creating an entity does not go through
+ * Class.forName() or Class.newInstance() (and their class loader locks and
+ * access checks) on every call.
+ *
+ */
+final class EntityInstantiator {
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class);
+	private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class);
+
+	/**
+	 * The no-args constructor of each concrete class, typed as ()Object.
+	 */
+	private static final ClassValue<MethodHandle> CONSTRUCTORS = new ClassValue<MethodHandle>() {
+		@Override
+		protected MethodHandle computeValue(Class<?> type) {
+			try {
+				return MethodHandles.publicLookup().findConstructor(type, CONSTRUCTOR_TYPE).asType(FACTORY_TYPE);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new IllegalArgumentException("Class: " + type.getName() + " does not have a public no-args constructor", e);
+			}
+		}
+	};
+
+	/**
+	 * For each interface, the constructor of each concrete type name seen so
+	 * far.
+	 */
+	private static final ClassValue<ConcurrentMap<String, MethodHandle>> CONCRETE_TYPES = new ClassValue<ConcurrentMap<String, MethodHandle>>() {
+		@Override
+		protected ConcurrentMap<String, MethodHandle> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<String, MethodHandle>();
+		}
+	};
+
+	private EntityInstantiator() {
+	}
+
+	/**
+	 * Create a new instance of a concrete class.
+	 *
+	 * @param clazz
+	 * @return
+	 */
+	static <T extends JSONEntity> T newInstance(Class<? extends T> clazz) {
+		return clazz.cast(invoke(CONSTRUCTORS.get(clazz)));
+	}
+
+	/**
+	 * Create a new instance of the concrete type of an interface.
+	 *
+	 * @param interfaceClass
+	 * @param concreteType
+	 *            The full name of a class that implements the interface.
+	 * @return
+	 */
+	static <T extends JSONEntity> T newInstance(Class<? extends T> interfaceClass, String concreteType) {
+		if (concreteType == null) {
+			throw new IllegalArgumentException("Concrete type cannot be null for: " + interfaceClass.getName());
+		}
+		ConcurrentMap<String, MethodHandle> constructors = CONCRETE_TYPES.get(interfaceClass);
+		MethodHandle constructor = constructors.get(concreteType);
+		if (constructor == null) {
+			constructor = CONSTRUCTORS.get(resolveConcreteType(interfaceClass, concreteType));
+			constructors.putIfAbsent(concreteType, constructor);
+		}
+		return interfaceClass.cast(invoke(constructor));
+	}
+
+	/**
+	 * Load the concrete type with the class loader of the interface.
+	 */
+	private static Class<?> resolveConcreteType(Class<?> interfaceClass, String concreteType) {
+		Class<?> concreteClass;
+		try {
+			concreteClass = Class.forName(concreteType, true, interfaceClass.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			throw new IllegalArgumentException("Unknown concrete type: " + concreteType, e);
+		}
+		if (!interfaceClass.isAssignableFrom(concreteClass)) {
+			throw new IllegalArgumentException("Concrete type: " + concreteType + " does not implement: " + interfaceClass.getName());
+		}
+		return concreteClass;
+	}
+
+	private static Object invoke(MethodHandle constructor) {
+		try {
+			return (Object) constructor.invokeExact();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
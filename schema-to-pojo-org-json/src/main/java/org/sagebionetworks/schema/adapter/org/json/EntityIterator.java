@@ -0,0 +1,118 @@
+package org.sagebionetworks.schema.adapter.org.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.sagebionetworks.schema.adapter.JSONEntity;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.streaming.JsonToken;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenReader;
+import org.sagebionetworks.schema.adapter.streaming.StreamingJSONEntity;
+
+/**
+ * Reads entities one at a time from either a top-level JSON array or newline
+ * delimited JSON (one object per line). The format is detected from the first
+ * token.
+ * <p>
+ * Only a small window of the text and the entity being read are held in
+ * memory, so the size of the input does not matter. Concrete classes generated
+ * with streamingMarshaling are read directly from the tokens. Interfaces, and
+ * entities that cannot read tokens, are read through an adapter of a single
+ * element so the concreteType of each element can be resolved.
+ * <p>
+ * A JSON null element is returned as null. Errors in the input are thrown
+ * from {@link #hasNext()} and {@link #next()} as an IllegalStateException
+ * caused by the JSONObjectAdapterException. Closing the iterator closes the
+ * underlying input.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @param <T>
+ */
+public final class EntityIterator<T extends JSONEntity> implements Iterator<T>, Closeable {
+
+	private final JsonTokenReader reader;
+	private final Class<? extends T> clazz;
+	private final boolean readTokens;
+	private boolean started;
+	private boolean inArray;
+	private boolean done;
+
+	EntityIterator(JsonTokenReader reader, Class<? extends T> clazz) {
+		if (reader == null) throw new IllegalArgumentException("Reader cannot be null");
+		if (clazz == null) throw new IllegalArgumentException("JSONEntity class cannot be null");
+		this.reader = reader;
+		this.clazz = clazz;
+		this.readTokens = !clazz.isInterface() && StreamingJSONEntity.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (done) {
+			return false;
+		}
+		try {
+			if (!started) {
+				started = true;
+				if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+					reader.beginArray();
+					inArray = true;
+				}
+			}
+			if (reader.hasNext()) {
+				return true;
+			}
+			if (inArray) {
+				reader.endArray();
+			}
+			done = true;
+			return false;
+		} catch (JSONObjectAdapterException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		try {
+			return readEntity();
+		} catch (JSONObjectAdapterException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private T readEntity() throws JSONObjectAdapterException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+		if (!readTokens) {
+			return EntityFactory.createEntityFromAdapter(clazz, reader.nextJSONObjectAdapter());
+		}
+		T entity = EntityInstantiator.newInstance(clazz);
+		try {
+			((StreamingJSONEntity) entity).readFrom(reader);
+		} catch (JSONObjectAdapterException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new JSONObjectAdapterException(e);
+		}
+		return entity;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void close() throws IOException {
+		done = true;
+		reader.close();
+	}
+}
@@ -1,6 +1,5 @@
 package org.sagebionetworks.schema.adapter.org.json;
 
-import java.io.UnsupportedEncodingException;
 import java.util.Date;
 
 import org.json.JSONArray;
@@ -10,7 +9,7 @@ import org.sagebionetworks.schema.FORMAT;
 import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
-import org.sagebionetworks.schema.binary.Base64;
+import org.sagebionetworks.schema.binary.Base64Codec;
 
 /**
  * An org.json.JSONObject Implementation of JSONObjectAdapter.
@@ -264,24 +263,12 @@ public class JSONArrayAdapterImpl extends AdapterFactoryImpl implements JSONArra
 	@Override
 	public JSONArrayAdapter put(int index, byte[] value)throws JSONObjectAdapterException {
 		// Base64 encode the byte array
-		try {
-			byte[] encoded = Base64.encodeBase64(value);
-			String stringValue = new String(encoded, "UTF-8");
-			return put(index, stringValue);
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
-
+		return put(index, Base64Codec.encodeToString(value));
 	}
 
 	@Override
 	public byte[] getBinary(int index) throws JSONObjectAdapterException {
-		try {
-			// Get the string value
-			String base64String = getString(index);
-			return Base64.decodeBase64(base64String.getBytes("UTF-8"));
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
+		// Get the string value
+		return Base64Codec.decode(getString(index));
 	}
 }
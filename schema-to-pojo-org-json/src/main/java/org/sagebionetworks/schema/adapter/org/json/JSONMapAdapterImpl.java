@@ -1,9 +1,10 @@
 package org.sagebionetworks.schema.adapter.org.json;
 
-import java.io.UnsupportedEncodingException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -13,18 +14,29 @@ import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
 import org.sagebionetworks.schema.adapter.JSONMapAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
-import org.sagebionetworks.schema.binary.Base64;
+import org.sagebionetworks.schema.binary.Base64Codec;
 
 /**
- * An org.json.JSONObject Implementation of JSONObjectAdapter.
+ * An org.json.JSONArray Implementation of JSONMapAdapter.
+ * <p>
+ * The {"key":...,"value":...} pairs are only held by the wrapped JSONArray.
+ * Reading the value of each key while iterating over {@link #keys()} uses the
+ * pair under the iterator so reading a whole map is a single pass. An index of
+ * the keys is only built the first time a key is looked up out of order.
  * 
  * @author John
  * 
  */
 public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAdapter {
 
+	private static final String KEY = "key";
+	private static final String VALUE = "value";
+
 	protected JSONArray wrapped;
-	private Map<Object, JSONObject> wrappedMap = new HashMap<Object, JSONObject>();
+	// the position of each key, built on the first out of order lookup
+	private Map<Object, Integer> keyIndex;
+	// the position of the pair last returned by a keys() iterator
+	private int cursor = -1;
 
 	public JSONMapAdapterImpl() {
 		wrapped = new JSONArray();
@@ -32,7 +44,7 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 
 	public JSONMapAdapterImpl(JSONArray array) throws JSONObjectAdapterException {
 		wrapped = array;
-		unwrap();
+		validate();
 	}
 
 	public JSONMapAdapterImpl(String jsonString) throws JSONObjectAdapterException {
@@ -41,25 +53,59 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
-		unwrap();
+		validate();
 	}
 
-	private void unwrap() throws JSONObjectAdapterException {
+	/**
+	 * Check that each element is a pair with a key without building an index.
+	 */
+	private void validate() throws JSONObjectAdapterException {
 		try {
 			for (int i = 0; i < wrapped.length(); i++) {
-				JSONObject jsonObject = wrapped.getJSONObject(i);
-				Object key = jsonObject.get("key");
-				wrappedMap.put(key, jsonObject);
+				wrapped.getJSONObject(i).get(KEY);
 			}
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
 	}
 
+	private Object keyAt(int position) {
+		return wrapped.optJSONObject(position).opt(KEY);
+	}
+
+	private static boolean same(Object key, Object other) {
+		return key == null ? other == null : key.equals(other);
+	}
+
+	/**
+	 * The position of the pair for the given key, or -1.
+	 */
+	private int positionOf(Object key) {
+		if (cursor >= 0 && cursor < wrapped.length() && same(key, keyAt(cursor))) {
+			return cursor;
+		}
+		if (keyIndex == null) {
+			keyIndex = new HashMap<Object, Integer>(wrapped.length() * 2);
+			for (int i = 0; i < wrapped.length(); i++) {
+				keyIndex.put(keyAt(i), i);
+			}
+		}
+		Integer position = keyIndex.get(key);
+		return position == null ? -1 : position;
+	}
+
+	private JSONObject entry(Object key) throws JSONObjectAdapterException {
+		int position = positionOf(key);
+		if (position < 0) {
+			throw new JSONObjectAdapterException("JSONMap[" + key + "] not found.");
+		}
+		return wrapped.optJSONObject(position);
+	}
+
 	@Override
 	public boolean getBoolean(Object key) throws JSONObjectAdapterException {
 		try {
-			return wrappedMap.get(key).getBoolean("value");
+			return entry(key).getBoolean(VALUE);
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
@@ -68,7 +114,7 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 	@Override
 	public double getDouble(Object key) throws JSONObjectAdapterException {
 		try {
-			return wrappedMap.get(key).getDouble("value");
+			return entry(key).getDouble(VALUE);
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
@@ -77,7 +123,7 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 	@Override
 	public int getInt(Object key) throws JSONObjectAdapterException {
 		try {
-			return wrappedMap.get(key).getInt("value");
+			return entry(key).getInt(VALUE);
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
@@ -86,7 +132,7 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 	@Override
 	public JSONArrayAdapter getJSONArray(Object key) throws JSONObjectAdapterException {
 		try {
-			return new JSONArrayAdapterImpl(wrappedMap.get(key).getJSONArray("value"));
+			return new JSONArrayAdapterImpl(entry(key).getJSONArray(VALUE));
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
@@ -95,7 +141,7 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 	@Override
 	public long getLong(Object key) throws JSONObjectAdapterException {
 		try {
-			return wrappedMap.get(key).getLong("value");
+			return entry(key).getLong(VALUE);
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
@@ -104,7 +150,7 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 	@Override
 	public String getString(Object key) throws JSONObjectAdapterException {
 		try {
-			return wrappedMap.get(key).getString("value");
+			return entry(key).getString(VALUE);
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
@@ -113,7 +159,7 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 	@Override
 	public Object get(Object key) throws JSONObjectAdapterException {
 		try {
-			Object result = wrappedMap.get(key).get("value");
+			Object result = entry(key).get(VALUE);
 			if (JSONObject.NULL == result)
 				return null;
 			return result;
@@ -124,7 +170,8 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 
 	@Override
 	public boolean isNull(Object key) {
-		return wrappedMap.get(key).isNull("value");
+		int position = positionOf(key);
+		return position < 0 || wrapped.optJSONObject(position).isNull(VALUE);
 	}
 
 	@Override
@@ -135,7 +182,7 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 	@Override
 	public JSONObjectAdapter getJSONObject(Object key) throws JSONObjectAdapterException {
 		try {
-			return new JSONObjectAdapterImpl(wrappedMap.get(key).getJSONObject("value"));
+			return new JSONObjectAdapterImpl(entry(key).getJSONObject(VALUE));
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
@@ -149,10 +196,12 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 	private void doPut(Object key, Object value) throws JSONObjectAdapterException {
 		try {
 			JSONObject entry = new JSONObject();
-			entry.put("key", key);
-			entry.put("value", value);
+			entry.put(KEY, key);
+			entry.put(VALUE, value);
+			if (keyIndex != null) {
+				keyIndex.put(key, wrapped.length());
+			}
 			wrapped.put(wrapped.length(), entry);
-			wrappedMap.put(key, entry);
 		} catch (JSONException e) {
 			throw new JSONObjectAdapterException(e);
 		}
@@ -251,25 +300,13 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 	@Override
 	public JSONMapAdapter put(Object key, byte[] value) throws JSONObjectAdapterException {
 		// Base64 encode the byte array
-		try {
-			byte[] encoded = Base64.encodeBase64(value);
-			String stringValue = new String(encoded, "UTF-8");
-			return put(key, stringValue);
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
-
+		return put(key, Base64Codec.encodeToString(value));
 	}
 
 	@Override
 	public byte[] getBinary(Object key) throws JSONObjectAdapterException {
-		try {
-			// Get the string value
-			String base64String = getString(key);
-			return Base64.decodeBase64(base64String.getBytes("UTF-8"));
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
+		// Get the string value
+		return Base64Codec.decode(getString(key));
 	}
 
 	@Override
@@ -286,6 +323,27 @@ public class JSONMapAdapterImpl extends AdapterFactoryImpl implements JSONMapAda
 
 	@Override
 	public Iterable<Object> keys() {
-		return wrappedMap.keySet();
+		return new Iterable<Object>() {
+			@Override
+			public Iterator<Object> iterator() {
+				return new Iterator<Object>() {
+					int next = 0;
+
+					@Override
+					public boolean hasNext() {
+						return next < wrapped.length();
+					}
+
+					@Override
+					public Object next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						cursor = next++;
+						return keyAt(cursor);
+					}
+				};
+			}
+		};
 	}
 }
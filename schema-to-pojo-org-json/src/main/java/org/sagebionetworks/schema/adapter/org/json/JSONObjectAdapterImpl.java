@@ -1,12 +1,9 @@
 package org.sagebionetworks.schema.adapter.org.json;
 
-import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Date;
 import java.util.Iterator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.joda.time.DateTime;
 import org.joda.time.format.ISODateTimeFormat;
@@ -18,7 +15,8 @@ import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
 import org.sagebionetworks.schema.adapter.JSONMapAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
-import org.sagebionetworks.schema.binary.Base64;
+import org.sagebionetworks.schema.binary.Base64Codec;
+import org.sagebionetworks.schema.util.PatternCache;
 
 /**
  * An org.json.JSONObject Implementation of JSONObjectAdapter.
@@ -314,9 +312,7 @@ public class JSONObjectAdapterImpl extends AdapterFactoryImpl implements JSONObj
 			throw new IllegalArgumentException("can not validatePatternProperty for pattern "
 					+ pattern + "because property is null");
 		}
-		Pattern p = Pattern.compile(pattern);
-		Matcher m = p.matcher(property);
-		return m.matches();
+		return PatternCache.getShared().matches(pattern, property);
 	}
 
 	@Override
@@ -348,25 +344,13 @@ public class JSONObjectAdapterImpl extends AdapterFactoryImpl implements JSONObj
 	@Override
 	public JSONObjectAdapter put(String key, byte[] value)	throws JSONObjectAdapterException {
 		// Base64 encode the byte array
-		try {
-			byte[] encoded = Base64.encodeBase64(value);
-			String stringValue = new String(encoded, "UTF-8");
-			return put(key, stringValue);
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
-
+		return put(key, Base64Codec.encodeToString(value));
 	}
 
 	@Override
 	public byte[] getBinary(String key) throws JSONObjectAdapterException {
-		try {
-			// Get the string value
-			String base64String = getString(key);
-			return Base64.decodeBase64(base64String.getBytes("UTF-8"));
-		} catch (UnsupportedEncodingException e) {
-			throw new JSONObjectAdapterException(e);
-		}
+		// Get the string value
+		return Base64Codec.decode(getString(key));
 	}
 
 }
@@ -0,0 +1,311 @@
+package org.sagebionetworks.schema.adapter.org.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.sagebionetworks.schema.adapter.JSONEntity;
+import org.sagebionetworks.schema.adapter.streaming.JsonTokenReader;
+
+/**
+ * Decodes newline delimited JSON (one entity per line) on multiple threads.
+ * <p>
+ * The UTF-8 input is split into chunks of about {@link #setChunkSize(int)}
+ * bytes at line boundaries, and each chunk is decoded into entities by a task
+ * on the executor. A new line can never appear inside a JSON value or inside
+ * a multi-byte UTF-8 character, so every chunk holds whole entities.
+ * <p>
+ * The input is only read as results are consumed, and at most
+ * {@link #setMaxChunksInFlight(int)} chunks are read ahead of the consumer,
+ * so memory is bounded by the chunk size no matter how large the input is.
+ * <p>
+ * By default the entities are delivered in the order of the input. When
+ * ordering is turned off, chunks are delivered as soon as they are decoded,
+ * so one slow chunk does not hold up the others. The entities within a chunk
+ * are always in order.
+ * <p>
+ * Errors in the input are thrown by the Stream as an IllegalStateException
+ * caused by the JSONObjectAdapterException.
+ *
+ * @param <T>
+ */
+public class ParallelEntityDecoder<T extends JSONEntity> {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+	private final Class<? extends T> clazz;
+	private final ExecutorService executor;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private int maxChunksInFlight;
+	private boolean ordered = true;
+
+	/**
+	 * Decode with the common ForkJoinPool.
+	 *
+	 * @param clazz
+	 */
+	public ParallelEntityDecoder(Class<? extends T> clazz) {
+		this(clazz, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Decode with the given executor.
+	 *
+	 * @param clazz
+	 *            The class of the entities. Interfaces are resolved with the
+	 *            concreteType of each entity.
+	 * @param executor
+	 */
+	public ParallelEntityDecoder(Class<? extends T> clazz, ExecutorService executor) {
+		if (clazz == null) throw new IllegalArgumentException("JSONEntity class cannot be null");
+		if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+		this.clazz = clazz;
+		this.executor = executor;
+		int parallelism = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism()
+				: Runtime.getRuntime().availableProcessors();
+		this.maxChunksInFlight = Math.max(2, parallelism * 2);
+	}
+
+	/**
+	 * The target size of each chunk in bytes. A line longer than this is put
+	 * in a chunk of its own.
+	 *
+	 * @param chunkSize
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be at least 1");
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * The maximum number of chunks that are read but not yet consumed. The
+	 * default is twice the parallelism of the executor.
+	 *
+	 * @param maxChunksInFlight
+	 */
+	public void setMaxChunksInFlight(int maxChunksInFlight) {
+		if (maxChunksInFlight < 1) throw new IllegalArgumentException("Max chunks in flight must be at least 1");
+		this.maxChunksInFlight = maxChunksInFlight;
+	}
+
+	/**
+	 * Should the entities be delivered in the order of the input? Defaults to
+	 * true.
+	 *
+	 * @param ordered
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Decode the entities of the given stream of UTF-8 encoded newline
+	 * delimited JSON. Closing the Stream cancels any outstanding work and
+	 * closes the input.
+	 *
+	 * @param utf8
+	 * @return
+	 */
+	public Stream<T> decode(InputStream utf8) {
+		if (utf8 == null) throw new IllegalArgumentException("JSON stream cannot be null");
+		final DecodingIterator iterator = new DecodingIterator(utf8);
+		int characteristics = ordered ? Spliterator.ORDERED : 0;
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false).onClose(() -> {
+			try {
+				iterator.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Decode all of the entities of a single chunk.
+	 */
+	private List<T> decodeChunk(byte[] utf8, int length) {
+		EntityIterator<T> iterator = new EntityIterator<T>(new JsonTokenReader(utf8, 0, length), clazz);
+		List<T> entities = new ArrayList<T>();
+		while (iterator.hasNext()) {
+			entities.add(iterator.next());
+		}
+		return entities;
+	}
+
+	/**
+	 * Whole lines of UTF-8 encoded JSON.
+	 */
+	private static final class Chunk {
+
+		final byte[] utf8;
+		final int length;
+
+		Chunk(byte[] utf8, int length) {
+			this.utf8 = utf8;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * Reads chunks from the input as results are consumed. Only used by the
+	 * consuming thread.
+	 */
+	private class DecodingIterator implements Iterator<T> {
+
+		private final InputStream in;
+		private final Deque<Future<List<T>>> pending = new ArrayDeque<Future<List<T>>>();
+		private final CompletionService<List<T>> completion;
+		private Iterator<T> current = Collections.<T> emptyIterator();
+		private byte[] carry = new byte[0];
+		private boolean endOfInput;
+		private boolean closed;
+
+		DecodingIterator(InputStream in) {
+			this.in = in;
+			this.completion = ordered ? null : new ExecutorCompletionService<List<T>>(executor);
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!current.hasNext()) {
+				if (closed) {
+					return false;
+				}
+				submitChunks();
+				if (pending.isEmpty()) {
+					return false;
+				}
+				current = await(nextDone()).iterator();
+			}
+			return true;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return current.next();
+		}
+
+		/**
+		 * Read and submit chunks until the limit is reached.
+		 */
+		private void submitChunks() {
+			while (!endOfInput && pending.size() < maxChunksInFlight) {
+				final Chunk chunk;
+				try {
+					chunk = readChunk();
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+				if (chunk == null) {
+					endOfInput = true;
+					return;
+				}
+				if (completion == null) {
+					pending.add(executor.submit(() -> decodeChunk(chunk.utf8, chunk.length)));
+				} else {
+					pending.add(completion.submit(() -> decodeChunk(chunk.utf8, chunk.length)));
+				}
+			}
+		}
+
+		private Future<List<T>> nextDone() {
+			if (completion == null) {
+				return pending.poll();
+			}
+			try {
+				Future<List<T>> done = completion.take();
+				pending.remove(done);
+				return done;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private List<T> await(Future<List<T>> future) {
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+		}
+
+		/**
+		 * Read the next chunk of whole lines. The bytes after the last new
+		 * line are carried over to the next chunk.
+		 *
+		 * @return The chunk, or null at the end of the input.
+		 * @throws IOException
+		 */
+		private Chunk readChunk() throws IOException {
+			byte[] buffer = Arrays.copyOf(carry, Math.max(chunkSize, carry.length * 2));
+			int length = carry.length;
+			// the carried bytes do not contain a new line
+			int scanned = carry.length;
+			carry = new byte[0];
+			while (true) {
+				boolean eof = false;
+				while (length < buffer.length) {
+					int read = in.read(buffer, length, buffer.length - length);
+					if (read < 0) {
+						eof = true;
+						break;
+					}
+					length += read;
+				}
+				for (int i = length - 1; i >= scanned; i--) {
+					if (buffer[i] == '\n') {
+						carry = Arrays.copyOfRange(buffer, i + 1, length);
+						return new Chunk(buffer, i + 1);
+					}
+				}
+				if (eof) {
+					return length == 0 ? null : new Chunk(buffer, length);
+				}
+				// a single line is larger than the buffer
+				scanned = length;
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+
+		void close() throws IOException {
+			closed = true;
+			current = Collections.<T> emptyIterator();
+			for (Future<List<T>> future : pending) {
+				future.cancel(true);
+			}
+			pending.clear();
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package org.sagebionetworks.schema.adapter.org.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONMapAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.Utf8AdapterFactory;
+
+public class AdapterFactoryImplTest {
+
+	Utf8AdapterFactory factory = new AdapterFactoryImpl();
+
+	@Test
+	public void testCreateNewUtf8() throws JSONObjectAdapterException {
+		byte[] json = "{\"name\":\"caf\u00e9\",\"count\":3}".getBytes(StandardCharsets.UTF_8);
+		JSONObjectAdapter fromBytes = factory.createNew(json, 0, json.length);
+		assertEquals("caf\u00e9", fromBytes.getString("name"));
+		assertEquals(3L, fromBytes.getLong("count"));
+		JSONObjectAdapter fromBuffer = factory.createNew(ByteBuffer.wrap(json));
+		assertEquals("caf\u00e9", fromBuffer.getString("name"));
+		JSONObjectAdapter fromStream = factory.createNew(new ByteArrayInputStream(json));
+		assertEquals("caf\u00e9", fromStream.getString("name"));
+		JSONObjectAdapter fromReader = factory.createNew(new StringReader("{\"name\":\"caf\u00e9\"}"));
+		assertEquals("caf\u00e9", fromReader.getString("name"));
+	}
+
+	@Test
+	public void testCreateNewArrayUtf8() throws JSONObjectAdapterException {
+		byte[] json = "[1,\"\u4e2d\"]".getBytes(StandardCharsets.UTF_8);
+		JSONArrayAdapter array = factory.createNewArray(json, 0, json.length);
+		assertEquals(2, array.length());
+		assertEquals("\u4e2d", array.getString(1));
+		ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+		direct.put(json).flip();
+		assertEquals("\u4e2d", factory.createNewArray(direct).getString(1));
+		assertEquals("\u4e2d", factory.createNewArray(new ByteArrayInputStream(json)).getString(1));
+		assertEquals("\u4e2d", factory.createNewArray(new StringReader("[1,\"\u4e2d\"]")).getString(1));
+	}
+
+	@Test
+	public void testCreateNewMapUtf8() throws JSONObjectAdapterException {
+		byte[] json = "[{\"key\":\"a\",\"value\":\"\u00e9\"}]".getBytes(StandardCharsets.UTF_8);
+		JSONMapAdapter map = factory.createNewMap(json, 0, json.length);
+		assertEquals("\u00e9", map.getString("a"));
+		assertEquals("\u00e9", factory.createNewMap(ByteBuffer.wrap(json)).getString("a"));
+		assertEquals("\u00e9", factory.createNewMap(new ByteArrayInputStream(json)).getString("a"));
+	}
+
+	@Test(expected = JSONObjectAdapterException.class)
+	public void testCreateNewMalformed() throws JSONObjectAdapterException {
+		byte[] json = "{\"name\"".getBytes(StandardCharsets.UTF_8);
+		factory.createNew(json, 0, json.length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateNewNullReader() throws JSONObjectAdapterException {
+		factory.createNew((java.io.Reader) null);
+	}
+}
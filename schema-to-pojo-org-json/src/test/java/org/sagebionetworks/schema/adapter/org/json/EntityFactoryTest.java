@@ -2,9 +2,23 @@ package org.sagebionetworks.schema.adapter.org.json;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import org.json.JSONObject;
 import org.junit.Test;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.metrics.MarshalingMetrics;
+import org.sagebionetworks.schema.metrics.MarshalingSnapshot;
 
 
 public class EntityFactoryTest {
@@ -81,6 +95,186 @@ public class EntityFactoryTest {
 		assertNotNull(clone);
 		// The stub and clone should be the same
 		assertEquals(stub, clone);
+		// The cached constructor must create a new instance each time
+		SimpleInterface second = EntityFactory.createEntityFromJSONString(json, SimpleInterface.class);
+		assertEquals(clone, second);
+		assertNotSame(clone, second);
+	}
+	
+	@Test
+	public void testUtf8RoundTrip() throws JSONObjectAdapterException{
+		SimpleEntityStub stub = new SimpleEntityStub();
+		stub.setValue("multi-byte \u00e9\u4e2d\ud83d\ude00 value");
+		byte[] json = EntityFactory.createJSONStringForEntity(stub).getBytes(StandardCharsets.UTF_8);
+		// a slice in the middle of a larger array
+		byte[] padded = new byte[json.length + 4];
+		System.arraycopy(json, 0, padded, 2, json.length);
+		assertEquals(stub, EntityFactory.createEntityFromJSONBytes(padded, 2, json.length, SimpleEntityStub.class));
+		// heap and direct buffers
+		ByteBuffer heap = ByteBuffer.wrap(padded, 2, json.length);
+		assertEquals(stub, EntityFactory.createEntityFromJSONBuffer(heap, SimpleEntityStub.class));
+		assertEquals(2, heap.position());
+		ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+		direct.put(json).flip();
+		assertEquals(stub, EntityFactory.createEntityFromJSONBuffer(direct, SimpleEntityStub.class));
+		assertEquals(0, direct.position());
+		// streams
+		assertEquals(stub, EntityFactory.createEntityFromJSONStream(new ByteArrayInputStream(json), SimpleEntityStub.class));
+		assertEquals(stub, EntityFactory.createEntityFromJSONReader(new StringReader(new String(json, StandardCharsets.UTF_8)), SimpleEntityStub.class));
+		// interfaces
+		SimpleInterface fromInterface = EntityFactory.createEntityFromJSONBytes(json, 0, json.length, SimpleInterface.class);
+		assertEquals(stub, fromInterface);
+	}
+
+	@Test
+	public void testWriteEntity() throws JSONObjectAdapterException{
+		SimpleEntityStub stub = new SimpleEntityStub();
+		// larger than the write buffer so it is passed on in pieces
+		StringBuilder value = new StringBuilder("multi-byte \u00e9\u4e2d\ud83d\ude00 ");
+		while(value.length() < 10000){
+			value.append("quote\" and </ slash ");
+		}
+		stub.setValue(value.toString());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EntityFactory.writeEntity(stub, out);
+		byte[] bytes = out.toByteArray();
+		assertEquals(stub, EntityFactory.createEntityFromJSONBytes(bytes, 0, bytes.length, SimpleEntityStub.class));
+		// the same JSON through a Writer and an Appendable
+		StringWriter writer = new StringWriter();
+		EntityFactory.writeEntity(stub, writer);
+		assertEquals(new String(bytes, StandardCharsets.UTF_8), writer.toString());
+		StringBuilder builder = new StringBuilder();
+		EntityFactory.writeEntity(stub, builder);
+		assertEquals(writer.toString(), builder.toString());
+		assertEquals(stub, EntityFactory.createEntityFromJSONString(builder.toString(), SimpleEntityStub.class));
+	}
+
+	@Test (expected=IllegalArgumentException.class)
+	public void testWriteEntityNull() throws JSONObjectAdapterException{
+		EntityFactory.writeEntity(null, new ByteArrayOutputStream());
+	}
+
+	@Test (expected=IllegalArgumentException.class)
+	public void testWriteEntityStreamNull() throws JSONObjectAdapterException{
+		EntityFactory.writeEntity(new SimpleEntityStub(), (OutputStream) null);
+	}
+
+	@Test
+	public void testReadEntitiesArray() throws Exception{
+		String json = "[{\"value\":\"one\"}, null, {\"value\":\"two\"}]";
+		List<SimpleEntityStub> read = new ArrayList<SimpleEntityStub>();
+		try(EntityIterator<SimpleEntityStub> iterator = EntityFactory.readEntities(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), SimpleEntityStub.class)){
+			while(iterator.hasNext()){
+				read.add(iterator.next());
+			}
+			assertFalse(iterator.hasNext());
+		}
+		assertEquals(3, read.size());
+		assertEquals("one", read.get(0).getValue());
+		assertNull(read.get(1));
+		assertEquals("two", read.get(2).getValue());
+	}
+
+	@Test
+	public void testReadEntitiesNewLineDelimited() throws Exception{
+		String json = "{\"value\":\"one\",\"concreteType\":\"org.sagebionetworks.schema.adapter.org.json.SimpleEntityStub\"}\n"
+				+ "\n{\"concreteType\":\"org.sagebionetworks.schema.adapter.org.json.SimpleEntityStub\",\"value\":\"two\"}\n";
+		// interfaces are resolved with the concreteType of each element
+		try(Stream<SimpleInterface> stream = EntityFactory.streamEntities(new StringReader(json), SimpleInterface.class)){
+			List<String> values = stream.map(e -> ((SimpleEntityStub) e).getValue()).collect(Collectors.toList());
+			assertEquals(2, values.size());
+			assertEquals("one", values.get(0));
+			assertEquals("two", values.get(1));
+		}
+	}
+
+	@Test
+	public void testReadEntitiesEmpty() throws Exception{
+		assertFalse(EntityFactory.readEntities(new StringReader("[]"), SimpleEntityStub.class).hasNext());
+		assertFalse(EntityFactory.readEntities(new StringReader(" \n"), SimpleEntityStub.class).hasNext());
+	}
+
+	@Test
+	public void testReadEntitiesMalformed() throws Exception{
+		EntityIterator<SimpleEntityStub> iterator = EntityFactory.readEntities(new StringReader("[{\"value\":\"one\"} {"), SimpleEntityStub.class);
+		assertEquals("one", iterator.next().getValue());
+		try{
+			iterator.hasNext();
+			fail("The array is missing a comma");
+		}catch(IllegalStateException e){
+			assertTrue(e.getCause() instanceof JSONObjectAdapterException);
+		}
+	}
+
+	@Test (expected=IllegalArgumentException.class)
+	public void testReadEntitiesClassNull() throws JSONObjectAdapterException{
+		EntityFactory.readEntities(new StringReader("[]"), null);
+	}
+
+	@Test (expected=IllegalArgumentException.class)
+	public void testCreateEntityFromJSONBytesNull() throws JSONObjectAdapterException{
+		EntityFactory.createEntityFromJSONBytes(null, 0, 0, SimpleEntityStub.class);
+	}
+
+	@Test (expected=IndexOutOfBoundsException.class)
+	public void testCreateEntityFromJSONBytesOutOfBounds() throws JSONObjectAdapterException{
+		EntityFactory.createEntityFromJSONBytes(new byte[4], 2, 3, SimpleEntityStub.class);
+	}
+
+	@Test (expected=JSONObjectAdapterException.class)
+	public void testCreateEntityFromJSONStreamMalformed() throws JSONObjectAdapterException{
+		EntityFactory.createEntityFromJSONStream(new ByteArrayInputStream("{\"value\":".getBytes(StandardCharsets.UTF_8)), SimpleEntityStub.class);
+	}
+
+	@Test (expected=JSONObjectAdapterException.class)
+	public void testInterfaceUnknownConcreteType() throws JSONObjectAdapterException{
+		EntityFactory.createEntityFromJSONString("{\"concreteType\":\"org.example.DoesNotExist\"}", SimpleInterface.class);
+	}
+	
+	@Test
+	public void testInterfaceConcreteTypeWrongInterface() throws JSONObjectAdapterException{
+		try {
+			EntityFactory.createEntityFromJSONString("{\"concreteType\":\"java.lang.String\"}", SimpleInterface.class);
+			fail("String does not implement the interface");
+		} catch (JSONObjectAdapterException e) {
+			assertTrue(e.getMessage().contains("does not implement"));
+		}
+	}
+
+	@Test
+	public void testMarshalingMetrics() throws JSONObjectAdapterException {
+		MarshalingMetrics.reset();
+		MarshalingMetrics.setEnabled(true);
+		try {
+			SimpleEntityStub stub = new SimpleEntityStub();
+			stub.setValue("some value \u00e9");
+			String json = EntityFactory.createJSONStringForEntity(stub);
+			EntityFactory.createEntityFromJSONString(json, SimpleEntityStub.class);
+			byte[] utf8 = json.getBytes(StandardCharsets.UTF_8);
+			EntityFactory.createEntityFromJSONBytes(utf8, 0, utf8.length, SimpleEntityStub.class);
+			try {
+				EntityFactory.createEntityFromJSONString("{", SimpleEntityStub.class);
+				fail("Invalid JSON should fail");
+			} catch (JSONObjectAdapterException e) {
+				// expected
+			}
+			List<MarshalingSnapshot> snapshots = MarshalingMetrics.snapshot();
+			assertEquals(2, snapshots.size());
+			MarshalingSnapshot parse = snapshots.get(0);
+			assertEquals(SimpleEntityStub.class.getName(), parse.getType());
+			assertEquals("PARSE", parse.getOperation());
+			assertEquals(3, parse.getCount());
+			assertEquals(1, parse.getFailures());
+			// only the bytes are counted, not the characters of the Strings
+			assertEquals(utf8.length, parse.getBytes());
+			MarshalingSnapshot serialize = snapshots.get(1);
+			assertEquals("SERIALIZE", serialize.getOperation());
+			assertEquals(1, serialize.getCount());
+			assertEquals(0, serialize.getBytes());
+		} finally {
+			MarshalingMetrics.setEnabled(false);
+			MarshalingMetrics.reset();
+		}
 	}
 
 }
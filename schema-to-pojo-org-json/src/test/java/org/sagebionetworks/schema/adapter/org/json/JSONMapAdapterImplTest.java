@@ -0,0 +1,93 @@
+package org.sagebionetworks.schema.adapter.org.json;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.sagebionetworks.schema.adapter.JSONMapAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+
+public class JSONMapAdapterImplTest {
+
+	static final String JSON = "[{\"key\":\"c\",\"value\":3},{\"key\":\"a\",\"value\":\"one\"},"
+			+ "{\"key\":\"b\",\"value\":null},{\"key\":\"d\",\"value\":{\"name\":\"d\"}}]";
+
+	@Test
+	public void testSequentialRead() throws JSONObjectAdapterException {
+		JSONMapAdapter adapter = new JSONMapAdapterImpl(JSON);
+		List<Object> keys = new ArrayList<Object>();
+		List<Object> values = new ArrayList<Object>();
+		for (Object key : adapter.keys()) {
+			keys.add(key);
+			values.add(adapter.isNull(key) ? null : adapter.get(key).toString());
+		}
+		// the keys are in the order of the pairs
+		assertEquals(Arrays.asList("c", "a", "b", "d"), keys);
+		assertEquals(Arrays.asList("3", "one", null, "{\"name\":\"d\"}"), values);
+		assertEquals(4, adapter.length());
+	}
+
+	@Test
+	public void testRandomAccess() throws JSONObjectAdapterException {
+		JSONMapAdapter adapter = new JSONMapAdapterImpl(JSON);
+		assertEquals("d", adapter.getJSONObject("d").getString("name"));
+		assertEquals(3, adapter.getInt("c"));
+		assertEquals("one", adapter.getString("a"));
+		assertTrue(adapter.isNull("b"));
+		assertNull(adapter.get("b"));
+		// missing keys
+		assertTrue(adapter.isNull("e"));
+		try {
+			adapter.getString("e");
+			fail("The key does not exist");
+		} catch (JSONObjectAdapterException e) {
+			assertEquals("JSONMap[e] not found.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testPutAfterIndex() throws JSONObjectAdapterException {
+		JSONMapAdapter adapter = new JSONMapAdapterImpl(JSON);
+		assertEquals("one", adapter.getString("a"));
+		adapter.put("e", 5L);
+		adapter.put("a", new byte[] { 1, 2, 3 });
+		assertEquals(5L, adapter.getLong("e"));
+		assertArrayEquals(new byte[] { 1, 2, 3 }, adapter.getBinary("a"));
+		assertFalse(adapter.isNull("e"));
+		assertEquals(6, adapter.length());
+	}
+
+	@Test
+	public void testPutRoundTrip() throws JSONObjectAdapterException {
+		JSONMapAdapter adapter = new JSONMapAdapterImpl();
+		adapter.put(1L, "one");
+		adapter.putNull(2L);
+		JSONMapAdapter copy = new JSONMapAdapterImpl(adapter.toJSONString());
+		assertEquals(adapter.toJSONString(), copy.toJSONString());
+		for (Object key : copy.keys()) {
+			if (copy.isNull(key)) {
+				assertEquals(2, ((Number) key).intValue());
+			} else {
+				assertEquals("one", copy.getString(key));
+			}
+		}
+	}
+
+	@Test (expected=JSONObjectAdapterException.class)
+	public void testNotPairs() throws JSONObjectAdapterException {
+		new JSONMapAdapterImpl("[{\"key\":\"a\",\"value\":1},2]");
+	}
+
+	@Test (expected=JSONObjectAdapterException.class)
+	public void testMissingKey() throws JSONObjectAdapterException {
+		new JSONMapAdapterImpl("[{\"value\":1}]");
+	}
+}
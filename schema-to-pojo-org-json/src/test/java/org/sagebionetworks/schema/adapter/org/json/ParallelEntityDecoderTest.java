@@ -0,0 +1,161 @@
+package org.sagebionetworks.schema.adapter.org.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+
+public class ParallelEntityDecoderTest {
+
+	ExecutorService executor;
+	ParallelEntityDecoder<SimpleEntityStub> decoder;
+
+	@Before
+	public void before() {
+		executor = Executors.newFixedThreadPool(4);
+		decoder = new ParallelEntityDecoder<SimpleEntityStub>(SimpleEntityStub.class, executor);
+		// small chunks so the input is split many times
+		decoder.setChunkSize(100);
+	}
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testOrdered() {
+		byte[] json = createLines(2000);
+		try (Stream<SimpleEntityStub> stream = decoder.decode(new ByteArrayInputStream(json))) {
+			List<String> values = stream.map(SimpleEntityStub::getValue).collect(Collectors.toList());
+			assertEquals(2000, values.size());
+			for (int i = 0; i < values.size(); i++) {
+				assertEquals("value \u00e9 " + i, values.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void testUnordered() {
+		decoder.setOrdered(false);
+		byte[] json = createLines(2000);
+		try (Stream<SimpleEntityStub> stream = decoder.decode(new ByteArrayInputStream(json))) {
+			Set<String> values = stream.map(SimpleEntityStub::getValue).collect(Collectors.toCollection(TreeSet::new));
+			assertEquals(2000, values.size());
+			assertTrue(values.contains("value \u00e9 1999"));
+		}
+	}
+
+	@Test
+	public void testLineLongerThanChunk() {
+		StringBuilder value = new StringBuilder();
+		while (value.length() < 1000) {
+			value.append("long value ");
+		}
+		String json = "{\"value\":\"a\"}\n{\"value\":\"" + value + "\"}\n{\"value\":\"b\"}";
+		try (Stream<SimpleEntityStub> stream = decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+			List<String> values = stream.map(SimpleEntityStub::getValue).collect(Collectors.toList());
+			assertEquals(3, values.size());
+			assertEquals("a", values.get(0));
+			assertEquals(value.toString(), values.get(1));
+			assertEquals("b", values.get(2));
+		}
+	}
+
+	@Test
+	public void testInterface() {
+		ParallelEntityDecoder<SimpleInterface> interfaceDecoder = new ParallelEntityDecoder<SimpleInterface>(SimpleInterface.class, executor);
+		String json = "{\"concreteType\":\"org.sagebionetworks.schema.adapter.org.json.SimpleEntityStub\",\"value\":\"a\"}\n";
+		try (Stream<SimpleInterface> stream = interfaceDecoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+			assertEquals("a", ((SimpleEntityStub) stream.findFirst().get()).getValue());
+		}
+	}
+
+	@Test
+	public void testBackpressure() throws IOException {
+		decoder.setMaxChunksInFlight(2);
+		CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(createLines(10000)));
+		try (Stream<SimpleEntityStub> stream = decoder.decode(in)) {
+			Iterator<SimpleEntityStub> iterator = stream.iterator();
+			assertEquals("value \u00e9 0", iterator.next().getValue());
+			// only the chunks in flight have been read
+			assertTrue(in.count <= 3 * 100);
+		}
+		assertTrue(in.closed);
+	}
+
+	@Test
+	public void testMalformed() {
+		String json = "{\"value\":\"a\"}\n{\"value\":}\n";
+		try (Stream<SimpleEntityStub> stream = decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+			stream.count();
+			fail("The second line is not valid JSON");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getCause() instanceof JSONObjectAdapterException);
+		}
+	}
+
+	@Test (expected=IllegalArgumentException.class)
+	public void testExecutorNull() {
+		new ParallelEntityDecoder<SimpleEntityStub>(SimpleEntityStub.class, null);
+	}
+
+	private static byte[] createLines(int count) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			builder.append("{\"value\":\"value \u00e9 ").append(i).append("\"}\n");
+		}
+		return builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static class CountingInputStream extends InputStream {
+
+		final InputStream wrapped;
+		long count;
+		boolean closed;
+
+		CountingInputStream(InputStream wrapped) {
+			this.wrapped = wrapped;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = wrapped.read();
+			if (read >= 0) {
+				count++;
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = wrapped.read(b, off, len);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+
+/**
+ * Reads whole payloads into arrays. The streaming adapters locate their values
+ * by offset so they need the complete text in a single array.
+ *
+ */
+class Buffers {
+
+	private static final int INITIAL_SIZE = 8192;
+
+	private Buffers() {
+	}
+
+	/**
+	 * The remaining bytes of the buffer as a heap buffer. The bytes of a heap
+	 * buffer are not copied and the position of the given buffer is not
+	 * changed.
+	 *
+	 * @param buffer
+	 * @return
+	 */
+	static ByteBuffer toHeap(ByteBuffer buffer) {
+		if (buffer == null) throw new IllegalArgumentException("Buffer cannot be null");
+		if (buffer.hasArray()) {
+			return buffer;
+		}
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return ByteBuffer.wrap(bytes);
+	}
+
+	/**
+	 * Read the stream to the end. The stream is not closed.
+	 *
+	 * @param in
+	 * @return A heap buffer with the bytes between position and limit.
+	 * @throws JSONObjectAdapterException
+	 */
+	static ByteBuffer readFully(InputStream in) throws JSONObjectAdapterException {
+		if (in == null) throw new IllegalArgumentException("InputStream cannot be null");
+		try {
+			byte[] bytes = new byte[INITIAL_SIZE];
+			int length = 0;
+			int read;
+			while ((read = in.read(bytes, length, bytes.length - length)) >= 0) {
+				length += read;
+				if (length == bytes.length) {
+					bytes = Arrays.copyOf(bytes, bytes.length * 2);
+				}
+			}
+			return ByteBuffer.wrap(bytes, 0, length);
+		} catch (IOException e) {
+			throw new JSONObjectAdapterException(e);
+		}
+	}
+
+	/**
+	 * Read the reader to the end. The reader is not closed.
+	 *
+	 * @param in
+	 * @return A heap buffer with the characters between position and limit.
+	 * @throws JSONObjectAdapterException
+	 */
+	static CharBuffer readFully(Reader in) throws JSONObjectAdapterException {
+		if (in == null) throw new IllegalArgumentException("Reader cannot be null");
+		try {
+			char[] chars = new char[INITIAL_SIZE];
+			int length = 0;
+			int read;
+			while ((read = in.read(chars, length, chars.length - length)) >= 0) {
+				length += read;
+				if (length == chars.length) {
+					chars = Arrays.copyOf(chars, chars.length * 2);
+				}
+			}
+			return CharBuffer.wrap(chars, 0, length);
+		} catch (IOException e) {
+			throw new JSONObjectAdapterException(e);
+		}
+	}
+}
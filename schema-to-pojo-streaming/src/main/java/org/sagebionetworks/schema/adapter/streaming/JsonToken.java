@@ -0,0 +1,26 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+/**
+ * The types of tokens produced by a {@link JsonTokenReader}.
+ * 
+ */
+public enum JsonToken {
+
+	BEGIN_OBJECT,
+	END_OBJECT,
+	BEGIN_ARRAY,
+	END_ARRAY,
+	/**
+	 * The name of an object member.
+	 */
+	NAME,
+	STRING,
+	NUMBER,
+	BOOLEAN,
+	NULL,
+	/**
+	 * There are no more values to read.
+	 */
+	END_DOCUMENT;
+
+}
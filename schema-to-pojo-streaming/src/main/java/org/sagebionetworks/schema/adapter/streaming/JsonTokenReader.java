@@ -0,0 +1,1005 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONMapAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.binary.Base64Codec;
+
+/**
+ * An incremental (pull) tokenizer for JSON text.
+ * <p>
+ * The reader works directly against a char[]. When created from a String,
+ * char[], or UTF-8 byte[] the whole document is held in memory, and any nested
+ * object or array can be handed out as a lazy adapter that shares the buffer.
+ * When created from a {@link Reader} the buffer is refilled as the document is
+ * consumed so only a small window of the text is held in memory.
+ * <p>
+ * Multiple top-level values separated by whitespace are allowed, which makes
+ * it possible to read newline delimited JSON with a single reader.
+ * <p>
+ * This class is not thread safe.
+ *
+ */
+public class JsonTokenReader implements Closeable {
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int DANGLING_NAME = 3;
+	private static final int NONEMPTY_OBJECT = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+	/**
+	 * Must be a power of two.
+	 */
+	private static final int NAME_CACHE_SIZE = 64;
+
+	private Reader in;
+	private char[] buffer;
+	private int pos;
+	private int limit;
+	/**
+	 * The number of characters that have been shifted out of the buffer.
+	 */
+	private int discarded;
+
+	private int[] stack = new int[8];
+	private int stackSize;
+	private JsonToken peeked;
+
+	private String[] nameCache;
+
+	// Used to capture raw values when reading from a Reader.
+	private char[] capture;
+	private int captureLength;
+	private int captureMark = -1;
+
+	/**
+	 * Read the given JSON string.
+	 *
+	 * @param json
+	 */
+	public JsonTokenReader(String json) {
+		if (json == null) throw new IllegalArgumentException("JSON cannot be null");
+		init(null, json.toCharArray(), 0, json.length());
+	}
+
+	/**
+	 * Read JSON from a slice of a char[]. The array is used directly and must
+	 * not be modified while this reader, or any adapter created by it, is in
+	 * use.
+	 *
+	 * @param json
+	 * @param offset
+	 * @param length
+	 */
+	public JsonTokenReader(char[] json, int offset, int length) {
+		if (json == null) throw new IllegalArgumentException("JSON cannot be null");
+		checkBounds(json.length, offset, length);
+		init(null, json, offset, offset + length);
+	}
+
+	/**
+	 * Read JSON from a slice of UTF-8 encoded bytes. The bytes are decoded in a
+	 * single pass without creating an intermediate String.
+	 *
+	 * @param utf8
+	 * @param offset
+	 * @param length
+	 */
+	public JsonTokenReader(byte[] utf8, int offset, int length) {
+		if (utf8 == null) throw new IllegalArgumentException("JSON cannot be null");
+		checkBounds(utf8.length, offset, length);
+		char[] chars = new char[length];
+		int count = Utf8.decode(utf8, offset, length, chars);
+		init(null, chars, 0, count);
+	}
+
+	/**
+	 * Read JSON incrementally from the given reader.
+	 *
+	 * @param in
+	 */
+	public JsonTokenReader(Reader in) {
+		if (in == null) throw new IllegalArgumentException("Reader cannot be null");
+		init(in, new char[DEFAULT_BUFFER_SIZE], 0, 0);
+	}
+
+	private void init(Reader in, char[] buffer, int pos, int limit) {
+		this.in = in;
+		this.buffer = buffer;
+		this.pos = pos;
+		this.limit = limit;
+		push(EMPTY_DOCUMENT);
+	}
+
+	private static void checkBounds(int arrayLength, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > arrayLength) {
+			throw new IndexOutOfBoundsException("offset: " + offset + " length: " + length + " array length: " + arrayLength);
+		}
+	}
+
+	/**
+	 * The type of the next token without consuming it.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JsonToken peek() throws JSONObjectAdapterException {
+		if (peeked != null) {
+			return peeked;
+		}
+		int scope = stack[stackSize - 1];
+		int c;
+		switch (scope) {
+		case EMPTY_ARRAY:
+			stack[stackSize - 1] = NONEMPTY_ARRAY;
+			if (nextNonWhitespace(true) == ']') {
+				return peeked = JsonToken.END_ARRAY;
+			}
+			break;
+		case NONEMPTY_ARRAY:
+			c = nextNonWhitespace(true);
+			if (c == ']') {
+				return peeked = JsonToken.END_ARRAY;
+			}
+			if (c != ',') throw syntaxError("Expected ',' or ']'");
+			pos++;
+			break;
+		case EMPTY_OBJECT:
+		case NONEMPTY_OBJECT:
+			c = nextNonWhitespace(true);
+			if (c == '}') {
+				return peeked = JsonToken.END_OBJECT;
+			}
+			if (scope == NONEMPTY_OBJECT) {
+				if (c != ',') throw syntaxError("Expected ',' or '}'");
+				pos++;
+				c = nextNonWhitespace(true);
+			}
+			if (c != '"') throw syntaxError("Expected a name");
+			stack[stackSize - 1] = DANGLING_NAME;
+			return peeked = JsonToken.NAME;
+		case DANGLING_NAME:
+			if (nextNonWhitespace(true) != ':') throw syntaxError("Expected ':'");
+			pos++;
+			stack[stackSize - 1] = NONEMPTY_OBJECT;
+			break;
+		case EMPTY_DOCUMENT:
+		case NONEMPTY_DOCUMENT:
+			if (nextNonWhitespace(false) == -1) {
+				return peeked = JsonToken.END_DOCUMENT;
+			}
+			stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+			break;
+		default:
+			throw new IllegalStateException("Unknown scope: " + scope);
+		}
+		c = nextNonWhitespace(true);
+		switch (c) {
+		case '{':
+			return peeked = JsonToken.BEGIN_OBJECT;
+		case '[':
+			return peeked = JsonToken.BEGIN_ARRAY;
+		case '"':
+			return peeked = JsonToken.STRING;
+		case 't':
+		case 'f':
+			return peeked = JsonToken.BOOLEAN;
+		case 'n':
+			return peeked = JsonToken.NULL;
+		case '-':
+		case '0':
+		case '1':
+		case '2':
+		case '3':
+		case '4':
+		case '5':
+		case '6':
+		case '7':
+		case '8':
+		case '9':
+			return peeked = JsonToken.NUMBER;
+		default:
+			throw syntaxError("Unexpected character '" + (char) c + "'");
+		}
+	}
+
+	/**
+	 * Is there another element in the current array or object?
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public boolean hasNext() throws JSONObjectAdapterException {
+		JsonToken token = peek();
+		return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+	}
+
+	public void beginObject() throws JSONObjectAdapterException {
+		expect(JsonToken.BEGIN_OBJECT);
+		pos++;
+		peeked = null;
+		push(EMPTY_OBJECT);
+	}
+
+	public void endObject() throws JSONObjectAdapterException {
+		expect(JsonToken.END_OBJECT);
+		pos++;
+		peeked = null;
+		stackSize--;
+	}
+
+	public void beginArray() throws JSONObjectAdapterException {
+		expect(JsonToken.BEGIN_ARRAY);
+		pos++;
+		peeked = null;
+		push(EMPTY_ARRAY);
+	}
+
+	public void endArray() throws JSONObjectAdapterException {
+		expect(JsonToken.END_ARRAY);
+		pos++;
+		peeked = null;
+		stackSize--;
+	}
+
+	/**
+	 * The name of the next object member. Names are cached per reader so
+	 * repeated names do not allocate a new String.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public String nextName() throws JSONObjectAdapterException {
+		expect(JsonToken.NAME);
+		String name = readName();
+		peeked = null;
+		return name;
+	}
+
+	/**
+	 * The next string value. Numbers and booleans are returned as their literal
+	 * text.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public String nextString() throws JSONObjectAdapterException {
+		JsonToken token = peek();
+		String result;
+		if (token == JsonToken.STRING) {
+			result = readString();
+		} else if (token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+			int length = literalLength();
+			result = new String(buffer, pos, length);
+			pos += length;
+		} else {
+			throw syntaxError("Expected a string but was " + token);
+		}
+		peeked = null;
+		return result;
+	}
+
+	/**
+	 * The next value, a base64 string, decoded to bytes. A string without
+	 * escapes that is already in the buffer is decoded straight from the
+	 * buffer without creating a String.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public byte[] nextBinary() throws JSONObjectAdapterException {
+		expect(JsonToken.STRING);
+		byte[] result = null;
+		int start = pos + 1;
+		for (int i = start; i < limit; i++) {
+			char c = buffer[i];
+			if (c == '"') {
+				result = Base64Codec.decode(buffer, start, i - start);
+				pos = i + 1;
+				break;
+			}
+			if (c == '\\') {
+				break;
+			}
+		}
+		if (result == null) {
+			result = Base64Codec.decode(readString());
+		}
+		peeked = null;
+		return result;
+	}
+
+	/**
+	 * The next value as a long. Fractions are truncated and strings containing
+	 * a number are converted.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public long nextLong() throws JSONObjectAdapterException {
+		JsonToken token = peek();
+		long result;
+		if (token == JsonToken.NUMBER) {
+			int length = literalLength();
+			int i = 0;
+			boolean negative = buffer[pos] == '-';
+			if (negative) {
+				i++;
+			}
+			if (length - i > 0 && length - i <= 18 && isDigits(pos + i, pos + length)) {
+				result = accumulate(pos + i, pos + length);
+				pos += length;
+				result = negative ? -result : result;
+			} else {
+				String text = new String(buffer, pos, length);
+				pos += length;
+				result = parseLong(text);
+			}
+		} else if (token == JsonToken.STRING) {
+			result = parseLong(readString());
+		} else {
+			throw syntaxError("Expected a number but was " + token);
+		}
+		peeked = null;
+		return result;
+	}
+
+	/**
+	 * The next value as an int.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public int nextInt() throws JSONObjectAdapterException {
+		return (int) nextLong();
+	}
+
+	/**
+	 * The next value as a double. Strings such as "NaN" and "Infinity" are
+	 * converted.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public double nextDouble() throws JSONObjectAdapterException {
+		JsonToken token = peek();
+		double result;
+		if (token == JsonToken.NUMBER) {
+			int length = literalLength();
+			int i = 0;
+			boolean negative = buffer[pos] == '-';
+			if (negative) {
+				i++;
+			}
+			if (length - i > 0 && length - i <= 15 && isDigits(pos + i, pos + length)) {
+				// Every integer with 15 digits or less is exactly representable.
+				long value = accumulate(pos + i, pos + length);
+				pos += length;
+				result = negative ? -(double) value : (double) value;
+			} else {
+				String text = new String(buffer, pos, length);
+				pos += length;
+				result = parseDouble(text);
+			}
+		} else if (token == JsonToken.STRING) {
+			result = parseDouble(readString());
+		} else {
+			throw syntaxError("Expected a number but was " + token);
+		}
+		peeked = null;
+		return result;
+	}
+
+	/**
+	 * The next value as a boolean. The strings "true" and "false" are
+	 * converted.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public boolean nextBoolean() throws JSONObjectAdapterException {
+		JsonToken token = peek();
+		boolean result;
+		if (token == JsonToken.BOOLEAN) {
+			if (buffer[pos] == 't') {
+				expectLiteral("true");
+				result = true;
+			} else {
+				expectLiteral("false");
+				result = false;
+			}
+		} else if (token == JsonToken.STRING) {
+			String text = readString();
+			if ("true".equalsIgnoreCase(text)) {
+				result = true;
+			} else if ("false".equalsIgnoreCase(text)) {
+				result = false;
+			} else {
+				throw syntaxError("Expected a boolean but was \"" + text + "\"");
+			}
+		} else {
+			throw syntaxError("Expected a boolean but was " + token);
+		}
+		peeked = null;
+		return result;
+	}
+
+	public void nextNull() throws JSONObjectAdapterException {
+		expect(JsonToken.NULL);
+		expectLiteral("null");
+		peeked = null;
+	}
+
+	/**
+	 * The next number as an Integer, Long or Double using the same rules as
+	 * org.json.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	Number nextNumber() throws JSONObjectAdapterException {
+		expect(JsonToken.NUMBER);
+		int length = literalLength();
+		String text = new String(buffer, pos, length);
+		pos += length;
+		peeked = null;
+		try {
+			if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0 && !"-0".equals(text)) {
+				long value = Long.parseLong(text);
+				if (value == (int) value) {
+					return Integer.valueOf((int) value);
+				}
+				return Long.valueOf(value);
+			}
+		} catch (NumberFormatException e) {
+			// too big for a long
+		}
+		return Double.valueOf(parseDouble(text));
+	}
+
+	/**
+	 * The next value of any type: a String, Number, Boolean, null or an adapter
+	 * for objects and arrays. This matches what JSONObjectAdapter.get() returns.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public Object nextAnyValue() throws JSONObjectAdapterException {
+		JsonToken token = peek();
+		switch (token) {
+		case STRING:
+			return nextString();
+		case NUMBER:
+			return nextNumber();
+		case BOOLEAN:
+			return nextBoolean();
+		case NULL:
+			nextNull();
+			return null;
+		case BEGIN_OBJECT:
+			return nextJSONObjectAdapter();
+		case BEGIN_ARRAY:
+			return nextJSONArrayAdapter();
+		default:
+			throw syntaxError("Expected a value but was " + token);
+		}
+	}
+
+	/**
+	 * Skip over the next value, including all of its children.
+	 *
+	 * @throws JSONObjectAdapterException
+	 */
+	public void skipValue() throws JSONObjectAdapterException {
+		int depth = 0;
+		do {
+			JsonToken token = peek();
+			switch (token) {
+			case BEGIN_OBJECT:
+				beginObject();
+				depth++;
+				break;
+			case BEGIN_ARRAY:
+				beginArray();
+				depth++;
+				break;
+			case END_OBJECT:
+				if (depth == 0) throw syntaxError("Expected a value but was " + token);
+				endObject();
+				depth--;
+				break;
+			case END_ARRAY:
+				if (depth == 0) throw syntaxError("Expected a value but was " + token);
+				endArray();
+				depth--;
+				break;
+			case NAME:
+			case STRING:
+				skipQuoted();
+				peeked = null;
+				break;
+			case NUMBER:
+				skipNumber();
+				peeked = null;
+				break;
+			case BOOLEAN:
+				expectLiteral(buffer[pos] == 't' ? "true" : "false");
+				peeked = null;
+				break;
+			case NULL:
+				expectLiteral("null");
+				peeked = null;
+				break;
+			default:
+				throw syntaxError("End of input");
+			}
+		} while (depth > 0);
+	}
+
+	/**
+	 * Read the raw JSON text of the next value.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public char[] nextRawValue() throws JSONObjectAdapterException {
+		peek();
+		if (in == null) {
+			int start = pos;
+			skipValue();
+			return Arrays.copyOfRange(buffer, start, pos);
+		}
+		captureLength = 0;
+		captureMark = pos;
+		try {
+			skipValue();
+			appendCapture(captureMark, pos);
+		} finally {
+			captureMark = -1;
+		}
+		return Arrays.copyOf(capture, captureLength);
+	}
+
+	/**
+	 * The next object as an adapter. When the whole document is in memory the
+	 * adapter shares this reader's buffer and is only parsed as it is used.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONObjectAdapter nextJSONObjectAdapter() throws JSONObjectAdapterException {
+		expect(JsonToken.BEGIN_OBJECT);
+		JsonTokenReader source = nextValueSource();
+		return new StreamingJSONObjectAdapter(source, source.position());
+	}
+
+	/**
+	 * The next array as an adapter.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONArrayAdapter nextJSONArrayAdapter() throws JSONObjectAdapterException {
+		expect(JsonToken.BEGIN_ARRAY);
+		JsonTokenReader source = nextValueSource();
+		return new StreamingJSONArrayAdapter(source, source.position());
+	}
+
+	/**
+	 * The next array of key/value pairs as a map adapter.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JSONMapAdapter nextJSONMapAdapter() throws JSONObjectAdapterException {
+		expect(JsonToken.BEGIN_ARRAY);
+		JsonTokenReader source = nextValueSource();
+		return new StreamingJSONMapAdapter(source, source.position());
+	}
+
+	/**
+	 * Skip the next value and create a new reader positioned at its start.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	private JsonTokenReader nextValueSource() throws JSONObjectAdapterException {
+		if (in == null) {
+			int start = pos;
+			skipValue();
+			return new JsonTokenReader(buffer, start, pos - start);
+		}
+		char[] raw = nextRawValue();
+		return new JsonTokenReader(raw, 0, raw.length);
+	}
+
+	/**
+	 * Move this reader to the given position in the buffer, ready to read a
+	 * single value. Only supported for in-memory sources.
+	 *
+	 * @param position
+	 */
+	void reset(int position) {
+		if (in != null) throw new IllegalStateException("Cannot reset a reader over a stream");
+		pos = position;
+		stackSize = 0;
+		push(EMPTY_DOCUMENT);
+		peeked = null;
+	}
+
+	/**
+	 * The current position in the buffer. After a call to {@link #peek()}
+	 * this is the start of the next token.
+	 *
+	 * @return
+	 */
+	int position() {
+		return pos;
+	}
+
+	/**
+	 * The backing buffer.
+	 *
+	 * @return
+	 */
+	char[] buffer() {
+		return buffer;
+	}
+
+	@Override
+	public void close() throws IOException {
+		peeked = null;
+		stackSize = 0;
+		push(EMPTY_DOCUMENT);
+		if (in != null) {
+			in.close();
+		}
+	}
+
+	private void expect(JsonToken expected) throws JSONObjectAdapterException {
+		JsonToken token = peek();
+		if (token != expected) {
+			throw syntaxError("Expected " + expected + " but was " + token);
+		}
+	}
+
+	private void push(int scope) {
+		if (stackSize == stack.length) {
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		}
+		stack[stackSize++] = scope;
+	}
+
+	/**
+	 * The next character that is not whitespace without consuming it.
+	 *
+	 * @param throwOnEnd
+	 * @return the character or -1 if the end of the input was reached.
+	 * @throws JSONObjectAdapterException
+	 */
+	private int nextNonWhitespace(boolean throwOnEnd) throws JSONObjectAdapterException {
+		while (true) {
+			if (pos == limit && !fill(1)) {
+				if (throwOnEnd) throw syntaxError("End of input");
+				return -1;
+			}
+			char c = buffer[pos];
+			if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+				pos++;
+			} else {
+				return c;
+			}
+		}
+	}
+
+	/**
+	 * The length of the literal (number, true, false or null) at the current
+	 * position. The entire literal is guaranteed to be in the buffer.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	private int literalLength() throws JSONObjectAdapterException {
+		int i = 0;
+		while (true) {
+			if (pos + i == limit && !fill(i + 1)) {
+				return i;
+			}
+			switch (buffer[pos + i]) {
+			case ' ':
+			case '\t':
+			case '\n':
+			case '\r':
+			case ',':
+			case ':':
+			case ']':
+			case '}':
+				return i;
+			default:
+				i++;
+			}
+		}
+	}
+
+	private void expectLiteral(String literal) throws JSONObjectAdapterException {
+		int length = literal.length();
+		if (limit - pos < length && !fill(length)) {
+			throw syntaxError("Expected " + literal);
+		}
+		for (int i = 0; i < length; i++) {
+			if (buffer[pos + i] != literal.charAt(i)) {
+				throw syntaxError("Expected " + literal);
+			}
+		}
+		pos += length;
+	}
+
+	private void skipNumber() throws JSONObjectAdapterException {
+		int length = literalLength();
+		for (int i = pos; i < pos + length; i++) {
+			char c = buffer[i];
+			if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+				throw syntaxError("Invalid number: " + new String(buffer, pos, length));
+			}
+		}
+		pos += length;
+	}
+
+	private boolean isDigits(int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = buffer[i];
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private long accumulate(int start, int end) {
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			value = value * 10 + (buffer[i] - '0');
+		}
+		return value;
+	}
+
+	private long parseLong(String text) throws JSONObjectAdapterException {
+		try {
+			return Long.parseLong(text);
+		} catch (NumberFormatException e) {
+			return (long) parseDouble(text);
+		}
+	}
+
+	private double parseDouble(String text) throws JSONObjectAdapterException {
+		try {
+			return Double.parseDouble(text);
+		} catch (NumberFormatException e) {
+			throw syntaxError("Expected a number but was \"" + text + "\"");
+		}
+	}
+
+	/**
+	 * Read a quoted name, reusing a cached String when the same name was seen
+	 * before.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	private String readName() throws JSONObjectAdapterException {
+		int start = pos + 1;
+		int hash = 0;
+		for (int p = start; p < limit; p++) {
+			char c = buffer[p];
+			if (c == '"') {
+				pos = p + 1;
+				return cachedName(start, p - start, hash);
+			}
+			if (c == '\\') {
+				break;
+			}
+			hash = 31 * hash + c;
+		}
+		return readString();
+	}
+
+	private String cachedName(int start, int length, int hash) {
+		if (nameCache == null) {
+			nameCache = new String[NAME_CACHE_SIZE];
+		}
+		int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+		String cached = nameCache[slot];
+		if (cached != null && cached.length() == length) {
+			int i = 0;
+			while (i < length && cached.charAt(i) == buffer[start + i]) {
+				i++;
+			}
+			if (i == length) {
+				return cached;
+			}
+		}
+		String name = new String(buffer, start, length);
+		nameCache[slot] = name;
+		return name;
+	}
+
+	/**
+	 * Read a quoted string starting at the opening quote.
+	 *
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	private String readString() throws JSONObjectAdapterException {
+		// skip the opening quote
+		pos++;
+		// Fast path for strings without escapes
+		int scanned = pos;
+		for (; scanned < limit; scanned++) {
+			char c = buffer[scanned];
+			if (c == '"') {
+				String result = new String(buffer, pos, scanned - pos);
+				pos = scanned + 1;
+				return result;
+			}
+			if (c == '\\') {
+				break;
+			}
+		}
+		// Sized for the chars before the first escape, the builder grows for
+		// the rest so it is not sized to the rest of the buffered document.
+		StringBuilder builder = new StringBuilder(scanned - pos + 16);
+		while (true) {
+			int p = pos;
+			while (p < limit) {
+				char c = buffer[p++];
+				if (c == '"') {
+					builder.append(buffer, pos, p - 1 - pos);
+					pos = p;
+					return builder.toString();
+				} else if (c == '\\') {
+					builder.append(buffer, pos, p - 1 - pos);
+					pos = p;
+					builder.append(readEscape());
+					p = pos;
+				}
+			}
+			builder.append(buffer, pos, p - pos);
+			pos = p;
+			if (!fill(1)) {
+				throw syntaxError("Unterminated string");
+			}
+		}
+	}
+
+	private char readEscape() throws JSONObjectAdapterException {
+		if (pos == limit && !fill(1)) {
+			throw syntaxError("Unterminated escape sequence");
+		}
+		char escaped = buffer[pos++];
+		switch (escaped) {
+		case 'u':
+			if (limit - pos < 4 && !fill(4)) {
+				throw syntaxError("Unterminated escape sequence");
+			}
+			int result = 0;
+			for (int i = pos; i < pos + 4; i++) {
+				int digit = Character.digit(buffer[i], 16);
+				if (digit < 0) {
+					throw syntaxError("Invalid escape sequence: \\u" + new String(buffer, pos, 4));
+				}
+				result = (result << 4) + digit;
+			}
+			pos += 4;
+			return (char) result;
+		case 't':
+			return '\t';
+		case 'b':
+			return '\b';
+		case 'n':
+			return '\n';
+		case 'r':
+			return '\r';
+		case 'f':
+			return '\f';
+		case '"':
+		case '\'':
+		case '\\':
+		case '/':
+			return escaped;
+		default:
+			throw syntaxError("Invalid escape sequence: \\" + escaped);
+		}
+	}
+
+	/**
+	 * Skip a quoted string or name without decoding it.
+	 *
+	 * @throws JSONObjectAdapterException
+	 */
+	private void skipQuoted() throws JSONObjectAdapterException {
+		// skip the opening quote
+		pos++;
+		while (true) {
+			while (pos < limit) {
+				char c = buffer[pos++];
+				if (c == '"') {
+					return;
+				} else if (c == '\\') {
+					if (pos == limit && !fill(1)) {
+						throw syntaxError("Unterminated escape sequence");
+					}
+					pos++;
+				}
+			}
+			if (!fill(1)) {
+				throw syntaxError("Unterminated string");
+			}
+		}
+	}
+
+	/**
+	 * Make sure there are at least minimum characters available after the
+	 * current position.
+	 *
+	 * @param minimum
+	 * @return false if the end of the input was reached first.
+	 * @throws JSONObjectAdapterException
+	 */
+	private boolean fill(int minimum) throws JSONObjectAdapterException {
+		if (in == null) {
+			return false;
+		}
+		if (captureMark >= 0) {
+			appendCapture(captureMark, pos);
+			captureMark = 0;
+		}
+		// Shift the unread characters to the front of the buffer.
+		if (pos > 0) {
+			int remaining = limit - pos;
+			System.arraycopy(buffer, pos, buffer, 0, remaining);
+			discarded += pos;
+			limit = remaining;
+			pos = 0;
+		}
+		if (minimum > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(minimum, buffer.length * 2));
+		}
+		try {
+			while (limit < minimum) {
+				int read = in.read(buffer, limit, buffer.length - limit);
+				if (read == -1) {
+					return false;
+				}
+				limit += read;
+			}
+			return true;
+		} catch (IOException e) {
+			throw new JSONObjectAdapterException(e);
+		}
+	}
+
+	private void appendCapture(int start, int end) {
+		int length = end - start;
+		if (capture == null) {
+			capture = new char[Math.max(64, length)];
+		} else if (captureLength + length > capture.length) {
+			capture = Arrays.copyOf(capture, Math.max(captureLength + length, capture.length * 2));
+		}
+		System.arraycopy(buffer, start, capture, captureLength, length);
+		captureLength += length;
+	}
+
+	private JSONObjectAdapterException syntaxError(String message) {
+		return new JSONObjectAdapterException(message + " at character " + (discarded + pos + 1));
+	}
+}
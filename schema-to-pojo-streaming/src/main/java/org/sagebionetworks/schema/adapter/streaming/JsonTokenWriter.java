@@ -0,0 +1,486 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import org.sagebionetworks.schema.adapter.JSONEntity;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.binary.Base64Codec;
+
+/**
+ * Writes JSON tokens to an {@link Appendable} through a small, fixed size
+ * buffer so large documents never need to be held in memory as a String.
+ * <p>
+ * Strings and numbers are written the same way org.json writes them, so output
+ * from this writer can be compared with output from the org.json adapters.
+ * Multiple top-level values are separated by a new line.
+ * <p>
+ * This class is not thread safe.
+ *
+ */
+public class JsonTokenWriter {
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int DANGLING_NAME = 3;
+	private static final int NONEMPTY_OBJECT = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+
+	private static final int DEFAULT_BUFFER_SIZE = 4096;
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0d);
+
+	private final Appendable out;
+	private final char[] buffer;
+	private int count;
+
+	private int[] stack = new int[8];
+	private int stackSize;
+
+	/**
+	 * Write to the given Appendable.
+	 *
+	 * @param out
+	 */
+	public JsonTokenWriter(Appendable out) {
+		this(out, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Write to the given Appendable, buffering at most bufferSize characters
+	 * before they are passed on.
+	 *
+	 * @param out
+	 * @param bufferSize
+	 */
+	public JsonTokenWriter(Appendable out, int bufferSize) {
+		if (out == null) throw new IllegalArgumentException("Appendable cannot be null");
+		if (bufferSize < 16) throw new IllegalArgumentException("Buffer size must be at least 16");
+		this.out = out;
+		this.buffer = new char[bufferSize];
+		push(EMPTY_DOCUMENT);
+	}
+
+	public JsonTokenWriter beginObject() throws JSONObjectAdapterException {
+		beforeValue();
+		write('{');
+		push(EMPTY_OBJECT);
+		return this;
+	}
+
+	public JsonTokenWriter endObject() throws JSONObjectAdapterException {
+		int scope = peekScope();
+		if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT) throw new IllegalStateException("Nesting problem");
+		stackSize--;
+		write('}');
+		return this;
+	}
+
+	public JsonTokenWriter beginArray() throws JSONObjectAdapterException {
+		beforeValue();
+		write('[');
+		push(EMPTY_ARRAY);
+		return this;
+	}
+
+	public JsonTokenWriter endArray() throws JSONObjectAdapterException {
+		int scope = peekScope();
+		if (scope != EMPTY_ARRAY && scope != NONEMPTY_ARRAY) throw new IllegalStateException("Nesting problem");
+		stackSize--;
+		write(']');
+		return this;
+	}
+
+	/**
+	 * Write the name of the next object member.
+	 *
+	 * @param name
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JsonTokenWriter name(String name) throws JSONObjectAdapterException {
+		if (name == null) throw new IllegalArgumentException("Name cannot be null");
+		int scope = peekScope();
+		if (scope == NONEMPTY_OBJECT) {
+			write(',');
+		} else if (scope != EMPTY_OBJECT) {
+			throw new IllegalStateException("Nesting problem");
+		}
+		stack[stackSize - 1] = DANGLING_NAME;
+		writeQuoted(name);
+		write(':');
+		return this;
+	}
+
+	/**
+	 * Write a string value. A null value is written as null.
+	 *
+	 * @param value
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JsonTokenWriter value(String value) throws JSONObjectAdapterException {
+		if (value == null) {
+			return nullValue();
+		}
+		beforeValue();
+		writeQuoted(value);
+		return this;
+	}
+
+	public JsonTokenWriter value(long value) throws JSONObjectAdapterException {
+		beforeValue();
+		if (value == Long.MIN_VALUE) {
+			writeRaw("-9223372036854775808");
+			return this;
+		}
+		ensureCapacity(20);
+		if (value < 0) {
+			buffer[count++] = '-';
+			value = -value;
+		}
+		// write the digits backwards
+		int end = count + digitCount(value);
+		int i = end;
+		do {
+			buffer[--i] = (char) ('0' + (value % 10));
+			value /= 10;
+		} while (value != 0);
+		count = end;
+		return this;
+	}
+
+	/**
+	 * Write a double value. NaN and infinite values are not valid JSON numbers
+	 * so they are written as strings, the same as the adapters do.
+	 *
+	 * @param value
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JsonTokenWriter value(double value) throws JSONObjectAdapterException {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return value(Double.toString(value));
+		}
+		if (value == (long) value && Math.abs(value) < 1.0e7 && Double.doubleToRawLongBits(value) != NEGATIVE_ZERO_BITS) {
+			// Double.toString() would produce "n.0" which is written as "n".
+			return value((long) value);
+		}
+		beforeValue();
+		writeRaw(numberToString(value));
+		return this;
+	}
+
+	/**
+	 * Write binary data as a base64 string, the same as the adapters store
+	 * it. The data is encoded straight into the buffer without creating a
+	 * String. A null value is written as null.
+	 *
+	 * @param value
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JsonTokenWriter binaryValue(byte[] value) throws JSONObjectAdapterException {
+		if (value == null) {
+			return nullValue();
+		}
+		beforeValue();
+		write('"');
+		int offset = 0;
+		while (offset < value.length) {
+			// Encode as many whole groups of three bytes as fit in the buffer.
+			int groups = (buffer.length - count) / 4;
+			if (groups == 0) {
+				flushBuffer();
+				groups = buffer.length / 4;
+			}
+			int length = Math.min(value.length - offset, groups * 3);
+			count += Base64Codec.encode(value, offset, length, buffer, count);
+			offset += length;
+		}
+		write('"');
+		return this;
+	}
+
+	public JsonTokenWriter value(boolean value) throws JSONObjectAdapterException {
+		beforeValue();
+		writeRaw(value ? "true" : "false");
+		return this;
+	}
+
+	public JsonTokenWriter nullValue() throws JSONObjectAdapterException {
+		beforeValue();
+		writeRaw("null");
+		return this;
+	}
+
+	/**
+	 * Write an entity as a JSON object. A {@link StreamingJSONEntity} writes
+	 * its properties straight to this writer. Any other entity first writes
+	 * the whole of itself to a {@link StreamingJSONObjectAdapter}, which is
+	 * then written out, so the memory used is only bounded for streaming
+	 * entities. The JSONObjectAdapter API fills in a nested object or array
+	 * before it is put, so it cannot be written as it goes. A null value is
+	 * written as null.
+	 *
+	 * @param entity
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JsonTokenWriter value(JSONEntity entity) throws JSONObjectAdapterException {
+		if (entity == null) {
+			return nullValue();
+		}
+		if (entity instanceof StreamingJSONEntity) {
+			((StreamingJSONEntity) entity).writeTo(this);
+		} else {
+			StreamingJSONObjectAdapter adapter = new StreamingJSONObjectAdapter();
+			entity.writeToJSONObject(adapter);
+			adapter.writeTo(this);
+		}
+		return this;
+	}
+
+	/**
+	 * Write a value of any type. Strings, numbers, booleans, entities and the
+	 * streaming adapters are written as JSON values, anything else is written
+	 * as the string from toString(). A null value is written as null.
+	 *
+	 * @param value
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JsonTokenWriter anyValue(Object value) throws JSONObjectAdapterException {
+		if (value instanceof JSONEntity) {
+			return value((JSONEntity) value);
+		}
+		StreamingContainer.writeValue(this, value);
+		return this;
+	}
+
+	/**
+	 * Write a value that is already JSON text. The text is written as-is.
+	 *
+	 * @param json
+	 * @param offset
+	 * @param length
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	public JsonTokenWriter rawValue(char[] json, int offset, int length) throws JSONObjectAdapterException {
+		beforeValue();
+		write(json, offset, length);
+		return this;
+	}
+
+	/**
+	 * Pass all buffered characters to the underlying Appendable, and flush it
+	 * if it is a Writer.
+	 *
+	 * @throws JSONObjectAdapterException
+	 */
+	public void flush() throws JSONObjectAdapterException {
+		flushBuffer();
+		if (out instanceof Writer) {
+			try {
+				((Writer) out).flush();
+			} catch (IOException e) {
+				throw new JSONObjectAdapterException(e);
+			}
+		}
+	}
+
+	/**
+	 * Same as org.json JSONObject.numberToString().
+	 *
+	 * @param value
+	 * @return
+	 */
+	static String numberToString(double value) {
+		String string = Double.toString(value);
+		if (string.indexOf('.') > 0 && string.indexOf('e') < 0 && string.indexOf('E') < 0) {
+			int end = string.length();
+			while (string.charAt(end - 1) == '0') {
+				end--;
+			}
+			if (string.charAt(end - 1) == '.') {
+				end--;
+			}
+			return string.substring(0, end);
+		}
+		return string;
+	}
+
+	private static int digitCount(long value) {
+		int digits = 1;
+		while (value >= 10) {
+			value /= 10;
+			digits++;
+		}
+		return digits;
+	}
+
+	private void beforeValue() throws JSONObjectAdapterException {
+		int scope = peekScope();
+		switch (scope) {
+		case EMPTY_DOCUMENT:
+			stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+			break;
+		case NONEMPTY_DOCUMENT:
+			write('\n');
+			break;
+		case EMPTY_ARRAY:
+			stack[stackSize - 1] = NONEMPTY_ARRAY;
+			break;
+		case NONEMPTY_ARRAY:
+			write(',');
+			break;
+		case DANGLING_NAME:
+			stack[stackSize - 1] = NONEMPTY_OBJECT;
+			break;
+		default:
+			throw new IllegalStateException("Nesting problem");
+		}
+	}
+
+	private int peekScope() {
+		if (stackSize == 0) throw new IllegalStateException("Writer is closed");
+		return stack[stackSize - 1];
+	}
+
+	private void push(int scope) {
+		if (stackSize == stack.length) {
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		}
+		stack[stackSize++] = scope;
+	}
+
+	/**
+	 * Same escaping as org.json JSONObject.quote().
+	 *
+	 * @param value
+	 */
+	private void writeQuoted(String value) throws JSONObjectAdapterException {
+		write('"');
+		int length = value.length();
+		// start of the current run of characters that do not need escaping
+		int run = 0;
+		char previous = 0;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			String escape = null;
+			switch (c) {
+			case '"':
+				escape = "\\\"";
+				break;
+			case '\\':
+				escape = "\\\\";
+				break;
+			case '/':
+				if (previous == '<') {
+					escape = "\\/";
+				}
+				break;
+			case '\b':
+				escape = "\\b";
+				break;
+			case '\t':
+				escape = "\\t";
+				break;
+			case '\n':
+				escape = "\\n";
+				break;
+			case '\f':
+				escape = "\\f";
+				break;
+			case '\r':
+				escape = "\\r";
+				break;
+			default:
+				if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+					writeRun(value, run, i);
+					run = i + 1;
+					ensureCapacity(6);
+					buffer[count++] = '\\';
+					buffer[count++] = 'u';
+					buffer[count++] = HEX[(c >> 12) & 0xF];
+					buffer[count++] = HEX[(c >> 8) & 0xF];
+					buffer[count++] = HEX[(c >> 4) & 0xF];
+					buffer[count++] = HEX[c & 0xF];
+				}
+			}
+			if (escape != null) {
+				writeRun(value, run, i);
+				run = i + 1;
+				writeRaw(escape);
+			}
+			previous = c;
+		}
+		writeRun(value, run, length);
+		write('"');
+	}
+
+	private void writeRun(String value, int start, int end) throws JSONObjectAdapterException {
+		while (start < end) {
+			if (count == buffer.length) {
+				flushBuffer();
+			}
+			int chunk = Math.min(end - start, buffer.length - count);
+			value.getChars(start, start + chunk, buffer, count);
+			count += chunk;
+			start += chunk;
+		}
+	}
+
+	private void writeRaw(String value) throws JSONObjectAdapterException {
+		writeRun(value, 0, value.length());
+	}
+
+	private void write(char c) throws JSONObjectAdapterException {
+		if (count == buffer.length) {
+			flushBuffer();
+		}
+		buffer[count++] = c;
+	}
+
+	private void write(char[] chars, int offset, int length) throws JSONObjectAdapterException {
+		while (length > 0) {
+			if (count == buffer.length) {
+				flushBuffer();
+			}
+			int chunk = Math.min(length, buffer.length - count);
+			System.arraycopy(chars, offset, buffer, count, chunk);
+			count += chunk;
+			offset += chunk;
+			length -= chunk;
+		}
+	}
+
+	private void ensureCapacity(int needed) throws JSONObjectAdapterException {
+		if (buffer.length - count < needed) {
+			flushBuffer();
+		}
+	}
+
+	private void flushBuffer() throws JSONObjectAdapterException {
+		if (count == 0) {
+			return;
+		}
+		try {
+			if (out instanceof StringBuilder) {
+				((StringBuilder) out).append(buffer, 0, count);
+			} else if (out instanceof Writer) {
+				((Writer) out).write(buffer, 0, count);
+			} else {
+				out.append(CharBuffer.wrap(buffer, 0, count));
+			}
+		} catch (IOException e) {
+			throw new JSONObjectAdapterException(e);
+		}
+		count = 0;
+	}
+}
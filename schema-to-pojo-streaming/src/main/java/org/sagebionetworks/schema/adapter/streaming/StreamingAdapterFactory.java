@@ -0,0 +1,116 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONMapAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.Utf8AdapterFactory;
+
+/**
+ * The streaming implementation of AdapterFactory. UTF-8 input is decoded in a
+ * single pass straight into the char[] the adapters read from.
+ *
+ */
+public class StreamingAdapterFactory implements Utf8AdapterFactory {
+
+	@Override
+	public JSONObjectAdapter createNew() {
+		return new StreamingJSONObjectAdapter();
+	}
+
+	@Override
+	public JSONObjectAdapter createNew(String json) throws JSONObjectAdapterException {
+		return new StreamingJSONObjectAdapter(json);
+	}
+
+	@Override
+	public JSONObjectAdapter createNew(byte[] utf8, int offset, int length) throws JSONObjectAdapterException {
+		return new StreamingJSONObjectAdapter(utf8, offset, length);
+	}
+
+	@Override
+	public JSONObjectAdapter createNew(ByteBuffer utf8) throws JSONObjectAdapterException {
+		ByteBuffer heap = Buffers.toHeap(utf8);
+		return new StreamingJSONObjectAdapter(heap.array(), heap.arrayOffset() + heap.position(), heap.remaining());
+	}
+
+	@Override
+	public JSONObjectAdapter createNew(InputStream utf8) throws JSONObjectAdapterException {
+		return createNew(Buffers.readFully(utf8));
+	}
+
+	@Override
+	public JSONObjectAdapter createNew(Reader json) throws JSONObjectAdapterException {
+		CharBuffer chars = Buffers.readFully(json);
+		return new StreamingJSONObjectAdapter(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+	}
+
+	@Override
+	public JSONArrayAdapter createNewArray() {
+		return new StreamingJSONArrayAdapter();
+	}
+
+	@Override
+	public JSONArrayAdapter createNewArray(String json) throws JSONObjectAdapterException {
+		return new StreamingJSONArrayAdapter(json);
+	}
+
+	@Override
+	public JSONArrayAdapter createNewArray(byte[] utf8, int offset, int length) throws JSONObjectAdapterException {
+		return new StreamingJSONArrayAdapter(utf8, offset, length);
+	}
+
+	@Override
+	public JSONArrayAdapter createNewArray(ByteBuffer utf8) throws JSONObjectAdapterException {
+		ByteBuffer heap = Buffers.toHeap(utf8);
+		return new StreamingJSONArrayAdapter(heap.array(), heap.arrayOffset() + heap.position(), heap.remaining());
+	}
+
+	@Override
+	public JSONArrayAdapter createNewArray(InputStream utf8) throws JSONObjectAdapterException {
+		return createNewArray(Buffers.readFully(utf8));
+	}
+
+	@Override
+	public JSONArrayAdapter createNewArray(Reader json) throws JSONObjectAdapterException {
+		CharBuffer chars = Buffers.readFully(json);
+		return new StreamingJSONArrayAdapter(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+	}
+
+	@Override
+	public JSONMapAdapter createNewMap() {
+		return new StreamingJSONMapAdapter();
+	}
+
+	@Override
+	public JSONMapAdapter createNewMap(String json) throws JSONObjectAdapterException {
+		return new StreamingJSONMapAdapter(json);
+	}
+
+	@Override
+	public JSONMapAdapter createNewMap(byte[] utf8, int offset, int length) throws JSONObjectAdapterException {
+		return new StreamingJSONMapAdapter(utf8, offset, length);
+	}
+
+	@Override
+	public JSONMapAdapter createNewMap(ByteBuffer utf8) throws JSONObjectAdapterException {
+		ByteBuffer heap = Buffers.toHeap(utf8);
+		return new StreamingJSONMapAdapter(heap.array(), heap.arrayOffset() + heap.position(), heap.remaining());
+	}
+
+	@Override
+	public JSONMapAdapter createNewMap(InputStream utf8) throws JSONObjectAdapterException {
+		return createNewMap(Buffers.readFully(utf8));
+	}
+
+	@Override
+	public JSONMapAdapter createNewMap(Reader json) throws JSONObjectAdapterException {
+		CharBuffer chars = Buffers.readFully(json);
+		return new StreamingJSONMapAdapter(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+	}
+}
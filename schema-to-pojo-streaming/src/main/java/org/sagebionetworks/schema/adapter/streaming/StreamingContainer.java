@@ -0,0 +1,537 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.sagebionetworks.schema.FORMAT;
+import org.sagebionetworks.schema.adapter.JSONAdapter;
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONMapAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.binary.Base64Codec;
+
+/**
+ * Shared storage for the streaming adapters.
+ * <p>
+ * A container that was read from JSON text does not decode its values up
+ * front. Instead, the first time it is used it scans its own members once and
+ * records where each value starts in the backing buffer. Values are then
+ * decoded from the buffer each time they are requested, and nested objects
+ * and arrays are returned as new containers over the same buffer. Values that
+ * are put into a container are stored as Java objects. Binary values are
+ * stored as a copy of the bytes and only encoded as base64 when written, or
+ * when read back as a String.
+ *
+ */
+abstract class StreamingContainer extends StreamingAdapterFactory implements JSONAdapter {
+
+	/**
+	 * Marks a null value that was put into a container.
+	 */
+	static final Object NULL = new Object() {
+		@Override
+		public String toString() {
+			return "null";
+		}
+	};
+
+	/**
+	 * Containers with more keys than this are searched with a hash index.
+	 */
+	private static final int LINEAR_SEARCH_LIMIT = 8;
+	private static final int[] EMPTY_INTS = new int[0];
+	private static final Object[] EMPTY_OBJECTS = new Object[0];
+
+	/**
+	 * Reads from the backing buffer, or null for a container that was not
+	 * created from JSON text.
+	 */
+	final JsonTokenReader source;
+	/**
+	 * The position of this container in the backing buffer.
+	 */
+	final int start;
+	private boolean indexed;
+
+	int size;
+	Object[] keys = EMPTY_OBJECTS;
+	/**
+	 * The start and end of each value in the backing buffer. The start is -1
+	 * for values that were put into this container.
+	 */
+	int[] offsets = EMPTY_INTS;
+	int[] ends = EMPTY_INTS;
+	Object[] values = EMPTY_OBJECTS;
+	private Map<Object, Integer> keyIndex;
+
+	StreamingContainer(JsonTokenReader source, int start) {
+		this.source = source;
+		this.start = start;
+		this.indexed = source == null;
+	}
+
+	/**
+	 * The position of the next value, which must be of the expected type.
+	 *
+	 * @param reader
+	 * @param expected
+	 * @param description
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	static int startOf(JsonTokenReader reader, JsonToken expected, String description) throws JSONObjectAdapterException {
+		if (reader.peek() != expected) {
+			throw new JSONObjectAdapterException(description);
+		}
+		return reader.position();
+	}
+
+	/**
+	 * Scan the members of this container and add an entry for each.
+	 *
+	 * @param reader
+	 *            Positioned at the start of this container.
+	 * @throws JSONObjectAdapterException
+	 */
+	abstract void index(JsonTokenReader reader) throws JSONObjectAdapterException;
+
+	/**
+	 * Write this container.
+	 *
+	 * @param writer
+	 * @throws JSONObjectAdapterException
+	 */
+	abstract void writeTo(JsonTokenWriter writer) throws JSONObjectAdapterException;
+
+	/**
+	 * Describe the given entry for an error message.
+	 *
+	 * @param index
+	 * @return
+	 */
+	abstract String describe(int index);
+
+	/**
+	 * Index the members now. Used by the top-level constructors so that any
+	 * syntax error is found up front.
+	 *
+	 * @throws JSONObjectAdapterException
+	 */
+	final void indexNow() throws JSONObjectAdapterException {
+		indexed = true;
+		source.reset(start);
+		index(source);
+	}
+
+	final void ensureIndexed() {
+		if (!indexed) {
+			try {
+				indexNow();
+			} catch (JSONObjectAdapterException e) {
+				// The text was validated when the top-level container was created.
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	final int indexOf(Object key) {
+		ensureIndexed();
+		if (size <= LINEAR_SEARCH_LIMIT) {
+			for (int i = 0; i < size; i++) {
+				if (key == null ? keys[i] == null : key.equals(keys[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		if (keyIndex == null) {
+			keyIndex = new HashMap<Object, Integer>(size * 2);
+			for (int i = 0; i < size; i++) {
+				keyIndex.put(keys[i], i);
+			}
+		}
+		Integer index = keyIndex.get(key);
+		return index == null ? -1 : index;
+	}
+
+	final int addEntry(Object key, int offset, int end, Object value) {
+		if (size == offsets.length) {
+			int capacity = Math.max(8, size * 2);
+			keys = Arrays.copyOf(keys, capacity);
+			offsets = Arrays.copyOf(offsets, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		keys[size] = key;
+		offsets[size] = offset;
+		ends[size] = end;
+		values[size] = value;
+		if (keyIndex != null) {
+			keyIndex.put(key, size);
+		}
+		return size++;
+	}
+
+	/**
+	 * Set the value of the given key, adding it if needed.
+	 *
+	 * @param key
+	 * @param value
+	 */
+	final void putEntry(Object key, Object value) {
+		int index = indexOf(key);
+		if (index < 0) {
+			addEntry(key, -1, -1, value);
+		} else {
+			offsets[index] = -1;
+			values[index] = value;
+		}
+	}
+
+	/**
+	 * Remove the entry for the given key if there is one.
+	 *
+	 * @param key
+	 */
+	final void removeEntry(Object key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return;
+		}
+		int moved = size - index - 1;
+		System.arraycopy(keys, index + 1, keys, index, moved);
+		System.arraycopy(offsets, index + 1, offsets, index, moved);
+		System.arraycopy(ends, index + 1, ends, index, moved);
+		System.arraycopy(values, index + 1, values, index, moved);
+		size--;
+		keys[size] = null;
+		values[size] = null;
+		keyIndex = null;
+	}
+
+	final Iterator<Object> keyIterator() {
+		ensureIndexed();
+		return new Iterator<Object>() {
+			int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public Object next() {
+				if (next >= size) throw new NoSuchElementException();
+				return keys[next++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Position the source at the start of a value that has not been decoded.
+	 *
+	 * @param index
+	 * @return
+	 */
+	private JsonTokenReader readerAt(int index) {
+		source.reset(offsets[index]);
+		return source;
+	}
+
+	final boolean isNullAt(int index) {
+		if (offsets[index] >= 0) {
+			try {
+				return readerAt(index).peek() == JsonToken.NULL;
+			} catch (JSONObjectAdapterException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return values[index] == NULL;
+	}
+
+	final Object valueAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			JsonTokenReader reader = readerAt(index);
+			switch (reader.peek()) {
+			case STRING:
+				return reader.nextString();
+			case NUMBER:
+				return reader.nextNumber();
+			case BOOLEAN:
+				return reader.nextBoolean();
+			case BEGIN_OBJECT:
+				return new StreamingJSONObjectAdapter(source, offsets[index]);
+			case BEGIN_ARRAY:
+				return new StreamingJSONArrayAdapter(source, offsets[index]);
+			default:
+				return null;
+			}
+		}
+		Object value = values[index];
+		if (value instanceof byte[]) {
+			return Base64Codec.encodeToString((byte[]) value);
+		}
+		return value == NULL ? null : value;
+	}
+
+	final String stringAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			return readerAt(index).nextString();
+		}
+		Object value = values[index];
+		if (value instanceof String) {
+			return (String) value;
+		}
+		if (value instanceof Number || value instanceof Boolean) {
+			return value.toString();
+		}
+		if (value instanceof byte[]) {
+			return Base64Codec.encodeToString((byte[]) value);
+		}
+		throw new JSONObjectAdapterException(describe(index) + " not a string.");
+	}
+
+	final long longAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			return readerAt(index).nextLong();
+		}
+		Object value = values[index];
+		if (value instanceof Number) {
+			return ((Number) value).longValue();
+		}
+		return (long) parseNumber(index, value);
+	}
+
+	final int intAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			return readerAt(index).nextInt();
+		}
+		Object value = values[index];
+		if (value instanceof Number) {
+			return ((Number) value).intValue();
+		}
+		return (int) parseNumber(index, value);
+	}
+
+	final double doubleAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			return readerAt(index).nextDouble();
+		}
+		Object value = values[index];
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		return parseNumber(index, value);
+	}
+
+	private double parseNumber(int index, Object value) throws JSONObjectAdapterException {
+		if (value instanceof String) {
+			try {
+				return Double.parseDouble((String) value);
+			} catch (NumberFormatException e) {
+				// fall through
+			}
+		}
+		throw new JSONObjectAdapterException(describe(index) + " is not a number.");
+	}
+
+	final boolean booleanAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			return readerAt(index).nextBoolean();
+		}
+		Object value = values[index];
+		if (value instanceof Boolean) {
+			return (Boolean) value;
+		}
+		if (value instanceof String) {
+			if ("true".equalsIgnoreCase((String) value)) {
+				return true;
+			} else if ("false".equalsIgnoreCase((String) value)) {
+				return false;
+			}
+		}
+		throw new JSONObjectAdapterException(describe(index) + " is not a Boolean.");
+	}
+
+	final StreamingJSONObjectAdapter objectAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			if (readerAt(index).peek() == JsonToken.BEGIN_OBJECT) {
+				return new StreamingJSONObjectAdapter(source, offsets[index]);
+			}
+		} else if (values[index] instanceof StreamingJSONObjectAdapter) {
+			return (StreamingJSONObjectAdapter) values[index];
+		}
+		throw new JSONObjectAdapterException(describe(index) + " is not a JSONObject.");
+	}
+
+	final StreamingJSONArrayAdapter arrayAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			if (readerAt(index).peek() == JsonToken.BEGIN_ARRAY) {
+				return new StreamingJSONArrayAdapter(source, offsets[index]);
+			}
+		} else if (values[index] instanceof StreamingJSONArrayAdapter) {
+			return (StreamingJSONArrayAdapter) values[index];
+		}
+		throw new JSONObjectAdapterException(describe(index) + " is not a JSONArray.");
+	}
+
+	final StreamingJSONMapAdapter mapAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			if (readerAt(index).peek() == JsonToken.BEGIN_ARRAY) {
+				return new StreamingJSONMapAdapter(source, offsets[index]);
+			}
+		} else if (values[index] instanceof StreamingJSONMapAdapter) {
+			return (StreamingJSONMapAdapter) values[index];
+		}
+		throw new JSONObjectAdapterException(describe(index) + " is not a JSONArray.");
+	}
+
+	final byte[] binaryAt(int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			return readerAt(index).nextBinary();
+		}
+		Object value = values[index];
+		if (value instanceof byte[]) {
+			return ((byte[]) value).clone();
+		}
+		return Base64Codec.decode(stringAt(index));
+	}
+
+	/**
+	 * Write the value of the given entry. Values that have not been decoded
+	 * are copied directly from the backing buffer.
+	 *
+	 * @param writer
+	 * @param index
+	 * @throws JSONObjectAdapterException
+	 */
+	final void writeEntry(JsonTokenWriter writer, int index) throws JSONObjectAdapterException {
+		if (offsets[index] >= 0) {
+			writer.rawValue(source.buffer(), offsets[index], ends[index] - offsets[index]);
+		} else {
+			writeValue(writer, values[index]);
+		}
+	}
+
+	static void writeValue(JsonTokenWriter writer, Object value) throws JSONObjectAdapterException {
+		if (value == null || value == NULL) {
+			writer.nullValue();
+		} else if (value instanceof String) {
+			writer.value((String) value);
+		} else if (value instanceof byte[]) {
+			writer.binaryValue((byte[]) value);
+		} else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			writer.value(((Number) value).longValue());
+		} else if (value instanceof Number) {
+			writer.value(((Number) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			writer.value(((Boolean) value).booleanValue());
+		} else if (value instanceof StreamingContainer) {
+			((StreamingContainer) value).writeTo(writer);
+		} else {
+			writer.value(value.toString());
+		}
+	}
+
+	/**
+	 * The value to store for a double. NaN and infinite values are stored as
+	 * strings the same as the org.json adapters.
+	 *
+	 * @param value
+	 * @return
+	 */
+	static Object doubleValue(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return Double.toString(value);
+		}
+		return value;
+	}
+
+	/**
+	 * The value to store for binary data: a copy, so changes the caller makes
+	 * later are not written.
+	 *
+	 * @param value
+	 * @return
+	 */
+	static Object binaryValue(byte[] value) {
+		if (value == null) throw new IllegalArgumentException("Value cannot be null");
+		return value.clone();
+	}
+
+	/**
+	 * Adapters from other implementations are converted by parsing their JSON.
+	 *
+	 * @param value
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	static Object toContainer(JSONObjectAdapter value) throws JSONObjectAdapterException {
+		if (value == null) {
+			return NULL;
+		}
+		if (value instanceof StreamingJSONObjectAdapter) {
+			return value;
+		}
+		return new StreamingJSONObjectAdapter(value.toJSONString());
+	}
+
+	static Object toContainer(JSONArrayAdapter value) throws JSONObjectAdapterException {
+		if (value == null) {
+			return NULL;
+		}
+		if (value instanceof StreamingJSONArrayAdapter) {
+			return value;
+		}
+		return new StreamingJSONArrayAdapter(value.toJSONString());
+	}
+
+	static Object toContainer(JSONMapAdapter value) throws JSONObjectAdapterException {
+		if (value == null) {
+			return NULL;
+		}
+		if (value instanceof StreamingJSONMapAdapter) {
+			return value;
+		}
+		return new StreamingJSONMapAdapter(value.toJSONString());
+	}
+
+	@Override
+	public String toJSONString() {
+		StringBuilder builder = new StringBuilder();
+		JsonTokenWriter writer = new JsonTokenWriter(builder);
+		try {
+			writeTo(writer);
+			writer.flush();
+		} catch (JSONObjectAdapterException e) {
+			// Writing to a StringBuilder does not fail.
+			throw new IllegalStateException(e);
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		return toJSONString();
+	}
+
+	@Override
+	public String convertDateToString(FORMAT format, Date toFormat) {
+		return StreamingDateUtils.convertDateToString(format, toFormat);
+	}
+
+	@Override
+	public Date convertStringToDate(FORMAT format, String toFormat) {
+		return StreamingDateUtils.convertStringToDate(format, toFormat);
+	}
+}
@@ -0,0 +1,39 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import java.util.Date;
+
+import org.sagebionetworks.schema.FORMAT;
+import org.sagebionetworks.schema.util.IsoDateUtils;
+
+/**
+ * Date conversion for the streaming adapters. Produces the same strings as
+ * the org.json adapters: dates are printed in the default time zone and parsed
+ * with the offset they contain.
+ *
+ */
+public class StreamingDateUtils {
+
+	/**
+	 * Convert a date to a string of the given format.
+	 * @param format
+	 * @param toFormat
+	 * @return
+	 */
+	public static String convertDateToString(FORMAT format, Date toFormat) {
+		if(format == null) throw new IllegalArgumentException("FORMAT cannot be null");
+		if(toFormat == null) throw new IllegalArgumentException("Date cannot be null");
+		return IsoDateUtils.format(format, toFormat.getTime());
+	}
+
+	/**
+	 * Convert a string to a date of the given format.
+	 * @param format
+	 * @param toFormat
+	 * @return
+	 */
+	public static Date convertStringToDate(FORMAT format, String toFormat) {
+		if(format == null) throw new IllegalArgumentException("FORMAT cannot be null");
+		if(toFormat == null) throw new IllegalArgumentException("Date cannot be null");
+		return new Date(IsoDateUtils.parse(format, toFormat));
+	}
+}
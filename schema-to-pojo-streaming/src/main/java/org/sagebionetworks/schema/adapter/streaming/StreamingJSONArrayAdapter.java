@@ -0,0 +1,247 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import java.util.Date;
+
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+
+/**
+ * A JSONArrayAdapter that reads directly from JSON text without building a
+ * DOM. Elements are only located the first time the array is used, and values
+ * are only decoded when they are requested.
+ * <p>
+ * This class is not thread safe.
+ *
+ */
+public class StreamingJSONArrayAdapter extends StreamingContainer implements JSONArrayAdapter {
+
+	public StreamingJSONArrayAdapter() {
+		super(null, 0);
+	}
+
+	/**
+	 * Create a new adapter from a JSON string
+	 * @param json
+	 * @throws JSONObjectAdapterException
+	 */
+	public StreamingJSONArrayAdapter(String json) throws JSONObjectAdapterException {
+		this(new JsonTokenReader(json));
+	}
+
+	/**
+	 * Create a new adapter from a slice of a char[]. The array is used
+	 * directly and must not be modified while the adapter is in use.
+	 *
+	 * @param json
+	 * @param offset
+	 * @param length
+	 * @throws JSONObjectAdapterException
+	 */
+	public StreamingJSONArrayAdapter(char[] json, int offset, int length) throws JSONObjectAdapterException {
+		this(new JsonTokenReader(json, offset, length));
+	}
+
+	/**
+	 * Create a new adapter from a slice of UTF-8 encoded bytes.
+	 *
+	 * @param utf8
+	 * @param offset
+	 * @param length
+	 * @throws JSONObjectAdapterException
+	 */
+	public StreamingJSONArrayAdapter(byte[] utf8, int offset, int length) throws JSONObjectAdapterException {
+		this(new JsonTokenReader(utf8, offset, length));
+	}
+
+	private StreamingJSONArrayAdapter(JsonTokenReader reader) throws JSONObjectAdapterException {
+		super(reader, startOf(reader, JsonToken.BEGIN_ARRAY, "A JSONArray text must start with '['"));
+		indexNow();
+	}
+
+	/**
+	 * A nested array that will be indexed the first time it is used.
+	 *
+	 * @param source
+	 * @param start
+	 */
+	StreamingJSONArrayAdapter(JsonTokenReader source, int start) {
+		super(source, start);
+	}
+
+	@Override
+	void index(JsonTokenReader reader) throws JSONObjectAdapterException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			reader.peek();
+			int offset = reader.position();
+			reader.skipValue();
+			addEntry(null, offset, reader.position(), null);
+		}
+		reader.endArray();
+	}
+
+	@Override
+	void writeTo(JsonTokenWriter writer) throws JSONObjectAdapterException {
+		ensureIndexed();
+		writer.beginArray();
+		for (int i = 0; i < size; i++) {
+			writeEntry(writer, i);
+		}
+		writer.endArray();
+	}
+
+	@Override
+	String describe(int index) {
+		return "JSONArray[" + index + "]";
+	}
+
+	private int require(int index) throws JSONObjectAdapterException {
+		ensureIndexed();
+		if (index < 0 || index >= size) {
+			throw new JSONObjectAdapterException("JSONArray[" + index + "] not found.");
+		}
+		return index;
+	}
+
+	/**
+	 * Same as org.json, putting past the end of the array pads it with nulls.
+	 *
+	 * @param index
+	 * @param value
+	 * @return
+	 * @throws JSONObjectAdapterException
+	 */
+	private JSONArrayAdapter set(int index, Object value) throws JSONObjectAdapterException {
+		if (index < 0) {
+			throw new JSONObjectAdapterException("JSONArray[" + index + "] not found.");
+		}
+		ensureIndexed();
+		if (value == null) {
+			value = NULL;
+		}
+		if (index < size) {
+			offsets[index] = -1;
+			values[index] = value;
+		} else {
+			while (index > size) {
+				addEntry(null, -1, -1, NULL);
+			}
+			addEntry(null, -1, -1, value);
+		}
+		return this;
+	}
+
+	@Override
+	public boolean getBoolean(int index) throws JSONObjectAdapterException {
+		return booleanAt(require(index));
+	}
+
+	@Override
+	public double getDouble(int index) throws JSONObjectAdapterException {
+		return doubleAt(require(index));
+	}
+
+	@Override
+	public int getInt(int index) throws JSONObjectAdapterException {
+		return intAt(require(index));
+	}
+
+	@Override
+	public long getLong(int index) throws JSONObjectAdapterException {
+		return longAt(require(index));
+	}
+
+	@Override
+	public String getString(int index) throws JSONObjectAdapterException {
+		return stringAt(require(index));
+	}
+
+	@Override
+	public Date getDate(int index) throws JSONObjectAdapterException {
+		return new Date(getLong(index));
+	}
+
+	@Override
+	public byte[] getBinary(int index) throws JSONObjectAdapterException {
+		return binaryAt(require(index));
+	}
+
+	@Override
+	public JSONArrayAdapter getJSONArray(int index) throws JSONObjectAdapterException {
+		return arrayAt(require(index));
+	}
+
+	@Override
+	public JSONObjectAdapter getJSONObject(int index) throws JSONObjectAdapterException {
+		return objectAt(require(index));
+	}
+
+	@Override
+	public Object get(int index) throws JSONObjectAdapterException {
+		return valueAt(require(index));
+	}
+
+	@Override
+	public boolean isNull(int index) {
+		ensureIndexed();
+		return index < 0 || index >= size || isNullAt(index);
+	}
+
+	@Override
+	public int length() {
+		ensureIndexed();
+		return size;
+	}
+
+	@Override
+	public JSONArrayAdapter put(int index, JSONArrayAdapter value) throws JSONObjectAdapterException {
+		return set(index, toContainer(value));
+	}
+
+	@Override
+	public JSONArrayAdapter put(int index, JSONObjectAdapter value) throws JSONObjectAdapterException {
+		return set(index, toContainer(value));
+	}
+
+	@Override
+	public JSONArrayAdapter put(int index, String value) throws JSONObjectAdapterException {
+		return set(index, value);
+	}
+
+	@Override
+	public JSONArrayAdapter put(int index, Long value) throws JSONObjectAdapterException {
+		return set(index, value);
+	}
+
+	@Override
+	public JSONArrayAdapter put(int index, Double value) throws JSONObjectAdapterException {
+		return set(index, value == null ? null : doubleValue(value));
+	}
+
+	@Override
+	public JSONArrayAdapter put(int index, Boolean value) throws JSONObjectAdapterException {
+		return set(index, value);
+	}
+
+	@Override
+	public JSONArrayAdapter put(int index, Integer value) throws JSONObjectAdapterException {
+		return set(index, value);
+	}
+
+	@Override
+	public JSONArrayAdapter put(int index, Date date) throws JSONObjectAdapterException {
+		if (date == null) throw new IllegalArgumentException("Date cannot be null");
+		return set(index, date.getTime());
+	}
+
+	@Override
+	public JSONArrayAdapter put(int index, byte[] value) throws JSONObjectAdapterException {
+		return set(index, binaryValue(value));
+	}
+
+	@Override
+	public JSONArrayAdapter putNull(int index) throws JSONObjectAdapterException {
+		return set(index, NULL);
+	}
+}
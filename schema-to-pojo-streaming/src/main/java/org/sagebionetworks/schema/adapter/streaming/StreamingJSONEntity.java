@@ -0,0 +1,33 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import org.sagebionetworks.schema.adapter.JSONEntity;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+
+/**
+ * A JSONEntity that can also marshal itself directly to/from a stream of JSON
+ * tokens without building an intermediate JSONObjectAdapter.
+ *
+ */
+public interface StreamingJSONEntity extends JSONEntity {
+
+	public static final String READER_CANNOT_BE_NULL = JsonTokenReader.class.getName() + " cannot be null";
+	public static final String WRITER_CANNOT_BE_NULL = JsonTokenWriter.class.getName() + " cannot be null";
+
+	/**
+	 * Fully initialize this object from the next JSON object of the reader.
+	 * <p>
+	 * A value whose type is an interface is not read in a single pass: its
+	 * concrete type is only known from its concreteType property, so the
+	 * whole value is first read with {@link JsonTokenReader#nextJSONObjectAdapter()}
+	 * and then created from the register and initialized from that adapter.
+	 * @param reader
+	 */
+	public JsonTokenReader readFrom(JsonTokenReader reader) throws JSONObjectAdapterException;
+
+	/**
+	 * Fully write this object as the next JSON object of the writer.
+	 * @param writer
+	 */
+	public JsonTokenWriter writeTo(JsonTokenWriter writer) throws JSONObjectAdapterException;
+
+}
@@ -0,0 +1,283 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import java.util.Date;
+import java.util.Iterator;
+
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONMapAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+
+/**
+ * A JSONMapAdapter over an array of {"key":...,"value":...} pairs that reads
+ * directly from JSON text without building a DOM. Only the keys are decoded
+ * when the pairs are located, values are decoded when they are requested.
+ * <p>
+ * This class is not thread safe.
+ *
+ */
+public class StreamingJSONMapAdapter extends StreamingContainer implements JSONMapAdapter {
+
+	private static final String KEY = "key";
+	private static final String VALUE = "value";
+
+	public StreamingJSONMapAdapter() {
+		super(null, 0);
+	}
+
+	/**
+	 * Create a new adapter from a JSON string
+	 * @param json
+	 * @throws JSONObjectAdapterException
+	 */
+	public StreamingJSONMapAdapter(String json) throws JSONObjectAdapterException {
+		this(new JsonTokenReader(json));
+	}
+
+	/**
+	 * Create a new adapter from a slice of a char[]. The array is used
+	 * directly and must not be modified while the adapter is in use.
+	 *
+	 * @param json
+	 * @param offset
+	 * @param length
+	 * @throws JSONObjectAdapterException
+	 */
+	public StreamingJSONMapAdapter(char[] json, int offset, int length) throws JSONObjectAdapterException {
+		this(new JsonTokenReader(json, offset, length));
+	}
+
+	/**
+	 * Create a new adapter from a slice of UTF-8 encoded bytes.
+	 *
+	 * @param utf8
+	 * @param offset
+	 * @param length
+	 * @throws JSONObjectAdapterException
+	 */
+	public StreamingJSONMapAdapter(byte[] utf8, int offset, int length) throws JSONObjectAdapterException {
+		this(new JsonTokenReader(utf8, offset, length));
+	}
+
+	private StreamingJSONMapAdapter(JsonTokenReader reader) throws JSONObjectAdapterException {
+		super(reader, startOf(reader, JsonToken.BEGIN_ARRAY, "A JSONArray text must start with '['"));
+		indexNow();
+	}
+
+	/**
+	 * A nested map that will be indexed the first time it is used.
+	 *
+	 * @param source
+	 * @param start
+	 */
+	StreamingJSONMapAdapter(JsonTokenReader source, int start) {
+		super(source, start);
+	}
+
+	@Override
+	void index(JsonTokenReader reader) throws JSONObjectAdapterException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			Object key = null;
+			int offset = -1;
+			int end = -1;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String name = reader.nextName();
+				if (KEY.equals(name)) {
+					key = readKey(reader);
+				} else if (VALUE.equals(name)) {
+					reader.peek();
+					offset = reader.position();
+					reader.skipValue();
+					end = reader.position();
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			int index = indexOf(key);
+			if (index < 0) {
+				addEntry(key, offset, end, offset < 0 ? NULL : null);
+			} else {
+				offsets[index] = offset;
+				ends[index] = end;
+				values[index] = offset < 0 ? NULL : null;
+			}
+		}
+		reader.endArray();
+	}
+
+	private static Object readKey(JsonTokenReader reader) throws JSONObjectAdapterException {
+		switch (reader.peek()) {
+		case STRING:
+			return reader.nextString();
+		case NUMBER:
+			return reader.nextNumber();
+		case BOOLEAN:
+			return reader.nextBoolean();
+		case NULL:
+			reader.nextNull();
+			return null;
+		default:
+			throw new JSONObjectAdapterException("Map keys must be strings, numbers or booleans but was " + reader.peek());
+		}
+	}
+
+	@Override
+	void writeTo(JsonTokenWriter writer) throws JSONObjectAdapterException {
+		ensureIndexed();
+		writer.beginArray();
+		for (int i = 0; i < size; i++) {
+			writer.beginObject();
+			writer.name(KEY);
+			writeValue(writer, keys[i]);
+			writer.name(VALUE);
+			writeEntry(writer, i);
+			writer.endObject();
+		}
+		writer.endArray();
+	}
+
+	@Override
+	String describe(int index) {
+		return "JSONMap[" + keys[index] + "]";
+	}
+
+	private int require(Object key) throws JSONObjectAdapterException {
+		int index = indexOf(key);
+		if (index < 0) {
+			throw new JSONObjectAdapterException("JSONMap[" + key + "] not found.");
+		}
+		return index;
+	}
+
+	private JSONMapAdapter set(Object key, Object value) {
+		putEntry(key, value == null ? NULL : value);
+		return this;
+	}
+
+	@Override
+	public boolean getBoolean(Object key) throws JSONObjectAdapterException {
+		return booleanAt(require(key));
+	}
+
+	@Override
+	public double getDouble(Object key) throws JSONObjectAdapterException {
+		return doubleAt(require(key));
+	}
+
+	@Override
+	public int getInt(Object key) throws JSONObjectAdapterException {
+		return intAt(require(key));
+	}
+
+	@Override
+	public long getLong(Object key) throws JSONObjectAdapterException {
+		return longAt(require(key));
+	}
+
+	@Override
+	public String getString(Object key) throws JSONObjectAdapterException {
+		return stringAt(require(key));
+	}
+
+	@Override
+	public Date getDate(Object key) throws JSONObjectAdapterException {
+		return new Date(getLong(key));
+	}
+
+	@Override
+	public byte[] getBinary(Object key) throws JSONObjectAdapterException {
+		return binaryAt(require(key));
+	}
+
+	@Override
+	public JSONArrayAdapter getJSONArray(Object key) throws JSONObjectAdapterException {
+		return arrayAt(require(key));
+	}
+
+	@Override
+	public JSONObjectAdapter getJSONObject(Object key) throws JSONObjectAdapterException {
+		return objectAt(require(key));
+	}
+
+	@Override
+	public Object get(Object key) throws JSONObjectAdapterException {
+		return valueAt(require(key));
+	}
+
+	@Override
+	public boolean isNull(Object key) {
+		int index = indexOf(key);
+		return index < 0 || isNullAt(index);
+	}
+
+	@Override
+	public int length() {
+		ensureIndexed();
+		return size;
+	}
+
+	@Override
+	public Iterable<Object> keys() {
+		return new Iterable<Object>() {
+			@Override
+			public Iterator<Object> iterator() {
+				return keyIterator();
+			}
+		};
+	}
+
+	@Override
+	public JSONMapAdapter put(Object key, JSONArrayAdapter value) throws JSONObjectAdapterException {
+		return set(key, toContainer(value));
+	}
+
+	@Override
+	public JSONMapAdapter put(Object key, JSONObjectAdapter value) throws JSONObjectAdapterException {
+		return set(key, toContainer(value));
+	}
+
+	@Override
+	public JSONMapAdapter put(Object key, String value) throws JSONObjectAdapterException {
+		return set(key, value);
+	}
+
+	@Override
+	public JSONMapAdapter put(Object key, long value) throws JSONObjectAdapterException {
+		return set(key, value);
+	}
+
+	@Override
+	public JSONMapAdapter put(Object key, double value) throws JSONObjectAdapterException {
+		return set(key, doubleValue(value));
+	}
+
+	@Override
+	public JSONMapAdapter put(Object key, boolean value) throws JSONObjectAdapterException {
+		return set(key, value);
+	}
+
+	@Override
+	public JSONMapAdapter put(Object key, int value) throws JSONObjectAdapterException {
+		return set(key, value);
+	}
+
+	@Override
+	public JSONMapAdapter put(Object key, Date date) throws JSONObjectAdapterException {
+		if (date == null)
+			throw new IllegalArgumentException("Date cannot be null");
+		return set(key, date.getTime());
+	}
+
+	@Override
+	public JSONMapAdapter put(Object key, byte[] value) throws JSONObjectAdapterException {
+		return set(key, binaryValue(value));
+	}
+
+	@Override
+	public JSONMapAdapter putNull(Object key) throws JSONObjectAdapterException {
+		return set(key, NULL);
+	}
+}
@@ -0,0 +1,313 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Date;
+import java.util.Iterator;
+
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONMapAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.util.PatternCache;
+
+/**
+ * A JSONObjectAdapter that reads directly from JSON text without building a
+ * DOM. Members are only located the first time the object is used, and values
+ * are only decoded when they are requested.
+ * <p>
+ * This class is not thread safe.
+ *
+ */
+public class StreamingJSONObjectAdapter extends StreamingContainer implements JSONObjectAdapter {
+
+	public StreamingJSONObjectAdapter() {
+		super(null, 0);
+	}
+
+	/**
+	 * Create a new adapter from a JSON string
+	 * @param json
+	 * @throws JSONObjectAdapterException
+	 */
+	public StreamingJSONObjectAdapter(String json) throws JSONObjectAdapterException {
+		this(new JsonTokenReader(json));
+	}
+
+	/**
+	 * Create a new adapter from a slice of a char[]. The array is used
+	 * directly and must not be modified while the adapter is in use.
+	 *
+	 * @param json
+	 * @param offset
+	 * @param length
+	 * @throws JSONObjectAdapterException
+	 */
+	public StreamingJSONObjectAdapter(char[] json, int offset, int length) throws JSONObjectAdapterException {
+		this(new JsonTokenReader(json, offset, length));
+	}
+
+	/**
+	 * Create a new adapter from a slice of UTF-8 encoded bytes.
+	 *
+	 * @param utf8
+	 * @param offset
+	 * @param length
+	 * @throws JSONObjectAdapterException
+	 */
+	public StreamingJSONObjectAdapter(byte[] utf8, int offset, int length) throws JSONObjectAdapterException {
+		this(new JsonTokenReader(utf8, offset, length));
+	}
+
+	private StreamingJSONObjectAdapter(JsonTokenReader reader) throws JSONObjectAdapterException {
+		super(reader, startOf(reader, JsonToken.BEGIN_OBJECT, "A JSONObject text must begin with '{'"));
+		indexNow();
+	}
+
+	/**
+	 * A nested object that will be indexed the first time it is used.
+	 *
+	 * @param source
+	 * @param start
+	 */
+	StreamingJSONObjectAdapter(JsonTokenReader source, int start) {
+		super(source, start);
+	}
+
+	@Override
+	void index(JsonTokenReader reader) throws JSONObjectAdapterException {
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			reader.peek();
+			int offset = reader.position();
+			reader.skipValue();
+			int index = indexOf(name);
+			if (index < 0) {
+				addEntry(name, offset, reader.position(), null);
+			} else {
+				// the last value wins
+				offsets[index] = offset;
+				ends[index] = reader.position();
+			}
+		}
+		reader.endObject();
+	}
+
+	@Override
+	void writeTo(JsonTokenWriter writer) throws JSONObjectAdapterException {
+		ensureIndexed();
+		writer.beginObject();
+		for (int i = 0; i < size; i++) {
+			writer.name((String) keys[i]);
+			writeEntry(writer, i);
+		}
+		writer.endObject();
+	}
+
+	@Override
+	String describe(int index) {
+		return "JSONObject[\"" + keys[index] + "\"]";
+	}
+
+	private int require(String key) throws JSONObjectAdapterException {
+		if (key == null) throw new IllegalArgumentException("Key cannot be null");
+		int index = indexOf(key);
+		if (index < 0) {
+			throw new JSONObjectAdapterException("JSONObject[\"" + key + "\"] not found.");
+		}
+		return index;
+	}
+
+	private JSONObjectAdapter set(String key, Object value) {
+		if (key == null) throw new IllegalArgumentException("Key cannot be null");
+		putEntry(key, value);
+		return this;
+	}
+
+	@Override
+	public Iterator<String> keys() {
+		final Iterator<Object> it = keyIterator();
+		return new Iterator<String>() {
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			@Override
+			public String next() {
+				return (String) it.next();
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public Iterable<String> keySet() {
+		return new Iterable<String>() {
+			@Override
+			public Iterator<String> iterator() {
+				return StreamingJSONObjectAdapter.this.keys();
+			}
+		};
+	}
+
+	@Override
+	public Object get(String key) throws JSONObjectAdapterException {
+		return valueAt(require(key));
+	}
+
+	@Override
+	public String getString(String key) throws JSONObjectAdapterException {
+		return stringAt(require(key));
+	}
+
+	@Override
+	public long getLong(String key) throws JSONObjectAdapterException {
+		return longAt(require(key));
+	}
+
+	@Override
+	public boolean getBoolean(String key) throws JSONObjectAdapterException {
+		return booleanAt(require(key));
+	}
+
+	@Override
+	public double getDouble(String key) throws JSONObjectAdapterException {
+		return doubleAt(require(key));
+	}
+
+	@Override
+	public int getInt(String key) throws JSONObjectAdapterException {
+		return intAt(require(key));
+	}
+
+	@Override
+	public Date getDate(String key) throws JSONObjectAdapterException {
+		return new Date(getLong(key));
+	}
+
+	@Override
+	public byte[] getBinary(String key) throws JSONObjectAdapterException {
+		return binaryAt(require(key));
+	}
+
+	@Override
+	public JSONArrayAdapter getJSONArray(String key) throws JSONObjectAdapterException {
+		return arrayAt(require(key));
+	}
+
+	@Override
+	public JSONMapAdapter getJSONMap(String key) throws JSONObjectAdapterException {
+		return mapAt(require(key));
+	}
+
+	@Override
+	public JSONObjectAdapter getJSONObject(String key) throws JSONObjectAdapterException {
+		return objectAt(require(key));
+	}
+
+	@Override
+	public boolean has(String key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public boolean isNull(String key) {
+		int index = indexOf(key);
+		return index < 0 || isNullAt(index);
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, boolean value) throws JSONObjectAdapterException {
+		return set(key, value);
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, String value) throws JSONObjectAdapterException {
+		if (value == null) {
+			// Same as org.json, putting a null removes the key.
+			removeEntry(key);
+			return this;
+		}
+		return set(key, value);
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, double value) throws JSONObjectAdapterException {
+		return set(key, doubleValue(value));
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, int value) throws JSONObjectAdapterException {
+		return set(key, value);
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, long value) throws JSONObjectAdapterException {
+		return set(key, value);
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, Date date) throws JSONObjectAdapterException {
+		if(key == null) throw new IllegalArgumentException("Key cannot be null");
+		if(date == null) throw new IllegalArgumentException("Date cannot be null");
+		return put(key, date.getTime());
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, byte[] value) throws JSONObjectAdapterException {
+		return set(key, binaryValue(value));
+	}
+
+	@Override
+	public JSONObjectAdapter putNull(String key) throws JSONObjectAdapterException {
+		return set(key, NULL);
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, JSONObjectAdapter value) throws JSONObjectAdapterException {
+		return set(key, toContainer(value));
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, JSONArrayAdapter value) throws JSONObjectAdapterException {
+		return set(key, toContainer(value));
+	}
+
+	@Override
+	public JSONObjectAdapter put(String key, JSONMapAdapter value) throws JSONObjectAdapterException {
+		return set(key, toContainer(value));
+	}
+
+	/**
+	 * Method to validate a regular expression string against a pattern.
+	 */
+	@Override
+	public boolean validatePatternProperty(String pattern, String property) {
+		if (pattern == null){
+			throw new IllegalArgumentException("can not validatePatternProperty for property "
+					+ property + " because pattern is null");
+		}
+		if (property == null){
+			throw new IllegalArgumentException("can not validatePatternProperty for pattern "
+					+ pattern + "because property is null");
+		}
+		return PatternCache.getShared().matches(pattern, property);
+	}
+
+	@Override
+	public boolean validateURI(String uri) throws JSONObjectAdapterException {
+		try {
+			// Let Java validate the URI.
+			new URI(uri);
+			return true;
+		} catch (URISyntaxException e) {
+			throw new JSONObjectAdapterException(e);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+/**
+ * Minimal UTF-8 decoding that writes directly into a char[] so a byte payload
+ * can be tokenized without first creating a String.
+ *
+ */
+class Utf8 {
+
+	static final char REPLACEMENT = '\uFFFD';
+
+	/**
+	 * Decode the given UTF-8 bytes into the destination. Malformed input is
+	 * replaced with U+FFFD, the same as new String(bytes, "UTF-8").
+	 *
+	 * @param src
+	 * @param offset
+	 * @param length
+	 * @param dst
+	 *            Must have room for at least length characters.
+	 * @return The number of characters written.
+	 */
+	static int decode(byte[] src, int offset, int length, char[] dst) {
+		int end = offset + length;
+		int i = offset;
+		int count = 0;
+		// Fast path for ASCII
+		while (i < end && src[i] >= 0) {
+			dst[count++] = (char) src[i++];
+		}
+		while (i < end) {
+			int b = src[i++];
+			if (b >= 0) {
+				dst[count++] = (char) b;
+			} else if ((b & 0xE0) == 0xC0) {
+				if (i < end && isContinuation(src[i])) {
+					int c = ((b & 0x1F) << 6) | (src[i++] & 0x3F);
+					dst[count++] = c < 0x80 ? REPLACEMENT : (char) c;
+				} else {
+					dst[count++] = REPLACEMENT;
+				}
+			} else if ((b & 0xF0) == 0xE0) {
+				if (i + 1 < end && isContinuation(src[i]) && isContinuation(src[i + 1])) {
+					int c = ((b & 0x0F) << 12) | ((src[i++] & 0x3F) << 6) | (src[i++] & 0x3F);
+					dst[count++] = (c < 0x800 || Character.isSurrogate((char) c)) ? REPLACEMENT : (char) c;
+				} else {
+					dst[count++] = REPLACEMENT;
+				}
+			} else if ((b & 0xF8) == 0xF0) {
+				if (i + 2 < end && isContinuation(src[i]) && isContinuation(src[i + 1]) && isContinuation(src[i + 2])) {
+					int c = ((b & 0x07) << 18) | ((src[i++] & 0x3F) << 12) | ((src[i++] & 0x3F) << 6) | (src[i++] & 0x3F);
+					if (c < 0x10000 || c > Character.MAX_CODE_POINT) {
+						dst[count++] = REPLACEMENT;
+					} else {
+						dst[count++] = Character.highSurrogate(c);
+						dst[count++] = Character.lowSurrogate(c);
+					}
+				} else {
+					dst[count++] = REPLACEMENT;
+				}
+			} else {
+				dst[count++] = REPLACEMENT;
+			}
+		}
+		return count;
+	}
+
+	private static boolean isContinuation(byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+}
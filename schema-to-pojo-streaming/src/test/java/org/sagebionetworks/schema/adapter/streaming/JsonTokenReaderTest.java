@@ -0,0 +1,223 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.binary.Base64Codec;
+
+public class JsonTokenReaderTest {
+
+	@Test
+	public void testTokens() throws JSONObjectAdapterException {
+		JsonTokenReader reader = new JsonTokenReader(" {\"a\": [1, -2.5, true, null], \"b\" : {\"c\":\"d\"}} ");
+		assertEquals(JsonToken.BEGIN_OBJECT, reader.peek());
+		reader.beginObject();
+		assertEquals("a", reader.nextName());
+		reader.beginArray();
+		assertEquals(1L, reader.nextLong());
+		assertEquals(-2.5d, reader.nextDouble());
+		assertTrue(reader.nextBoolean());
+		assertEquals(JsonToken.NULL, reader.peek());
+		reader.nextNull();
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		assertEquals("b", reader.nextName());
+		reader.beginObject();
+		assertEquals("c", reader.nextName());
+		assertEquals("d", reader.nextString());
+		reader.endObject();
+		reader.endObject();
+		assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+	}
+
+	@Test
+	public void testEscapes() throws JSONObjectAdapterException {
+		JsonTokenReader reader = new JsonTokenReader("[\"a\\\"b\\\\c\\/d\\n\\u00e9\\ud83d\\ude00\"]");
+		reader.beginArray();
+		assertEquals("a\"b\\c/d\n\u00e9\ud83d\ude00", reader.nextString());
+		reader.endArray();
+	}
+
+	@Test
+	public void testNumbers() throws JSONObjectAdapterException {
+		JsonTokenReader reader = new JsonTokenReader("[9223372036854775807, 1.5e3, 3.7, \"42\", \"NaN\", 12345678901234567890]");
+		reader.beginArray();
+		assertEquals(Long.MAX_VALUE, reader.nextLong());
+		assertEquals(1500d, reader.nextDouble());
+		// fractions are truncated like org.json
+		assertEquals(3L, reader.nextLong());
+		assertEquals(42L, reader.nextLong());
+		assertTrue(Double.isNaN(reader.nextDouble()));
+		assertEquals(1.2345678901234567E19, reader.nextDouble());
+		reader.endArray();
+	}
+
+	@Test
+	public void testNextNumber() throws JSONObjectAdapterException {
+		JsonTokenReader reader = new JsonTokenReader("[1, 3000000000, 1.5]");
+		reader.beginArray();
+		assertEquals(Integer.valueOf(1), reader.nextNumber());
+		assertEquals(Long.valueOf(3000000000L), reader.nextNumber());
+		assertEquals(Double.valueOf(1.5), reader.nextNumber());
+		reader.endArray();
+	}
+
+	@Test
+	public void testNameCache() throws JSONObjectAdapterException {
+		JsonTokenReader reader = new JsonTokenReader("[{\"name\":1},{\"name\":2}]");
+		reader.beginArray();
+		reader.beginObject();
+		String first = reader.nextName();
+		reader.skipValue();
+		reader.endObject();
+		reader.beginObject();
+		String second = reader.nextName();
+		assertSame(first, second);
+	}
+
+	@Test
+	public void testSkipValue() throws JSONObjectAdapterException {
+		JsonTokenReader reader = new JsonTokenReader("{\"skip\":{\"a\":[1,{\"b\":\"}\"}]},\"keep\":true}");
+		reader.beginObject();
+		assertEquals("skip", reader.nextName());
+		reader.skipValue();
+		assertEquals("keep", reader.nextName());
+		assertTrue(reader.nextBoolean());
+		reader.endObject();
+	}
+
+	@Test
+	public void testMultipleTopLevelValues() throws JSONObjectAdapterException {
+		JsonTokenReader reader = new JsonTokenReader("{\"a\":1}\n{\"a\":2}\n");
+		int count = 0;
+		while (reader.peek() != JsonToken.END_DOCUMENT) {
+			reader.beginObject();
+			reader.nextName();
+			assertEquals(++count, reader.nextInt());
+			reader.endObject();
+		}
+		assertEquals(2, count);
+	}
+
+	@Test
+	public void testUtf8() throws JSONObjectAdapterException {
+		byte[] bytes = "xx{\"k\":\"caf\u00e9 \u4e2d \ud83d\ude00\"}".getBytes(StandardCharsets.UTF_8);
+		JsonTokenReader reader = new JsonTokenReader(bytes, 2, bytes.length - 2);
+		reader.beginObject();
+		assertEquals("k", reader.nextName());
+		assertEquals("caf\u00e9 \u4e2d \ud83d\ude00", reader.nextString());
+		reader.endObject();
+	}
+
+	@Test
+	public void testNextBinary() throws JSONObjectAdapterException {
+		// org.json escapes the slash of "</", so a base64 string may have escapes
+		JsonTokenReader reader = new JsonTokenReader("[\"AQ==\", \"P\\/8=\", 1]");
+		reader.beginArray();
+		assertArrayEquals(new byte[] { 1 }, reader.nextBinary());
+		assertArrayEquals(new byte[] { 63, -1 }, reader.nextBinary());
+		assertThrows(JSONObjectAdapterException.class, () -> reader.nextBinary());
+	}
+
+	@Test
+	public void testNextBinaryRefill() throws JSONObjectAdapterException {
+		byte[] data = new byte[10000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+		String json = "[\"" + Base64Codec.encodeToString(data) + "\"]";
+		JsonTokenReader reader = new JsonTokenReader(new StringReader(json));
+		reader.beginArray();
+		assertArrayEquals(data, reader.nextBinary());
+		reader.endArray();
+	}
+
+	@Test
+	public void testReaderRefill() throws JSONObjectAdapterException {
+		// Large enough that strings, numbers and names cross buffer boundaries.
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < 2000; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append("{\"name").append(i).append("\":\"value\\t").append(i).append("\",\"n\":").append(i * 1000003L).append('}');
+		}
+		builder.append(']');
+		JsonTokenReader reader = new JsonTokenReader(new StringReader(builder.toString()));
+		reader.beginArray();
+		for (int i = 0; i < 2000; i++) {
+			reader.beginObject();
+			assertEquals("name" + i, reader.nextName());
+			assertEquals("value\t" + i, reader.nextString());
+			assertEquals("n", reader.nextName());
+			assertEquals(i * 1000003L, reader.nextLong());
+			reader.endObject();
+		}
+		reader.endArray();
+		assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+	}
+
+	@Test
+	public void testNextRawValueFromReader() throws JSONObjectAdapterException {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < 500; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append("{\"index\":").append(i).append(",\"padding\":\"0123456789012345678901234567890123456789\"}");
+		}
+		builder.append(']');
+		JsonTokenReader reader = new JsonTokenReader(new StringReader(builder.toString()));
+		reader.beginArray();
+		for (int i = 0; i < 500; i++) {
+			char[] raw = reader.nextRawValue();
+			assertEquals("{\"index\":" + i + ",\"padding\":\"0123456789012345678901234567890123456789\"}", new String(raw));
+		}
+		reader.endArray();
+	}
+
+	@Test
+	public void testNextJSONObjectAdapter() throws JSONObjectAdapterException {
+		JsonTokenReader reader = new JsonTokenReader("[{\"a\":{\"b\":2}},{\"a\":{\"b\":3}}]");
+		reader.beginArray();
+		JSONObjectAdapter first = reader.nextJSONObjectAdapter();
+		JSONObjectAdapter second = reader.nextJSONObjectAdapter();
+		reader.endArray();
+		assertEquals(2, first.getJSONObject("a").getLong("b"));
+		assertEquals(3, second.getJSONObject("a").getLong("b"));
+	}
+
+	@Test
+	public void testSyntaxError() {
+		JsonTokenReader reader = new JsonTokenReader("{\"a\" 1}");
+		String message = assertThrows(JSONObjectAdapterException.class, () -> {
+			reader.beginObject();
+			reader.nextName();
+			reader.nextLong();
+		}).getMessage();
+		assertEquals("Expected ':' at character 6", message);
+	}
+
+	@Test
+	public void testUnterminatedString() {
+		JsonTokenReader reader = new JsonTokenReader("[\"abc");
+		assertThrows(JSONObjectAdapterException.class, () -> {
+			reader.beginArray();
+			reader.nextString();
+		});
+	}
+
+	@Test
+	public void testWrongType() {
+		JsonTokenReader reader = new JsonTokenReader("[1]");
+		String message = assertThrows(JSONObjectAdapterException.class, () -> {
+			reader.beginObject();
+		}).getMessage();
+		assertEquals("Expected BEGIN_OBJECT but was BEGIN_ARRAY at character 1", message);
+	}
+}
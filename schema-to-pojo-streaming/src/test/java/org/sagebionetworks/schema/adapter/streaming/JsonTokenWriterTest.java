@@ -0,0 +1,98 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.binary.Base64Codec;
+
+public class JsonTokenWriterTest {
+
+	@Test
+	public void testWriteObject() throws JSONObjectAdapterException {
+		StringBuilder builder = new StringBuilder();
+		JsonTokenWriter writer = new JsonTokenWriter(builder);
+		writer.beginObject();
+		writer.name("string").value("a\"b");
+		writer.name("long").value(-123L);
+		writer.name("double").value(1.5);
+		writer.name("wholeDouble").value(2.0);
+		writer.name("bigDouble").value(1.0e10);
+		writer.name("boolean").value(true);
+		writer.name("null").nullValue();
+		writer.name("array").beginArray().value(1).value("two").beginObject().endObject().endArray();
+		writer.endObject();
+		writer.flush();
+		assertEquals("{\"string\":\"a\\\"b\",\"long\":-123,\"double\":1.5,\"wholeDouble\":2,\"bigDouble\":1.0E10,"
+				+ "\"boolean\":true,\"null\":null,\"array\":[1,\"two\",{}]}", builder.toString());
+	}
+
+	@Test
+	public void testEscaping() throws JSONObjectAdapterException {
+		StringBuilder builder = new StringBuilder();
+		JsonTokenWriter writer = new JsonTokenWriter(builder);
+		writer.value("</script>\t\u0001\u2028\u00e9");
+		writer.flush();
+		assertEquals("\"<\\/script>\\t\\u0001\\u2028\u00e9\"", builder.toString());
+	}
+
+	@Test
+	public void testBinaryValue() throws JSONObjectAdapterException {
+		byte[] data = new byte[100];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 7);
+		}
+		StringWriter out = new StringWriter();
+		// smaller than the encoded data, which is written in several parts
+		JsonTokenWriter writer = new JsonTokenWriter(out, 17);
+		writer.beginArray().binaryValue(data).binaryValue(new byte[] { 1 }).binaryValue(null).endArray();
+		writer.flush();
+		assertEquals("[\"" + Base64Codec.encodeToString(data) + "\",\"AQ==\",null]", out.toString());
+	}
+
+	@Test
+	public void testNaN() throws JSONObjectAdapterException {
+		StringBuilder builder = new StringBuilder();
+		JsonTokenWriter writer = new JsonTokenWriter(builder);
+		writer.beginArray().value(Double.NaN).value(Double.NEGATIVE_INFINITY).value(Long.MIN_VALUE).endArray();
+		writer.flush();
+		assertEquals("[\"NaN\",\"-Infinity\",-9223372036854775808]", builder.toString());
+	}
+
+	@Test
+	public void testBufferSmallerThanOutput() throws JSONObjectAdapterException {
+		StringWriter out = new StringWriter();
+		JsonTokenWriter writer = new JsonTokenWriter(out, 16);
+		StringBuilder expected = new StringBuilder("[");
+		writer.beginArray();
+		for (int i = 0; i < 100; i++) {
+			writer.value("value number " + i);
+			expected.append(i > 0 ? "," : "").append("\"value number ").append(i).append('"');
+		}
+		writer.endArray();
+		expected.append(']');
+		writer.flush();
+		assertEquals(expected.toString(), out.toString());
+	}
+
+	@Test
+	public void testTopLevelValuesOnSeparateLines() throws JSONObjectAdapterException {
+		StringBuilder builder = new StringBuilder();
+		JsonTokenWriter writer = new JsonTokenWriter(builder);
+		writer.beginObject().endObject();
+		writer.beginObject().endObject();
+		writer.flush();
+		assertEquals("{}\n{}", builder.toString());
+	}
+
+	@Test
+	public void testNestingProblem() throws JSONObjectAdapterException {
+		JsonTokenWriter writer = new JsonTokenWriter(new StringBuilder());
+		writer.beginObject();
+		assertThrows(IllegalStateException.class, () -> {
+			writer.value("missing name");
+		});
+	}
+}
@@ -0,0 +1,66 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.Utf8AdapterFactory;
+
+public class StreamingAdapterFactoryTest {
+
+	Utf8AdapterFactory factory = new StreamingAdapterFactory();
+
+	@Test
+	public void testCreateNewFromBuffers() throws JSONObjectAdapterException {
+		byte[] json = "xx{\"name\":\"caf\u00e9\",\"list\":[1,2]}yy".getBytes(StandardCharsets.UTF_8);
+		int length = json.length - 4;
+		assertEquals("caf\u00e9", factory.createNew(json, 2, length).getString("name"));
+		ByteBuffer heap = ByteBuffer.wrap(json, 2, length);
+		assertEquals("caf\u00e9", factory.createNew(heap).getString("name"));
+		assertEquals(2, heap.position());
+		ByteBuffer direct = ByteBuffer.allocateDirect(length);
+		direct.put(json, 2, length).flip();
+		JSONObjectAdapter fromDirect = factory.createNew(direct);
+		assertEquals("caf\u00e9", fromDirect.getString("name"));
+		assertEquals(2, fromDirect.getJSONArray("list").length());
+		assertEquals(0, direct.position());
+	}
+
+	@Test
+	public void testCreateNewFromStreams() throws JSONObjectAdapterException {
+		// larger than the initial read buffer
+		char[] filler = new char[20000];
+		Arrays.fill(filler, '\u00e9');
+		String value = new String(filler);
+		String json = "{\"name\":\"" + value + "\"}";
+		assertEquals(value, factory.createNew(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))).getString("name"));
+		assertEquals(value, factory.createNew(new StringReader(json)).getString("name"));
+	}
+
+	@Test
+	public void testCreateNewArrayAndMap() throws JSONObjectAdapterException {
+		byte[] array = "[\"a\",\"b\"]".getBytes(StandardCharsets.UTF_8);
+		JSONArrayAdapter fromStream = factory.createNewArray(new ByteArrayInputStream(array));
+		assertEquals("b", fromStream.getString(1));
+		assertEquals("b", factory.createNewArray(ByteBuffer.wrap(array)).getString(1));
+		assertEquals("b", factory.createNewArray(new StringReader("[\"a\",\"b\"]")).getString(1));
+		byte[] map = "[{\"key\":\"k\",\"value\":\"v\"}]".getBytes(StandardCharsets.UTF_8);
+		assertEquals("v", factory.createNewMap(map, 0, map.length).getString("k"));
+		assertEquals("v", factory.createNewMap(new ByteArrayInputStream(map)).getString("k"));
+	}
+
+	@Test
+	public void testCreateNewMalformed() {
+		assertThrows(JSONObjectAdapterException.class, () -> {
+			factory.createNew(new ByteArrayInputStream("[1]".getBytes(StandardCharsets.UTF_8)));
+		});
+	}
+}
@@ -0,0 +1,71 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+
+public class StreamingJSONArrayAdapterTest {
+
+	JSONArrayAdapter adapter;
+
+	@BeforeEach
+	public void before() {
+		adapter = new StreamingJSONArrayAdapter();
+	}
+
+	@Test
+	public void testRoundTrip() throws JSONObjectAdapterException {
+		adapter.put(0, "string");
+		adapter.put(1, 123L);
+		adapter.put(2, 1.5);
+		adapter.put(3, Boolean.TRUE);
+		adapter.put(4, 7);
+		adapter.put(5, new Date(1000));
+		adapter.putNull(6);
+		adapter.put(7, adapter.createNew().put("a", 1));
+		assertEquals(8, adapter.length());
+		JSONArrayAdapter parsed = adapter.createNewArray(adapter.toJSONString());
+		assertEquals(8, parsed.length());
+		assertEquals("string", parsed.getString(0));
+		assertEquals(123L, parsed.getLong(1));
+		assertEquals(1.5, parsed.getDouble(2));
+		assertTrue(parsed.getBoolean(3));
+		assertEquals(7, parsed.getInt(4));
+		assertEquals(new Date(1000), parsed.getDate(5));
+		assertTrue(parsed.isNull(6));
+		assertEquals(1, parsed.getJSONObject(7).getLong("a"));
+	}
+
+	@Test
+	public void testPutPastEnd() throws JSONObjectAdapterException {
+		adapter.put(2, "c");
+		assertEquals(3, adapter.length());
+		assertTrue(adapter.isNull(0));
+		assertEquals("[null,null,\"c\"]", adapter.toJSONString());
+	}
+
+	@Test
+	public void testLazyNestedArrays() throws JSONObjectAdapterException {
+		JSONArrayAdapter parsed = new StreamingJSONArrayAdapter("[[1,[2,3]],[],\"x\"]");
+		assertEquals(3, parsed.length());
+		JSONArrayAdapter first = parsed.getJSONArray(0);
+		assertEquals(2, first.length());
+		assertEquals(3, first.getJSONArray(1).getLong(1));
+		assertEquals(0, parsed.getJSONArray(1).length());
+		assertEquals("x", parsed.get(2));
+	}
+
+	@Test
+	public void testIndexOutOfRange() {
+		String message = assertThrows(JSONObjectAdapterException.class, () -> {
+			adapter.getString(0);
+		}).getMessage();
+		assertEquals("JSONArray[0] not found.", message);
+		assertTrue(adapter.isNull(5));
+	}
+}
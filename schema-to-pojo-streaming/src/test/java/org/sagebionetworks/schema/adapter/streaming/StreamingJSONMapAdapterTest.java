@@ -0,0 +1,54 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.adapter.JSONMapAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+
+public class StreamingJSONMapAdapterTest {
+
+	@Test
+	public void testRoundTrip() throws JSONObjectAdapterException {
+		JSONMapAdapter adapter = new StreamingJSONMapAdapter();
+		adapter.put("string", "value");
+		adapter.put(1L, 2L);
+		adapter.put("object", adapter.createNew().put("a", true));
+		adapter.putNull("null");
+		assertEquals(4, adapter.length());
+		String json = adapter.toJSONString();
+		assertEquals("[{\"key\":\"string\",\"value\":\"value\"},{\"key\":1,\"value\":2},"
+				+ "{\"key\":\"object\",\"value\":{\"a\":true}},{\"key\":\"null\",\"value\":null}]", json);
+		JSONMapAdapter parsed = adapter.createNewMap(json);
+		assertEquals(4, parsed.length());
+		assertEquals("value", parsed.getString("string"));
+		// Same as org.json, small numbers are read back as Integers.
+		assertEquals(2L, parsed.getLong(1));
+		assertTrue(parsed.getJSONObject("object").getBoolean("a"));
+		assertTrue(parsed.isNull("null"));
+		assertTrue(parsed.isNull("missing"));
+	}
+
+	@Test
+	public void testKeysInOrder() throws JSONObjectAdapterException {
+		JSONMapAdapter parsed = new StreamingJSONMapAdapter("[{\"key\":\"b\",\"value\":1},{\"value\":2,\"key\":\"a\"}]");
+		List<Object> keys = new ArrayList<Object>();
+		for (Object key : parsed.keys()) {
+			keys.add(key);
+		}
+		assertEquals(Arrays.asList("b", "a"), keys);
+		assertEquals(2, parsed.getInt("a"));
+	}
+
+	@Test
+	public void testMissingKey() {
+		JSONMapAdapter adapter = new StreamingJSONMapAdapter();
+		assertThrows(JSONObjectAdapterException.class, () -> {
+			adapter.getString("missing");
+		});
+	}
+}
@@ -0,0 +1,202 @@
+package org.sagebionetworks.schema.adapter.streaming;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.schema.FORMAT;
+import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
+import org.sagebionetworks.schema.adapter.JSONMapAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+
+public class StreamingJSONObjectAdapterTest {
+
+	JSONObjectAdapter adapter;
+	String propertyKey;
+
+	@BeforeEach
+	public void before() {
+		adapter = new StreamingJSONObjectAdapter();
+		propertyKey = "propKey";
+	}
+
+	@Test
+	public void testLongRoundTrip() throws JSONObjectAdapterException {
+		long value = 123;
+		adapter.put(propertyKey, value);
+		assertTrue(adapter.has(propertyKey));
+		assertEquals(value, adapter.getLong(propertyKey));
+		assertEquals(value, adapter.get(propertyKey));
+		assertEquals(value, adapter.createNew(adapter.toJSONString()).getLong(propertyKey));
+	}
+
+	@Test
+	public void testStringRoundTrip() throws JSONObjectAdapterException {
+		String value = "some \"quoted\" string";
+		adapter.put(propertyKey, value);
+		assertEquals(value, adapter.getString(propertyKey));
+		assertEquals(value, adapter.createNew(adapter.toJSONString()).getString(propertyKey));
+	}
+
+	@Test
+	public void testPutNullStringRemoves() throws JSONObjectAdapterException {
+		adapter.put(propertyKey, "value");
+		adapter.put(propertyKey, (String) null);
+		assertFalse(adapter.has(propertyKey));
+	}
+
+	@Test
+	public void testNullRoundTrip() throws JSONObjectAdapterException {
+		adapter.putNull(propertyKey);
+		assertTrue(adapter.has(propertyKey));
+		assertTrue(adapter.isNull(propertyKey));
+		assertNull(adapter.get(propertyKey));
+		JSONObjectAdapter parsed = adapter.createNew(adapter.toJSONString());
+		assertTrue(parsed.has(propertyKey));
+		assertTrue(parsed.isNull(propertyKey));
+	}
+
+	@Test
+	public void testDoubleNaNRoundTrip() throws JSONObjectAdapterException {
+		adapter.put(propertyKey, Double.NaN);
+		assertTrue(Double.isNaN(adapter.getDouble(propertyKey)));
+		assertTrue(Double.isNaN(adapter.createNew(adapter.toJSONString()).getDouble(propertyKey)));
+	}
+
+	@Test
+	public void testBinaryRoundTrip() throws JSONObjectAdapterException {
+		byte[] value = "binary data".getBytes(StandardCharsets.UTF_8);
+		adapter.put(propertyKey, value);
+		assertArrayEquals(value, adapter.getBinary(propertyKey));
+		assertArrayEquals(value, adapter.createNew(adapter.toJSONString()).getBinary(propertyKey));
+		assertEquals("YmluYXJ5IGRhdGE=", adapter.getString(propertyKey));
+		assertEquals("YmluYXJ5IGRhdGE=", adapter.get(propertyKey));
+		// the bytes were copied when they were put
+		value[0] = 'B';
+		assertEquals('b', adapter.getBinary(propertyKey)[0]);
+		adapter.getBinary(propertyKey)[0] = 'B';
+		assertEquals("{\"propKey\":\"YmluYXJ5IGRhdGE=\"}", adapter.toJSONString());
+	}
+
+	@Test
+	public void testDateRoundTrip() throws JSONObjectAdapterException {
+		Date value = new Date(1296284400501L);
+		adapter.put(propertyKey, value);
+		assertEquals(value, adapter.getDate(propertyKey));
+		String dateString = adapter.convertDateToString(FORMAT.DATE_TIME, value);
+		assertEquals(value, adapter.convertStringToDate(FORMAT.DATE_TIME, dateString));
+		assertEquals(new Date(1296284400501L), adapter.convertStringToDate(FORMAT.DATE_TIME, "2011-01-29T00:00:00.501-07:00"));
+		assertEquals(new Date(1296284400501L), adapter.convertStringToDate(FORMAT.DATE_TIME, "2011-01-29T07:00:00.501Z"));
+	}
+
+	@Test
+	public void testParse() throws JSONObjectAdapterException {
+		String json = "{\"string\":\"a\\nb\",\"int\":12,\"long\":3000000000,\"double\":1.5,\"boolean\":true,"
+				+ "\"null\":null,\"object\":{\"inner\":[1,2]},\"array\":[\"x\",{\"y\":1}],"
+				+ "\"map\":[{\"key\":\"k\",\"value\":\"v\"}]}";
+		JSONObjectAdapter parsed = new StreamingJSONObjectAdapter(json);
+		assertEquals("a\nb", parsed.getString("string"));
+		assertEquals(12, parsed.getInt("int"));
+		assertEquals(Integer.valueOf(12), parsed.get("int"));
+		assertEquals(Long.valueOf(3000000000L), parsed.get("long"));
+		assertEquals(1.5, parsed.getDouble("double"));
+		assertTrue(parsed.getBoolean("boolean"));
+		assertTrue(parsed.isNull("null"));
+		assertTrue(parsed.isNull("doesNotExist"));
+		assertFalse(parsed.has("doesNotExist"));
+		JSONObjectAdapter object = parsed.getJSONObject("object");
+		assertEquals(2, object.getJSONArray("inner").getLong(1));
+		JSONArrayAdapter array = parsed.getJSONArray("array");
+		assertEquals(2, array.length());
+		assertEquals("x", array.getString(0));
+		assertEquals(1, array.getJSONObject(1).getLong("y"));
+		JSONMapAdapter map = parsed.getJSONMap("map");
+		assertEquals("v", map.getString("k"));
+		// Nothing was changed so the JSON should be unchanged.
+		assertEquals(json, parsed.toJSONString());
+	}
+
+	@Test
+	public void testKeyOrder() throws JSONObjectAdapterException {
+		JSONObjectAdapter parsed = new StreamingJSONObjectAdapter("{\"c\":1,\"a\":2,\"b\":3}");
+		List<String> keys = new ArrayList<String>();
+		for (String key : parsed.keySet()) {
+			keys.add(key);
+		}
+		assertEquals(Arrays.asList("c", "a", "b"), keys);
+	}
+
+	@Test
+	public void testManyKeys() throws JSONObjectAdapterException {
+		for (int i = 0; i < 100; i++) {
+			adapter.put("key" + i, i);
+		}
+		JSONObjectAdapter parsed = adapter.createNew(adapter.toJSONString());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, parsed.getInt("key" + i));
+		}
+	}
+
+	@Test
+	public void testModifyParsed() throws JSONObjectAdapterException {
+		JSONObjectAdapter parsed = new StreamingJSONObjectAdapter("{\"a\":1,\"b\":{\"c\":2}}");
+		parsed.put("a", "changed");
+		parsed.put("d", true);
+		assertEquals("{\"a\":\"changed\",\"b\":{\"c\":2},\"d\":true}", parsed.toJSONString());
+	}
+
+	@Test
+	public void testNestedAdapterRoundTrip() throws JSONObjectAdapterException {
+		JSONObjectAdapter child = adapter.createNew();
+		child.put("someValue", 123);
+		JSONArrayAdapter array = adapter.createNewArray();
+		array.put(0, "one");
+		array.put(2, 3L);
+		adapter.put("child", child);
+		adapter.put("array", array);
+		assertEquals("{\"child\":{\"someValue\":123},\"array\":[\"one\",null,3]}", adapter.toJSONString());
+		assertEquals(child.toJSONString(), adapter.getJSONObject("child").toJSONString());
+	}
+
+	@Test
+	public void testMissingKey() {
+		String message = assertThrows(JSONObjectAdapterException.class, () -> {
+			adapter.getString("missing");
+		}).getMessage();
+		assertEquals("JSONObject[\"missing\"] not found.", message);
+	}
+
+	@Test
+	public void testWrongType() throws JSONObjectAdapterException {
+		JSONObjectAdapter parsed = new StreamingJSONObjectAdapter("{\"a\":\"not a number\"}");
+		assertThrows(JSONObjectAdapterException.class, () -> {
+			parsed.getLong("a");
+		});
+		assertThrows(JSONObjectAdapterException.class, () -> {
+			parsed.getJSONObject("a");
+		});
+	}
+
+	@Test
+	public void testInvalidJSON() {
+		assertThrows(JSONObjectAdapterException.class, () -> {
+			new StreamingJSONObjectAdapter("[]");
+		});
+		assertThrows(JSONObjectAdapterException.class, () -> {
+			new StreamingJSONObjectAdapter("{\"a\":{\"b\":}}");
+		});
+	}
+
+	@Test
+	public void testValidatePatternProperty() {
+		assertTrue(adapter.validatePatternProperty("a*b", "aaab"));
+		assertFalse(adapter.validatePatternProperty("a*b", "aaac"));
+	}
+}